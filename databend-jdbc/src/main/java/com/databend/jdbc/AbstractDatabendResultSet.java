@@ -7,6 +7,7 @@ import com.databend.jdbc.internal.data.IntervalCodec;
 import com.databend.jdbc.internal.error.QueryError;
 import com.databend.jdbc.internal.query.QueryResults;
 import com.databend.jdbc.internal.query.QueryRowField;
+import com.databend.jdbc.internal.query.ResultPage;
 import com.databend.jdbc.annotation.NotImplemented;
 import com.databend.jdbc.exception.DatabendSQLException;
 import com.google.common.collect.ImmutableList;
@@ -73,6 +74,7 @@ abstract class AbstractDatabendResultSet implements ResultSet {
     // Index into 'rows' of our current row (1-based)
     private final AtomicLong currentRowNumber = new AtomicLong();
     private final AtomicBoolean wasNull = new AtomicBoolean();
+    private final List<QueryRowField> schema;
     private final Map<String, Integer> fieldMap;
     private final List<DatabendColumnInfo> databendColumnInfoList;
     private final ResultSetMetaData resultSetMetaData;
@@ -83,6 +85,7 @@ abstract class AbstractDatabendResultSet implements ResultSet {
 
     AbstractDatabendResultSet(Optional<Statement> statement, List<QueryRowField> schema, ResultCursor results, Map<String, String> resultSetting, String queryId) {
         this.statement = requireNonNull(statement, "statement is null");
+        this.schema = schema;
         this.fieldMap = getFieldMap(schema);
         this.databendColumnInfoList = getColumnInfo(schema);
         this.results = requireNonNull(results, "results is null");
@@ -101,6 +104,10 @@ abstract class AbstractDatabendResultSet implements ResultSet {
         this.queryId = queryId;
     }
 
+    List<QueryRowField> getSchema() {
+        return schema;
+    }
+
     private static Map<String, Integer> getFieldMap(List<QueryRowField> columns) {
         Map<String, Integer> map = Maps.newHashMapWithExpectedSize(columns.size());
         for (int i = 0; i < columns.size(); i++) {
@@ -277,6 +284,24 @@ abstract class AbstractDatabendResultSet implements ResultSet {
         return value;
     }
 
+    /**
+     * Resolves how the column can be read without boxing. For primitive columns the null flag is
+     * updated here, callers only read the value through the cursor when {@link #wasNull()} is false.
+     */
+    private ResultPage.PrimitiveKind primitiveColumn(int index)
+            throws SQLException {
+        checkOpen();
+        checkValidRow();
+        if ((index <= 0) || (index > resultSetMetaData.getColumnCount())) {
+            throw new SQLException("Invalid column index: " + index);
+        }
+        ResultPage.PrimitiveKind kind = results.getPrimitiveKind(index - 1);
+        if (kind != ResultPage.PrimitiveKind.NONE) {
+            wasNull.set(results.isNull(index - 1));
+        }
+        return kind;
+    }
+
     @Override
     public String getString(int columnIndex)
             throws SQLException {
@@ -343,6 +368,13 @@ abstract class AbstractDatabendResultSet implements ResultSet {
     @Override
     public int getInt(int columnIndex)
             throws SQLException {
+        ResultPage.PrimitiveKind kind = primitiveColumn(columnIndex);
+        if (kind == ResultPage.PrimitiveKind.LONG) {
+            return wasNull.get() ? 0 : (int) results.getLong(columnIndex - 1);
+        }
+        if (kind == ResultPage.PrimitiveKind.DOUBLE) {
+            return wasNull.get() ? 0 : (int) results.getDouble(columnIndex - 1);
+        }
         Object value = column(columnIndex);
         if (value == null) {
             return 0;
@@ -363,6 +395,13 @@ abstract class AbstractDatabendResultSet implements ResultSet {
     @Override
     public long getLong(int columnIndex)
             throws SQLException {
+        ResultPage.PrimitiveKind kind = primitiveColumn(columnIndex);
+        if (kind == ResultPage.PrimitiveKind.LONG) {
+            return wasNull.get() ? 0 : results.getLong(columnIndex - 1);
+        }
+        if (kind == ResultPage.PrimitiveKind.DOUBLE) {
+            return wasNull.get() ? 0 : (long) results.getDouble(columnIndex - 1);
+        }
         Object value = column(columnIndex);
         if (value == null) {
             return 0;
@@ -382,6 +421,13 @@ abstract class AbstractDatabendResultSet implements ResultSet {
     @Override
     public float getFloat(int columnIndex)
             throws SQLException {
+        ResultPage.PrimitiveKind kind = primitiveColumn(columnIndex);
+        if (kind == ResultPage.PrimitiveKind.LONG) {
+            return wasNull.get() ? 0 : (float) results.getLong(columnIndex - 1);
+        }
+        if (kind == ResultPage.PrimitiveKind.DOUBLE) {
+            return wasNull.get() ? 0 : (float) results.getDouble(columnIndex - 1);
+        }
         Object value = column(columnIndex);
         if (value == null) {
             return 0;
@@ -401,6 +447,13 @@ abstract class AbstractDatabendResultSet implements ResultSet {
     @Override
     public double getDouble(int columnIndex)
             throws SQLException {
+        ResultPage.PrimitiveKind kind = primitiveColumn(columnIndex);
+        if (kind == ResultPage.PrimitiveKind.LONG) {
+            return wasNull.get() ? 0 : (double) results.getLong(columnIndex - 1);
+        }
+        if (kind == ResultPage.PrimitiveKind.DOUBLE) {
+            return wasNull.get() ? 0 : results.getDouble(columnIndex - 1);
+        }
         Object value = column(columnIndex);
         if (value == null) {
             return 0;
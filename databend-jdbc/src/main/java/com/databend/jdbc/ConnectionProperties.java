@@ -42,10 +42,36 @@ public final class ConnectionProperties {
     public static final ConnectionProperty<String> NULL_DISPLAY = new NullDisplay();
     public static final ConnectionProperty<String> BINARY_FORMAT = new BinaryFormat();
     public static final ConnectionProperty<String> QUERY_RESULT_FORMAT = new QueryResultFormatProperty();
+    public static final ConnectionProperty<String> BATCH_UPLOAD_FORMAT = new BatchUploadFormatProperty();
+    public static final ConnectionProperty<Boolean> BATCH_UPLOAD_STREAMING = new BatchUploadStreaming();
+    public static final ConnectionProperty<Boolean> BATCH_UPLOAD_COMPRESS = new BatchUploadCompress();
+    public static final ConnectionProperty<Integer> BATCH_UPLOAD_CHUNK_ROWS = new BatchUploadChunkRows();
+    public static final ConnectionProperty<Integer> BATCH_UPLOAD_PARALLELISM = new BatchUploadParallelism();
+    public static final ConnectionProperty<Integer> BATCH_PARALLELISM = new BatchParallelism();
+    public static final ConnectionProperty<String> UPLOAD_COMPRESSION = new UploadCompressionProperty();
+    public static final ConnectionProperty<Integer> PRESIGN_MAX_IDLE_CONNECTIONS = new PresignMaxIdleConnections();
+    public static final ConnectionProperty<Integer> PRESIGN_KEEP_ALIVE_SECS = new PresignKeepAliveSecs();
+    public static final ConnectionProperty<Integer> PRESIGN_CONNECTION_TIMEOUT = new PresignConnectionTimeout();
+    public static final ConnectionProperty<Integer> PRESIGN_SOCKET_TIMEOUT = new PresignSocketTimeout();
+    public static final ConnectionProperty<Boolean> PRESIGN_HTTP2 = new PresignHttp2();
+    public static final ConnectionProperty<Integer> DOWNLOAD_PARALLELISM = new DownloadParallelism();
+    public static final ConnectionProperty<Integer> DOWNLOAD_CHUNK_SIZE = new DownloadChunkSize();
+    public static final ConnectionProperty<Integer> DOWNLOAD_BUFFER_SIZE = new DownloadBufferSize();
+    public static final ConnectionProperty<Integer> UPLOAD_SPOOL_SIZE = new UploadSpoolSize();
+    public static final ConnectionProperty<Integer> UPLOAD_RETRY_ATTEMPTS = new UploadRetryAttempts();
+    public static final ConnectionProperty<Integer> UPLOAD_COMPRESSION_WORKERS = new UploadCompressionWorkers();
     public static final ConnectionProperty<Integer> WAIT_TIME_SECS = new WaitTimeSecs();
+    public static final ConnectionProperty<Integer> ASYNC_MAX_REQUESTS = new AsyncMaxRequests();
+    public static final ConnectionProperty<Boolean> VIRTUAL_THREADS = new VirtualThreads();
 
     public static final ConnectionProperty<Integer> MAX_ROWS_IN_BUFFER = new MaxRowsInBuffer();
     public static final ConnectionProperty<Integer> MAX_ROWS_PER_PAGE = new MaxRowsPerPage();
+    public static final ConnectionProperty<Integer> PREFETCH_PAGES = new PrefetchPages();
+    public static final ConnectionProperty<Integer> PREFETCH_MAX_BYTES = new PrefetchMaxBytes();
+    public static final ConnectionProperty<Integer> PREPARED_STATEMENT_CACHE_SIZE = new PreparedStatementCacheSize();
+    public static final ConnectionProperty<Integer> METADATA_CACHE_TTL = new MetadataCacheTtl();
+    public static final ConnectionProperty<Integer> METADATA_CACHE_SIZE = new MetadataCacheSize();
+    public static final ConnectionProperty<Integer> AUTO_ARROW_MIN_ROWS = new AutoArrowMinRows();
 
     public static final ConnectionProperty<String> SESSION_SETTINGS = new SessionSettings();
 
@@ -67,9 +93,35 @@ public final class ConnectionProperties {
             .add(CONNECTION_TIMEOUT)
             .add(SOCKET_TIMEOUT)
             .add(QUERY_RESULT_FORMAT)
+            .add(BATCH_UPLOAD_FORMAT)
+            .add(BATCH_UPLOAD_STREAMING)
+            .add(BATCH_UPLOAD_COMPRESS)
+            .add(BATCH_UPLOAD_CHUNK_ROWS)
+            .add(BATCH_UPLOAD_PARALLELISM)
+            .add(BATCH_PARALLELISM)
+            .add(UPLOAD_COMPRESSION)
+            .add(UPLOAD_COMPRESSION_WORKERS)
+            .add(PRESIGN_MAX_IDLE_CONNECTIONS)
+            .add(PRESIGN_KEEP_ALIVE_SECS)
+            .add(PRESIGN_CONNECTION_TIMEOUT)
+            .add(PRESIGN_SOCKET_TIMEOUT)
+            .add(PRESIGN_HTTP2)
+            .add(DOWNLOAD_PARALLELISM)
+            .add(DOWNLOAD_CHUNK_SIZE)
+            .add(DOWNLOAD_BUFFER_SIZE)
+            .add(UPLOAD_SPOOL_SIZE)
+            .add(UPLOAD_RETRY_ATTEMPTS)
             .add(WAIT_TIME_SECS)
+            .add(ASYNC_MAX_REQUESTS)
+            .add(VIRTUAL_THREADS)
             .add(MAX_ROWS_IN_BUFFER)
             .add(MAX_ROWS_PER_PAGE)
+            .add(PREFETCH_PAGES)
+            .add(PREFETCH_MAX_BYTES)
+            .add(PREPARED_STATEMENT_CACHE_SIZE)
+            .add(METADATA_CACHE_TTL)
+            .add(METADATA_CACHE_SIZE)
+            .add(AUTO_ARROW_MIN_ROWS)
             .add(SESSION_SETTINGS)
             .build();
     // Deprecated multi-host properties are intentionally excluded from ALL_PROPERTIES so we can detect user-specified values.
@@ -231,19 +283,273 @@ public final class ConnectionProperties {
         public QueryResultFormatProperty() {
             super("query_result_format", Optional.empty(), NOT_REQUIRED, ALLOWED,
                     QueryResultFormatProperty::normalizeQueryResultFormat,
-                    new String[]{"json", "arrow"},
+                    new String[]{"json", "arrow", "auto"},
                     null);
         }
 
         private static String normalizeQueryResultFormat(String value) {
             String normalized = value.trim().toLowerCase(Locale.ENGLISH);
-            if ("json".equals(normalized) || "arrow".equals(normalized)) {
+            if ("json".equals(normalized) || "arrow".equals(normalized) || "auto".equals(normalized)) {
                 return normalized;
             }
             throw new IllegalArgumentException("Unsupported query result format: " + value);
         }
     }
 
+    private static class BatchUploadFormatProperty
+            extends AbstractConnectionProperty<String> {
+        public BatchUploadFormatProperty() {
+            super("batch_upload_format", Optional.empty(), NOT_REQUIRED, ALLOWED,
+                    BatchUploadFormatProperty::normalizeBatchUploadFormat,
+                    new String[]{"csv", "parquet"},
+                    null);
+        }
+
+        private static String normalizeBatchUploadFormat(String value) {
+            String normalized = value.trim().toLowerCase(Locale.ENGLISH);
+            if ("csv".equals(normalized) || "parquet".equals(normalized)) {
+                return normalized;
+            }
+            throw new IllegalArgumentException("Unsupported batch upload format: " + value);
+        }
+    }
+
+    private static class UploadCompressionProperty
+            extends AbstractConnectionProperty<String> {
+        public UploadCompressionProperty() {
+            super("upload_compression", Optional.empty(), NOT_REQUIRED, ALLOWED,
+                    UploadCompressionProperty::normalizeUploadCompression,
+                    new String[]{"gzip", "zstd"},
+                    null);
+        }
+
+        private static String normalizeUploadCompression(String value) {
+            String normalized = value.trim().toLowerCase(Locale.ENGLISH);
+            if ("gzip".equals(normalized) || "zstd".equals(normalized)) {
+                return normalized;
+            }
+            throw new IllegalArgumentException("Unsupported upload compression: " + value);
+        }
+    }
+
+    private static class UploadCompressionWorkers
+            extends AbstractConnectionProperty<Integer> {
+        public UploadCompressionWorkers() {
+            super("upload_compression_workers", Optional.of("1"), NOT_REQUIRED, ALLOWED, UploadCompressionWorkers::parsePositive);
+        }
+
+        private static Integer parsePositive(String value) {
+            int workers = Integer.parseInt(value);
+            if (workers < 1) {
+                throw new IllegalArgumentException("upload_compression_workers must be at least 1: " + value);
+            }
+            return workers;
+        }
+    }
+
+    private static class PresignMaxIdleConnections
+            extends AbstractConnectionProperty<Integer> {
+        public PresignMaxIdleConnections() {
+            super("presign_max_idle_connections", Optional.of("5"), NOT_REQUIRED, ALLOWED, PresignMaxIdleConnections::parseNonNegative);
+        }
+
+        private static Integer parseNonNegative(String value) {
+            int connections = Integer.parseInt(value);
+            if (connections < 0) {
+                throw new IllegalArgumentException("presign_max_idle_connections must not be negative: " + value);
+            }
+            return connections;
+        }
+    }
+
+    private static class PresignKeepAliveSecs
+            extends AbstractConnectionProperty<Integer> {
+        public PresignKeepAliveSecs() {
+            super("presign_keep_alive_secs", Optional.of("300"), NOT_REQUIRED, ALLOWED, PresignKeepAliveSecs::parsePositive);
+        }
+
+        private static Integer parsePositive(String value) {
+            int secs = Integer.parseInt(value);
+            if (secs < 1) {
+                throw new IllegalArgumentException("presign_keep_alive_secs must be at least 1: " + value);
+            }
+            return secs;
+        }
+    }
+
+    private static class PresignConnectionTimeout
+            extends AbstractConnectionProperty<Integer> {
+        public PresignConnectionTimeout() {
+            super("presign_connection_timeout", Optional.of("30"), NOT_REQUIRED, ALLOWED, INTEGER_CONVERTER);
+        }
+    }
+
+    private static class PresignSocketTimeout
+            extends AbstractConnectionProperty<Integer> {
+        public PresignSocketTimeout() {
+            super("presign_socket_timeout", Optional.of("300"), NOT_REQUIRED, ALLOWED, INTEGER_CONVERTER);
+        }
+    }
+
+    private static class PresignHttp2 extends AbstractConnectionProperty<Boolean> {
+        public PresignHttp2() {
+            super("presign_http2", Optional.of("false"), NOT_REQUIRED, ALLOWED, BOOLEAN_CONVERTER);
+        }
+    }
+
+    private static class VirtualThreads extends AbstractConnectionProperty<Boolean> {
+        public VirtualThreads() {
+            super("virtual_threads", Optional.of("false"), NOT_REQUIRED, ALLOWED, BOOLEAN_CONVERTER);
+        }
+    }
+
+    private static class AsyncMaxRequests
+            extends AbstractConnectionProperty<Integer> {
+        public AsyncMaxRequests() {
+            super("async_max_requests", Optional.of("64"), NOT_REQUIRED, ALLOWED, AsyncMaxRequests::parsePositive);
+        }
+
+        private static Integer parsePositive(String value) {
+            int maxRequests = Integer.parseInt(value);
+            if (maxRequests < 1) {
+                throw new IllegalArgumentException("async_max_requests must be at least 1: " + value);
+            }
+            return maxRequests;
+        }
+    }
+
+    private static class DownloadParallelism
+            extends AbstractConnectionProperty<Integer> {
+        public DownloadParallelism() {
+            super("download_parallelism", Optional.of("1"), NOT_REQUIRED, ALLOWED, DownloadParallelism::parsePositive);
+        }
+
+        private static Integer parsePositive(String value) {
+            int parallelism = Integer.parseInt(value);
+            if (parallelism < 1) {
+                throw new IllegalArgumentException("download_parallelism must be at least 1: " + value);
+            }
+            return parallelism;
+        }
+    }
+
+    private static class DownloadChunkSize
+            extends AbstractConnectionProperty<Integer> {
+        public DownloadChunkSize() {
+            super("download_chunk_size", Optional.of(String.valueOf(8 * 1024 * 1024)), NOT_REQUIRED, ALLOWED, DownloadChunkSize::parsePositive);
+        }
+
+        private static Integer parsePositive(String value) {
+            int size = Integer.parseInt(value);
+            if (size < 1) {
+                throw new IllegalArgumentException("download_chunk_size must be at least 1: " + value);
+            }
+            return size;
+        }
+    }
+
+    private static class DownloadBufferSize
+            extends AbstractConnectionProperty<Integer> {
+        public DownloadBufferSize() {
+            super("download_buffer_size", Optional.of(String.valueOf(64 * 1024 * 1024)), NOT_REQUIRED, ALLOWED, DownloadBufferSize::parsePositive);
+        }
+
+        private static Integer parsePositive(String value) {
+            int size = Integer.parseInt(value);
+            if (size < 1) {
+                throw new IllegalArgumentException("download_buffer_size must be at least 1: " + value);
+            }
+            return size;
+        }
+    }
+
+    private static class UploadSpoolSize
+            extends AbstractConnectionProperty<Integer> {
+        public UploadSpoolSize() {
+            super("upload_spool_size", Optional.of("0"), NOT_REQUIRED, ALLOWED, UploadSpoolSize::parseNonNegative);
+        }
+
+        private static Integer parseNonNegative(String value) {
+            int size = Integer.parseInt(value);
+            if (size < 0) {
+                throw new IllegalArgumentException("upload_spool_size must not be negative: " + value);
+            }
+            return size;
+        }
+    }
+
+    private static class UploadRetryAttempts
+            extends AbstractConnectionProperty<Integer> {
+        public UploadRetryAttempts() {
+            super("upload_retry_attempts", Optional.of("5"), NOT_REQUIRED, ALLOWED, UploadRetryAttempts::parseNonNegative);
+        }
+
+        private static Integer parseNonNegative(String value) {
+            int attempts = Integer.parseInt(value);
+            if (attempts < 0) {
+                throw new IllegalArgumentException("upload_retry_attempts must not be negative: " + value);
+            }
+            return attempts;
+        }
+    }
+
+    private static class BatchUploadStreaming extends AbstractConnectionProperty<Boolean> {
+        public BatchUploadStreaming() {
+            super("batch_upload_streaming", Optional.of("false"), NOT_REQUIRED, ALLOWED, BOOLEAN_CONVERTER);
+        }
+    }
+
+    private static class BatchUploadCompress extends AbstractConnectionProperty<Boolean> {
+        public BatchUploadCompress() {
+            super("batch_upload_compress", Optional.of("false"), NOT_REQUIRED, ALLOWED, BOOLEAN_CONVERTER);
+        }
+    }
+
+    private static class BatchUploadChunkRows
+            extends AbstractConnectionProperty<Integer> {
+        public BatchUploadChunkRows() {
+            super("batch_upload_chunk_rows", Optional.of("0"), NOT_REQUIRED, ALLOWED, BatchUploadChunkRows::parseNonNegative);
+        }
+
+        private static Integer parseNonNegative(String value) {
+            int rows = Integer.parseInt(value);
+            if (rows < 0) {
+                throw new IllegalArgumentException("batch_upload_chunk_rows must not be negative: " + value);
+            }
+            return rows;
+        }
+    }
+
+    private static class BatchUploadParallelism
+            extends AbstractConnectionProperty<Integer> {
+        public BatchUploadParallelism() {
+            super("batch_upload_parallelism", Optional.of("4"), NOT_REQUIRED, ALLOWED, BatchUploadParallelism::parsePositive);
+        }
+
+        private static Integer parsePositive(String value) {
+            int parallelism = Integer.parseInt(value);
+            if (parallelism < 1) {
+                throw new IllegalArgumentException("batch_upload_parallelism must be at least 1: " + value);
+            }
+            return parallelism;
+        }
+    }
+
+    private static class BatchParallelism
+            extends AbstractConnectionProperty<Integer> {
+        public BatchParallelism() {
+            super("batch_parallelism", Optional.of("1"), NOT_REQUIRED, ALLOWED, BatchParallelism::parsePositive);
+        }
+
+        private static Integer parsePositive(String value) {
+            int parallelism = Integer.parseInt(value);
+            if (parallelism < 1) {
+                throw new IllegalArgumentException("batch_parallelism must be at least 1: " + value);
+            }
+            return parallelism;
+        }
+    }
+
     private static class QueryTimeout
             extends AbstractConnectionProperty<Integer> {
         public QueryTimeout() {
@@ -285,6 +591,98 @@ public final class ConnectionProperties {
         }
     }
 
+    // number of result pages fetched ahead of the consumer
+    private static class PrefetchPages
+            extends AbstractConnectionProperty<Integer> {
+        public PrefetchPages() {
+            super("prefetch_pages", Optional.of("1"), NOT_REQUIRED, ALLOWED, PrefetchPages::parsePositive);
+        }
+
+        private static Integer parsePositive(String value) {
+            int pages = Integer.parseInt(value);
+            if (pages < 1) {
+                throw new IllegalArgumentException("prefetch_pages must be at least 1: " + value);
+            }
+            return pages;
+        }
+    }
+
+    // memory budget for prefetched pages, at least one page is always allowed
+    private static class PrefetchMaxBytes
+            extends AbstractConnectionProperty<Integer> {
+        public PrefetchMaxBytes() {
+            super("prefetch_max_bytes", Optional.of(String.valueOf(64 * 1024 * 1024)), NOT_REQUIRED, ALLOWED, PrefetchMaxBytes::parseNonNegative);
+        }
+
+        private static Integer parseNonNegative(String value) {
+            int bytes = Integer.parseInt(value);
+            if (bytes < 0) {
+                throw new IllegalArgumentException("prefetch_max_bytes must not be negative: " + value);
+            }
+            return bytes;
+        }
+    }
+
+    private static class PreparedStatementCacheSize
+            extends AbstractConnectionProperty<Integer> {
+        public PreparedStatementCacheSize() {
+            super("prepared_statement_cache_size", Optional.of("256"), NOT_REQUIRED, ALLOWED, PreparedStatementCacheSize::parseNonNegative);
+        }
+
+        private static Integer parseNonNegative(String value) {
+            int size = Integer.parseInt(value);
+            if (size < 0) {
+                throw new IllegalArgumentException("prepared_statement_cache_size must not be negative: " + value);
+            }
+            return size;
+        }
+    }
+
+    private static class MetadataCacheTtl
+            extends AbstractConnectionProperty<Integer> {
+        public MetadataCacheTtl() {
+            super("metadata_cache_ttl", Optional.of("0"), NOT_REQUIRED, ALLOWED, MetadataCacheTtl::parseNonNegative);
+        }
+
+        private static Integer parseNonNegative(String value) {
+            int seconds = Integer.parseInt(value);
+            if (seconds < 0) {
+                throw new IllegalArgumentException("metadata_cache_ttl must not be negative: " + value);
+            }
+            return seconds;
+        }
+    }
+
+    private static class MetadataCacheSize
+            extends AbstractConnectionProperty<Integer> {
+        public MetadataCacheSize() {
+            super("metadata_cache_size", Optional.of("1000"), NOT_REQUIRED, ALLOWED, MetadataCacheSize::parseNonNegative);
+        }
+
+        private static Integer parseNonNegative(String value) {
+            int size = Integer.parseInt(value);
+            if (size < 0) {
+                throw new IllegalArgumentException("metadata_cache_size must not be negative: " + value);
+            }
+            return size;
+        }
+    }
+
+    private static class AutoArrowMinRows
+            extends AbstractConnectionProperty<Integer> {
+        public AutoArrowMinRows() {
+            super("auto_arrow_min_rows", Optional.of("10000"), NOT_REQUIRED, ALLOWED, AutoArrowMinRows::parsePositive);
+        }
+
+        private static Integer parsePositive(String value) {
+            int rows = Integer.parseInt(value);
+            if (rows <= 0) {
+                throw new IllegalArgumentException("auto_arrow_min_rows must be positive: " + value);
+            }
+            return rows;
+        }
+    }
+
     private static class SessionSettings
             extends AbstractConnectionProperty<String> {
         public SessionSettings() {
@@ -0,0 +1,194 @@
+package com.databend.jdbc;
+
+import com.databend.jdbc.exception.DatabendSQLException;
+import com.databend.jdbc.internal.query.QueryResults;
+import com.databend.jdbc.internal.query.QueryRowField;
+import com.databend.jdbc.internal.query.ResultPage;
+import com.databend.jdbc.internal.query.RestQueryResultPages;
+import com.databend.jdbc.internal.session.QueryLiveness;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A query started by {@link DatabendConnection#executeAsync(String)}. Result pages are fetched with
+ * {@link #nextPage()}, which never blocks the caller, and each page is handed out as a {@link ResultSet} over rows
+ * that are already in memory. Only one {@link #nextPage()} may be outstanding, chain the next call on the returned
+ * future.
+ * <p>
+ * Futures are completed on the HTTP client's threads, so long running work should be chained with the
+ * {@code *Async} methods of {@link CompletableFuture}. Close the handle when the rows are not read to the end. A page
+ * that was handed out belongs to its result set, it stays readable after the handle is closed and is freed when that
+ * result set is closed.
+ * </p>
+ */
+public final class DatabendAsyncResult implements AutoCloseable {
+    private final DatabendConnection connection;
+    private final RestQueryResultPages pages;
+    private final QueryLiveness liveness;
+    private final AtomicBoolean closed = new AtomicBoolean();
+    private volatile boolean firstPageTaken;
+
+    DatabendAsyncResult(DatabendConnection connection, RestQueryResultPages pages, QueryLiveness liveness) {
+        this.connection = requireNonNull(connection, "connection is null");
+        this.pages = requireNonNull(pages, "pages is null");
+        this.liveness = requireNonNull(liveness, "liveness is null");
+    }
+
+    public String getQueryId() {
+        return pages.getResults().getQueryId();
+    }
+
+    /**
+     * @return rows written by the query as reported by the latest response, final once {@link #nextPage()} has
+     * completed with {@code null}
+     */
+    public long getUpdateCount() {
+        QueryResults results = pages.getResults();
+        if (results.getStats() == null || results.getStats().getWriteProgress() == null) {
+            return 0;
+        }
+        return results.getStats().getWriteProgress().getRows().longValue();
+    }
+
+    /**
+     * @return a future of the next page of rows, skipping pages without rows, or of {@code null} once the query has
+     * no more rows
+     */
+    public CompletableFuture<ResultSet> nextPage() {
+        if (closed.get()) {
+            CompletableFuture<ResultSet> failed = new CompletableFuture<>();
+            failed.completeExceptionally(new SQLException("Async result is closed"));
+            return failed;
+        }
+        if (!firstPageTaken) {
+            firstPageTaken = true;
+            ResultSet first = takePage();
+            if (first != null) {
+                return CompletableFuture.completedFuture(first);
+            }
+        }
+        if (!pages.hasNext()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return withSqlFailures(fetchPage(), "Failed to fetch result page: ", getQueryId());
+    }
+
+    QueryLiveness getLiveness() {
+        return liveness.stopped ? null : liveness;
+    }
+
+    @Override
+    public void close() {
+        if (!closed.compareAndSet(false, true)) {
+            return;
+        }
+        release();
+        pages.close();
+    }
+
+    private void release() {
+        liveness.stopped = true;
+        connection.unregisterAsyncResult(this);
+    }
+
+    private CompletableFuture<ResultSet> fetchPage() {
+        liveness.lastRequestTime.set(System.currentTimeMillis());
+        return pages.advanceAsync().thenCompose(advanced -> {
+            if (!advanced) {
+                release();
+                return CompletableFuture.completedFuture(null);
+            }
+            ResultSet page = takePage();
+            return page != null ? CompletableFuture.completedFuture(page) : fetchPage();
+        });
+    }
+
+    // the current page as a result set that owns it, null when it has no rows
+    private ResultSet takePage() {
+        ResultPage page = pages.takePage();
+        if (page == null) {
+            return null;
+        }
+        if (page.getRowCount() == 0) {
+            page.close();
+            return null;
+        }
+        List<QueryRowField> schema = pages.getSchema();
+        if (schema == null) {
+            schema = pages.getResults().getSchema();
+        }
+        return new PageResultSet(schema, page, DatabendResultSet.effectiveSettings(pages.getResults()), getQueryId());
+    }
+
+    static <T> CompletableFuture<T> withSqlFailures(CompletableFuture<T> future, String message, String queryId) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        future.whenComplete((value, failure) -> {
+            if (failure == null) {
+                result.complete(value);
+                return;
+            }
+            Throwable cause = failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure;
+            if (cause instanceof SQLException) {
+                result.completeExceptionally(cause);
+            } else {
+                String detail = cause.getMessage() == null ? cause.toString() : cause.getMessage();
+                result.completeExceptionally(new DatabendSQLException(message + detail, queryId, cause));
+            }
+        });
+        return result;
+    }
+
+    private static final class PageResultSet extends AbstractDatabendResultSet {
+        private boolean closed;
+
+        PageResultSet(List<QueryRowField> schema, ResultPage page, Map<String, String> resultSetting, String queryId) {
+            super(Optional.empty(), schema, new PagedResultCursor(new SinglePageSource(page), 0), resultSetting, queryId);
+        }
+
+        @Override
+        public void close() throws SQLException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            results.close();
+        }
+
+        @Override
+        public boolean isClosed() {
+            return closed;
+        }
+    }
+
+    private static final class SinglePageSource implements ResultPageSource {
+        private ResultPage page;
+
+        SinglePageSource(ResultPage page) {
+            this.page = page;
+        }
+
+        @Override
+        public ResultPage nextPage() {
+            ResultPage next = page;
+            page = null;
+            return next;
+        }
+
+        @Override
+        public void close() {
+            if (page != null) {
+                page.close();
+                page = null;
+            }
+        }
+    }
+}
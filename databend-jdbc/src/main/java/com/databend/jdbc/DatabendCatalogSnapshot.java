@@ -0,0 +1,136 @@
+package com.databend.jdbc;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Tables and columns of one database, loaded by {@link DatabendDatabaseMetaData#loadCatalogSnapshot(String)} with a
+ * single catalog query instead of one {@code getColumns} query per table. While the connection holds the snapshot,
+ * {@code getTables} and {@code getColumns} calls whose schema pattern names exactly that database are answered from
+ * it. DDL run through the connection drops its snapshots, changes made by other clients are only seen after loading
+ * the snapshot again.
+ */
+public final class DatabendCatalogSnapshot {
+    static final String SNAPSHOT_SQL = "SELECT t.table_catalog, t.table_schema, t.table_name, t.table_type, t.table_comment, t.engine"
+            + ", c.column_name, c.data_type, c.nullable, c.column_comment, c.`default`, c.ordinal_position, c.is_nullable"
+            + " FROM information_schema.tables t"
+            + " LEFT JOIN information_schema.columns c ON c.table_schema = t.table_schema AND c.table_name = t.table_name"
+            + " WHERE t.table_schema = ";
+    static final String SNAPSHOT_ORDER_BY = "\nORDER BY t.table_name, c.ordinal_position";
+
+    private final String database;
+    private final long loadedAtMillis;
+    private final boolean viewsMissing;
+    // in table name order, the columns of a table in ordinal position order
+    private final List<Table> tables;
+    private final int columnCount;
+
+    private DatabendCatalogSnapshot(String database, boolean viewsMissing, List<Table> tables) {
+        this.database = requireNonNull(database, "database is null");
+        this.loadedAtMillis = System.currentTimeMillis();
+        this.viewsMissing = viewsMissing;
+        this.tables = Collections.unmodifiableList(tables);
+        int columns = 0;
+        for (Table table : tables) {
+            columns += table.columns.size();
+        }
+        this.columnCount = columns;
+    }
+
+    /**
+     * Reads the rows of {@link #SNAPSHOT_SQL} as they stream in, one row per column and one row for a table
+     * without columns.
+     */
+    static DatabendCatalogSnapshot read(String database, boolean viewsMissing, ResultSet rs) throws SQLException {
+        Map<String, Table> tables = new LinkedHashMap<>();
+        while (rs.next()) {
+            String tableName = rs.getString(3);
+            Table table = tables.get(tableName);
+            if (table == null) {
+                table = new Table(rs.getString(1), rs.getString(2), tableName, rs.getString(4), rs.getString(5), rs.getString(6));
+                tables.put(tableName, table);
+            }
+            String columnName = rs.getString(7);
+            if (columnName != null) {
+                table.columns.add(new Column(columnName, rs.getString(8), rs.getString(9), rs.getObject(10),
+                        rs.getString(11), rs.getString(12), rs.getString(13)));
+            }
+        }
+        return new DatabendCatalogSnapshot(database, viewsMissing, new ArrayList<>(tables.values()));
+    }
+
+    public String getDatabase() {
+        return database;
+    }
+
+    /**
+     * @return when the snapshot was loaded, in milliseconds since the epoch
+     */
+    public long getLoadedAtMillis() {
+        return loadedAtMillis;
+    }
+
+    public int getTableCount() {
+        return tables.size();
+    }
+
+    public int getColumnCount() {
+        return columnCount;
+    }
+
+    // views are missing from information_schema.tables on some server versions, see checkVersionAddView
+    boolean isViewsMissing() {
+        return viewsMissing;
+    }
+
+    List<Table> getTables() {
+        return tables;
+    }
+
+    static final class Table {
+        final String catalog;
+        final String schema;
+        final String name;
+        final String type;
+        final String comment;
+        final String engine;
+        final List<Column> columns = new ArrayList<>();
+
+        private Table(String catalog, String schema, String name, String type, String comment, String engine) {
+            this.catalog = catalog;
+            this.schema = schema;
+            this.name = name;
+            this.type = type;
+            this.comment = comment;
+            this.engine = engine;
+        }
+    }
+
+    static final class Column {
+        final String name;
+        final String type;
+        final String nullable;
+        final Object comment;
+        final String defaultValue;
+        final String ordinalPosition;
+        final String isNullable;
+
+        private Column(String name, String type, String nullable, Object comment, String defaultValue, String ordinalPosition,
+                String isNullable) {
+            this.name = name;
+            this.type = type;
+            this.nullable = nullable;
+            this.comment = comment;
+            this.defaultValue = defaultValue;
+            this.ordinalPosition = ordinalPosition;
+            this.isNullable = isNullable;
+        }
+    }
+}
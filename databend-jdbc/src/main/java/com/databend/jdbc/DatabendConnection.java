@@ -4,9 +4,15 @@ import com.databend.jdbc.annotation.NotImplemented;
 import com.databend.jdbc.cloud.DatabendCopyParams;
 import com.databend.jdbc.exception.DatabendFailedToPingException;
 import com.databend.jdbc.exception.DatabendSQLException;
+import com.databend.jdbc.internal.BatchUploadFormat;
 import com.databend.jdbc.internal.QueryResultFormat;
+import com.databend.jdbc.internal.UploadCompression;
+import com.databend.jdbc.internal.WorkerExecutors;
+import com.databend.jdbc.internal.binding.StatementUtil;
+import com.databend.jdbc.internal.http.StreamingRequestBody;
 import com.databend.jdbc.internal.query.QueryResultPages;
 import com.databend.jdbc.internal.query.QueryResults;
+import com.databend.jdbc.internal.query.RestQueryResultPages;
 import com.databend.jdbc.internal.query.StageAttachment;
 import com.databend.jdbc.internal.session.Capability;
 import com.databend.jdbc.internal.session.DatabendSessionHandle;
@@ -19,6 +25,7 @@ import okhttp3.*;
 import java.io.File;
 import java.io.InputStream;
 import java.net.URI;
+import java.nio.channels.FileChannel;
 import java.sql.Array;
 import java.sql.Blob;
 import java.sql.CallableStatement;
@@ -38,9 +45,12 @@ import java.sql.Statement;
 import java.sql.Struct;
 import java.time.Instant;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.logging.FileHandler;
 import java.util.logging.Level;
@@ -63,8 +73,13 @@ public class DatabendConnection implements Connection, DatabendConnectionExtensi
     private final AtomicBoolean autoCommit = new AtomicBoolean(true);
     private final AtomicReference<String> schema = new AtomicReference<>();
     private final ConcurrentHashMap<DatabendStatement, Boolean> statements = new ConcurrentHashMap<>();
+    private final Set<DatabendAsyncResult> asyncResults = ConcurrentHashMap.newKeySet();
     private final DatabendDriverUri driverUri;
     private final DatabendSessionHandle sessionHandle;
+    private final PreparedStatementCache preparedStatementCache;
+    private final MetadataCache metadataCache;
+    private final ConcurrentHashMap<String, DatabendCatalogSnapshot> catalogSnapshots = new ConcurrentHashMap<>();
+    private volatile ExecutorService workerExecutor;
 
     private void initializeFileLogHandler() {
         if (this.debug()) {
@@ -95,14 +110,116 @@ public class DatabendConnection implements Connection, DatabendConnectionExtensi
         requireNonNull(uri, "uri is null");
         this.driverUri = uri;
         this.schema.set(uri.getDatabase());
+        this.preparedStatementCache = new PreparedStatementCache(uri.getPreparedStatementCacheSize());
+        this.metadataCache = MetadataCache.shared(
+                Arrays.asList(uri.getUri().getHost(), uri.getUri().getPort(), ConnectionProperties.USER.getValue(uri.getProperties()).orElse(""),
+                        uri.getTenant(), uri.getWarehouse()),
+                uri.getMetadataCacheTtl(),
+                uri.getMetadataCacheSize());
         SessionHandleConfig config = this.driverUri.toSessionHandleConfig();
         this.sessionHandle = new DatabendSessionHandle(httpClient, config, this::queryLivenesses);
+        if (uri.useVirtualThreads() && !WorkerExecutors.virtualThreads().isPresent()) {
+            logger.warning("virtual_threads is ignored, virtual threads need Java 21 or later");
+        }
+        this.sessionHandle.setWorkerExecutor(workerExecutor().orElse(null));
 
         initializeFileLogHandler();
         this.sessionHandle.login();
         this.sessionHandle.initializePresign(this.driverUri.getPresign(), this.driverUri.presignedUrlDisabled());
     }
 
+    PreparedStatementCache.ParsedStatement parseStatement(String sql) {
+        return preparedStatementCache.get(sql);
+    }
+
+    /**
+     * @return how many {@code prepareStatement} calls reused the parsed form of an earlier statement
+     */
+    public long getPreparedStatementCacheHitCount() {
+        return preparedStatementCache.hitCount();
+    }
+
+    /**
+     * @return how many {@code prepareStatement} calls had to parse their SQL
+     */
+    public long getPreparedStatementCacheMissCount() {
+        return preparedStatementCache.missCount();
+    }
+
+    MetadataCache metadataCache() {
+        return metadataCache;
+    }
+
+    DatabendCatalogSnapshot catalogSnapshot(String database) {
+        return catalogSnapshots.get(database);
+    }
+
+    void putCatalogSnapshot(DatabendCatalogSnapshot snapshot) {
+        catalogSnapshots.put(snapshot.getDatabase(), snapshot);
+    }
+
+    void removeCatalogSnapshot(String database) {
+        catalogSnapshots.remove(database);
+    }
+
+    /**
+     * @return how many {@code DatabaseMetaData} calls were answered from the metadata cache
+     */
+    public long getMetadataCacheHitCount() {
+        return metadataCache.hitCount();
+    }
+
+    /**
+     * @return how many {@code DatabaseMetaData} calls had to query the server while the metadata cache is enabled
+     */
+    public long getMetadataCacheMissCount() {
+        return metadataCache.missCount();
+    }
+
+    /**
+     * @return how many queries this connection fetched as JSON, including the driver's own control queries
+     */
+    public long getJsonResultQueryCount() {
+        return sessionHandle.getResultFormatSelector().getJsonQueryCount();
+    }
+
+    /**
+     * @return how many queries this connection fetched as Arrow
+     */
+    public long getArrowResultQueryCount() {
+        return sessionHandle.getResultFormatSelector().getArrowQueryCount();
+    }
+
+    /**
+     * @return {@code json} or {@code arrow}, the format the latest query was fetched as, null before the first
+     * query; with {@code query_result_format=auto} this shows the choice made for the latest statement
+     */
+    public String getLastQueryResultFormat() {
+        QueryResultFormat format = sessionHandle.getResultFormatSelector().getLastFormat();
+        return format == null ? null : format.value();
+    }
+
+    /**
+     * @return open connections of the presign client pool, which is shared by connections with equal presign settings
+     */
+    public int getPresignPoolConnectionCount() {
+        return this.sessionHandle.getPresignClient().connectionCount();
+    }
+
+    /**
+     * @return idle connections of the presign client pool that the next transfer can reuse
+     */
+    public int getPresignPoolIdleConnectionCount() {
+        return this.sessionHandle.getPresignClient().idleConnectionCount();
+    }
+
+    /**
+     * @return presigned upload and download requests sent through the shared pool, retries included
+     */
+    public long getPresignRequestCount() {
+        return this.sessionHandle.getPresignClient().requestCount();
+    }
+
     Semver getServerVersion() {
         return this.sessionHandle.getServerVersion();
     }
@@ -235,9 +352,13 @@ public class DatabendConnection implements Connection, DatabendConnectionExtensi
                 for (Statement stmt : new ArrayList<>(statements.keySet())) {
                     stmt.close();
                 }
+                for (DatabendAsyncResult asyncResult : new ArrayList<>(asyncResults)) {
+                    asyncResult.close();
+                }
                 this.sessionHandle.close();
             } finally {
                 closed.set(true);
+                preparedStatementCache.clear();
             }
         }
     }
@@ -541,6 +662,42 @@ public class DatabendConnection implements Connection, DatabendConnectionExtensi
         return this.driverUri.binaryFormat();
     }
 
+    BatchUploadFormat batchUploadFormat() {
+        return this.driverUri.getBatchUploadFormat();
+    }
+
+    UploadCompression uploadCompression() {
+        return this.driverUri.getUploadCompression();
+    }
+
+    boolean batchUploadStreaming() {
+        return this.driverUri.batchUploadStreaming();
+    }
+
+    boolean batchUploadCompress() {
+        return this.driverUri.batchUploadCompress();
+    }
+
+    int batchParallelism() {
+        return this.driverUri.getBatchParallelism();
+    }
+
+    int batchUploadChunkRows() {
+        return this.driverUri.getBatchUploadChunkRows();
+    }
+
+    int batchUploadParallelism() {
+        return this.driverUri.getBatchUploadParallelism();
+    }
+
+    int prefetchPages() {
+        return this.driverUri.getPrefetchPages();
+    }
+
+    long prefetchMaxBytes() {
+        return this.driverUri.getPrefetchMaxBytes();
+    }
+
     public URI getURI() {
         return this.sessionHandle.getBaseUri();
     }
@@ -571,10 +728,88 @@ public class DatabendConnection implements Connection, DatabendConnectionExtensi
         } catch (RuntimeException e) {
             String message = e.getMessage() == null ? e.toString() : e.getMessage();
             throw new DatabendSQLException("Failed to start query: " + message, queryId, e);
+        } finally {
+            invalidateMetadataCache(sql);
         }
+        invalidateMetadataCacheWhenFinished(queryPages, sql);
         return queryPages;
     }
 
+    // even a failed DDL statement may have changed the catalog
+    private void invalidateMetadataCache(String sql) {
+        if ((metadataCache.isEnabled() || !catalogSnapshots.isEmpty()) && StatementUtil.isDdl(sql)) {
+            metadataCache.invalidateAll();
+            catalogSnapshots.clear();
+        }
+    }
+
+    // a DDL statement still running after its first response changes the catalog later, metadata read in between
+    // would be cached from the old catalog
+    private void invalidateMetadataCacheWhenFinished(QueryResultPages pages, String sql) {
+        if (StatementUtil.isDdl(sql)) {
+            pages.whenFinished(() -> invalidateMetadataCache(sql));
+        }
+    }
+
+    @Override
+    public CompletableFuture<DatabendAsyncResult> executeAsync(String sql) {
+        String queryId = UUID.randomUUID().toString().replace("-", "");
+        CompletableFuture<RestQueryResultPages> started;
+        try {
+            checkOpen();
+            started = sessionHandle.startQueryAsync(queryId, sql);
+        } catch (SQLException | RuntimeException e) {
+            started = new CompletableFuture<>();
+            started.completeExceptionally(e);
+        }
+        started = started.whenComplete((pages, error) -> {
+            invalidateMetadataCache(sql);
+            if (pages != null) {
+                invalidateMetadataCacheWhenFinished(pages, sql);
+            }
+        });
+        return DatabendAsyncResult.withSqlFailures(started.thenApply(pages -> {
+            QueryResults results = pages.getResults();
+            Capability capability = getServerCapability();
+            QueryLiveness liveness = new QueryLiveness(results.getQueryId(), pages.getNodeID(), new AtomicLong(System.currentTimeMillis()),
+                    results.getResultTimeoutSecs(), capability != null && capability.heartBeat());
+            DatabendAsyncResult asyncResult = new DatabendAsyncResult(this, pages, liveness);
+            asyncResults.add(asyncResult);
+            return asyncResult;
+        }), "Failed to start query: ", queryId);
+    }
+
+    @Override
+    public DatabendFlow.Publisher<ResultSet> publishPages(String sql) {
+        return ResultPublisher.pages(() -> executeAsync(sql));
+    }
+
+    @Override
+    public DatabendFlow.Publisher<List<Object>> publishRows(String sql) {
+        return ResultPublisher.rows(() -> executeAsync(sql));
+    }
+
+    @Override
+    public void setWorkerExecutor(ExecutorService executor) {
+        this.workerExecutor = executor;
+        this.sessionHandle.setWorkerExecutor(workerExecutor().orElse(null));
+    }
+
+    /**
+     * @return the executor for background work, empty when the driver's thread pools are used
+     */
+    Optional<ExecutorService> workerExecutor() {
+        ExecutorService executor = this.workerExecutor;
+        if (executor != null) {
+            return Optional.of(executor);
+        }
+        return this.driverUri.useVirtualThreads() ? WorkerExecutors.virtualThreads() : Optional.empty();
+    }
+
+    void unregisterAsyncResult(DatabendAsyncResult asyncResult) {
+        asyncResults.remove(asyncResult);
+    }
+
     @Override
     public void uploadStream(InputStream inputStream, String stageName, String destPrefix, String destFileName, long fileSize, boolean compressData)
             throws SQLException {
@@ -607,12 +842,34 @@ public class DatabendConnection implements Connection, DatabendConnectionExtensi
         this.sessionHandle.uploadStream(stageName, destPrefix, inputStream, destFileName, fileSize, compressData);
     }
 
+    /**
+     * Uploads a local file to a stage, retrying failed attempts with the file's content.
+     */
+    void uploadFile(String stageName, String destPrefix, File file, String destFileName) throws SQLException {
+        this.sessionHandle.uploadFile(stageName, destPrefix, file, destFileName);
+    }
+
+    /**
+     * Uploads the content produced by {@code writer} to a stage without writing it to a local file first.
+     */
+    void uploadStream(String stageName, String destPrefix, String destFileName, StreamingRequestBody.ContentWriter writer, boolean compressData)
+            throws SQLException {
+        this.sessionHandle.uploadStream(stageName, destPrefix, destFileName, writer, compressData);
+    }
+
     @Override
     public InputStream downloadStream(String stageName, String path)
             throws SQLException {
         return this.sessionHandle.downloadStream(stageName, path);
     }
 
+    @Override
+    public long downloadStream(String stageName, String path, FileChannel destination)
+            throws SQLException {
+        requireNonNull(destination, "destination is null");
+        return this.sessionHandle.downloadStream(stageName, path, destination);
+    }
+
     @Override
     public InputStream downloadStream(String stageName, String path, boolean decompress)
             throws SQLException {
@@ -681,6 +938,12 @@ public class DatabendConnection implements Connection, DatabendConnectionExtensi
                 livenesses.add(queryLiveness);
             }
         }
+        for (DatabendAsyncResult asyncResult : asyncResults) {
+            QueryLiveness queryLiveness = asyncResult.getLiveness();
+            if (queryLiveness != null) {
+                livenesses.add(queryLiveness);
+            }
+        }
         return livenesses;
     }
 
@@ -688,6 +951,12 @@ public class DatabendConnection implements Connection, DatabendConnectionExtensi
         return this.sessionHandle.isHeartbeatStopped();
     }
 
+    // true while the server session has an open transaction, also one started with an explicit BEGIN
+    boolean inActiveTransaction() {
+        SessionState currentSession = this.sessionHandle.getSession();
+        return currentSession != null && currentSession.inActiveTransaction();
+    }
+
     void refreshCurrentSchemaFromSession() {
         SessionState currentSession = this.sessionHandle.getSession();
         if (currentSession == null) {
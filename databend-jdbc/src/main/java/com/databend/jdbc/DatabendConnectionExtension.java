@@ -1,7 +1,12 @@
 package com.databend.jdbc;
 
 import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
 
 /**
  * The SnowflakeConnection interface contains Snowflake-specific methods.
@@ -61,6 +66,60 @@ public interface DatabendConnectionExtension {
      */
     InputStream downloadStream(String stageName, String sourceFileName) throws SQLException;
 
+    /**
+     * Download a file from the databend internal stage into a file channel. With {@code download_parallelism} above 1
+     * the file is fetched as concurrent range requests, each written at its own offset of the channel.
+     * Caller should close the channel after the download is done.
+     *
+     * @param stageName the stage which contains the file
+     * @param sourceFileName the file name in the stage
+     * @param destination the channel to write the file to, starting at position 0
+     * @return the number of bytes written
+     * @throws SQLException failed to download the file
+     */
+    long downloadStream(String stageName, String sourceFileName, FileChannel destination) throws SQLException;
+
+    /**
+     * Starts a query without blocking the calling thread. The start request and every page request are enqueued
+     * on the HTTP client, so a query waiting on the server, including its {@code wait_time_secs} long polls, holds
+     * no caller thread. At most {@code async_max_requests} of these requests are in flight per connection, the
+     * rest wait in a queue.
+     *
+     * @param sql the query to run
+     * @return a future of the query handle, completed once the server has accepted the query, or exceptionally
+     * with a {@link SQLException} when it fails to start
+     */
+    CompletableFuture<DatabendAsyncResult> executeAsync(String sql);
+
+    /**
+     * Publishes the result pages of a query, each page as a {@link ResultSet} over rows that are already in memory.
+     * The query runs through {@link #executeAsync(String)} once per subscription, and the next page is only
+     * fetched while the subscriber has demand for it. The subscriber should close every page it receives.
+     *
+     * @param sql the query to run
+     * @return a publisher of the result pages
+     */
+    DatabendFlow.Publisher<ResultSet> publishPages(String sql);
+
+    /**
+     * Publishes the result rows of a query like {@link #publishPages(String)}, every row as a list of its column
+     * values in the types {@link ResultSet#getObject(int)} returns.
+     *
+     * @param sql the query to run
+     * @return a publisher of the result rows
+     */
+    DatabendFlow.Publisher<List<Object>> publishRows(String sql);
+
+    /**
+     * Runs the background work of this connection, which is result page prefetching, heartbeats, parallel batch
+     * uploads and ranged downloads, on {@code executor} instead of the driver's thread pools. The driver does not
+     * shut the executor down. {@code null} restores the default, which is virtual threads when
+     * {@code virtual_threads} is on and the JVM has them.
+     *
+     * @param executor the executor for background work, or {@code null}
+     */
+    void setWorkerExecutor(ExecutorService executor);
+
     /**
      * Loads data from an input stream directly into a target Databend table using the specified SQL command.
      * Supports two loading strategies via {@link LoadMethod}.
@@ -15,6 +15,7 @@ import java.sql.SQLException;
 import java.sql.SQLFeatureNotSupportedException;
 import java.sql.Statement;
 import java.util.*;
+import java.util.function.Predicate;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -895,6 +896,10 @@ public class DatabendDatabaseMetaData implements DatabaseMetaData {
                 }
             }
         }
+        DatabendCatalogSnapshot snapshot = snapshotFor(schemaPattern);
+        if (snapshot != null && !(snapshot.isViewsMissing() && types != null && Arrays.stream(types).allMatch(t -> "VIEW".equalsIgnoreCase(t)))) {
+            return snapshotTables(snapshot, catalog, tableNamePattern, types);
+        }
         optionalStringInFilter(filters, "table_type", types);
         buildFilters(sql, filters);
         sql.append("\nORDER BY table_type, table_catalog, table_schema, table_name");
@@ -913,7 +918,7 @@ public class DatabendDatabaseMetaData implements DatabaseMetaData {
             sql.append("\nORDER BY TABLE_CAT, TABLE_NAME, TABLE_TYPE");
         }
 
-        return select(sql.toString());
+        return cachedSelect("getTables", sql.toString());
     }
 
     // This handles bug that existed a while, views were not included in information_schema.tables
@@ -942,7 +947,7 @@ public class DatabendDatabaseMetaData implements DatabaseMetaData {
     public ResultSet getSchemas()
             throws SQLException {
         String sql = "SELECT schema_name as table_schema, catalog_name as table_catalog FROM information_schema.schemata ORDER BY catalog_name, schema_name";
-        return select(sql);
+        return cachedSelect("getSchemas", sql);
     }
 
     @Override
@@ -1021,71 +1026,91 @@ public class DatabendDatabaseMetaData implements DatabaseMetaData {
      * Get table columns meta data by meta sql
      */
     private ResultSet getColumnsMetaDataBySQL(String sql) throws SQLException {
+        MetadataCache cache = connection.metadataCache();
+        if (!cache.isEnabled()) {
+            return loadColumnsMetaData(sql).toResultSet(connection.createStatement());
+        }
+        return cache.get(cacheKey("getColumns", sql), () -> loadColumnsMetaData(sql)).toResultSet(connection.createStatement());
+    }
+
+    private MetadataCache.Rows loadColumnsMetaData(String sql) throws SQLException {
         List<List<Object>> results = new ArrayList<>();
         // Get Query ResultSets
         try (ResultSet rs = select(sql)) {
             while (rs.next()) {
-                List<Object> result = new ArrayList<>();
-                // TABLE_CAT
-                result.add(rs.getString(1));
-                // TABLE_SCHEM
-                result.add(rs.getString(2));
-                // TABLE_NAME
-                result.add(rs.getString(3));
-                // COLUMN_NAME
-                result.add(rs.getString(4));
-                String originType = rs.getString(5);
-                DatabendRawType rowType = new DatabendRawType(originType);
-                DatabendDataType dataType = rowType.getDataType();
-                // DATA_TYPE
-                result.add(dataType.getSqlType());
-                // TYPE_NAME
-                result.add(rowType.getType());
-                // COLUMN_SIZE
-                result.add(rowType.getColumnSize());
-                // BUFFER_LENGTH
-                result.add(0);
-                // DECIMAL_DIGITS
-                result.add(rowType.getDecimalDigits());
-                // NUM_PREC_RADIX
-                result.add(0);
-                // COLUMN_NAME
-                result.add(rs.getString(6));
-                // REMARKS
-                result.add(rs.getObject(7));
-                // COLUMN_DEF
-                result.add(rs.getString(8));
-                // SQL_DATA_TYPE
-                result.add(0);
-                // SQL_DATETIME_SUB
-                result.add(0);
-                // CHAR_OCTET_LENGTH (for char types the maximum number of bytes in the column)
-                if (dataType == DatabendDataType.STRING) {
-                    result.add(dataType.getLength());
-                } else {
-                    result.add(null);
-                }
-                // ORDINAL_POSITION
-                result.add(rs.getString(9));
-                // IS_NULLABLE
-                result.add(rs.getString(10));
-                result.add(null);
-                result.add(null);
-                result.add(null);
-                result.add(null);
-                // IS_AUTOINCREMENT
-                result.add("NO");
-                // IS_GENERATEDCOLUMN
-                result.add("NO");
-                results.add(result);
+                results.add(columnMetaRow(rs.getString(1), rs.getString(2), rs.getString(3), rs.getString(4),
+                        rs.getString(5), rs.getString(6), rs.getObject(7), rs.getString(8), rs.getString(9), rs.getString(10)));
             }
         }
-        return new DatabendUnboundQueryResultSet(Optional.ofNullable(connection.createStatement()),
-                // Set unmodifiable to prevent columns from being adjusted to affect other thread calls
-                Collections.unmodifiableList(META_ROW_FIELDS), results.iterator());
+        // Rows keeps an unmodifiable copy to prevent columns from being adjusted to affect other thread calls
+        return new MetadataCache.Rows(META_ROW_FIELDS, results);
+    }
+
+    /**
+     * Builds one {@link #META_ROW_FIELDS} row from the columns of {@link #columnMetaSqlTemplate()}.
+     */
+    private static List<Object> columnMetaRow(String tableCat, String tableSchem, String tableName, String columnName,
+            String originType, String nullable, Object remarks, String columnDef, String ordinalPosition, String isNullable) {
+        List<Object> result = new ArrayList<>();
+        // TABLE_CAT
+        result.add(tableCat);
+        // TABLE_SCHEM
+        result.add(tableSchem);
+        // TABLE_NAME
+        result.add(tableName);
+        // COLUMN_NAME
+        result.add(columnName);
+        DatabendRawType rowType = DatabendRawType.of(originType);
+        DatabendDataType dataType = rowType.getDataType();
+        // DATA_TYPE
+        result.add(dataType.getSqlType());
+        // TYPE_NAME
+        result.add(rowType.getType());
+        // COLUMN_SIZE
+        result.add(rowType.getColumnSize());
+        // BUFFER_LENGTH
+        result.add(0);
+        // DECIMAL_DIGITS
+        result.add(rowType.getDecimalDigits());
+        // NUM_PREC_RADIX
+        result.add(0);
+        // COLUMN_NAME
+        result.add(nullable);
+        // REMARKS
+        result.add(remarks);
+        // COLUMN_DEF
+        result.add(columnDef);
+        // SQL_DATA_TYPE
+        result.add(0);
+        // SQL_DATETIME_SUB
+        result.add(0);
+        // CHAR_OCTET_LENGTH (for char types the maximum number of bytes in the column)
+        if (dataType == DatabendDataType.STRING) {
+            result.add(dataType.getLength());
+        } else {
+            result.add(null);
+        }
+        // ORDINAL_POSITION
+        result.add(ordinalPosition);
+        // IS_NULLABLE
+        result.add(isNullable);
+        result.add(null);
+        result.add(null);
+        result.add(null);
+        result.add(null);
+        // IS_AUTOINCREMENT
+        result.add("NO");
+        // IS_GENERATEDCOLUMN
+        result.add("NO");
+        return result;
     }
 
     public ResultSet getColumns(String catalog, String schemaPattern, String tableNamePattern, String[] columnNames) throws SQLException {
+        DatabendCatalogSnapshot snapshot = snapshotFor(schemaPattern);
+        if (snapshot != null) {
+            Set<String> names = columnNames == null || columnNames.length == 0 ? null : new HashSet<>(Arrays.asList(columnNames));
+            return snapshotColumns(snapshot, catalog, tableNamePattern, column -> names == null || names.contains(column));
+        }
         StringBuilder sql = columnMetaSqlTemplate();
         List<String> filters = new ArrayList<>();
         emptyStringEqualsFilter(filters, "table_catalog", catalog);
@@ -1100,6 +1125,11 @@ public class DatabendDatabaseMetaData implements DatabaseMetaData {
     @Override
     public ResultSet getColumns(String catalog, String schemaPattern, String tableNamePattern, String columnNamePattern)
             throws SQLException {
+        DatabendCatalogSnapshot snapshot = snapshotFor(schemaPattern);
+        if (snapshot != null) {
+            return snapshotColumns(snapshot, catalog, tableNamePattern == null ? null : tableNamePattern.replace("\\", ""),
+                    column -> matchesLike(columnNamePattern, column));
+        }
         StringBuilder sql = columnMetaSqlTemplate();
         List<String> filters = new ArrayList<>();
         emptyStringEqualsFilter(filters, "table_catalog", catalog);
@@ -1150,7 +1180,7 @@ public class DatabendDatabaseMetaData implements DatabaseMetaData {
                 " TRY_CAST(NULL AS smallint) key_seq, " +
                 " TRY_CAST(NULL AS varchar) pk_name " +
                 "WHERE false";
-        return select(query);
+        return cachedSelect("getPrimaryKeys", query);
     }
 
     @Override
@@ -1476,7 +1506,7 @@ public class DatabendDatabaseMetaData implements DatabaseMetaData {
         emptyStringEqualsFilter(filters, "schema_name", schemaPattern);
         buildFilters(sql, filters);
         sql.append("\n ORDER BY catalog_name, schema_name");
-        return select(sql.toString());
+        return cachedSelect("getSchemas", sql.toString());
     }
 
     @Override
@@ -1594,6 +1624,154 @@ public class DatabendDatabaseMetaData implements DatabaseMetaData {
         return iface.isInstance(this);
     }
 
+    /**
+     * Loads the tables and columns of {@code database} with one catalog query and keeps them on the connection, so
+     * schema crawlers calling {@code getTables} and {@code getColumns} table by table for that database no longer
+     * query the server each time. Loading again replaces the snapshot.
+     *
+     * @param database the database to load
+     * @return the loaded snapshot
+     * @throws SQLException if the catalog query fails
+     */
+    public DatabendCatalogSnapshot loadCatalogSnapshot(String database)
+            throws SQLException {
+        requireNonNull(database, "database is null");
+        boolean viewsMissing = checkVersionAddView();
+        StringBuilder sql = new StringBuilder(DatabendCatalogSnapshot.SNAPSHOT_SQL);
+        quoteStringLiteral(sql, database);
+        sql.append(DatabendCatalogSnapshot.SNAPSHOT_ORDER_BY);
+        DatabendCatalogSnapshot snapshot;
+        try (ResultSet rs = select(sql.toString())) {
+            snapshot = DatabendCatalogSnapshot.read(database, viewsMissing, rs);
+        }
+        connection.putCatalogSnapshot(snapshot);
+        return snapshot;
+    }
+
+    /**
+     * Stops answering metadata calls for {@code database} from its snapshot.
+     *
+     * @param database the database whose snapshot is dropped
+     */
+    public void dropCatalogSnapshot(String database) {
+        connection.removeCatalogSnapshot(database);
+    }
+
+    // a schema pattern without % names exactly one database, see stringColumnLike
+    private DatabendCatalogSnapshot snapshotFor(String schemaPattern) {
+        if (schemaPattern == null || schemaPattern.indexOf('%') >= 0) {
+            return null;
+        }
+        return connection.catalogSnapshot(schemaPattern);
+    }
+
+    private static final List<QueryRowField> TABLE_ROW_FIELDS = Collections.unmodifiableList(Arrays.asList(
+            new QueryRowField("TABLE_CAT", DatabendRawType.of("String")),
+            new QueryRowField("TABLE_SCHEM", DatabendRawType.of("String")),
+            new QueryRowField("TABLE_NAME", DatabendRawType.of("String")),
+            new QueryRowField("TABLE_TYPE", DatabendRawType.of("String")),
+            new QueryRowField("REMARKS", DatabendRawType.of("String")),
+            new QueryRowField("TYPE_CAT", DatabendRawType.of("String")),
+            new QueryRowField("TYPE_SCHEM", DatabendRawType.of("String")),
+            new QueryRowField("TYPE_NAME", DatabendRawType.of("String")),
+            new QueryRowField("SELF_REFERENCING_COL_NAME", DatabendRawType.of("String")),
+            new QueryRowField("REF_GENERATION", DatabendRawType.of("String"))));
+
+    private ResultSet snapshotTables(DatabendCatalogSnapshot snapshot, String catalog, String tableNamePattern, String[] types)
+            throws SQLException {
+        Set<String> tableTypes = types == null || types.length == 0 ? null : new HashSet<>(Arrays.asList(types));
+        List<DatabendCatalogSnapshot.Table> tables = new ArrayList<>();
+        for (DatabendCatalogSnapshot.Table table : snapshot.getTables()) {
+            if (matchesCatalog(catalog, table.catalog) && matchesLike(tableNamePattern, table.name)
+                    && (tableTypes == null || tableTypes.contains(table.type))) {
+                tables.add(table);
+            }
+        }
+        // same order as the ORDER BY of the getTables query
+        tables.sort(Comparator.comparing((DatabendCatalogSnapshot.Table table) -> table.type, Comparator.nullsFirst(Comparator.naturalOrder()))
+                .thenComparing(table -> table.name));
+        List<List<Object>> rows = new ArrayList<>(tables.size());
+        for (DatabendCatalogSnapshot.Table table : tables) {
+            rows.add(Arrays.<Object>asList(table.catalog, table.schema, table.name, table.type, table.comment, "",
+                    table.engine, table.engine, "", ""));
+        }
+        return new DatabendUnboundQueryResultSet(Optional.ofNullable(connection.createStatement()), TABLE_ROW_FIELDS, rows.iterator());
+    }
+
+    private ResultSet snapshotColumns(DatabendCatalogSnapshot snapshot, String catalog, String tableNamePattern, Predicate<String> columnFilter)
+            throws SQLException {
+        List<List<Object>> rows = new ArrayList<>();
+        for (DatabendCatalogSnapshot.Table table : snapshot.getTables()) {
+            if (!matchesCatalog(catalog, table.catalog) || !matchesLike(tableNamePattern, table.name)) {
+                continue;
+            }
+            for (DatabendCatalogSnapshot.Column column : table.columns) {
+                if (columnFilter.test(column.name)) {
+                    rows.add(columnMetaRow(table.catalog, table.schema, table.name, column.name, column.type, column.nullable,
+                            column.comment, column.defaultValue, column.ordinalPosition, column.isNullable));
+                }
+            }
+        }
+        return new DatabendUnboundQueryResultSet(Optional.ofNullable(connection.createStatement()),
+                Collections.unmodifiableList(META_ROW_FIELDS), rows.iterator());
+    }
+
+    // mirrors emptyStringEqualsFilter, an empty catalog is filtered with IS NULL
+    private static boolean matchesCatalog(String catalog, String value) {
+        return catalog == null || (!catalog.isEmpty() && catalog.equals(value));
+    }
+
+    // mirrors stringColumnLike: a pattern without % is compared for equality, otherwise % and _ are wildcards
+    @VisibleForTesting
+    static boolean matchesLike(String pattern, String value) {
+        if (pattern == null || pattern.isEmpty()) {
+            return true;
+        }
+        if (value == null) {
+            return false;
+        }
+        if (pattern.indexOf('%') < 0) {
+            return pattern.equals(value);
+        }
+        StringBuilder regex = new StringBuilder();
+        for (int i = 0; i < pattern.length(); i++) {
+            char c = pattern.charAt(i);
+            if (c == '\\' && i + 1 < pattern.length()) {
+                regex.append(Pattern.quote(String.valueOf(pattern.charAt(++i))));
+            } else if (c == '%') {
+                regex.append(".*");
+            } else if (c == '_') {
+                regex.append('.');
+            } else {
+                regex.append(Pattern.quote(String.valueOf(c)));
+            }
+        }
+        return Pattern.compile(regex.toString(), Pattern.DOTALL).matcher(value).matches();
+    }
+
+    /**
+     * Runs a catalog query through the connection's metadata cache, or straight against the server while the cache
+     * is disabled.
+     */
+    private ResultSet cachedSelect(String method, String sql)
+            throws SQLException {
+        MetadataCache cache = connection.metadataCache();
+        if (!cache.isEnabled()) {
+            return select(sql);
+        }
+        MetadataCache.Rows rows = cache.get(cacheKey(method, sql), () -> {
+            try (ResultSet rs = select(sql)) {
+                return MetadataCache.Rows.read(rs);
+            }
+        });
+        return rows.toResultSet(connection.createStatement());
+    }
+
+    // keyed by the current database, the method and its patterns, which the SQL carries
+    private String cacheKey(String method, String sql) throws SQLException {
+        return method + "\n" + connection.getSchema() + "\n" + sql;
+    }
+
     private ResultSet select(String sql)
             throws SQLException {
         Statement statement = getConnection().createStatement();
@@ -1,6 +1,9 @@
 package com.databend.jdbc;
 
+import com.databend.jdbc.internal.BatchUploadFormat;
 import com.databend.jdbc.internal.QueryResultFormat;
+import com.databend.jdbc.internal.UploadCompression;
+import com.databend.jdbc.internal.http.PresignClientConfig;
 import com.databend.jdbc.internal.session.DatabendSessionCookieJar;
 import com.databend.jdbc.internal.session.SessionHandleConfig;
 import com.databend.jdbc.internal.session.SessionState;
@@ -58,6 +61,19 @@ final class DatabendDriverUri {
     private final String nullDisplay;
     private final String binaryFormat;
     private final QueryResultFormat queryResultFormat;
+    private final BatchUploadFormat batchUploadFormat;
+    private final UploadCompression uploadCompression;
+    private final Integer uploadCompressionWorkers;
+    private final PresignClientConfig presignClientConfig;
+    private final Integer downloadParallelism;
+    private final Integer asyncMaxRequests;
+    private final boolean virtualThreads;
+    private final Integer downloadChunkSize;
+    private final Integer downloadBufferSize;
+    private final Integer uploadSpoolSize;
+    private final Integer uploadRetryAttempts;
+    private final boolean batchUploadStreaming;
+    private final boolean batchUploadCompress;
     private final String database;
     private final boolean presignedUrlDisabled;
     private final String presign;
@@ -67,6 +83,15 @@ final class DatabendDriverUri {
     private final Integer waitTimeSecs;
     private final Integer maxRowsInBuffer;
     private final Integer maxRowsPerPage;
+    private final Integer prefetchPages;
+    private final Integer prefetchMaxBytes;
+    private final Integer preparedStatementCacheSize;
+    private final Integer metadataCacheTtl;
+    private final Integer metadataCacheSize;
+    private final Integer autoArrowMinRows;
+    private final Integer batchParallelism;
+    private final Integer batchUploadChunkRows;
+    private final Integer batchUploadParallelism;
 
     private final Map<String, String> sessionSettings;
 
@@ -92,11 +117,39 @@ final class DatabendDriverUri {
         this.nullDisplay = NULL_DISPLAY.getValue(properties).orElse("\\N");
         this.binaryFormat = BINARY_FORMAT.getValue(properties).orElse("");
         this.queryResultFormat = QueryResultFormat.fromValue(QUERY_RESULT_FORMAT.getValue(properties).orElse("json"));
+        this.batchUploadFormat = BatchUploadFormat.fromValue(BATCH_UPLOAD_FORMAT.getValue(properties).orElse("csv"));
+        this.uploadCompression = UploadCompression.fromValue(ConnectionProperties.UPLOAD_COMPRESSION.getValue(properties).orElse("gzip"));
+        this.uploadCompressionWorkers = ConnectionProperties.UPLOAD_COMPRESSION_WORKERS.getRequiredValue(properties);
+        this.presignClientConfig = PresignClientConfig.builder()
+                .setMaxIdleConnections(ConnectionProperties.PRESIGN_MAX_IDLE_CONNECTIONS.getRequiredValue(properties))
+                .setKeepAliveSecs(ConnectionProperties.PRESIGN_KEEP_ALIVE_SECS.getRequiredValue(properties))
+                .setConnectTimeoutSecs(ConnectionProperties.PRESIGN_CONNECTION_TIMEOUT.getRequiredValue(properties))
+                .setSocketTimeoutSecs(ConnectionProperties.PRESIGN_SOCKET_TIMEOUT.getRequiredValue(properties))
+                .setHttp2(ConnectionProperties.PRESIGN_HTTP2.getRequiredValue(properties))
+                .build();
+        this.downloadParallelism = ConnectionProperties.DOWNLOAD_PARALLELISM.getRequiredValue(properties);
+        this.asyncMaxRequests = ConnectionProperties.ASYNC_MAX_REQUESTS.getRequiredValue(properties);
+        this.virtualThreads = ConnectionProperties.VIRTUAL_THREADS.getRequiredValue(properties);
+        this.downloadChunkSize = ConnectionProperties.DOWNLOAD_CHUNK_SIZE.getRequiredValue(properties);
+        this.downloadBufferSize = ConnectionProperties.DOWNLOAD_BUFFER_SIZE.getRequiredValue(properties);
+        this.uploadSpoolSize = ConnectionProperties.UPLOAD_SPOOL_SIZE.getRequiredValue(properties);
+        this.uploadRetryAttempts = ConnectionProperties.UPLOAD_RETRY_ATTEMPTS.getRequiredValue(properties);
+        this.batchUploadStreaming = BATCH_UPLOAD_STREAMING.getValue(properties).orElse(false);
+        this.batchUploadCompress = BATCH_UPLOAD_COMPRESS.getValue(properties).orElse(false);
         this.waitTimeSecs = WAIT_TIME_SECS.getRequiredValue(properties);
         this.connectionTimeout = CONNECTION_TIMEOUT.getRequiredValue(properties);
         this.queryTimeout = QUERY_TIMEOUT.getRequiredValue(properties);
         this.maxRowsInBuffer = ConnectionProperties.MAX_ROWS_IN_BUFFER.getRequiredValue(properties);
         this.maxRowsPerPage = ConnectionProperties.MAX_ROWS_PER_PAGE.getRequiredValue(properties);
+        this.prefetchPages = ConnectionProperties.PREFETCH_PAGES.getRequiredValue(properties);
+        this.prefetchMaxBytes = ConnectionProperties.PREFETCH_MAX_BYTES.getRequiredValue(properties);
+        this.preparedStatementCacheSize = ConnectionProperties.PREPARED_STATEMENT_CACHE_SIZE.getRequiredValue(properties);
+        this.metadataCacheTtl = ConnectionProperties.METADATA_CACHE_TTL.getRequiredValue(properties);
+        this.metadataCacheSize = ConnectionProperties.METADATA_CACHE_SIZE.getRequiredValue(properties);
+        this.autoArrowMinRows = ConnectionProperties.AUTO_ARROW_MIN_ROWS.getRequiredValue(properties);
+        this.batchParallelism = ConnectionProperties.BATCH_PARALLELISM.getRequiredValue(properties);
+        this.batchUploadChunkRows = ConnectionProperties.BATCH_UPLOAD_CHUNK_ROWS.getRequiredValue(properties);
+        this.batchUploadParallelism = ConnectionProperties.BATCH_UPLOAD_PARALLELISM.getRequiredValue(properties);
         Integer socketTimeout = SOCKET_TIMEOUT.getRequiredValue(properties);
         if (socketTimeout <= this.waitTimeSecs + 10) {
             this.socketTimeout = this.waitTimeSecs + 10;
@@ -366,6 +419,58 @@ final class DatabendDriverUri {
         return queryResultFormat.value();
     }
 
+    public BatchUploadFormat getBatchUploadFormat() {
+        return batchUploadFormat;
+    }
+
+    public UploadCompression getUploadCompression() {
+        return uploadCompression;
+    }
+
+    public Integer getUploadCompressionWorkers() {
+        return uploadCompressionWorkers;
+    }
+
+    public PresignClientConfig getPresignClientConfig() {
+        return presignClientConfig;
+    }
+
+    public Integer getAsyncMaxRequests() {
+        return asyncMaxRequests;
+    }
+
+    public boolean useVirtualThreads() {
+        return virtualThreads;
+    }
+
+    public Integer getDownloadParallelism() {
+        return downloadParallelism;
+    }
+
+    public Integer getDownloadChunkSize() {
+        return downloadChunkSize;
+    }
+
+    public Integer getDownloadBufferSize() {
+        return downloadBufferSize;
+    }
+
+    public Integer getUploadSpoolSize() {
+        return uploadSpoolSize;
+    }
+
+    public Integer getUploadRetryAttempts() {
+        return uploadRetryAttempts;
+    }
+
+    public boolean batchUploadStreaming() {
+        return batchUploadStreaming;
+    }
+
+    public boolean batchUploadCompress() {
+        return batchUploadCompress;
+    }
+
     public Integer getConnectionTimeout() {
         return connectionTimeout;
     }
@@ -390,6 +495,42 @@ final class DatabendDriverUri {
         return maxRowsPerPage;
     }
 
+    public Integer getPrefetchPages() {
+        return prefetchPages;
+    }
+
+    public Integer getPrefetchMaxBytes() {
+        return prefetchMaxBytes;
+    }
+
+    public Integer getPreparedStatementCacheSize() {
+        return preparedStatementCacheSize;
+    }
+
+    public Integer getMetadataCacheTtl() {
+        return metadataCacheTtl;
+    }
+
+    public Integer getMetadataCacheSize() {
+        return metadataCacheSize;
+    }
+
+    public Integer getAutoArrowMinRows() {
+        return autoArrowMinRows;
+    }
+
+    public Integer getBatchParallelism() {
+        return batchParallelism;
+    }
+
+    public Integer getBatchUploadChunkRows() {
+        return batchUploadChunkRows;
+    }
+
+    public Integer getBatchUploadParallelism() {
+        return batchUploadParallelism;
+    }
+
     public Map<String, String> getSessionSettings() {
         return sessionSettings;
     }
@@ -405,12 +546,21 @@ final class DatabendDriverUri {
                 .setConnectionTimeoutSecs(this.connectionTimeout)
                 .setSocketTimeoutSecs(this.socketTimeout)
                 .setQueryResultFormat(this.queryResultFormat)
+                .setAutoArrowMinRows(this.autoArrowMinRows)
                 .setWaitTimeSecs(this.waitTimeSecs)
                 .setMaxRowsInBuffer(this.maxRowsInBuffer)
                 .setMaxRowsPerPage(this.maxRowsPerPage)
                 .setWarehouse(this.warehouse)
                 .setTenant(this.tenant)
                 .setDebug(this.debug)
+                .setUploadCompression(this.uploadCompression)
+                .setUploadCompressionWorkers(this.uploadCompressionWorkers)
+                .setPresignClientConfig(this.presignClientConfig)
+                .setDownloadParallelism(this.downloadParallelism)
+                .setDownloadChunkSize(this.downloadChunkSize)
+                .setDownloadBufferSize(this.downloadBufferSize)
+                .setUploadSpoolSize(this.uploadSpoolSize)
+                .setUploadRetryAttempts(this.uploadRetryAttempts)
                 .setInitialSession(initialSession)
                 .build();
     }
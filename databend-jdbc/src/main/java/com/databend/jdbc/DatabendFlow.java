@@ -0,0 +1,41 @@
+package com.databend.jdbc;
+
+/**
+ * Reactive streams interfaces of the driver. The driver still runs on Java 8, which has no
+ * {@code java.util.concurrent.Flow}, so these interfaces follow the same contract and method signatures. On
+ * Java 9 and later a {@link Publisher} can be handed to any {@code Flow} based library with a one method adapter.
+ */
+public final class DatabendFlow {
+    private DatabendFlow() {
+    }
+
+    @FunctionalInterface
+    public interface Publisher<T> {
+        /**
+         * Adds the subscriber. Every subscription runs the query again.
+         */
+        void subscribe(Subscriber<? super T> subscriber);
+    }
+
+    public interface Subscriber<T> {
+        void onSubscribe(Subscription subscription);
+
+        void onNext(T item);
+
+        void onError(Throwable throwable);
+
+        void onComplete();
+    }
+
+    public interface Subscription {
+        /**
+         * Adds {@code n} items to the demand, result pages are only fetched while there is demand for their items.
+         */
+        void request(long n);
+
+        /**
+         * Stops the delivery and releases the query on the server.
+         */
+        void cancel();
+    }
+}
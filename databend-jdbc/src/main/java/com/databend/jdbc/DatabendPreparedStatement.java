@@ -1,10 +1,13 @@
 package com.databend.jdbc;
 
-import com.databend.jdbc.internal.data.DatabendRawType;
+import com.databend.jdbc.internal.BatchUploadFormat;
+import com.databend.jdbc.internal.WorkerExecutors;
 import com.databend.jdbc.internal.data.IntervalCodec;
+import com.databend.jdbc.internal.binding.ArrowBatchWriter;
 import com.databend.jdbc.internal.binding.BatchInsertUtils;
 import com.databend.jdbc.internal.binding.RawStatementWrapper;
-import com.databend.jdbc.internal.binding.StatementUtil;
+import com.databend.jdbc.internal.binding.SqlTemplate;
+import com.databend.jdbc.internal.http.StreamingRequestBody;
 import com.databend.jdbc.internal.query.StageAttachment;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -17,10 +20,13 @@ import java.sql.*;
 import java.time.*;
 import java.time.format.DateTimeFormatterBuilder;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 import java.util.logging.Logger;
-import java.util.regex.Matcher;
-import java.util.stream.Collectors;
 
 import static com.databend.jdbc.DatabendConstant.*;
 import static com.databend.jdbc.internal.binding.ObjectCasts.*;
@@ -57,25 +63,28 @@ public class DatabendPreparedStatement extends DatabendStatement implements Prep
     private final List<String[]> batchValues;
     private final List<String[]> batchValuesCSV;
     private final BatchInsertUtils batchInsertUtils;
+    private final PreparedStatementCache.ParsedStatement parsed;
+    private final boolean batchInsert;
+    // set when batch inserts are uploaded as Parquet instead of CSV
+    private final boolean parquetBatchUpload;
+    private ArrowBatchWriter arrowBatch;
 
     private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final String PARQUET_FILE_FORMAT = "PARQUET";
 
     DatabendPreparedStatement(DatabendConnection connection, Consumer<DatabendStatement> onClose, String sql) throws SQLException {
         super(connection, onClose);
         this.batchValues = new ArrayList<>();
         this.batchValuesCSV = new ArrayList<>();
         this.batchInsertUtils = new BatchInsertUtils(sql);
-        this.rawStatement = StatementUtil.parseToRawStatementWrapper(sql);
+        this.parsed = connection.parseStatement(sql);
+        this.rawStatement = parsed.getRawStatement();
         if(this.rawStatement.getSubStatements().size() > 1) {
             throw new SQLException("Databend do not support multi statement for now");
         }
-        Map<Integer, String> params = StatementUtil.extractColumnTypes(sql);
-        List<DatabendColumnInfo> list = params.entrySet().stream().map(entry -> {
-            String type = entry.getValue();
-            DatabendRawType databendRawType = new DatabendRawType(type);
-            return DatabendColumnInfo.of(entry.getKey().toString(), databendRawType);
-        }).collect(Collectors.toList());
-        this.paramMetaData = new DatabendParameterMetaData(Collections.unmodifiableList(list), new JdbcTypeMapping());
+        this.batchInsert = parsed.isBatchInsert();
+        this.parquetBatchUpload = connection.batchUploadFormat() == BatchUploadFormat.PARQUET && batchInsert;
+        this.paramMetaData = parsed.getParamMetaData();
     }
 
     private static String formatBooleanLiteral(boolean x) {
@@ -123,30 +132,161 @@ public class DatabendPreparedStatement extends DatabendStatement implements Prep
     public void close()
             throws SQLException {
         super.close();
+        if (arrowBatch != null) {
+            arrowBatch.close();
+            arrowBatch = null;
+        }
     }
 
     private StageAttachment uploadBatches() throws SQLException {
+        DatabendConnection connection = getConnection().unwrap(DatabendConnection.class);
+        if (parquetBatchUpload) {
+            if (arrowBatch == null || arrowBatch.getRowCount() == 0) {
+                return null;
+            }
+            List<String> columnNames = insertColumnNames(connection);
+            if (connection.batchUploadStreaming()) {
+                return uploadBatchStream(connection, ".parquet",
+                        out -> arrowBatch.writeTo(columnNames, out), PARQUET_FILE_FORMAT, false);
+            }
+            String id = UUID.randomUUID().toString().replace("-", "");
+            File saved = new File(System.getProperty("java.io.tmpdir"), "databend_batch_insert_" + id + ".parquet");
+            try (FileOutputStream fos = new FileOutputStream(saved)) {
+                arrowBatch.writeTo(columnNames, fos);
+            } catch (IOException e) {
+                saved.delete();
+                throw new SQLException(e);
+            }
+            return uploadBatchFile(saved, PARQUET_FILE_FORMAT);
+        }
         if (this.batchValuesCSV == null || this.batchValuesCSV.size() == 0) {
             return null;
         }
-        File saved = batchInsertUtils.saveBatchToCSV(batchValuesCSV);
+        int chunkRows = connection.batchUploadChunkRows();
+        if (chunkRows > 0 && batchValuesCSV.size() > chunkRows) {
+            return uploadBatchChunks(connection, chunkRows);
+        }
+        if (connection.batchUploadStreaming()) {
+            return uploadBatchStream(connection, ".csv",
+                    out -> batchInsertUtils.writeBatchToCSV(batchValuesCSV, out), null, connection.batchUploadCompress());
+        }
+        return uploadBatchFile(batchInsertUtils.saveBatchToCSV(batchValuesCSV), null);
+    }
+
+    // Parquet columns are loaded by name, an INSERT that does not list its columns binds every column of the table
+    private List<String> insertColumnNames(DatabendConnection connection) throws SQLException {
+        List<String> names = batchInsertUtils.getInsertColumnNames();
+        if (!names.isEmpty()) {
+            return names;
+        }
+        String table = batchInsertUtils.getDatabaseTableName();
+        if (table == null) {
+            throw new SQLException("Cannot find the table of the batch insert: " + batchInsertUtils.getSql());
+        }
+        names = new ArrayList<>();
+        try (Statement statement = connection.createStatement();
+                ResultSet columns = statement.executeQuery("SELECT * FROM " + table + " LIMIT 0")) {
+            ResultSetMetaData metaData = columns.getMetaData();
+            for (int i = 1; i <= metaData.getColumnCount(); i++) {
+                names.add(metaData.getColumnName(i));
+            }
+        }
+        return names;
+    }
+
+    // encodes the batch straight into the upload request, nothing is written to local disk
+    private StageAttachment uploadBatchStream(DatabendConnection connection, String extension,
+            StreamingRequestBody.ContentWriter writer, String fileFormat, boolean compress) throws SQLException {
+        String stagePrefix = batchStagePrefix();
+        String fileName = "databend_batch_insert_" + UUID.randomUUID().toString().replace("-", "") + extension
+                + (compress ? connection.uploadCompression().fileExtension() : "");
+        connection.uploadStream(null, stagePrefix, fileName, writer, compress);
+        String stagePath = "@~/" + stagePrefix + fileName;
+        return buildStateAttachment(connection, stagePath, fileFormat, compress ? connection.uploadCompression().name() : null);
+    }
+
+    /**
+     * Uploads the batch as several CSV files of at most {@code chunkRows} rows under one stage directory, up to
+     * {@code batch_upload_parallelism} at a time. The attachment points at the directory so the server loads every
+     * chunk in the same {@code INSERT}. Each chunk is uploaded from a replayable body, so a failed attempt resends
+     * only that chunk. A chunk that still fails once its retries are used up fails the batch, and the chunks already
+     * on the stage are removed.
+     */
+    private StageAttachment uploadBatchChunks(DatabendConnection connection, int chunkRows) throws SQLException {
+        String stagePrefix = batchStagePrefix();
+        boolean streaming = connection.batchUploadStreaming();
+        boolean compress = streaming && connection.batchUploadCompress();
+        int chunks = (batchValuesCSV.size() + chunkRows - 1) / chunkRows;
+        int parallelism = Math.min(connection.batchUploadParallelism(), chunks);
+        AtomicInteger nextChunk = new AtomicInteger();
+        AtomicBoolean failed = new AtomicBoolean();
+        ExecutorService executor = connection.workerExecutor().orElse(WorkerExecutors.sharedPool());
+        List<Future<?>> workers = new ArrayList<>(parallelism);
+        for (int w = 0; w < parallelism; w++) {
+            workers.add(executor.submit(() -> {
+                int chunk;
+                try {
+                    while (!failed.get() && (chunk = nextChunk.getAndIncrement()) < chunks) {
+                        int from = chunk * chunkRows;
+                        List<String[]> rows = batchValuesCSV.subList(from, Math.min(from + chunkRows, batchValuesCSV.size()));
+                        uploadBatchChunk(connection, stagePrefix, String.format("part_%05d.csv", chunk), rows, streaming, compress);
+                    }
+                } catch (SQLException | RuntimeException e) {
+                    failed.set(true);
+                    throw e;
+                }
+                return null;
+            }));
+        }
+        StageAttachment attachment = buildStateAttachment(connection, "@~/" + stagePrefix, null,
+                compress ? connection.uploadCompression().name() : null);
+        try {
+            awaitWorkers(workers, failed, "upload batch");
+        } catch (SQLException | RuntimeException e) {
+            // chunks that did make it to the stage would otherwise be left behind
+            dropStageAttachment(attachment);
+            throw e;
+        }
+        return attachment;
+    }
+
+    private void uploadBatchChunk(DatabendConnection connection, String stagePrefix, String fileName, List<String[]> rows,
+            boolean streaming, boolean compress) throws SQLException {
+        if (streaming) {
+            connection.uploadStream(null, stagePrefix, fileName + (compress ? connection.uploadCompression().fileExtension() : ""),
+                    out -> batchInsertUtils.writeBatchToCSV(rows, out), compress);
+            return;
+        }
+        File saved = batchInsertUtils.saveBatchToCSV(rows);
+        try {
+            connection.uploadFile(null, stagePrefix, saved, fileName);
+        } finally {
+            saved.delete();
+        }
+    }
+
+    private static String batchStagePrefix() {
+        String uuid = UUID.randomUUID().toString().replace("-", "");
+        // format %Y/%m/%d/%H/%M/%S/fileName.csv
+        return String.format("%s/%s/%s/%s/%s/%s/%s/",
+                LocalDateTime.now().getYear(),
+                LocalDateTime.now().getMonthValue(),
+                LocalDateTime.now().getDayOfMonth(),
+                LocalDateTime.now().getHour(),
+                LocalDateTime.now().getMinute(),
+                LocalDateTime.now().getSecond(),
+                uuid);
+    }
+
+    private StageAttachment uploadBatchFile(File saved, String fileFormat) throws SQLException {
         try (FileInputStream fis = new FileInputStream(saved)) {
             Connection c = getConnection();
-            String uuid = UUID.randomUUID().toString().replace("-", "");
-            // format %Y/%m/%d/%H/%M/%S/fileName.csv
-            String stagePrefix = String.format("%s/%s/%s/%s/%s/%s/%s/",
-                    LocalDateTime.now().getYear(),
-                    LocalDateTime.now().getMonthValue(),
-                    LocalDateTime.now().getDayOfMonth(),
-                    LocalDateTime.now().getHour(),
-                    LocalDateTime.now().getMinute(),
-                    LocalDateTime.now().getSecond(),
-                    uuid);
+            String stagePrefix = batchStagePrefix();
             String fileName = saved.getName();
             // upload to stage
             c.unwrap(DatabendConnection.class).uploadStream(null, stagePrefix, fis, fileName, saved.length(), false);
             String stagePath = "@~/" + stagePrefix + fileName;
-            return buildStateAttachment((DatabendConnection) c, stagePath);
+            return buildStateAttachment(c, stagePath, fileFormat, null);
         } catch (Exception e) {
             throw new SQLException(e);
         } finally {
@@ -177,10 +317,21 @@ public class DatabendPreparedStatement extends DatabendStatement implements Prep
      * @return A StageAttachment object which contains the details of the stage.
      */
     static StageAttachment buildStateAttachment(Connection conn, String stagePath) {
+        return buildStateAttachment(conn, stagePath, null, null);
+    }
+
+    private static StageAttachment buildStateAttachment(Connection conn, String stagePath, String fileFormat, String compression) {
         DatabendConnection connection = (DatabendConnection) conn;
 
         Map<String, String> fileFormatOptions = new HashMap<>();
-        if (!Objects.equals(connection.binaryFormat(), "")) {
+        if (fileFormat != null) {
+            fileFormatOptions.put("type", fileFormat);
+        }
+        if (compression != null) {
+            fileFormatOptions.put("compression", compression);
+        }
+        // binary_format is a text format option, Parquet stores binary values as they are
+        if (fileFormat == null && !Objects.equals(connection.binaryFormat(), "")) {
             fileFormatOptions.put("binary_format", String.valueOf(connection.binaryFormat()));
         }
         Map<String, String> copyOptions = new HashMap<>();
@@ -211,8 +362,8 @@ public class DatabendPreparedStatement extends DatabendStatement implements Prep
     }
 
     int[] executeBatchByAttachment() throws SQLException {
-        int[] batchUpdateCounts = new int[batchValues.size()];
-        if (batchValues.isEmpty()) {
+        int[] batchUpdateCounts = new int[batchSize()];
+        if (batchUpdateCounts.length == 0) {
             return batchUpdateCounts;
         }
         StageAttachment attachment = uploadBatches();
@@ -258,28 +409,93 @@ public class DatabendPreparedStatement extends DatabendStatement implements Prep
 
     @Override
     public int[] executeBatch() throws SQLException {
-        if (isBatchInsert(batchInsertUtils.getSql())) {
+        if (batchInsert) {
             return executeBatchByAttachment();
-        } else {
-            int[] batchUpdateCounts = new int[batchValues.size()];
-            for (int i = 0; i < batchValues.size(); i++) {
-                String [] values = batchValues.get(i);
-                Map<Integer, String> m = new HashMap<>();
-                for (int j = 0; j< values.length; j++){
-                    m.put(j + 1, values[j]);
+        }
+        int[] batchUpdateCounts = new int[batchValues.size()];
+        SqlTemplate template = parsed.getTemplate();
+        DatabendConnection connection = getConnection().unwrap(DatabendConnection.class);
+        int parallelism = Math.min(connection.batchParallelism(), batchValues.size());
+        // rows of a transaction must run in order on the session, so only batches outside one fan out. The
+        // server's txn_state also catches a transaction opened with an explicit BEGIN while autocommit is on.
+        if (parallelism > 1 && connection.getAutoCommit() && !connection.inActiveTransaction()) {
+            executeBatchConcurrently(connection, template, batchUpdateCounts, parallelism);
+            return batchUpdateCounts;
+        }
+        StringBuilder sql = new StringBuilder();
+        for (int i = 0; i < batchValues.size(); i++) {
+            sql.setLength(0);
+            template.appendTo(sql, batchValues.get(i));
+            this.execute(sql.toString());
+            batchUpdateCounts[i] = getUpdateCount();
+        }
+        return batchUpdateCounts;
+    }
+
+    /**
+     * Runs the rows of a non-INSERT batch over {@code parallelism} statements of the same connection at once.
+     * Rows are handed out in order but may complete out of order, so this is only suitable for rows that do not
+     * depend on each other.
+     */
+    private void executeBatchConcurrently(DatabendConnection connection, SqlTemplate template, int[] batchUpdateCounts, int parallelism)
+            throws SQLException {
+        AtomicInteger nextRow = new AtomicInteger();
+        AtomicBoolean failed = new AtomicBoolean();
+        ExecutorService executor = connection.workerExecutor().orElse(WorkerExecutors.sharedPool());
+        List<Future<?>> workers = new ArrayList<>(parallelism);
+        for (int w = 0; w < parallelism; w++) {
+            workers.add(executor.submit(() -> {
+                StringBuilder sql = new StringBuilder();
+                try (Statement statement = connection.createStatement()) {
+                    int row;
+                    while (!failed.get() && (row = nextRow.getAndIncrement()) < batchUpdateCounts.length) {
+                        sql.setLength(0);
+                        template.appendTo(sql, batchValues.get(row));
+                        statement.execute(sql.toString());
+                        batchUpdateCounts[row] = statement.getUpdateCount();
+                    }
+                } catch (SQLException | RuntimeException e) {
+                    failed.set(true);
+                    throw e;
+                }
+                return null;
+            }));
+        }
+        awaitWorkers(workers, failed, "execute batch");
+    }
+
+    // waits for every worker so none is still running on return, then rethrows the first failure
+    private static void awaitWorkers(List<Future<?>> workers, AtomicBoolean failed, String action) throws SQLException {
+        Throwable failure = null;
+        for (Future<?> worker : workers) {
+            try {
+                worker.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                failed.set(true);
+                throw new SQLException("Interrupted while trying to " + action, e);
+            } catch (ExecutionException e) {
+                if (failure == null) {
+                    failure = e.getCause();
                 }
-                String sql = replaceParameterMarksWithValues(m, this.rawStatement).get(0).getSql();
-                this.execute(sql);
-                batchUpdateCounts[i]= getUpdateCount();
             }
-            return batchUpdateCounts;
+        }
+        if (failure instanceof SQLException) {
+            throw (SQLException) failure;
+        }
+        if (failure instanceof RuntimeException) {
+            throw (RuntimeException) failure;
+        }
+        if (failure != null) {
+            throw new SQLException("Failed to " + action, failure);
         }
     }
 
-    private static boolean isBatchInsert(String sql) {
-        sql = sql.toLowerCase();
-        Matcher matcher = INSERT_INTO_PATTERN.matcher(sql);
-        return matcher.find() && !sql.contains(DATABEND_KEYWORDS_SELECT);
+    private int batchSize() {
+        if (parquetBatchUpload) {
+            return arrowBatch == null ? 0 : arrowBatch.getRowCount();
+        }
+        return batchValues.size();
     }
 
     private void setValueStringNoQuote(int index, String value) {
@@ -291,7 +507,11 @@ public class DatabendPreparedStatement extends DatabendStatement implements Prep
     }
 
     private void setValueNull(int index) {
-        setValue(index, "null", "\\N");
+        batchInsertUtils.setPlaceHolderValue(index, "null", "\\N", null);
+    }
+
+    private void setValueTyped(int index, String value, Object typedValue) {
+        batchInsertUtils.setPlaceHolderValue(index, value, value, typedValue);
     }
 
     private void setValue(int index, String value, String csvValue) {
@@ -309,49 +529,49 @@ public class DatabendPreparedStatement extends DatabendStatement implements Prep
     public void setBoolean(int i, boolean b)
             throws SQLException {
         checkOpen();
-        setValueStringNoQuote(i, formatBooleanLiteral(b));
+        setValueTyped(i, formatBooleanLiteral(b), b);
     }
 
     @Override
     public void setByte(int i, byte b)
             throws SQLException {
         checkOpen();
-        setValueStringNoQuote(i, formatByteLiteral(b));
+        setValueTyped(i, formatByteLiteral(b), b);
     }
 
     @Override
     public void setShort(int i, short i1)
             throws SQLException {
         checkOpen();
-        setValueStringNoQuote(i, formatShortLiteral(i1));
+        setValueTyped(i, formatShortLiteral(i1), i1);
     }
 
     @Override
     public void setInt(int i, int i1)
             throws SQLException {
         checkOpen();
-        setValueStringNoQuote(i, formatIntLiteral(i1));
+        setValueTyped(i, formatIntLiteral(i1), i1);
     }
 
     @Override
     public void setLong(int i, long l)
             throws SQLException {
         checkOpen();
-        setValueStringNoQuote(i, formatLongLiteral(l));
+        setValueTyped(i, formatLongLiteral(l), l);
     }
 
     @Override
     public void setFloat(int i, float v)
             throws SQLException {
         checkOpen();
-        setValueStringNoQuote(i, formatFloatLiteral(v));
+        setValueTyped(i, formatFloatLiteral(v), v);
     }
 
     @Override
     public void setDouble(int i, double v)
             throws SQLException {
         checkOpen();
-        setValueStringNoQuote(i, formatDoubleLiteral(v));
+        setValueTyped(i, formatDoubleLiteral(v), v);
     }
 
     @Override
@@ -623,6 +843,15 @@ public class DatabendPreparedStatement extends DatabendStatement implements Prep
             throws SQLException {
         checkOpen();
 
+        if (parquetBatchUpload) {
+            if (arrowBatch == null) {
+                arrowBatch = new ArrowBatchWriter();
+            }
+            arrowBatch.addRow(batchInsertUtils.getTypedValues());
+            batchInsertUtils.clean();
+            return;
+        }
+
         String[] val = batchInsertUtils.getValues();
         batchValues.add(val);
 
@@ -637,6 +866,9 @@ public class DatabendPreparedStatement extends DatabendStatement implements Prep
         checkOpen();
         batchValues.clear();
         batchValuesCSV.clear();
+        if (arrowBatch != null) {
+            arrowBatch.clear();
+        }
         batchInsertUtils.clean();
     }
 
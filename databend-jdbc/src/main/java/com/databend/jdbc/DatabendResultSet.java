@@ -12,11 +12,15 @@ import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import javax.annotation.concurrent.GuardedBy;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
@@ -35,8 +39,9 @@ public class DatabendResultSet extends AbstractDatabendResultSet {
 
     private final QueryLiveness liveness;
 
-    private DatabendResultSet(Statement statement, QueryResultPages queryPages, List<QueryRowField> schema, Map<String, String> resultSetting, long maxRows, QueryLiveness liveness) {
-        this(statement, queryPages, schema, resultSetting, maxRows, liveness, new PrefetchingPageSource(queryPages, liveness));
+    private DatabendResultSet(Statement statement, QueryResultPages queryPages, List<QueryRowField> schema, Map<String, String> resultSetting, long maxRows, QueryLiveness liveness,
+            int prefetchPages, long prefetchMaxBytes, ExecutorService prefetchExecutor) {
+        this(statement, queryPages, schema, resultSetting, maxRows, liveness, new PrefetchingPageSource(queryPages, liveness, prefetchExecutor, prefetchPages, prefetchMaxBytes));
     }
 
     private DatabendResultSet(Statement statement, QueryResultPages queryPages, List<QueryRowField> schema, Map<String, String> resultSetting, long maxRows, QueryLiveness liveness, PrefetchingPageSource pageSource) {
@@ -48,6 +53,13 @@ public class DatabendResultSet extends AbstractDatabendResultSet {
 
     static DatabendResultSet create(Statement statement, QueryResultPages queryPages, long maxRows, Capability capability)
             throws SQLException {
+        return create(statement, queryPages, maxRows, capability,
+                PrefetchingPageSource.DEFAULT_PREFETCH_PAGES, PrefetchingPageSource.DEFAULT_PREFETCH_MAX_BYTES, PrefetchingPageSource.DEFAULT_EXECUTOR);
+    }
+
+    static DatabendResultSet create(Statement statement, QueryResultPages queryPages, long maxRows, Capability capability, int prefetchPages, long prefetchMaxBytes,
+            ExecutorService prefetchExecutor)
+            throws SQLException {
         requireNonNull(queryPages, "queryPages is null");
         List<QueryRowField> schema = queryPages.getSchema();
         if (schema == null) {
@@ -57,10 +69,10 @@ public class DatabendResultSet extends AbstractDatabendResultSet {
         AtomicLong lastRequestTime = new AtomicLong(System.currentTimeMillis());
         QueryResults results = queryPages.getResults();
         QueryLiveness liveness = new QueryLiveness(results.getQueryId(), queryPages.getNodeID(), lastRequestTime, results.getResultTimeoutSecs(), capability.heartBeat());
-        return new DatabendResultSet(statement, queryPages, schema, resultSettings, maxRows, liveness);
+        return new DatabendResultSet(statement, queryPages, schema, resultSettings, maxRows, liveness, prefetchPages, prefetchMaxBytes, prefetchExecutor);
     }
 
-    private static Map<String, String> effectiveSettings(QueryResults results) {
+    static Map<String, String> effectiveSettings(QueryResults results) {
         Map<String, String> merged = new HashMap<>();
         if (results.getSession() != null && results.getSession().getSettings() != null) {
             merged.putAll(results.getSession().getSettings());
@@ -117,93 +129,175 @@ public class DatabendResultSet extends AbstractDatabendResultSet {
         return closed;
     }
 
+    /**
+     * Fetches result pages ahead of the reader on a worker thread. Up to {@code maxPages} fetched pages are
+     * kept ready, and fetching pauses once the ready pages hold {@code maxBytes}, so a slow reader applies
+     * backpressure to the server instead of growing the heap. Fetches are chained one at a time because
+     * {@link QueryResultPages} walks the query's next_uri sequentially.
+     */
     static class PrefetchingPageSource implements ResultPageSource {
-        private static final ExecutorService executorService = newCachedThreadPool(
+        static final int DEFAULT_PREFETCH_PAGES = 1;
+        static final long DEFAULT_PREFETCH_MAX_BYTES = 64L * 1024 * 1024;
+
+        static final ExecutorService DEFAULT_EXECUTOR = newCachedThreadPool(
                 new ThreadFactoryBuilder().setNameFormat("Databend JDBC worker-%s").setDaemon(true).build());
+        private static final Future<?> SCHEDULING = new CompletableFuture<>();
         private final QueryResultPages queryPages;
         private final QueryLiveness liveness;
         private final ExecutorService executor;
-        private volatile Future<ResultPage> inFlight;
+        private final int maxPages;
+        private final long maxBytes;
+        // in fetch order, each with the decode task that runs while the next page is fetched
+        @GuardedBy("this")
+        private final Deque<ReadyPage> readyPages = new ArrayDeque<>();
+        @GuardedBy("this")
+        private long readyBytes;
+        @GuardedBy("this")
+        private Future<?> inFlight;
+        @GuardedBy("this")
+        private boolean exhausted;
+        @GuardedBy("this")
+        private Throwable failure;
         private volatile boolean cancelled;
-        private boolean finished;
-
-        PrefetchingPageSource(QueryResultPages queryPages, QueryLiveness liveness) {
-            this(queryPages, liveness, executorService);
-        }
 
         @VisibleForTesting
         PrefetchingPageSource(QueryResultPages queryPages, QueryLiveness liveness, ExecutorService executor) {
+            this(queryPages, liveness, executor, DEFAULT_PREFETCH_PAGES, DEFAULT_PREFETCH_MAX_BYTES);
+        }
+
+        PrefetchingPageSource(QueryResultPages queryPages, QueryLiveness liveness, ExecutorService executor, int maxPages, long maxBytes) {
             this.queryPages = requireNonNull(queryPages, "queryPages is null");
             this.liveness = requireNonNull(liveness, "liveness is null");
             this.executor = requireNonNull(executor, "executor is null");
-            this.inFlight = scheduleFetch();
+            this.maxPages = Math.max(1, maxPages);
+            this.maxBytes = Math.max(0, maxBytes);
+            synchronized (this) {
+                scheduleFetchIfNeeded();
+            }
         }
 
         @Override
         public void close() {
             cancelled = true;
-            Future<ResultPage> future = inFlight;
-            if (future != null) {
-                future.cancel(true);
-                closeCompletedPrefetchedPage(future);
+            List<ReadyPage> pages;
+            synchronized (this) {
+                if (inFlight != null) {
+                    inFlight.cancel(true);
+                    inFlight = null;
+                }
+                pages = new ArrayList<>(readyPages);
+                readyPages.clear();
+                readyBytes = 0;
+                notifyAll();
+            }
+            for (ReadyPage ready : pages) {
+                ready.decoding.cancel(true);
+                closeQuietly(ready.page);
             }
             queryPages.close();
         }
 
         @Override
         public ResultPage nextPage() throws SQLException {
-            if (cancelled || finished) {
-                return null;
+            ReadyPage ready;
+            synchronized (this) {
+                while (!cancelled && readyPages.isEmpty() && failure == null && !exhausted) {
+                    scheduleFetchIfNeeded();
+                    try {
+                        wait();
+                    }
+                    catch (InterruptedException e) {
+                        handleInterrupt(e);
+                        return null;
+                    }
+                }
+                if (cancelled) {
+                    return null;
+                }
+                ready = readyPages.pollFirst();
+                if (ready == null) {
+                    if (failure != null) {
+                        throwFailure(failure);
+                    }
+                    return null;
+                }
+                readyBytes -= ready.page.getSizeInBytes();
+                scheduleFetchIfNeeded();
             }
-
-            ResultPage page = awaitPrefetchedPage();
-            if (page == null) {
-                finished = true;
+            try {
+                ready.decoding.get();
+            }
+            catch (InterruptedException e) {
+                closeQuietly(ready.page);
+                handleInterrupt(e);
                 return null;
             }
-            if (cancelled) {
-                closeQuietly(page);
+            catch (CancellationException e) {
+                closeQuietly(ready.page);
                 return null;
             }
-
-            inFlight = scheduleFetch();
-            return page;
+            catch (ExecutionException e) {
+                closeQuietly(ready.page);
+                throwFailure(e.getCause());
+            }
+            return ready.page;
         }
 
-        private Future<ResultPage> scheduleFetch() {
-            return executor.submit(this::fetchNextPage);
+        @VisibleForTesting
+        synchronized int readyPageCount() {
+            return readyPages.size();
         }
 
-        private ResultPage awaitPrefetchedPage() throws SQLException {
-            Future<ResultPage> future = inFlight;
-            if (future == null) {
-                return null;
+        @GuardedBy("this")
+        private void scheduleFetchIfNeeded() {
+            if (cancelled || inFlight != null || exhausted || failure != null) {
+                return;
+            }
+            if (readyPages.size() >= maxPages || (!readyPages.isEmpty() && readyBytes >= maxBytes)) {
+                return;
             }
+            // a same-thread executor runs the fetch inside submit, only record the future if it is still pending
+            inFlight = SCHEDULING;
+            Future<?> future = executor.submit(this::fetchIntoQueue);
+            if (inFlight == SCHEDULING) {
+                inFlight = future;
+            }
+        }
+
+        private void fetchIntoQueue() {
+            ResultPage page = null;
+            Throwable error = null;
             try {
-                return future.get();
+                page = fetchNextPage();
             }
-            catch (InterruptedException e) {
-                handleInterrupt(e);
-                return null;
+            catch (Throwable t) {
+                error = t;
             }
-            catch (CancellationException e) {
+            synchronized (this) {
+                inFlight = null;
                 if (cancelled) {
-                    return null;
+                    closeQuietly(page);
+                    notifyAll();
+                    return;
                 }
-                throw new SQLException("Prefetch cancelled", e);
-            }
-            catch (ExecutionException e) {
-                Throwable cause = e.getCause();
-                if (cause instanceof SQLException) {
-                    throw (SQLException) cause;
+                if (error != null) {
+                    failure = error;
+                } else if (page == null) {
+                    exhausted = true;
+                } else {
+                    readyPages.addLast(new ReadyPage(page, executor.submit(page::decode)));
+                    readyBytes += page.getSizeInBytes();
                 }
-                throwIfUnchecked(cause);
-                throw new SQLException("Failed to fetch result page", cause);
+                notifyAll();
+                scheduleFetchIfNeeded();
             }
         }
 
         private ResultPage fetchNextPage() throws SQLException {
             while (queryPages.hasNext()) {
+                if (cancelled) {
+                    return null;
+                }
                 ResultPage page = queryPages.getPage();
                 queryPages.advance();
                 liveness.lastRequestTime.set(System.currentTimeMillis());
@@ -221,18 +315,12 @@ public class DatabendResultSet extends AbstractDatabendResultSet {
             return null;
         }
 
-        private void closeCompletedPrefetchedPage(Future<ResultPage> future) {
-            if (!future.isDone()) {
-                return;
-            }
-            try {
-                closeQuietly(future.get());
-            }
-            catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-            }
-            catch (ExecutionException | CancellationException ignored) {
+        private static void throwFailure(Throwable cause) throws SQLException {
+            if (cause instanceof SQLException) {
+                throw (SQLException) cause;
             }
+            throwIfUnchecked(cause);
+            throw new SQLException("Failed to fetch result page", cause);
         }
 
         private static void closeQuietly(ResultPage page) {
@@ -250,5 +338,16 @@ public class DatabendResultSet extends AbstractDatabendResultSet {
             Thread.currentThread().interrupt();
             throw new RuntimeException(new SQLException("Interrupted", e));
         }
+
+        private static final class ReadyPage {
+            private final ResultPage page;
+            private final Future<?> decoding;
+
+            private ReadyPage(ResultPage page, Future<?> decoding) {
+                this.page = page;
+                this.decoding = decoding;
+            }
+        }
+
     }
 }
@@ -229,7 +229,9 @@ public class DatabendStatement implements Statement {
                         Collections.emptyList(),
                         Collections.<List<Object>>singletonList(Collections.emptyList()).iterator());
             } else {
-                resultSet = DatabendResultSet.create(this, queryPages, maxRows.get(), connection().getServerCapability());
+                resultSet = DatabendResultSet.create(this, queryPages, maxRows.get(), connection().getServerCapability(),
+                        connection().prefetchPages(), connection().prefetchMaxBytes(),
+                        connection().workerExecutor().orElse(DatabendResultSet.PrefetchingPageSource.DEFAULT_EXECUTOR));
             }
             connection().refreshCurrentSchemaFromSession();
             currentResult.set(resultSet);
@@ -0,0 +1,128 @@
+package com.databend.jdbc;
+
+import com.databend.jdbc.internal.query.QueryRowField;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Driver-wide cache of {@link DatabendDatabaseMetaData} results, so BI tools asking for the same tables and columns
+ * over and over do not run a catalog query each time. Connections to the same server as the same user with the same
+ * cache settings share one instance from {@link #shared}. Entries expire {@code metadata_cache_ttl} seconds after
+ * they were loaded and all of them are dropped when one of the sharing connections runs DDL; DDL run by other
+ * clients is only seen once the entries expire. A TTL or size of 0 disables the cache.
+ */
+final class MetadataCache {
+    private static final ConcurrentMap<List<Object>, MetadataCache> SHARED = new ConcurrentHashMap<>();
+
+    private final Cache<String, Rows> cache;
+    private final boolean enabled;
+    // bumped by every invalidation, rows loaded across an invalidation are not cached
+    private final AtomicLong generation = new AtomicLong();
+
+    private MetadataCache(int ttlSeconds, int maximumSize) {
+        this.enabled = ttlSeconds > 0 && maximumSize > 0;
+        this.cache = CacheBuilder.newBuilder()
+                .expireAfterWrite(ttlSeconds, TimeUnit.SECONDS)
+                .maximumSize(maximumSize)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * @return the cache shared by connections with equal {@code scope} and settings, created on first use
+     */
+    static MetadataCache shared(List<?> scope, int ttlSeconds, int maximumSize) {
+        if (ttlSeconds <= 0 || maximumSize <= 0) {
+            return new MetadataCache(0, 0);
+        }
+        List<Object> key = new ArrayList<>(scope);
+        key.addAll(Arrays.asList(ttlSeconds, maximumSize));
+        return SHARED.computeIfAbsent(Collections.unmodifiableList(key), ignored -> new MetadataCache(ttlSeconds, maximumSize));
+    }
+
+    boolean isEnabled() {
+        return enabled;
+    }
+
+    Rows get(String key, Loader loader) throws SQLException {
+        Rows rows = cache.getIfPresent(key);
+        if (rows == null) {
+            long loadedGeneration = generation.get();
+            rows = loader.load();
+            if (generation.get() == loadedGeneration) {
+                cache.put(key, rows);
+            }
+        }
+        return rows;
+    }
+
+    void invalidateAll() {
+        generation.incrementAndGet();
+        cache.invalidateAll();
+    }
+
+    long hitCount() {
+        return cache.stats().hitCount();
+    }
+
+    long missCount() {
+        return cache.stats().missCount();
+    }
+
+    long size() {
+        return cache.size();
+    }
+
+    @FunctionalInterface
+    interface Loader {
+        Rows load() throws SQLException;
+    }
+
+    /**
+     * Materialized metadata result, immutable so every hit can iterate it without copying.
+     */
+    static final class Rows {
+        private final List<QueryRowField> schema;
+        private final List<List<Object>> rows;
+
+        Rows(List<QueryRowField> schema, List<List<Object>> rows) {
+            this.schema = Collections.unmodifiableList(new ArrayList<>(schema));
+            List<List<Object>> copy = new ArrayList<>(rows.size());
+            for (List<Object> row : rows) {
+                copy.add(Collections.unmodifiableList(new ArrayList<>(row)));
+            }
+            this.rows = Collections.unmodifiableList(copy);
+        }
+
+        static Rows read(ResultSet resultSet) throws SQLException {
+            List<QueryRowField> schema = ((AbstractDatabendResultSet) resultSet).getSchema();
+            int columns = schema.size();
+            List<List<Object>> rows = new ArrayList<>();
+            while (resultSet.next()) {
+                List<Object> row = new ArrayList<>(columns);
+                for (int i = 1; i <= columns; i++) {
+                    row.add(resultSet.getObject(i));
+                }
+                rows.add(row);
+            }
+            return new Rows(schema, rows);
+        }
+
+        ResultSet toResultSet(Statement statement) {
+            return new DatabendUnboundQueryResultSet(Optional.ofNullable(statement), schema, rows.iterator());
+        }
+    }
+}
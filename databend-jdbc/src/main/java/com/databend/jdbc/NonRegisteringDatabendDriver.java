@@ -1,5 +1,6 @@
 package com.databend.jdbc;
 
+import okhttp3.Dispatcher;
 import okhttp3.OkHttpClient;
 
 import java.io.Closeable;
@@ -57,6 +58,7 @@ class NonRegisteringDatabendDriver implements Driver, Closeable {
 
         OkHttpClient.Builder builder = httpClient.newBuilder();
         uri.setupClient(builder);
+        builder.dispatcher(asyncDispatcher(uri.getAsyncMaxRequests()));
         DatabendConnection connection = new DatabendConnection(uri, builder.build());
         // ping the server host
         if (connection.useVerify()) {
@@ -70,6 +72,14 @@ class NonRegisteringDatabendDriver implements Driver, Closeable {
         return connection;
     }
 
+    // async requests are limited per connection, while the threads running them are shared by all connections
+    private Dispatcher asyncDispatcher(int maxRequests) {
+        Dispatcher dispatcher = new Dispatcher(httpClient.dispatcher().executorService());
+        dispatcher.setMaxRequests(maxRequests);
+        dispatcher.setMaxRequestsPerHost(maxRequests);
+        return dispatcher;
+    }
+
     @Override
     public DriverPropertyInfo[] getPropertyInfo(String url, Properties info)
             throws SQLException {
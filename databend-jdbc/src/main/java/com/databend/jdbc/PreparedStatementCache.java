@@ -0,0 +1,111 @@
+package com.databend.jdbc;
+
+import com.databend.jdbc.internal.binding.RawStatementWrapper;
+import com.databend.jdbc.internal.binding.SqlTemplate;
+import com.databend.jdbc.internal.binding.StatementUtil;
+import com.databend.jdbc.internal.data.DatabendRawType;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.stream.Collectors;
+
+import static com.databend.jdbc.DatabendConstant.DATABEND_KEYWORDS_SELECT;
+import static com.databend.jdbc.DatabendConstant.INSERT_INTO_PATTERN;
+
+/**
+ * Per-connection cache of what {@link DatabendPreparedStatement} derives from its SQL text, so re-preparing the
+ * same statement skips parameter marker parsing and parameter type extraction. Least recently used entries are
+ * evicted once the cache holds {@code prepared_statement_cache_size} statements; a size of 0 disables caching.
+ */
+final class PreparedStatementCache {
+    private final Cache<String, ParsedStatement> cache;
+
+    PreparedStatementCache(int maximumSize) {
+        this.cache = CacheBuilder.newBuilder()
+                .maximumSize(maximumSize)
+                .recordStats()
+                .build();
+    }
+
+    ParsedStatement get(String sql) {
+        ParsedStatement parsed = cache.getIfPresent(sql);
+        if (parsed == null) {
+            parsed = ParsedStatement.parse(sql);
+            cache.put(sql, parsed);
+        }
+        return parsed;
+    }
+
+    long hitCount() {
+        return cache.stats().hitCount();
+    }
+
+    long missCount() {
+        return cache.stats().missCount();
+    }
+
+    long size() {
+        return cache.size();
+    }
+
+    void clear() {
+        cache.invalidateAll();
+    }
+
+    static final class ParsedStatement {
+        private final RawStatementWrapper rawStatement;
+        private final DatabendParameterMetaData paramMetaData;
+        private final boolean batchInsert;
+        private volatile SqlTemplate template;
+
+        private ParsedStatement(RawStatementWrapper rawStatement, DatabendParameterMetaData paramMetaData, boolean batchInsert) {
+            this.rawStatement = rawStatement;
+            this.paramMetaData = paramMetaData;
+            this.batchInsert = batchInsert;
+        }
+
+        static ParsedStatement parse(String sql) {
+            RawStatementWrapper rawStatement = StatementUtil.parseToRawStatementWrapper(sql);
+            Map<Integer, String> params = StatementUtil.extractColumnTypes(sql);
+            List<DatabendColumnInfo> list = params.entrySet().stream().map(entry -> {
+                String type = entry.getValue();
+                DatabendRawType databendRawType = DatabendRawType.of(type);
+                return DatabendColumnInfo.of(entry.getKey().toString(), databendRawType);
+            }).collect(Collectors.toList());
+            DatabendParameterMetaData paramMetaData = new DatabendParameterMetaData(Collections.unmodifiableList(list), new JdbcTypeMapping());
+            return new ParsedStatement(rawStatement, paramMetaData, isBatchInsert(sql));
+        }
+
+        RawStatementWrapper getRawStatement() {
+            return rawStatement;
+        }
+
+        DatabendParameterMetaData getParamMetaData() {
+            return paramMetaData;
+        }
+
+        boolean isBatchInsert() {
+            return batchInsert;
+        }
+
+        // compiled on first use, only batches of non-INSERT statements need it
+        SqlTemplate getTemplate() {
+            SqlTemplate compiled = template;
+            if (compiled == null) {
+                compiled = SqlTemplate.compile(rawStatement);
+                template = compiled;
+            }
+            return compiled;
+        }
+
+        private static boolean isBatchInsert(String sql) {
+            sql = sql.toLowerCase();
+            Matcher matcher = INSERT_INTO_PATTERN.matcher(sql);
+            return matcher.find() && !sql.contains(DATABEND_KEYWORDS_SELECT);
+        }
+    }
+}
@@ -11,6 +11,22 @@ interface ResultCursor {
 
     Object getValue(int columnIndex) throws SQLException;
 
+    default ResultPage.PrimitiveKind getPrimitiveKind(int columnIndex) {
+        return ResultPage.PrimitiveKind.NONE;
+    }
+
+    default boolean isNull(int columnIndex) throws SQLException {
+        return getValue(columnIndex) == null;
+    }
+
+    default long getLong(int columnIndex) throws SQLException {
+        return ((Number) getValue(columnIndex)).longValue();
+    }
+
+    default double getDouble(int columnIndex) throws SQLException {
+        return ((Number) getValue(columnIndex)).doubleValue();
+    }
+
     default void close() throws SQLException {
     }
 }
@@ -85,10 +101,37 @@ final class PagedResultCursor implements ResultCursor {
 
     @Override
     public Object getValue(int columnIndex) throws SQLException {
+        checkValidRow();
+        return currentPage.getValue(currentRowInPage, columnIndex);
+    }
+
+    @Override
+    public ResultPage.PrimitiveKind getPrimitiveKind(int columnIndex) {
+        return currentPage == null ? ResultPage.PrimitiveKind.NONE : currentPage.getPrimitiveKind(columnIndex);
+    }
+
+    @Override
+    public boolean isNull(int columnIndex) throws SQLException {
+        checkValidRow();
+        return currentPage.isNull(currentRowInPage, columnIndex);
+    }
+
+    @Override
+    public long getLong(int columnIndex) throws SQLException {
+        checkValidRow();
+        return currentPage.getLong(currentRowInPage, columnIndex);
+    }
+
+    @Override
+    public double getDouble(int columnIndex) throws SQLException {
+        checkValidRow();
+        return currentPage.getDouble(currentRowInPage, columnIndex);
+    }
+
+    private void checkValidRow() throws SQLException {
         if (currentPage == null || currentRowInPage < 0) {
             throw new SQLException("Not on a valid row");
         }
-        return currentPage.getValue(currentRowInPage, columnIndex);
     }
 
     @Override
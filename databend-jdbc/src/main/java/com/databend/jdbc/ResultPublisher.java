@@ -0,0 +1,191 @@
+package com.databend.jdbc;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Publishes the pages of an async query, or the rows of those pages, to one subscriber per subscription. The query
+ * starts with the first request and the next page is fetched while the subscriber still has demand left after the
+ * items that are ready, so a slow subscriber holds the query at the server and a fast one has the next page on the
+ * way while it processes the current one.
+ */
+final class ResultPublisher<T> implements DatabendFlow.Publisher<T> {
+    private final Supplier<CompletableFuture<DatabendAsyncResult>> query;
+    private final PageItems<T> pageItems;
+
+    private ResultPublisher(Supplier<CompletableFuture<DatabendAsyncResult>> query, PageItems<T> pageItems) {
+        this.query = requireNonNull(query, "query is null");
+        this.pageItems = pageItems;
+    }
+
+    static ResultPublisher<ResultSet> pages(Supplier<CompletableFuture<DatabendAsyncResult>> query) {
+        return new ResultPublisher<>(query, Collections::singletonList);
+    }
+
+    static ResultPublisher<List<Object>> rows(Supplier<CompletableFuture<DatabendAsyncResult>> query) {
+        return new ResultPublisher<>(query, ResultPublisher::readRows);
+    }
+
+    @Override
+    public void subscribe(DatabendFlow.Subscriber<? super T> subscriber) {
+        requireNonNull(subscriber, "subscriber is null");
+        QuerySubscription subscription = new QuerySubscription(subscriber);
+        subscriber.onSubscribe(subscription);
+    }
+
+    private static List<List<Object>> readRows(ResultSet page) throws SQLException {
+        try (ResultSet rs = page) {
+            int columns = rs.getMetaData().getColumnCount();
+            List<List<Object>> rows = new ArrayList<>();
+            while (rs.next()) {
+                List<Object> row = new ArrayList<>(columns);
+                for (int i = 1; i <= columns; i++) {
+                    row.add(rs.getObject(i));
+                }
+                rows.add(row);
+            }
+            return rows;
+        }
+    }
+
+    @FunctionalInterface
+    private interface PageItems<T> {
+        List<T> of(ResultSet page) throws SQLException;
+    }
+
+    private final class QuerySubscription implements DatabendFlow.Subscription {
+        private final DatabendFlow.Subscriber<? super T> subscriber;
+        private final Queue<T> ready = new ConcurrentLinkedQueue<>();
+        private final AtomicLong demand = new AtomicLong();
+        private final AtomicInteger drains = new AtomicInteger();
+        private volatile DatabendAsyncResult result;
+        private volatile Throwable failure;
+        private volatile boolean fetching;
+        private volatile boolean exhausted;
+        private volatile boolean cancelled;
+        private boolean done;
+
+        QuerySubscription(DatabendFlow.Subscriber<? super T> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                failure = new IllegalArgumentException("Requested items must be positive: " + n);
+            } else {
+                demand.getAndUpdate(current -> current + n < 0 ? Long.MAX_VALUE : current + n);
+            }
+            drain();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            drain();
+        }
+
+        // serializes delivery, a call made while another thread drains is picked up by that thread's loop
+        private void drain() {
+            if (drains.getAndIncrement() != 0) {
+                return;
+            }
+            int missed = 1;
+            do {
+                if (!done) {
+                    drainOnce();
+                }
+                missed = drains.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        private void drainOnce() {
+            if (cancelled) {
+                finish();
+                return;
+            }
+            if (failure != null) {
+                finish();
+                subscriber.onError(failure);
+                return;
+            }
+            if (!fetching && !exhausted && demand.get() > ready.size()) {
+                fetching = true;
+                fetch();
+            }
+            while (demand.get() > 0 && !ready.isEmpty() && !cancelled) {
+                subscriber.onNext(ready.poll());
+                demand.getAndUpdate(current -> current == Long.MAX_VALUE ? current : current - 1);
+            }
+            if (exhausted && ready.isEmpty() && !cancelled) {
+                finish();
+                subscriber.onComplete();
+            }
+        }
+
+        private void fetch() {
+            CompletableFuture<ResultSet> next;
+            if (result == null) {
+                next = query.get().thenCompose(started -> {
+                    result = started;
+                    return started.nextPage();
+                });
+            } else {
+                next = result.nextPage();
+            }
+            next.whenComplete((page, error) -> {
+                if (error != null) {
+                    failure = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                } else if (page == null) {
+                    exhausted = true;
+                } else {
+                    try {
+                        ready.addAll(pageItems.of(page));
+                    } catch (SQLException e) {
+                        failure = e;
+                    }
+                }
+                fetching = false;
+                if (cancelled) {
+                    // the query may have started after the cancellation was handled
+                    release();
+                }
+                drain();
+            });
+        }
+
+        private void finish() {
+            done = true;
+            release();
+        }
+
+        // delivered items belong to the subscriber, only the query and the items still waiting in ready are freed
+        private void release() {
+            DatabendAsyncResult current = result;
+            if (current != null) {
+                current.close();
+            }
+            T item;
+            while ((item = ready.poll()) != null) {
+                if (item instanceof AutoCloseable) {
+                    try {
+                        ((AutoCloseable) item).close();
+                    } catch (Exception ignored) {
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.databend.jdbc.internal;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+
+/**
+ * The driver's one Arrow root allocator. Result pages and batch writers each take a child of it, which is closed
+ * with the page or writer, so Arrow memory is accounted in one place.
+ */
+public final class ArrowAllocators {
+    private ArrowAllocators() {
+    }
+
+    public static BufferAllocator newChildAllocator(String name) {
+        return RootAllocatorHolder.INSTANCE.newChildAllocator(name, 0, Long.MAX_VALUE);
+    }
+
+    private static final class RootAllocatorHolder {
+        private static final RootAllocator INSTANCE = new RootAllocator(Long.MAX_VALUE);
+    }
+}
@@ -0,0 +1,16 @@
+package com.databend.jdbc.internal;
+
+import java.util.Locale;
+
+public enum BatchUploadFormat {
+    CSV,
+    PARQUET;
+
+    public static BatchUploadFormat fromValue(String value) {
+        return BatchUploadFormat.valueOf(value.trim().toUpperCase(Locale.ENGLISH));
+    }
+
+    public String value() {
+        return name().toLowerCase(Locale.ENGLISH);
+    }
+}
@@ -4,7 +4,12 @@ import java.util.Locale;
 
 public enum QueryResultFormat {
     JSON,
-    ARROW;
+    ARROW,
+    /**
+     * Resolved to {@link #JSON} or {@link #ARROW} for each query by {@code ResultFormatSelector}, never sent to the
+     * server.
+     */
+    AUTO;
 
     public static QueryResultFormat fromValue(String value) {
         return QueryResultFormat.valueOf(value.trim().toUpperCase(Locale.ENGLISH));
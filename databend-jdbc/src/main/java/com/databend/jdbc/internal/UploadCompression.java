@@ -0,0 +1,56 @@
+package com.databend.jdbc.internal;
+
+import com.databend.jdbc.internal.http.ParallelGzipOutputStream;
+import com.github.luben.zstd.ZstdOutputStream;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Codec used for compressed stage uploads, {@link #value()} is also the {@code compression} file format option
+ * the server decompresses with.
+ */
+public enum UploadCompression {
+    GZIP(".gz"),
+    ZSTD(".zst");
+
+    private final String fileExtension;
+
+    UploadCompression(String fileExtension) {
+        this.fileExtension = fileExtension;
+    }
+
+    public static UploadCompression fromValue(String value) {
+        return UploadCompression.valueOf(value.trim().toUpperCase(Locale.ENGLISH));
+    }
+
+    public String value() {
+        return name().toLowerCase(Locale.ENGLISH);
+    }
+
+    public String fileExtension() {
+        return fileExtension;
+    }
+
+    /**
+     * Wraps {@code out} in a compressing stream, closing the returned stream finishes the compressed data and
+     * closes {@code out}.
+     *
+     * @param workers number of threads compressing at the same time, 1 compresses on the calling thread
+     */
+    public OutputStream compress(OutputStream out, int workers) throws IOException {
+        if (this == ZSTD) {
+            ZstdOutputStream zstd = new ZstdOutputStream(out);
+            if (workers > 1) {
+                zstd.setWorkers(workers);
+            }
+            return zstd;
+        }
+        if (workers > 1) {
+            return new ParallelGzipOutputStream(out, workers);
+        }
+        return new GZIPOutputStream(out, 64 * 1024);
+    }
+}
@@ -0,0 +1,60 @@
+package com.databend.jdbc.internal;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Executors for the driver's background work that can run on virtual threads. Virtual threads exist since Java 21
+ * and are looked up reflectively, so the driver still runs on Java 8.
+ */
+public final class WorkerExecutors {
+    private static final ExecutorService VIRTUAL_THREADS = newVirtualThreadExecutor();
+    private static final int SHARED_POOL_THREADS = Math.max(8, 2 * Runtime.getRuntime().availableProcessors());
+    private static final ExecutorService SHARED_POOL = newSharedPool();
+
+    private WorkerExecutors() {
+    }
+
+    /**
+     * @return an executor starting one virtual thread per task, empty before Java 21
+     */
+    public static Optional<ExecutorService> virtualThreads() {
+        return Optional.ofNullable(VIRTUAL_THREADS);
+    }
+
+    /**
+     * @return the bounded pool of the driver that runs parallel batch work and transfers of connections without a
+     * worker executor, tasks beyond its threads wait in its queue
+     */
+    public static ExecutorService sharedPool() {
+        return SHARED_POOL;
+    }
+
+    private static ExecutorService newSharedPool() {
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(SHARED_POOL_THREADS, SHARED_POOL_THREADS, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(),
+                new ThreadFactoryBuilder().setNameFormat("Databend JDBC pool-%s").setDaemon(true).build());
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, "Databend JDBC virtual-", 0L);
+            ThreadFactory factory = (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+            return (ExecutorService) Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class).invoke(null, factory);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // before Java 21, or virtual threads are a disabled preview feature
+            return null;
+        }
+    }
+}
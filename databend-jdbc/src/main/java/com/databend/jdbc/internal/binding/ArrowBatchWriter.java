@@ -0,0 +1,157 @@
+package com.databend.jdbc.internal.binding;
+
+import com.databend.jdbc.internal.ArrowAllocators;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.BaseFixedWidthVector;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.BitVector;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.Float4Vector;
+import org.apache.arrow.vector.Float8Vector;
+import org.apache.arrow.vector.VarCharVector;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Accumulates the rows of a batch insert into typed Arrow vectors and writes them as one Parquet file, so
+ * {@code executeBatch} does not have to format, escape and write every parameter as CSV text.
+ * <p>
+ * A column takes the type of its first non-null value: booleans become {@code Bit}, integral numbers
+ * {@code BigInt}, floats {@code Float4}, doubles {@code Float8} and anything else {@code Utf8}, written as the
+ * Parquet types {@code BOOLEAN}, {@code INT64}, {@code FLOAT}, {@code DOUBLE} and {@code BYTE_ARRAY} strings. A
+ * column that later receives a value of another type is converted to {@code Utf8} and the server casts it on load.
+ */
+public class ArrowBatchWriter implements AutoCloseable {
+    private final BufferAllocator allocator;
+    private final List<FieldVector> columns = new ArrayList<>();
+    private int rowCount;
+
+    public ArrowBatchWriter() {
+        this.allocator = ArrowAllocators.newChildAllocator("databend-jdbc-batch");
+    }
+
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    public int getColumnCount() {
+        return columns.size();
+    }
+
+    public void addRow(Object[] values) {
+        int size = values == null ? 0 : values.length;
+        while (columns.size() < size) {
+            columns.add(null);
+        }
+        for (int i = 0; i < size; i++) {
+            if (values[i] != null) {
+                setValue(i, values[i]);
+            }
+        }
+        rowCount++;
+    }
+
+    /**
+     * Writes the accumulated rows as a Parquet file. The server matches Parquet columns to the table by name.
+     *
+     * @param columnNames the target column of each bound parameter, at least {@link #getColumnCount()} of them
+     */
+    public void writeTo(List<String> columnNames, OutputStream out) throws IOException {
+        if (columnNames.size() < columns.size()) {
+            throw new IOException("Batch binds " + columns.size() + " values, but only " + columnNames.size() + " target columns are known");
+        }
+        for (int i = 0; i < columns.size(); i++) {
+            if (columns.get(i) == null) {
+                // every value of this column was NULL
+                columns.set(i, newVector(i, ""));
+            }
+            columns.get(i).setValueCount(rowCount);
+        }
+        ParquetFileWriter.write(columns, columnNames, rowCount, out);
+    }
+
+    public void clear() {
+        for (FieldVector vector : columns) {
+            if (vector != null) {
+                vector.close();
+            }
+        }
+        columns.clear();
+        rowCount = 0;
+    }
+
+    @Override
+    public void close() {
+        clear();
+        allocator.close();
+    }
+
+    private void setValue(int column, Object value) {
+        FieldVector vector = columns.get(column);
+        if (vector == null) {
+            vector = newVector(column, value);
+            columns.set(column, vector);
+        } else if (!accepts(vector, value)) {
+            vector = toText(column, vector);
+        }
+        if (vector instanceof BitVector) {
+            ((BitVector) vector).setSafe(rowCount, (Boolean) value ? 1 : 0);
+        } else if (vector instanceof BigIntVector) {
+            ((BigIntVector) vector).setSafe(rowCount, ((Number) value).longValue());
+        } else if (vector instanceof Float4Vector) {
+            ((Float4Vector) vector).setSafe(rowCount, (Float) value);
+        } else if (vector instanceof Float8Vector) {
+            ((Float8Vector) vector).setSafe(rowCount, (Double) value);
+        } else {
+            ((VarCharVector) vector).setSafe(rowCount, value.toString().getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private FieldVector newVector(int column, Object value) {
+        String name = "c" + (column + 1);
+        FieldVector vector;
+        if (value instanceof Boolean) {
+            vector = new BitVector(name, allocator);
+        } else if (isIntegral(value)) {
+            vector = new BigIntVector(name, allocator);
+        } else if (value instanceof Float) {
+            vector = new Float4Vector(name, allocator);
+        } else if (value instanceof Double) {
+            vector = new Float8Vector(name, allocator);
+        } else {
+            vector = new VarCharVector(name, allocator);
+        }
+        vector.allocateNew();
+        return vector;
+    }
+
+    private FieldVector toText(int column, FieldVector vector) {
+        VarCharVector text = (VarCharVector) newVector(column, "");
+        for (int row = 0; row < rowCount; row++) {
+            if (!vector.isNull(row)) {
+                text.setSafe(row, String.valueOf(vector.getObject(row)).getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        vector.close();
+        columns.set(column, text);
+        return text;
+    }
+
+    private static boolean accepts(FieldVector vector, Object value) {
+        if (!(vector instanceof BaseFixedWidthVector)) {
+            return true;
+        }
+        return (vector instanceof BitVector && value instanceof Boolean)
+                || (vector instanceof BigIntVector && isIntegral(value))
+                || (vector instanceof Float4Vector && value instanceof Float)
+                || (vector instanceof Float8Vector && value instanceof Double);
+    }
+
+    private static boolean isIntegral(Object value) {
+        return value instanceof Byte || value instanceof Short || value instanceof Integer || value instanceof Long;
+    }
+}
@@ -3,9 +3,16 @@ package com.databend.jdbc.internal.binding;
 import de.siegmar.fastcsv.writer.CsvWriter;
 import de.siegmar.fastcsv.writer.LineDelimiter;
 
+import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
@@ -14,6 +21,8 @@ import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 public class BatchInsertUtils {
+    private static final Pattern INSERT_COLUMNS_PATTERN = Pattern.compile(
+            "^\\s*(?:INSERT|REPLACE)\\s+INTO\\s+[\\w.`\"-]+\\s*\\(([^()]*)\\)", Pattern.CASE_INSENSITIVE);
     private final String sql;
 
     private String databaseTableName;
@@ -21,12 +30,15 @@ public class BatchInsertUtils {
 
     private final TreeMap<Integer, String> placeHolderEntries;
     private final TreeMap<Integer, String> placeHolderEntriesCSV;
+    // typed value of each placeholder, used by the Arrow batch upload path
+    private final TreeMap<Integer, Object> placeHolderEntriesTyped;
 
     public BatchInsertUtils(String sql) {
         this.sql = sql;
         // sort key in ascending order
         this.placeHolderEntries = new TreeMap<>();
         this.placeHolderEntriesCSV = new TreeMap<>();
+        this.placeHolderEntriesTyped = new TreeMap<>();
 //        this.databaseTableName = getDatabaseTableName();
     }
 
@@ -55,10 +67,32 @@ public class BatchInsertUtils {
     }
 
     public void setPlaceHolderValue(int index, String value, String valueCSV) throws IllegalArgumentException {
+        setPlaceHolderValue(index, value, valueCSV, valueCSV);
+    }
+
+    public void setPlaceHolderValue(int index, String value, String valueCSV, Object typedValue) throws IllegalArgumentException {
         int i = index - 1;
 
         placeHolderEntries.put(i, value);
         placeHolderEntriesCSV.put(i, valueCSV);
+        placeHolderEntriesTyped.put(i, typedValue);
+    }
+
+    /**
+     * Column names listed by the INSERT statement, e.g. {@code [a, b]} for {@code INSERT INTO t (a, b) VALUES (?, ?)}.
+     *
+     * @return the column names, or an empty list when the statement does not list its columns
+     */
+    public List<String> getInsertColumnNames() {
+        Matcher matcher = INSERT_COLUMNS_PATTERN.matcher(sql);
+        if (!matcher.find()) {
+            return Collections.emptyList();
+        }
+        List<String> names = new ArrayList<>();
+        for (String name : matcher.group(1).split(",")) {
+            names.add(name.trim().replace("`", "").replace("\"", ""));
+        }
+        return names;
     }
 
     // get the sql with placeholder replaced by value
@@ -87,6 +121,18 @@ public class BatchInsertUtils {
         return values;
     }
 
+    // typed values of the current row, null for SQL NULL
+    public Object[] getTypedValues() {
+        if (placeHolderEntriesTyped.isEmpty()) {
+            return null;
+        }
+        Object[] values = new Object[placeHolderEntriesTyped.lastKey() + 1];
+        for (Map.Entry<Integer, Object> elem : placeHolderEntriesTyped.entrySet()) {
+            values[elem.getKey()] = elem.getValue();
+        }
+        return values;
+    }
+
 
     public File saveBatchToCSV(List<String[]> values) {
         // get a temporary directory
@@ -98,18 +144,10 @@ public class BatchInsertUtils {
 
 
     public File saveBatchToCSV(List<String[]> values, File file) {
-        for (String[] row : values) {
-            if (row != null) {
-                break;
-            }
-            throw new RuntimeException("batch values is empty");
-        }
+        checkBatchNotEmpty(values);
         // save values to csv file
         try (FileWriter pw = new FileWriter(file)) {
-            CsvWriter w = CsvWriter.builder().quoteCharacter('"').lineDelimiter(LineDelimiter.LF).build(pw);
-            for (String[] row : values) {
-                w.writeRow(row);
-            }
+            writeRows(values, pw);
 //            logger.log(Level.FINE, "save batch insert to csv file: " + file.getAbsolutePath() + "rows: " + values.size() + " columns: " + rowSize);
             return file;
         } catch (IOException e) {
@@ -117,8 +155,36 @@ public class BatchInsertUtils {
         }
     }
 
+    /**
+     * Encodes the batch as UTF-8 CSV straight into {@code out}, in the same layout as {@link #saveBatchToCSV(List)}.
+     * The stream is flushed but left open.
+     */
+    public void writeBatchToCSV(List<String[]> values, OutputStream out) throws IOException {
+        checkBatchNotEmpty(values);
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        writeRows(values, writer);
+        writer.flush();
+    }
+
+    private static void checkBatchNotEmpty(List<String[]> values) {
+        for (String[] row : values) {
+            if (row != null) {
+                break;
+            }
+            throw new RuntimeException("batch values is empty");
+        }
+    }
+
+    private static void writeRows(List<String[]> values, Writer out) {
+        CsvWriter w = CsvWriter.builder().quoteCharacter('"').lineDelimiter(LineDelimiter.LF).build(out);
+        for (String[] row : values) {
+            w.writeRow(row);
+        }
+    }
+
     public void clean() {
         placeHolderEntries.clear();
         placeHolderEntriesCSV.clear();
+        placeHolderEntriesTyped.clear();
     }
 }
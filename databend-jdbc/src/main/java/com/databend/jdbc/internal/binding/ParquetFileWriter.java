@@ -0,0 +1,316 @@
+package com.databend.jdbc.internal.binding;
+
+import okio.Buffer;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.BitVector;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.Float4Vector;
+import org.apache.arrow.vector.Float8Vector;
+import org.apache.arrow.vector.VarCharVector;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Writes Arrow vectors as a Parquet file with one row group, a format the server loads through a stage attachment.
+ * No Parquet library ships with the driver, so the file only uses what every reader supports: plain encoded values,
+ * no compression and no dictionary. Every column is optional and its definition levels mark the NULLs.
+ */
+final class ParquetFileWriter {
+    private static final byte[] MAGIC = "PAR1".getBytes(StandardCharsets.US_ASCII);
+    // bounds the size of a data page, and of the buffer it is encoded in
+    private static final int PAGE_ROWS = 64 * 1024;
+
+    // enum values from parquet.thrift
+    private static final int TYPE_BOOLEAN = 0;
+    private static final int TYPE_INT64 = 2;
+    private static final int TYPE_FLOAT = 4;
+    private static final int TYPE_DOUBLE = 5;
+    private static final int TYPE_BYTE_ARRAY = 6;
+    private static final int CONVERTED_TYPE_UTF8 = 0;
+    private static final int REPETITION_OPTIONAL = 1;
+    private static final int ENCODING_PLAIN = 0;
+    private static final int ENCODING_RLE = 3;
+    private static final int CODEC_UNCOMPRESSED = 0;
+    private static final int PAGE_TYPE_DATA = 0;
+
+    private ParquetFileWriter() {
+    }
+
+    /**
+     * @param columnNames the name of each column in {@code columns}
+     */
+    static void write(List<FieldVector> columns, List<String> columnNames, int rowCount, OutputStream out) throws IOException {
+        Buffer buffer = new Buffer();
+        long offset = MAGIC.length;
+        out.write(MAGIC);
+        List<ColumnChunk> chunks = new ArrayList<>(columns.size());
+        for (FieldVector vector : columns) {
+            ColumnChunk chunk = new ColumnChunk(physicalType(vector), offset);
+            int from = 0;
+            do {
+                int to = Math.min(rowCount, from + PAGE_ROWS);
+                Buffer page = encodePage(vector, from, to);
+                writePageHeader(buffer, to - from, page.size());
+                chunk.size += buffer.size() + page.size();
+                buffer.write(page, page.size());
+                buffer.writeTo(out);
+                from = to;
+            } while (from < rowCount);
+            offset += chunk.size;
+            chunks.add(chunk);
+        }
+        writeFileMetaData(buffer, chunks, columnNames, rowCount);
+        long footerSize = buffer.size();
+        buffer.writeIntLe((int) footerSize);
+        buffer.write(MAGIC);
+        buffer.writeTo(out);
+    }
+
+    private static int physicalType(FieldVector vector) {
+        if (vector instanceof BitVector) {
+            return TYPE_BOOLEAN;
+        } else if (vector instanceof BigIntVector) {
+            return TYPE_INT64;
+        } else if (vector instanceof Float4Vector) {
+            return TYPE_FLOAT;
+        } else if (vector instanceof Float8Vector) {
+            return TYPE_DOUBLE;
+        } else if (vector instanceof VarCharVector) {
+            return TYPE_BYTE_ARRAY;
+        }
+        throw new IllegalArgumentException("Unsupported vector type: " + vector.getClass().getSimpleName());
+    }
+
+    // definition levels, then the plain encoded values of the rows that are not NULL
+    private static Buffer encodePage(FieldVector vector, int from, int to) {
+        Buffer page = new Buffer();
+        // a single bit packed run of bit width 1, eight levels per byte
+        Buffer levels = new Buffer();
+        int groups = (to - from + 7) / 8;
+        writeVarint(levels, ((long) groups << 1) | 1);
+        packBits(levels, vector, from, to, true);
+        page.writeIntLe((int) levels.size());
+        page.write(levels, levels.size());
+
+        if (vector instanceof BitVector) {
+            packBits(page, vector, from, to, false);
+            return page;
+        }
+        for (int row = from; row < to; row++) {
+            if (vector.isNull(row)) {
+                continue;
+            }
+            if (vector instanceof BigIntVector) {
+                page.writeLongLe(((BigIntVector) vector).get(row));
+            } else if (vector instanceof Float4Vector) {
+                page.writeIntLe(Float.floatToRawIntBits(((Float4Vector) vector).get(row)));
+            } else if (vector instanceof Float8Vector) {
+                page.writeLongLe(Double.doubleToRawLongBits(((Float8Vector) vector).get(row)));
+            } else {
+                byte[] value = ((VarCharVector) vector).get(row);
+                page.writeIntLe(value.length);
+                page.write(value);
+            }
+        }
+        return page;
+    }
+
+    // with definedLevels one bit per row, set when the row is not NULL, otherwise one bit per boolean that is not NULL
+    private static void packBits(Buffer out, FieldVector vector, int from, int to, boolean definedLevels) {
+        int current = 0;
+        int bits = 0;
+        for (int row = from; row < to; row++) {
+            boolean isNull = vector.isNull(row);
+            if (!definedLevels && isNull) {
+                continue;
+            }
+            boolean set = definedLevels ? !isNull : ((BitVector) vector).get(row) != 0;
+            if (set) {
+                current |= 1 << bits;
+            }
+            if (++bits == 8) {
+                out.writeByte(current);
+                current = 0;
+                bits = 0;
+            }
+        }
+        if (bits > 0) {
+            out.writeByte(current);
+        }
+    }
+
+    private static void writePageHeader(Buffer out, int valueCount, long pageSize) {
+        CompactWriter header = new CompactWriter(out);
+        header.structBegin();
+        header.i32(1, PAGE_TYPE_DATA);
+        header.i32(2, (int) pageSize);
+        header.i32(3, (int) pageSize);
+        header.structField(5);
+        header.i32(1, valueCount);
+        header.i32(2, ENCODING_PLAIN);
+        header.i32(3, ENCODING_RLE);
+        header.i32(4, ENCODING_RLE);
+        header.structEnd();
+        header.structEnd();
+    }
+
+    private static void writeFileMetaData(Buffer out, List<ColumnChunk> chunks, List<String> columnNames, int rowCount) {
+        CompactWriter meta = new CompactWriter(out);
+        meta.structBegin();
+        meta.i32(1, 1);
+        meta.listBegin(2, CompactWriter.STRUCT, chunks.size() + 1);
+        meta.structBegin();
+        meta.string(4, "schema");
+        meta.i32(5, chunks.size());
+        meta.structEnd();
+        for (int i = 0; i < chunks.size(); i++) {
+            meta.structBegin();
+            meta.i32(1, chunks.get(i).type);
+            meta.i32(3, REPETITION_OPTIONAL);
+            meta.string(4, columnNames.get(i));
+            if (chunks.get(i).type == TYPE_BYTE_ARRAY) {
+                meta.i32(6, CONVERTED_TYPE_UTF8);
+            }
+            meta.structEnd();
+        }
+        meta.i64(3, rowCount);
+
+        long totalSize = 0;
+        for (ColumnChunk chunk : chunks) {
+            totalSize += chunk.size;
+        }
+        meta.listBegin(4, CompactWriter.STRUCT, 1);
+        meta.structBegin();
+        meta.listBegin(1, CompactWriter.STRUCT, chunks.size());
+        for (int i = 0; i < chunks.size(); i++) {
+            ColumnChunk chunk = chunks.get(i);
+            meta.structBegin();
+            meta.i64(2, chunk.offset);
+            meta.structField(3);
+            meta.i32(1, chunk.type);
+            meta.listBegin(2, CompactWriter.I32, 2);
+            meta.i32Element(ENCODING_PLAIN);
+            meta.i32Element(ENCODING_RLE);
+            meta.listBegin(3, CompactWriter.BINARY, 1);
+            meta.stringElement(columnNames.get(i));
+            meta.i32(4, CODEC_UNCOMPRESSED);
+            meta.i64(5, rowCount);
+            meta.i64(6, chunk.size);
+            meta.i64(7, chunk.size);
+            meta.i64(9, chunk.offset);
+            meta.structEnd();
+            meta.structEnd();
+        }
+        meta.i64(2, totalSize);
+        meta.i64(3, rowCount);
+        meta.structEnd();
+        meta.string(6, "databend-jdbc");
+        meta.structEnd();
+    }
+
+    private static void writeVarint(Buffer out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    private static final class ColumnChunk {
+        private final int type;
+        private final long offset;
+        private long size;
+
+        private ColumnChunk(int type, long offset) {
+            this.type = type;
+            this.offset = offset;
+        }
+    }
+
+    /**
+     * The subset of the Thrift compact protocol the Parquet metadata needs. Field ids are written as deltas from the
+     * previous field of the same struct.
+     */
+    private static final class CompactWriter {
+        private static final int I32 = 5;
+        private static final int I64 = 6;
+        private static final int BINARY = 8;
+        private static final int LIST = 9;
+        private static final int STRUCT = 12;
+
+        private final Buffer out;
+        private final Deque<Integer> outerFields = new ArrayDeque<>();
+        private int lastField;
+
+        private CompactWriter(Buffer out) {
+            this.out = out;
+        }
+
+        void structBegin() {
+            outerFields.push(lastField);
+            lastField = 0;
+        }
+
+        void structEnd() {
+            out.writeByte(0);
+            lastField = outerFields.pop();
+        }
+
+        void structField(int id) {
+            fieldHeader(id, STRUCT);
+            structBegin();
+        }
+
+        void i32(int id, int value) {
+            fieldHeader(id, I32);
+            i32Element(value);
+        }
+
+        void i64(int id, long value) {
+            fieldHeader(id, I64);
+            writeVarint(out, (value << 1) ^ (value >> 63));
+        }
+
+        void string(int id, String value) {
+            fieldHeader(id, BINARY);
+            stringElement(value);
+        }
+
+        void listBegin(int id, int elementType, int size) {
+            fieldHeader(id, LIST);
+            if (size < 15) {
+                out.writeByte((size << 4) | elementType);
+            } else {
+                out.writeByte(0xF0 | elementType);
+                writeVarint(out, size);
+            }
+        }
+
+        void i32Element(int value) {
+            writeVarint(out, ((value << 1) ^ (value >> 31)) & 0xFFFFFFFFL);
+        }
+
+        void stringElement(String value) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarint(out, bytes.length);
+            out.write(bytes);
+        }
+
+        private void fieldHeader(int id, int type) {
+            int delta = id - lastField;
+            if (delta > 0 && delta <= 15) {
+                out.writeByte((delta << 4) | type);
+            } else {
+                out.writeByte(type);
+                writeVarint(out, ((id << 1) ^ (id >> 31)) & 0xFFFFFFFFL);
+            }
+            lastField = id;
+        }
+    }
+}
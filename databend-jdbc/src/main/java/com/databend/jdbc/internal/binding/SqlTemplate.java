@@ -0,0 +1,89 @@
+package com.databend.jdbc.internal.binding;
+
+import java.util.List;
+
+/**
+ * A parsed statement split into the literal text between its parameter markers. Rendering a row appends the
+ * fragments and the row's values to a {@link StringBuilder}, instead of building a parameter map and re-walking
+ * the {@link RawStatementWrapper} for every row as {@link StatementUtil#replaceParameterMarksWithValues} does.
+ */
+public final class SqlTemplate {
+    private final String[] fragments;
+    // 1-based parameter index for each marker, in the order the markers appear
+    private final int[] paramIds;
+    private final long totalParams;
+    private final int literalLength;
+
+    private SqlTemplate(String[] fragments, int[] paramIds, long totalParams) {
+        this.fragments = fragments;
+        this.paramIds = paramIds;
+        this.totalParams = totalParams;
+        int length = 0;
+        for (String fragment : fragments) {
+            length += fragment.length();
+        }
+        this.literalLength = length;
+    }
+
+    /**
+     * @param rawStatement a parsed single statement
+     * @return the template of the statement
+     * @throws IllegalArgumentException if the statement contains several sub statements
+     */
+    public static SqlTemplate compile(RawStatementWrapper rawStatement) {
+        List<RawStatement> subStatements = rawStatement.getSubStatements();
+        if (subStatements.size() > 1) {
+            throw new IllegalArgumentException("Cannot compile a template for multiple statements");
+        }
+        if (subStatements.isEmpty()) {
+            return new SqlTemplate(new String[]{""}, new int[0], 0);
+        }
+        RawStatement statement = subStatements.get(0);
+        String sql = statement.getSql();
+        List<ParamMarker> markers = statement.getParamMarkers();
+        String[] fragments = new String[markers.size() + 1];
+        int[] paramIds = new int[markers.size()];
+        int start = 0;
+        for (int i = 0; i < markers.size(); i++) {
+            ParamMarker marker = markers.get(i);
+            if (marker.getPosition() < start || marker.getPosition() >= sql.length()) {
+                throw new IllegalArgumentException("The position of the parameter marker provided is invalid");
+            }
+            fragments[i] = sql.substring(start, marker.getPosition());
+            paramIds[i] = marker.getId();
+            start = marker.getPosition() + 1;
+        }
+        fragments[markers.size()] = sql.substring(start);
+        return new SqlTemplate(fragments, paramIds, rawStatement.getTotalParams());
+    }
+
+    public String render(String[] values) {
+        StringBuilder out = new StringBuilder(literalLength + 16 * paramIds.length);
+        appendTo(out, values);
+        return out.toString();
+    }
+
+    /**
+     * Appends the statement with {@code values[i]} spliced in for the parameter with index {@code i + 1}.
+     *
+     * @param out the builder to append to
+     * @param values the SQL literals of one row, may be null when the statement has no parameters
+     */
+    public void appendTo(StringBuilder out, String[] values) {
+        int provided = values == null ? 0 : values.length;
+        if (provided != totalParams) {
+            throw new IllegalArgumentException(String.format(
+                    "The number of parameters passed does not equal the number of parameter markers in the SQL query. Provided: %d, Parameter markers in the SQL query: %d",
+                    provided, totalParams));
+        }
+        for (int i = 0; i < paramIds.length; i++) {
+            out.append(fragments[i]);
+            String value = values[paramIds[i] - 1];
+            if (value == null) {
+                throw new IllegalArgumentException("No value for parameter marker at position: " + paramIds[i]);
+            }
+            out.append(value);
+        }
+        out.append(fragments[paramIds.length]);
+    }
+}
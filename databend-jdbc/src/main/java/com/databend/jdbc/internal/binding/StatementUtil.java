@@ -25,6 +25,7 @@ public final class StatementUtil {
     private static final Pattern SET_WITH_SPACE_REGEX = Pattern.compile(SET_PREFIX + " ", Pattern.CASE_INSENSITIVE);
     private static final String[] SELECT_KEYWORDS = new String[]{"show", "select", "describe", "exists", "explain",
             "with", "call"};
+    private static final String[] DDL_KEYWORDS = new String[]{"create", "alter", "drop", "undrop", "rename", "attach"};
 
     private StatementUtil() {
     }
@@ -44,6 +45,45 @@ public final class StatementUtil {
         }
     }
 
+    /**
+     * Returns true if the statement changes the catalog (eg: CREATE, ALTER, DROP). Leading comments are skipped.
+     *
+     * @param sql the sql statement
+     * @return true if the statement starts with a DDL keyword
+     */
+    public static boolean isDdl(String sql) {
+        if (sql == null) {
+            return false;
+        }
+        int start = skipLeadingComments(sql);
+        for (String keyword : DDL_KEYWORDS) {
+            int end = start + keyword.length();
+            if (sql.regionMatches(true, start, keyword, 0, keyword.length())
+                    && (end == sql.length() || !Character.isLetterOrDigit(sql.charAt(end)))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int skipLeadingComments(String sql) {
+        int i = 0;
+        while (i < sql.length()) {
+            if (Character.isWhitespace(sql.charAt(i))) {
+                i++;
+            } else if (sql.startsWith("--", i)) {
+                int end = sql.indexOf('\n', i);
+                i = end < 0 ? sql.length() : end + 1;
+            } else if (sql.startsWith("/*", i)) {
+                int end = sql.indexOf("*/", i + 2);
+                i = end < 0 ? sql.length() : end + 2;
+            } else {
+                break;
+            }
+        }
+        return i;
+    }
+
     /**
      * Extracts parameter from statement (eg: SET x=y)
      *
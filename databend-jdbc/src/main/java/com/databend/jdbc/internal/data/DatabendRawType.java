@@ -1,6 +1,8 @@
 package com.databend.jdbc.internal.data;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 
 import java.util.ArrayList;
 import java.util.Collections;
@@ -9,15 +11,23 @@ import java.util.stream.Collectors;
 
 import static com.google.common.base.MoreObjects.toStringHelper;
 
+/**
+ * Parsed Databend column type. Instances are immutable, so {@link #of(String)} hands out shared instances from a
+ * bounded cache and the type strings repeated in every page of a result are only parsed once.
+ */
 public class DatabendRawType {
+    private static final int MAX_CACHED_TYPES = 1024;
+    private static final Cache<String, DatabendRawType> TYPES = CacheBuilder.newBuilder()
+            .maximumSize(MAX_CACHED_TYPES)
+            .build();
+
     private final String type;
     private final boolean isNullable;
     private final DatabendDataType dataType;
-    private Integer columnSize = null;
-    private Integer decimalDigits = null;
-    private List<DatabendRawType> subType = null;
+    private final Integer columnSize;
+    private final Integer decimalDigits;
+    private final List<DatabendRawType> subType;
 
-    @JsonCreator
     public DatabendRawType(String type) {
         if (startsWithIgnoreCase(type, "Nullable")) {
             this.isNullable = true;
@@ -27,29 +37,51 @@ public class DatabendRawType {
             this.type = type;
         }
         this.dataType = DatabendDataType.getByTypeName(this.type);
+        Integer size = null;
+        Integer digits = null;
+        List<DatabendRawType> subTypes = null;
         if (dataType == DatabendDataType.DECIMAL) {
             if (this.type.contains(",")) {
-                this.columnSize = Integer.valueOf(this.type.substring((this.type.indexOf("(") + 1), (this.type.indexOf(","))).trim());
-                this.decimalDigits = Integer.valueOf(this.type.substring((this.type.indexOf(",") + 1), (this.type.indexOf(")"))).trim());
+                size = Integer.valueOf(this.type.substring((this.type.indexOf("(") + 1), (this.type.indexOf(","))).trim());
+                digits = Integer.valueOf(this.type.substring((this.type.indexOf(",") + 1), (this.type.indexOf(")"))).trim());
             } else {
-                this.columnSize = dataType.getLength();
-                this.decimalDigits = 0;
+                size = dataType.getLength();
+                digits = 0;
             }
         } else if (dataType == DatabendDataType.ARRAY) {
             String subTypeName = this.type.substring(6, this.type.length() - 1);
-            this.subType = Collections.singletonList(new DatabendRawType(subTypeName));
+            subTypes = Collections.singletonList(of(subTypeName));
         } else if (dataType == DatabendDataType.TUPLE) {
-            String subTypes = this.type.substring(6, this.type.length() - 1);
-            this.subType = splitByComma(subTypes).stream().map(DatabendRawType::new).collect(Collectors.toList());
-            this.columnSize = subType.size();
+            subTypes = parseSubTypes(this.type.substring(6, this.type.length() - 1));
+            size = subTypes.size();
         } else if (dataType == DatabendDataType.MAP) {
-            String subTypes = this.type.substring(4, this.type.length() - 1);
-            this.subType = splitByComma(subTypes).stream().map(DatabendRawType::new).collect(Collectors.toList());
-            this.columnSize = subType.size();
+            subTypes = parseSubTypes(this.type.substring(4, this.type.length() - 1));
+            size = subTypes.size();
+        }
+        this.columnSize = size == null ? this.dataType.getLength() : size;
+        this.decimalDigits = digits;
+        this.subType = subTypes;
+    }
+
+    /**
+     * @return the parsed type, shared with every other caller asking for the same type string
+     */
+    @JsonCreator
+    public static DatabendRawType of(String type) {
+        if (type == null) {
+            return new DatabendRawType(null);
         }
-        if (this.columnSize == null) {
-            this.columnSize = this.dataType.getLength();
+        DatabendRawType rawType = TYPES.getIfPresent(type);
+        if (rawType == null) {
+            // parsed outside the cache lock, a racing caller at worst parses the same type twice
+            rawType = new DatabendRawType(type);
+            TYPES.put(type, rawType);
         }
+        return rawType;
+    }
+
+    private static List<DatabendRawType> parseSubTypes(String types) {
+        return Collections.unmodifiableList(splitByComma(types).stream().map(DatabendRawType::of).collect(Collectors.toList()));
     }
 
     public static boolean startsWithIgnoreCase(String str, String prefix) {
@@ -59,7 +91,7 @@ public class DatabendRawType {
         return str.regionMatches(true, 0, prefix, 0, prefix.length());
     }
 
-    private List<String> splitByComma(String types) {
+    private static List<String> splitByComma(String types) {
         List<String> splitTypes = new ArrayList<>();
         StringBuilder splitType = new StringBuilder();
         int commaTotal = 0;
@@ -41,7 +41,7 @@ public final class ParseJsonDataUtils {
         return rows.build();
     }
 
-    private static ColumnTypeHandler[] createTypeHandlers(List<QueryRowField> schema) {
+    public static ColumnTypeHandler[] createTypeHandlers(List<QueryRowField> schema) {
         int index = 0;
         ColumnTypeHandler[] typeHandlers = new ColumnTypeHandler[schema.size()];
         for (QueryRowField field : schema) {
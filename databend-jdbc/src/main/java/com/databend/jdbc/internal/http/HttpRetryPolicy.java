@@ -1,6 +1,9 @@
 package com.databend.jdbc.internal.http;
 
 import com.databend.jdbc.internal.error.CloudErrors;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import okhttp3.Call;
+import okhttp3.Callback;
 import okhttp3.Headers;
 import okhttp3.MediaType;
 import okhttp3.OkHttpClient;
@@ -15,9 +18,12 @@ import java.sql.SQLException;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import static java.util.concurrent.Executors.newSingleThreadScheduledExecutor;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 
 public class HttpRetryPolicy {
@@ -43,6 +49,8 @@ public class HttpRetryPolicy {
         }
     }
 
+    private static final ScheduledExecutorService RETRY_SCHEDULER = newSingleThreadScheduledExecutor(
+            new ThreadFactoryBuilder().setNameFormat("Databend JDBC retry-%s").setDaemon(true).build());
     private static final Random RANDOM = new Random();
     private static final int MAX_ATTEMPTS = 3;
     private static final long INITIAL_INTERVAL = 1000;
@@ -110,6 +118,26 @@ public class HttpRetryPolicy {
     }
 
     public ResponseWithBody sendRequestWithRetry(OkHttpClient httpClient, Request request) throws SQLException {
+        try (Response response = execute(httpClient, request)) {
+            byte[] body = shouldIgnore(response.code()) ? new byte[0] : response.body().bytes();
+            return new ResponseWithBody(response, body);
+        } catch (IOException e) {
+            throw new SQLException(String.format("Error reading response from %s: %s", request.url(), e.getMessage()), e);
+        }
+    }
+
+    /**
+     * Sends the request with the same retry rules as {@link #sendRequestWithRetry(OkHttpClient, Request)},
+     * but hands back the successful response with its body still unread.
+     * Retries only cover the request and response header phase, the caller owns the returned response
+     * and must close it.
+     */
+    public Response sendRequestWithRetryForStream(OkHttpClient httpClient, Request request) throws SQLException {
+        return execute(httpClient, request);
+    }
+
+    // returns the successful or ignored response still open, the caller closes it
+    private Response execute(OkHttpClient httpClient, Request request) throws SQLException {
         String failReason = null;
         Throwable cause = null;
         int attempts = 1;
@@ -125,20 +153,19 @@ public class HttpRetryPolicy {
                     throw new SQLException("Thread Interrupted");
                 }
             }
-            try (Response response = httpClient.newCall(request).execute()) {
+            Response response = null;
+            try {
+                response = httpClient.newCall(request).execute();
                 int code = response.code();
-                if (code != 200) {
-                    if (shouldIgnore(code)) {
-                        return new ResponseWithBody(response, new byte[0]);
-                    }
-                    String body = response.body().string();
-                    if (!shouldRetry(code, body) || attempts == MAX_ATTEMPTS) {
-                        failReason = String.format("status_code = %s, body = %s", code, body);
-                        break;
-                    }
-                } else {
-                    byte[] body = response.body().bytes();
-                    return new ResponseWithBody(response, body);
+                if (code == 200 || shouldIgnore(code)) {
+                    Response open = response;
+                    response = null;
+                    return open;
+                }
+                String body = response.body().string();
+                if (!shouldRetry(code, body) || attempts == MAX_ATTEMPTS) {
+                    failReason = String.format("status_code = %s, body = %s", code, body);
+                    break;
                 }
             } catch (IOException e) {
                 failReason = e.getMessage();
@@ -146,10 +173,67 @@ public class HttpRetryPolicy {
                 if (!shouldRetry(e) || attempts == MAX_ATTEMPTS) {
                     break;
                 }
+            } finally {
+                if (response != null) {
+                    response.close();
+                }
             }
         }
+        throw failure(request, failReason, cause, attempts, start);
+    }
+
+    /**
+     * Sends the request with the same retry rules as {@link #sendRequestWithRetry(OkHttpClient, Request)}
+     * without blocking the caller. The request is enqueued on the client's dispatcher and a retry is scheduled
+     * after its backoff interval instead of sleeping, the body is read in full before the future completes.
+     */
+    public CompletableFuture<ResponseWithBody> sendRequestAsync(OkHttpClient httpClient, Request request) {
+        CompletableFuture<ResponseWithBody> future = new CompletableFuture<>();
+        enqueue(httpClient, request, 1, System.currentTimeMillis(), future);
+        return future;
+    }
+
+    private void enqueue(OkHttpClient httpClient, Request request, int attempts, long start, CompletableFuture<ResponseWithBody> future) {
+        httpClient.newCall(request).enqueue(new Callback() {
+            @Override
+            public void onResponse(Call call, Response response) {
+                try {
+                    int code = response.code();
+                    if (code == 200) {
+                        future.complete(new ResponseWithBody(response, response.body().bytes()));
+                    } else if (shouldIgnore(code)) {
+                        future.complete(new ResponseWithBody(response, new byte[0]));
+                    } else {
+                        String body = response.body().string();
+                        retryOrFail(String.format("status_code = %s, body = %s", code, body), null, shouldRetry(code, body));
+                    }
+                } catch (IOException e) {
+                    retryOrFail(e.getMessage(), e, shouldRetry(e));
+                } finally {
+                    response.close();
+                }
+            }
+
+            @Override
+            public void onFailure(Call call, IOException e) {
+                retryOrFail(e.getMessage(), e, shouldRetry(e));
+            }
+
+            private void retryOrFail(String failReason, Throwable cause, boolean retryable) {
+                if (!retryable || attempts == MAX_ATTEMPTS) {
+                    future.completeExceptionally(failure(request, failReason, cause, attempts, start));
+                    return;
+                }
+                long interval = calculateBackoffInterval(attempts + 1);
+                logger.log(Level.INFO, "Execute attempt #" + (attempts + 1) + ", after " + interval + "ms");
+                RETRY_SCHEDULER.schedule(() -> enqueue(httpClient, request, attempts + 1, start, future), interval, MILLISECONDS);
+            }
+        });
+    }
+
+    private static SQLException failure(Request request, String failReason, Throwable cause, int attempts, long start) {
         long elapsed = System.currentTimeMillis() - start;
         String msg = String.format("Error accessing %s: %s after %s attempts (totally %s msecs)", request.url(), failReason, attempts, elapsed);
-        throw new SQLException(msg, cause);
+        return new SQLException(msg, cause);
     }
 }
@@ -50,14 +50,33 @@ public class JsonCodec<T> {
     }
 
     public T fromJson(String json) throws JsonProcessingException {
-        try (JsonParser parser = mapper.createParser(json)) {
-            T value = mapper.readerFor(javaType).readValue(parser);
-            checkArgument(parser.nextToken() == null, "Found characters after the expected end of input");
-            return value;
+        try {
+            return readValue(mapper.createParser(json));
+        } catch (JsonProcessingException e) {
+            throw e;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Decodes straight from UTF-8 bytes so a large response body is never copied into an intermediate {@code String}.
+     */
+    public T fromJson(byte[] json) throws JsonProcessingException {
+        try {
+            return readValue(mapper.createParser(json));
         } catch (JsonProcessingException e) {
             throw e;
         } catch (IOException e) {
             throw new UncheckedIOException(e);
         }
     }
+
+    private T readValue(JsonParser jsonParser) throws IOException {
+        try (JsonParser parser = jsonParser) {
+            T value = mapper.readerFor(javaType).readValue(parser);
+            checkArgument(parser.nextToken() == null, "Found characters after the expected end of input");
+            return value;
+        }
+    }
 }
@@ -38,13 +38,12 @@ public final class JsonResponse<T> {
     }
 
     public static <T> JsonResponse<T> decode(JsonCodec<T> codec, HttpRetryPolicy.ResponseWithBody responseWithBody) {
-        String body = new String(responseWithBody.body, StandardCharsets.UTF_8);
         if (isJson(responseWithBody.contentType)) {
             try {
-                T value = codec.fromJson(body);
+                T value = codec.fromJson(responseWithBody.body);
                 return new JsonResponse<>(responseWithBody.statusCode, responseWithBody.statusMessage, responseWithBody.headers, value, null);
             } catch (JsonProcessingException e) {
-                String message = format("Unable to create %s from JSON response:\n[%s]", codec.getType(), body);
+                String message = format("Unable to create %s from JSON response:\n[%s]", codec.getType(), new String(responseWithBody.body, StandardCharsets.UTF_8));
                 throw new IllegalArgumentException(message, e);
             }
         }
@@ -0,0 +1,146 @@
+package com.databend.jdbc.internal.http;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.zip.GZIPOutputStream;
+
+import static java.util.concurrent.Executors.newCachedThreadPool;
+
+/**
+ * Gzip output stream that compresses fixed size blocks on several threads and writes every block as its own gzip
+ * member, in order. Concatenated members are a valid gzip stream, so readers see the same content as from a single
+ * {@link GZIPOutputStream}. At most {@code workers + 1} blocks are held in memory at a time.
+ */
+public final class ParallelGzipOutputStream extends OutputStream {
+    static final int DEFAULT_BLOCK_SIZE = 1024 * 1024;
+
+    private static final ExecutorService COMPRESS_EXECUTOR = newCachedThreadPool(
+            new ThreadFactoryBuilder().setNameFormat("Databend JDBC compress-%s").setDaemon(true).build());
+
+    private final OutputStream out;
+    private final int workers;
+    private final int blockSize;
+    private final Deque<Future<byte[]>> pending = new ArrayDeque<>();
+    private byte[] block;
+    private int blockLength;
+    private boolean written;
+    private boolean closed;
+
+    public ParallelGzipOutputStream(OutputStream out, int workers) {
+        this(out, workers, DEFAULT_BLOCK_SIZE);
+    }
+
+    ParallelGzipOutputStream(OutputStream out, int workers, int blockSize) {
+        if (workers < 1) {
+            throw new IllegalArgumentException("workers must be at least 1: " + workers);
+        }
+        this.out = out;
+        this.workers = workers;
+        this.blockSize = blockSize;
+        this.block = new byte[blockSize];
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        write(new byte[]{(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        ensureOpen();
+        while (len > 0) {
+            int n = Math.min(len, blockSize - blockLength);
+            System.arraycopy(b, off, block, blockLength, n);
+            blockLength += n;
+            off += n;
+            len -= n;
+            if (blockLength == blockSize) {
+                submitBlock();
+            }
+        }
+    }
+
+    /**
+     * Writes the blocks that are already compressed. A partly filled block is kept back so that flushing does not
+     * produce a stream of tiny members.
+     */
+    @Override
+    public void flush() throws IOException {
+        ensureOpen();
+        while (!pending.isEmpty() && pending.peekFirst().isDone()) {
+            writeNext();
+        }
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        try {
+            // an empty input still has to be a valid gzip stream
+            if (blockLength > 0 || !written) {
+                submitBlock();
+            }
+            while (!pending.isEmpty()) {
+                writeNext();
+            }
+            out.flush();
+        } finally {
+            closed = true;
+            for (Future<byte[]> future : pending) {
+                future.cancel(true);
+            }
+            pending.clear();
+            out.close();
+        }
+    }
+
+    private void submitBlock() throws IOException {
+        byte[] data = block;
+        int length = blockLength;
+        pending.addLast(COMPRESS_EXECUTOR.submit(() -> compress(data, length)));
+        written = true;
+        block = new byte[blockSize];
+        blockLength = 0;
+        while (pending.size() > workers) {
+            writeNext();
+        }
+    }
+
+    private void writeNext() throws IOException {
+        Future<byte[]> next = pending.removeFirst();
+        try {
+            out.write(next.get());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while compressing upload");
+        } catch (ExecutionException e) {
+            throw new IOException("Failed to compress upload", e.getCause());
+        }
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+    }
+
+    private static byte[] compress(byte[] data, int length) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(length / 2 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed, 64 * 1024)) {
+            gzip.write(data, 0, length);
+        }
+        return compressed.toByteArray();
+    }
+}
@@ -1,5 +1,6 @@
 package com.databend.jdbc.internal.http;
 
+import okhttp3.ConnectionPool;
 import okhttp3.Headers;
 import okhttp3.MediaType;
 import okhttp3.OkHttpClient;
@@ -19,34 +20,80 @@ import java.io.InterruptedIOException;
 import java.nio.file.Files;
 import java.time.Duration;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.TimeUnit;
-import java.util.logging.Level;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Logger;
 
 import static java.lang.String.format;
 import static java.util.Objects.requireNonNull;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 
+/**
+ * HTTP client for presigned transfers to object storage. The client is not tied to a Databend session, so all
+ * connections with the same {@link PresignClientConfig} share one instance from {@link #shared} and reuse its pooled
+ * connections instead of paying a new TCP and TLS handshake for every transfer.
+ */
 public class PresignClient {
     private static final String PRESIGN_REQUEST_FAILED = "Presign request failed";
 
     private static final int MaxRetryAttempts = 5;
     private static final int MAX_ERROR_BODY_LENGTH = 1024;
+    private static final ConcurrentMap<PresignClientConfig, PresignClient> SHARED = new ConcurrentHashMap<>();
     private final OkHttpClient client;
+    private final AtomicLong requestCount = new AtomicLong();
     private static final Logger logger = Logger.getLogger(PresignClient.class.getPackage().getName());
 
     public PresignClient()
     {
-        Logger.getLogger(OkHttpClient.class.getName()).setLevel(Level.FINEST);
+        this(PresignClientConfig.defaultConfig());
+    }
+
+    public PresignClient(PresignClientConfig config)
+    {
         this.client = new OkHttpClient.Builder()
-                .connectTimeout(30, TimeUnit.SECONDS)
-                .writeTimeout(300, TimeUnit.SECONDS)
-                .readTimeout(300, TimeUnit.SECONDS)
+                .connectionPool(new ConnectionPool(config.getMaxIdleConnections(), config.getKeepAliveSecs(), TimeUnit.SECONDS))
+                .connectTimeout(config.getConnectTimeoutSecs(), TimeUnit.SECONDS)
+                .writeTimeout(config.getSocketTimeoutSecs(), TimeUnit.SECONDS)
+                .readTimeout(config.getSocketTimeoutSecs(), TimeUnit.SECONDS)
                 .retryOnConnectionFailure(true)
-                .protocols(Arrays.asList(Protocol.HTTP_1_1))
+                .protocols(config.isHttp2()
+                        ? Arrays.asList(Protocol.HTTP_2, Protocol.HTTP_1_1)
+                        : Collections.singletonList(Protocol.HTTP_1_1))
                 .build();
     }
 
+    /**
+     * @return the driver-wide client for {@code config}, created on first use
+     */
+    public static PresignClient shared(PresignClientConfig config)
+    {
+        return SHARED.computeIfAbsent(requireNonNull(config, "config is null"), PresignClient::new);
+    }
+
+    /**
+     * @return number of open connections in the pool, both in use and idle
+     */
+    public int connectionCount()
+    {
+        return client.connectionPool().connectionCount();
+    }
+
+    public int idleConnectionCount()
+    {
+        return client.connectionPool().idleConnectionCount();
+    }
+
+    /**
+     * @return number of HTTP requests sent, retries included
+     */
+    public long requestCount()
+    {
+        return requestCount.get();
+    }
+
     private void uploadFromStream(InputStream inputStream, Headers headers, String presignedUrl, long fileSize)
             throws IOException
     {
@@ -65,6 +112,42 @@ public class PresignClient {
 
     private ResponseBody executeInternal(Request request, boolean shouldClose)
             throws IOException
+    {
+        return execute(request, shouldClose, MaxRetryAttempts).body();
+    }
+
+    Response execute(Request request, boolean shouldClose)
+            throws IOException
+    {
+        return execute(request, shouldClose, MaxRetryAttempts);
+    }
+
+    /**
+     * Like {@link #execute(Request, boolean)}, but a response with status {@code acceptedStatus} is handed back
+     * instead of failing, for statuses the caller knows how to handle.
+     */
+    Response executeAccepting(Request request, int acceptedStatus)
+            throws IOException
+    {
+        return execute(request, false, MaxRetryAttempts, acceptedStatus);
+    }
+
+    private Response execute(Request request, boolean shouldClose, int maxRetryAttempts)
+            throws IOException
+    {
+        return execute(request, shouldClose, maxRetryAttempts, -1);
+    }
+
+    /**
+     * Sends {@code request}, retrying transient failures.
+     *
+     * @param shouldClose whether to close the response, a closed response only carries its status and headers
+     * @param maxRetryAttempts retries after the first attempt before giving up
+     * @param acceptedStatus unsuccessful status returned like a successful one, -1 for none
+     * @return the successful response
+     */
+    private Response execute(Request request, boolean shouldClose, int maxRetryAttempts, int acceptedStatus)
+            throws IOException
     {
         requireNonNull(request, "request is null");
         long start = System.nanoTime();
@@ -73,9 +156,10 @@ public class PresignClient {
             attempts++;
             Response response = null;
             try {
+                requestCount.incrementAndGet();
                 response = client.newCall(request).execute();
-                if (response.isSuccessful()) {
-                    return response.body();
+                if (response.isSuccessful() || response.code() == acceptedStatus) {
+                    return response;
                 }
                 String responseBody = readErrorBody(response);
                 if (response.code() == 401) {
@@ -107,7 +191,7 @@ public class PresignClient {
                     throw retryAbortedIOException(e);
                 }
                 logger.info(format("%s #%s due to: %s", "retry presign request", attempts, e));
-                if (attempts > MaxRetryAttempts) {
+                if (attempts > maxRetryAttempts) {
                     Duration sinceStart = Duration.ofNanos(System.nanoTime() - start);
                     logger.warning(formatFailureMessage("error is: " + e));
                     throw new PresignRequestFailedException(
@@ -189,6 +273,32 @@ public class PresignClient {
         }
     }
 
+    /**
+     * Uploads a body produced on the fly, e.g. a spooled {@link SpoolingRequestBody}. The body must know its content
+     * length because presigned PUT requests do not accept chunked transfer encoding.
+     */
+    public void presignUpload(Headers headers, String presignedUrl, RequestBody body)
+            throws IOException
+    {
+        presignUpload(headers, presignedUrl, body, MaxRetryAttempts);
+    }
+
+    /**
+     * Same as {@link #presignUpload(Headers, String, RequestBody)} with a caller chosen retry budget, for replayable
+     * bodies such as a {@link SpoolingRequestBody}.
+     */
+    public void presignUpload(Headers headers, String presignedUrl, RequestBody body, int maxRetryAttempts)
+            throws IOException
+    {
+        logger.fine("Starting upload: size=" + body.contentLength() + " bytes, url=" + presignedUrl);
+        Request r = new Request.Builder()
+                .url(presignedUrl)
+                .put(body)
+                .headers(headers)
+                .build();
+        execute(r, true, maxRetryAttempts);
+    }
+
     public void presignDownload(String destFileName, Headers headers, String presignedUrl)
             throws IOException
     {
@@ -0,0 +1,131 @@
+package com.databend.jdbc.internal.http;
+
+import java.util.Objects;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+
+/**
+ * Settings of the HTTP client used for presigned transfers to object storage. Connections with equal settings share
+ * one {@link PresignClient} and therefore one connection pool, see {@link PresignClient#shared(PresignClientConfig)}.
+ */
+public final class PresignClientConfig {
+    private static final int DEFAULT_MAX_IDLE_CONNECTIONS = 5;
+    private static final int DEFAULT_KEEP_ALIVE_SECS = 300;
+    private static final int DEFAULT_CONNECT_TIMEOUT_SECS = 30;
+    private static final int DEFAULT_SOCKET_TIMEOUT_SECS = 300;
+
+    private final int maxIdleConnections;
+    private final int keepAliveSecs;
+    private final int connectTimeoutSecs;
+    private final int socketTimeoutSecs;
+    private final boolean http2;
+
+    private PresignClientConfig(Builder builder) {
+        this.maxIdleConnections = builder.maxIdleConnections;
+        this.keepAliveSecs = builder.keepAliveSecs;
+        this.connectTimeoutSecs = builder.connectTimeoutSecs;
+        this.socketTimeoutSecs = builder.socketTimeoutSecs;
+        this.http2 = builder.http2;
+    }
+
+    public static PresignClientConfig defaultConfig() {
+        return builder().build();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public int getMaxIdleConnections() {
+        return maxIdleConnections;
+    }
+
+    public int getKeepAliveSecs() {
+        return keepAliveSecs;
+    }
+
+    public int getConnectTimeoutSecs() {
+        return connectTimeoutSecs;
+    }
+
+    public int getSocketTimeoutSecs() {
+        return socketTimeoutSecs;
+    }
+
+    /**
+     * @return whether HTTP/2 is offered to the object store, it is only used when the store accepts it during the
+     * TLS handshake
+     */
+    public boolean isHttp2() {
+        return http2;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        PresignClientConfig that = (PresignClientConfig) o;
+        return maxIdleConnections == that.maxIdleConnections
+                && keepAliveSecs == that.keepAliveSecs
+                && connectTimeoutSecs == that.connectTimeoutSecs
+                && socketTimeoutSecs == that.socketTimeoutSecs
+                && http2 == that.http2;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(maxIdleConnections, keepAliveSecs, connectTimeoutSecs, socketTimeoutSecs, http2);
+    }
+
+    @Override
+    public String toString() {
+        return toStringHelper(this)
+                .add("maxIdleConnections", maxIdleConnections)
+                .add("keepAliveSecs", keepAliveSecs)
+                .add("connectTimeoutSecs", connectTimeoutSecs)
+                .add("socketTimeoutSecs", socketTimeoutSecs)
+                .add("http2", http2)
+                .toString();
+    }
+
+    public static final class Builder {
+        private int maxIdleConnections = DEFAULT_MAX_IDLE_CONNECTIONS;
+        private int keepAliveSecs = DEFAULT_KEEP_ALIVE_SECS;
+        private int connectTimeoutSecs = DEFAULT_CONNECT_TIMEOUT_SECS;
+        private int socketTimeoutSecs = DEFAULT_SOCKET_TIMEOUT_SECS;
+        private boolean http2;
+
+        public Builder setMaxIdleConnections(int maxIdleConnections) {
+            this.maxIdleConnections = maxIdleConnections;
+            return this;
+        }
+
+        public Builder setKeepAliveSecs(int keepAliveSecs) {
+            this.keepAliveSecs = keepAliveSecs;
+            return this;
+        }
+
+        public Builder setConnectTimeoutSecs(int connectTimeoutSecs) {
+            this.connectTimeoutSecs = connectTimeoutSecs;
+            return this;
+        }
+
+        public Builder setSocketTimeoutSecs(int socketTimeoutSecs) {
+            this.socketTimeoutSecs = socketTimeoutSecs;
+            return this;
+        }
+
+        public Builder setHttp2(boolean http2) {
+            this.http2 = http2;
+            return this;
+        }
+
+        public PresignClientConfig build() {
+            return new PresignClientConfig(this);
+        }
+    }
+}
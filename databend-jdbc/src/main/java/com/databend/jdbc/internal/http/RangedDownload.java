@@ -0,0 +1,328 @@
+package com.databend.jdbc.internal.http;
+
+import com.databend.jdbc.internal.WorkerExecutors;
+import okhttp3.Headers;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.BufferedSource;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Downloads a presigned object as HTTP range requests of {@code chunkSize} bytes, up to {@code parallelism} at a
+ * time. The first request also reports the object size through its {@code Content-Range} header, so no separate
+ * {@code HEAD} is needed. Objects that fit in one chunk, and stores that ignore the {@code Range} header, are read
+ * with the single response. A store answers the first range of an empty object with 416, which is read as an
+ * empty object.
+ */
+public final class RangedDownload {
+    private static final Pattern CONTENT_RANGE = Pattern.compile("bytes \\d+-\\d+/(\\d+)");
+    private static final Pattern EMPTY_CONTENT_RANGE = Pattern.compile("bytes \\*/0");
+    private static final int HTTP_PARTIAL_CONTENT = 206;
+    private static final int HTTP_RANGE_NOT_SATISFIABLE = 416;
+
+    private final PresignClient client;
+    private final Headers headers;
+    private final String url;
+    private final int chunkSize;
+    private final int parallelism;
+    private final long bufferSize;
+    private final ExecutorService executor;
+
+    public RangedDownload(PresignClient client, Headers headers, String url, int chunkSize, int parallelism, long bufferSize) {
+        this(client, headers, url, chunkSize, parallelism, bufferSize, WorkerExecutors.sharedPool());
+    }
+
+    /**
+     * @param bufferSize bytes of downloaded chunks {@link #openStream()} may hold ahead of the reader
+     * @param executor runs the range requests
+     */
+    public RangedDownload(PresignClient client, Headers headers, String url, int chunkSize, int parallelism, long bufferSize, ExecutorService executor) {
+        this.executor = requireNonNull(executor, "executor is null");
+        this.client = requireNonNull(client, "client is null");
+        this.headers = requireNonNull(headers, "headers is null");
+        this.url = requireNonNull(url, "url is null");
+        this.chunkSize = chunkSize;
+        this.parallelism = parallelism;
+        this.bufferSize = bufferSize;
+    }
+
+    /**
+     * @return the object content, chunks are fetched ahead of the reader and handed out in order
+     */
+    public InputStream openStream() throws IOException {
+        if (parallelism <= 1) {
+            return client.presignDownloadStream(headers, url);
+        }
+        Response first = firstRange();
+        if (first == null) {
+            return new ByteArrayInputStream(new byte[0]);
+        }
+        long total = totalLength(first);
+        if (total < 0) {
+            return openWhole(first);
+        }
+        if (total <= chunkSize) {
+            return first.body().byteStream();
+        }
+        byte[] firstChunk = readChunk(first, 0, total);
+        int window = (int) Math.max(1, Math.min(parallelism, bufferSize / chunkSize));
+        return new ChunkedInputStream(firstChunk, total, window);
+    }
+
+    /**
+     * Writes the object into {@code channel}, every chunk at its own offset so that chunks are written as they
+     * arrive instead of being held in memory.
+     *
+     * @return the number of bytes written
+     */
+    public long transferTo(FileChannel channel) throws IOException {
+        if (parallelism <= 1) {
+            try (InputStream in = client.presignDownloadStream(headers, url)) {
+                return channel.transferFrom(Channels.newChannel(in), 0, Long.MAX_VALUE);
+            }
+        }
+        Response first = firstRange();
+        if (first == null) {
+            return 0;
+        }
+        long total = totalLength(first);
+        if (total < 0) {
+            try (InputStream in = openWhole(first)) {
+                return channel.transferFrom(Channels.newChannel(in), 0, Long.MAX_VALUE);
+            }
+        }
+        writeChunk(first, channel, 0, total);
+        int chunks = (int) ((total + chunkSize - 1) / chunkSize);
+        int workers = Math.min(parallelism, chunks - 1);
+        AtomicInteger nextChunk = new AtomicInteger(1);
+        AtomicBoolean failed = new AtomicBoolean();
+        List<Future<?>> pending = new ArrayList<>(workers);
+        for (int w = 0; w < workers; w++) {
+            pending.add(executor.submit(() -> {
+                int chunk;
+                try {
+                    while (!failed.get() && (chunk = nextChunk.getAndIncrement()) < chunks) {
+                        long offset = (long) chunk * chunkSize;
+                        writeChunk(client.execute(rangeRequest(offset), false), channel, offset, total);
+                    }
+                } catch (IOException | RuntimeException e) {
+                    failed.set(true);
+                    throw e;
+                }
+                return null;
+            }));
+        }
+        IOException failure = null;
+        for (Future<?> worker : pending) {
+            try {
+                worker.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                failed.set(true);
+                throw new InterruptedIOException("Interrupted while downloading " + url);
+            } catch (ExecutionException e) {
+                if (failure == null) {
+                    failure = e.getCause() instanceof IOException
+                            ? (IOException) e.getCause()
+                            : new IOException("Failed to download chunk", e.getCause());
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        return total;
+    }
+
+    private Request rangeRequest(long offset) {
+        return new Request.Builder()
+                .headers(headers)
+                .header("Range", "bytes=" + offset + "-" + (offset + chunkSize - 1))
+                .url(url)
+                .get()
+                .build();
+    }
+
+    // the response to the first range, null when the object is empty
+    private Response firstRange() throws IOException {
+        Response first = client.executeAccepting(rangeRequest(0), HTTP_RANGE_NOT_SATISFIABLE);
+        if (first.code() != HTTP_RANGE_NOT_SATISFIABLE) {
+            return first;
+        }
+        String contentRange = first.header("Content-Range");
+        first.close();
+        if (contentRange != null && !EMPTY_CONTENT_RANGE.matcher(contentRange).matches()) {
+            throw new IOException("Range request at offset 0 was not satisfiable: " + contentRange);
+        }
+        return null;
+    }
+
+    // the object size from a 206 response, -1 when the store sent the whole object or did not report its size
+    private static long totalLength(Response response) {
+        if (response.code() != HTTP_PARTIAL_CONTENT) {
+            return -1;
+        }
+        String contentRange = response.header("Content-Range");
+        Matcher matcher = contentRange == null ? null : CONTENT_RANGE.matcher(contentRange);
+        return matcher != null && matcher.matches() ? Long.parseLong(matcher.group(1)) : -1;
+    }
+
+    private InputStream openWhole(Response first) throws IOException {
+        if (first.code() != HTTP_PARTIAL_CONTENT) {
+            return first.body().byteStream();
+        }
+        // a partial response without a usable size, start over with a plain request
+        first.close();
+        return client.presignDownloadStream(headers, url);
+    }
+
+    private long chunkLength(long offset, long total) {
+        return Math.min(chunkSize, total - offset);
+    }
+
+    private byte[] readChunk(Response response, long offset, long total) throws IOException {
+        try (ResponseBody body = checkPartial(response, offset)) {
+            byte[] bytes = body.bytes();
+            if (bytes.length != chunkLength(offset, total)) {
+                throw new IOException("Short read of chunk at offset " + offset + ": " + bytes.length + " bytes");
+            }
+            return bytes;
+        }
+    }
+
+    private void writeChunk(Response response, FileChannel channel, long offset, long total) throws IOException {
+        long expected = chunkLength(offset, total);
+        long written = 0;
+        try (ResponseBody body = checkPartial(response, offset)) {
+            BufferedSource source = body.source();
+            ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+            while (source.read(buffer) != -1) {
+                buffer.flip();
+                while (buffer.hasRemaining()) {
+                    written += channel.write(buffer, offset + written);
+                }
+                buffer.clear();
+            }
+        }
+        if (written != expected) {
+            throw new IOException("Short read of chunk at offset " + offset + ": " + written + " bytes");
+        }
+    }
+
+    private static ResponseBody checkPartial(Response response, long offset) throws IOException {
+        if (response.code() != HTTP_PARTIAL_CONTENT) {
+            response.close();
+            throw new IOException("Range request at offset " + offset + " was not honored: " + response.code());
+        }
+        return response.body();
+    }
+
+    private final class ChunkedInputStream extends InputStream {
+        private final long total;
+        private final int window;
+        private final Deque<Future<byte[]>> ahead = new ArrayDeque<>();
+        private long nextOffset;
+        private byte[] current;
+        private int position;
+        private boolean closed;
+
+        ChunkedInputStream(byte[] firstChunk, long total, int window) {
+            this.current = firstChunk;
+            this.total = total;
+            this.window = window;
+            this.nextOffset = firstChunk.length;
+            fill();
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] single = new byte[1];
+            return read(single, 0, 1) == -1 ? -1 : single[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (closed) {
+                throw new IOException("Stream closed");
+            }
+            if (len == 0) {
+                return 0;
+            }
+            while (position == current.length) {
+                if (ahead.isEmpty()) {
+                    return -1;
+                }
+                current = next();
+                position = 0;
+            }
+            int n = Math.min(len, current.length - position);
+            System.arraycopy(current, position, b, off, n);
+            position += n;
+            return n;
+        }
+
+        @Override
+        public int available() {
+            return current.length - position;
+        }
+
+        @Override
+        public void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            for (Future<byte[]> chunk : ahead) {
+                chunk.cancel(true);
+            }
+            ahead.clear();
+        }
+
+        private byte[] next() throws IOException {
+            Future<byte[]> chunk = ahead.removeFirst();
+            try {
+                return chunk.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                close();
+                throw new InterruptedIOException("Interrupted while downloading " + url);
+            } catch (ExecutionException e) {
+                close();
+                throw e.getCause() instanceof IOException
+                        ? (IOException) e.getCause()
+                        : new IOException("Failed to download chunk", e.getCause());
+            } finally {
+                fill();
+            }
+        }
+
+        private void fill() {
+            while (!closed && ahead.size() < window && nextOffset < total) {
+                long offset = nextOffset;
+                ahead.addLast(executor.submit(() -> readChunk(client.execute(rangeRequest(offset), false), offset, total)));
+                nextOffset += chunkSize;
+            }
+        }
+    }
+}
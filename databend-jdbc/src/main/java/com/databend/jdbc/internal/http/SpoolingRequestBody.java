@@ -0,0 +1,154 @@
+package com.databend.jdbc.internal.http;
+
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okio.BufferedSink;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Makes an upload from a caller's {@link InputStream} replayable. Every byte read from the stream is kept in a spool
+ * before it is sent, in memory up to {@code memoryLimit} bytes and in a temporary file beyond that. A retried
+ * attempt first resends the spool and then continues reading the stream where the failed attempt stopped, so the
+ * stream itself is read only once. {@link #spool} fills the spool from a content writer up front instead, for targets
+ * that need the content length before the body is sent. Close the body after the upload to remove the temporary file.
+ */
+public final class SpoolingRequestBody extends RequestBody implements Closeable {
+    private static final MediaType OCTET_STREAM = MediaType.parse("application/octet-stream");
+
+    private final InputStream source;
+    private long contentLength;
+    private final int memoryLimit;
+    private final ByteArrayOutputStream memory = new ByteArrayOutputStream();
+    private File spillFile;
+    private OutputStream spill;
+    private boolean sourceDone;
+
+    public SpoolingRequestBody(InputStream source, long contentLength, int memoryLimit) {
+        this.source = requireNonNull(source, "source is null");
+        this.contentLength = contentLength;
+        this.memoryLimit = memoryLimit;
+    }
+
+    private SpoolingRequestBody(int memoryLimit) {
+        this.source = null;
+        this.sourceDone = true;
+        this.memoryLimit = memoryLimit;
+    }
+
+    /**
+     * Runs {@code writer} once and keeps what it produces, compressed when a compressor is given, so the content
+     * length is known before sending. Every attempt resends the spool, the writer is never run again.
+     */
+    public static SpoolingRequestBody spool(StreamingRequestBody.ContentWriter writer,
+            StreamingRequestBody.Compressor compressor, int memoryLimit) throws IOException {
+        SpoolingRequestBody body = new SpoolingRequestBody(memoryLimit);
+        try {
+            OutputStream spool = new BufferedOutputStream(new OutputStream() {
+                @Override
+                public void write(int b) throws IOException {
+                    write(new byte[] {(byte) b}, 0, 1);
+                }
+
+                @Override
+                public void write(byte[] b, int off, int len) throws IOException {
+                    body.spool(b, off, len);
+                }
+            }, 64 * 1024);
+            StreamingRequestBody.write(writer, compressor, spool);
+            spool.flush();
+            body.contentLength = body.spooledBytes();
+        } catch (IOException | RuntimeException e) {
+            body.close();
+            throw e;
+        }
+        return body;
+    }
+
+    @Override
+    public MediaType contentType() {
+        return OCTET_STREAM;
+    }
+
+    @Override
+    public long contentLength() {
+        return contentLength;
+    }
+
+    @Override
+    public synchronized void writeTo(BufferedSink sink) throws IOException {
+        OutputStream out = sink.outputStream();
+        replay(out);
+        byte[] buffer = new byte[64 * 1024];
+        int n;
+        while (!sourceDone && (n = source.read(buffer)) != -1) {
+            // spooled before it is sent, a failure while sending must not lose the bytes
+            spool(buffer, 0, n);
+            out.write(buffer, 0, n);
+        }
+        sourceDone = true;
+        out.flush();
+    }
+
+    /**
+     * @return bytes read from the source so far
+     */
+    public synchronized long spooledBytes() throws IOException {
+        if (spill != null) {
+            spill.flush();
+        }
+        return memory.size() + (spillFile == null ? 0 : spillFile.length());
+    }
+
+    @Override
+    public synchronized void close() {
+        try {
+            if (spill != null) {
+                spill.close();
+            }
+        } catch (IOException e) {
+            // ignore
+        }
+        if (spillFile != null) {
+            spillFile.delete();
+        }
+    }
+
+    private void replay(OutputStream out) throws IOException {
+        memory.writeTo(out);
+        if (spillFile == null) {
+            return;
+        }
+        spill.flush();
+        try (InputStream in = new FileInputStream(spillFile)) {
+            byte[] buffer = new byte[64 * 1024];
+            int n;
+            while ((n = in.read(buffer)) != -1) {
+                out.write(buffer, 0, n);
+            }
+        }
+    }
+
+    private void spool(byte[] buffer, int offset, int length) throws IOException {
+        int inMemory = spillFile == null ? Math.min(length, memoryLimit - memory.size()) : 0;
+        memory.write(buffer, offset, inMemory);
+        if (inMemory == length) {
+            return;
+        }
+        if (spillFile == null) {
+            spillFile = File.createTempFile("databend_upload_spool_", ".tmp");
+            spill = new FileOutputStream(spillFile);
+        }
+        spill.write(buffer, offset + inMemory, length - inMemory);
+    }
+}
@@ -0,0 +1,108 @@
+package com.databend.jdbc.internal.http;
+
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okio.BufferedSink;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Request body whose content is produced by a {@link ContentWriter} while the request is being sent, so data
+ * that is already in memory can be uploaded without first being written to a temporary file. The content is
+ * compressed on the fly when a {@link Compressor} is given. The writer is invoked again for every attempt, which
+ * keeps the body replayable for retries, unless the body was created with {@link #oneShot}. Targets that need the
+ * content length up front take a {@link SpoolingRequestBody#spool spooled} body instead.
+ */
+public final class StreamingRequestBody extends RequestBody {
+    private static final MediaType OCTET_STREAM = MediaType.parse("application/octet-stream");
+
+    private final ContentWriter writer;
+    private final Compressor compressor;
+    private final long contentLength;
+    private final boolean oneShot;
+
+    private StreamingRequestBody(ContentWriter writer, Compressor compressor, long contentLength, boolean oneShot) {
+        this.writer = requireNonNull(writer, "writer is null");
+        this.compressor = compressor;
+        this.contentLength = contentLength;
+        this.oneShot = oneShot;
+    }
+
+    /**
+     * Body sent with chunked transfer encoding, the content is produced exactly once per attempt.
+     *
+     * @param compressor compresses the content, null to send it as is
+     */
+    public static StreamingRequestBody chunked(ContentWriter writer, Compressor compressor) {
+        return new StreamingRequestBody(writer, compressor, -1, false);
+    }
+
+    /**
+     * Chunked body whose writer can run only once, such as one copying a caller's {@link java.io.InputStream}.
+     * The request is not retried after the body has been sent.
+     */
+    public static StreamingRequestBody oneShot(ContentWriter writer, Compressor compressor) {
+        return new StreamingRequestBody(writer, compressor, -1, true);
+    }
+
+    @Override
+    public MediaType contentType() {
+        return OCTET_STREAM;
+    }
+
+    @Override
+    public long contentLength() {
+        return contentLength;
+    }
+
+    @Override
+    public boolean isOneShot() {
+        return oneShot;
+    }
+
+    @Override
+    public void writeTo(BufferedSink sink) throws IOException {
+        write(writer, compressor, sink.outputStream());
+        sink.flush();
+    }
+
+    static void write(ContentWriter writer, Compressor compressor, OutputStream target) throws IOException {
+        // writers may close what they are given, the sink itself must stay open for the rest of the request
+        OutputStream out = new FilterOutputStream(target) {
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                out.write(b, off, len);
+            }
+
+            @Override
+            public void close() throws IOException {
+                flush();
+            }
+        };
+        if (compressor == null) {
+            writer.writeTo(out);
+            out.flush();
+            return;
+        }
+        try (OutputStream compressed = compressor.compress(out)) {
+            writer.writeTo(compressed);
+        }
+    }
+
+    @FunctionalInterface
+    public interface ContentWriter {
+        void writeTo(OutputStream out) throws IOException;
+    }
+
+    @FunctionalInterface
+    public interface Compressor {
+        /**
+         * @return a stream compressing into {@code out}, closing it must finish the compressed data
+         */
+        OutputStream compress(OutputStream out) throws IOException;
+    }
+}
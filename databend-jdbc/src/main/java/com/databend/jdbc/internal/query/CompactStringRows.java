@@ -0,0 +1,176 @@
+package com.databend.jdbc.internal.query;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+
+import java.io.IOException;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Row data of a JSON query page kept in one character buffer with one offsets array, instead of a
+ * {@code String} and an {@code ArrayList} per cell and row. Cells are only turned into strings when read.
+ */
+public final class CompactStringRows extends AbstractList<List<String>> implements RandomAccess {
+    private final char[] chars;
+    // cell i spans chars[cellOffsets[i], cellOffsets[i + 1])
+    private final int[] cellOffsets;
+    // row r spans cells [rowOffsets[r], rowOffsets[r + 1])
+    private final int[] rowOffsets;
+    private final BitSet nulls;
+    private final int rowCount;
+
+    private CompactStringRows(char[] chars, int[] cellOffsets, int[] rowOffsets, BitSet nulls, int rowCount) {
+        this.chars = chars;
+        this.cellOffsets = cellOffsets;
+        this.rowOffsets = rowOffsets;
+        this.nulls = nulls;
+        this.rowCount = rowCount;
+    }
+
+    @Override
+    public int size() {
+        return rowCount;
+    }
+
+    @Override
+    public List<String> get(int rowIndex) {
+        checkRow(rowIndex);
+        return new Row(rowIndex);
+    }
+
+    public int columnCount(int rowIndex) {
+        checkRow(rowIndex);
+        return rowOffsets[rowIndex + 1] - rowOffsets[rowIndex];
+    }
+
+    public String cell(int rowIndex, int columnIndex) {
+        if (columnIndex < 0 || columnIndex >= columnCount(rowIndex)) {
+            throw new IndexOutOfBoundsException("Column index: " + columnIndex);
+        }
+        int cell = rowOffsets[rowIndex] + columnIndex;
+        if (nulls.get(cell)) {
+            return null;
+        }
+        return new String(chars, cellOffsets[cell], cellOffsets[cell + 1] - cellOffsets[cell]);
+    }
+
+    private void checkRow(int rowIndex) {
+        if (rowIndex < 0 || rowIndex >= rowCount) {
+            throw new IndexOutOfBoundsException("Row index: " + rowIndex);
+        }
+    }
+
+    private final class Row extends AbstractList<String> implements RandomAccess {
+        private final int rowIndex;
+
+        private Row(int rowIndex) {
+            this.rowIndex = rowIndex;
+        }
+
+        @Override
+        public String get(int columnIndex) {
+            return cell(rowIndex, columnIndex);
+        }
+
+        @Override
+        public int size() {
+            return columnCount(rowIndex);
+        }
+    }
+
+    /**
+     * Streams the {@code data} array of a query response straight from the parser into a {@link CompactStringRows}.
+     */
+    public static final class Deserializer extends StdDeserializer<List<List<String>>> {
+        private static final long serialVersionUID = 1L;
+
+        public Deserializer() {
+            super(List.class);
+        }
+
+        @Override
+        public List<List<String>> deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+            if (parser.currentToken() != JsonToken.START_ARRAY) {
+                return context.reportInputMismatch(this, "Expected array for query data but got %s", parser.currentToken());
+            }
+            Builder builder = new Builder();
+            JsonToken token;
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                if (token != JsonToken.START_ARRAY) {
+                    return context.reportInputMismatch(this, "Expected array for query row but got %s", token);
+                }
+                while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                    if (token == JsonToken.VALUE_NULL) {
+                        builder.addNull();
+                    } else if (token == JsonToken.VALUE_STRING) {
+                        builder.add(parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength());
+                    } else if (token.isScalarValue()) {
+                        String text = parser.getText();
+                        builder.add(text.toCharArray(), 0, text.length());
+                    } else {
+                        return context.reportInputMismatch(this, "Unexpected %s in query row", token);
+                    }
+                }
+                builder.endRow();
+            }
+            return builder.build();
+        }
+    }
+
+    static final class Builder {
+        private char[] chars = new char[1024];
+        private int charCount;
+        private int[] cellOffsets = new int[257];
+        private int cellCount;
+        private int[] rowOffsets = new int[65];
+        private int rowCount;
+        private final BitSet nulls = new BitSet();
+
+        void add(char[] text, int offset, int length) {
+            ensureChars(length);
+            System.arraycopy(text, offset, chars, charCount, length);
+            charCount += length;
+            endCell();
+        }
+
+        void addNull() {
+            nulls.set(cellCount);
+            endCell();
+        }
+
+        void endRow() {
+            if (rowCount + 2 > rowOffsets.length) {
+                rowOffsets = Arrays.copyOf(rowOffsets, rowOffsets.length * 2);
+            }
+            rowOffsets[++rowCount] = cellCount;
+        }
+
+        CompactStringRows build() {
+            return new CompactStringRows(
+                    Arrays.copyOf(chars, charCount),
+                    Arrays.copyOf(cellOffsets, cellCount + 1),
+                    Arrays.copyOf(rowOffsets, rowCount + 1),
+                    nulls,
+                    rowCount);
+        }
+
+        private void endCell() {
+            if (cellCount + 2 > cellOffsets.length) {
+                cellOffsets = Arrays.copyOf(cellOffsets, cellOffsets.length * 2);
+            }
+            cellOffsets[++cellCount] = charCount;
+        }
+
+        private void ensureChars(int length) {
+            if (charCount + length > chars.length) {
+                chars = Arrays.copyOf(chars, Math.max(chars.length * 2, charCount + length));
+            }
+        }
+    }
+}
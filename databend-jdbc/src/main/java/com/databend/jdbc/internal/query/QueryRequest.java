@@ -5,10 +5,20 @@ import com.databend.jdbc.internal.session.PaginationOptions;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import java.io.IOException;
+import java.io.OutputStream;
 
 @JsonInclude(JsonInclude.Include.NON_NULL)
 public class QueryRequest {
+    // building a mapper per query shows up at high query rates, the writer is immutable and thread safe
+    private static final ObjectWriter JSON_WRITER = new ObjectMapper()
+            .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+            .writerFor(QueryRequest.class);
+
     private final String sql;
     private final String sessionId;
     private final PaginationOptions paginationOptions;
@@ -74,10 +84,17 @@ public class QueryRequest {
         return arrowFeatures;
     }
 
+    /**
+     * Writes the request as UTF-8 JSON, the stream is left open.
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        JSON_WRITER.writeValue(out, this);
+    }
+
     @Override
     public String toString() {
         try {
-            return new ObjectMapper().writeValueAsString(this);
+            return JSON_WRITER.writeValueAsString(this);
         } catch (Exception e) {
             return null;
         }
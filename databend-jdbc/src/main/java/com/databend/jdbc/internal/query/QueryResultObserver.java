@@ -0,0 +1,15 @@
+package com.databend.jdbc.internal.query;
+
+import java.util.List;
+
+/**
+ * Told about every page of a query's results once it is decoded, set with
+ * {@link com.databend.jdbc.internal.session.QueryRequestConfig.Builder#setResultObserver}.
+ */
+@FunctionalInterface
+public interface QueryResultObserver {
+    /**
+     * @param schema columns of the page, null when the response carried no schema
+     */
+    void onPage(List<QueryRowField> schema, ResultPage page);
+}
@@ -27,4 +27,12 @@ public interface QueryResultPages extends Closeable {
     boolean advance();
 
     boolean hasNext();
+
+    /**
+     * Runs {@code listener} once the query has no more pages or the pages are closed. Implementations that cannot
+     * tell run it right away.
+     */
+    default void whenFinished(Runnable listener) {
+        listener.run();
+    }
 }
@@ -5,6 +5,7 @@ import com.databend.jdbc.internal.data.ParseJsonDataUtils;
 import com.databend.jdbc.internal.session.SessionState;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 
 import java.net.URI;
 import java.util.List;
@@ -37,7 +38,7 @@ public class QueryResults {
             @JsonProperty("session_id") String sessionId,
             @JsonProperty("session") SessionState session,
             @JsonProperty("schema") List<QueryRowField> schema,
-            @JsonProperty("data") List<List<String>> data,
+            @JsonProperty("data") @JsonDeserialize(using = CompactStringRows.Deserializer.class) List<List<String>> data,
             @JsonProperty("settings") Map<String, String> settings,
             @JsonProperty("state") String state,
             @JsonProperty("error") QueryError error,
@@ -1,6 +1,8 @@
 package com.databend.jdbc.internal.query;
 
+import com.databend.jdbc.internal.ArrowAllocators;
 import com.databend.jdbc.internal.QueryResultFormat;
+import com.databend.jdbc.internal.data.DatabendRawType;
 import com.databend.jdbc.internal.error.QueryError;
 import com.databend.jdbc.internal.exception.DatabendQueryException;
 import com.databend.jdbc.internal.http.HttpRetryPolicy;
@@ -14,23 +16,25 @@ import okhttp3.MediaType;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
 import okhttp3.RequestBody;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.Buffer;
 import org.apache.arrow.compression.CommonsCompressionFactory;
 import org.apache.arrow.memory.BufferAllocator;
-import org.apache.arrow.memory.RootAllocator;
-import org.apache.arrow.vector.VectorSchemaRoot;
-import org.apache.arrow.vector.VectorUnloader;
 import org.apache.arrow.vector.ipc.ArrowStreamReader;
-import org.apache.arrow.vector.ipc.message.ArrowRecordBatch;
 
 import javax.annotation.concurrent.ThreadSafe;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
 import java.sql.SQLException;
-import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
 
@@ -56,11 +60,24 @@ public class RestQueryResultPages implements QueryResultPages {
     private final AtomicReference<SessionState> databendSession;
     private final AtomicReference<QueryResults> currentResults = new AtomicReference<>(null);
     private final AtomicReference<List<QueryRowField>> currentSchema = new AtomicReference<>(null);
-    private final AtomicReference<ResultPage> currentPage = new AtomicReference<>(new JsonResultPage(null));
+    private final AtomicReference<ResultPage> currentPage = new AtomicReference<>(JsonResultPage.empty());
+    // what the previous page derived from its schema, the following pages of the query normally repeat that schema
+    private volatile JsonResultPage.Columns jsonColumns = JsonResultPage.Columns.of(null);
     private final Consumer<SessionState> onSessionStateUpdate;
+    private final List<Runnable> finishListeners = new CopyOnWriteArrayList<>();
     private String nodeID;
 
     public RestQueryResultPages(OkHttpClient httpClient, String sql, QueryRequestConfig requestConfig, Consumer<SessionState> onSessionStateUpdate, AtomicReference<String> lastNodeID) {
+        this(httpClient, sql, requestConfig, onSessionStateUpdate, lastNodeID.get());
+        Request request = buildQueryRequest(query, requestConfig);
+        boolean completed = executeInternal(request);
+        if (!completed) {
+            throw new DatabendQueryException("Query failed to complete");
+        }
+        lastNodeID.set(this.nodeID);
+    }
+
+    private RestQueryResultPages(OkHttpClient httpClient, String sql, QueryRequestConfig requestConfig, Consumer<SessionState> onSessionStateUpdate, String nodeID) {
         requireNonNull(httpClient, "httpClient is null");
         requireNonNull(sql, "sql is null");
         requireNonNull(requestConfig, "requestConfig is null");
@@ -73,14 +90,23 @@ public class RestQueryResultPages implements QueryResultPages {
         this.queryResultFormat = new AtomicReference<>(requestConfig.getQueryResultFormat());
         this.additionalHeaders = requestConfig.getAdditionalHeaders();
         this.databendSession = new AtomicReference<>(requestConfig.getSession());
-        this.nodeID = lastNodeID.get();
+        this.nodeID = nodeID;
+    }
 
-        Request request = buildQueryRequest(query, requestConfig);
-        boolean completed = executeInternal(request);
-        if (!completed) {
-            throw new DatabendQueryException("Query failed to complete");
-        }
-        lastNodeID.set(this.nodeID);
+    /**
+     * Starts the query without blocking the caller, see {@link HttpRetryPolicy#sendRequestAsync}.
+     * The future completes with the pages positioned on the first response, or exceptionally with a
+     * {@link DatabendQueryException} when the query fails to start.
+     */
+    public static CompletableFuture<RestQueryResultPages> startAsync(OkHttpClient httpClient, String sql, QueryRequestConfig requestConfig, Consumer<SessionState> onSessionStateUpdate, AtomicReference<String> lastNodeID) {
+        RestQueryResultPages pages = new RestQueryResultPages(httpClient, sql, requestConfig, onSessionStateUpdate, lastNodeID.get());
+        return pages.executeAsync(pages.buildQueryRequest(sql, requestConfig)).thenApply(completed -> {
+            if (!completed) {
+                throw new DatabendQueryException("Query failed to complete");
+            }
+            lastNodeID.set(pages.nodeID);
+            return pages;
+        });
     }
 
     public static Request.Builder prepareRequest(HttpUrl url, Map<String, String> additionalHeaders, QueryResultFormat queryResultFormat) {
@@ -108,9 +134,12 @@ public class RestQueryResultPages implements QueryResultPages {
                 .setArrowResultVersionMax(currentFormat == QueryResultFormat.ARROW ? ARROW_FEATURE_NEGOTIATION_VERSION : null)
                 .setArrowFeatures(currentFormat == QueryResultFormat.ARROW ? new QueryRequest.ArrowFeatures(false) : null)
                 .build();
-        String reqString = req.toString();
-        if (reqString == null || reqString.isEmpty()) {
-            throw new IllegalArgumentException("Invalid request: " + req);
+        // encoded once into pooled okio segments, without an intermediate String
+        Buffer body = new Buffer();
+        try {
+            req.writeTo(body.outputStream());
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Invalid request: " + req, e);
         }
         url = url.newBuilder().encodedPath(QUERY_PATH).build();
         Request.Builder builder = prepareRequest(url, this.additionalHeaders, currentFormat);
@@ -118,7 +147,7 @@ public class RestQueryResultPages implements QueryResultPages {
         if (session != null && session.getNeedSticky()) {
             builder.addHeader(QueryRequestConfig.X_DATABEND_STICKY_NODE, nodeID);
         }
-        return builder.post(RequestBody.create(MEDIA_TYPE_JSON, reqString)).build();
+        return builder.post(RequestBody.create(body.readByteString(), MEDIA_TYPE_JSON)).build();
     }
 
     @Override
@@ -135,17 +164,13 @@ public class RestQueryResultPages implements QueryResultPages {
         requireNonNull(request, "request is null");
         try {
             HttpRetryPolicy retryPolicy = new HttpRetryPolicy(false, true);
-            HttpRetryPolicy.ResponseWithBody resp = retryPolicy.sendRequestWithRetry(httpClient, request);
-            ResponsePayload payload = decodeResponse(resp);
-            if (payload.statusCode == HTTP_OK && payload.results != null) {
-                QueryError error = payload.results.getError();
-                if (error == null) {
-                    processResponse(payload.headers, payload.results, payload.page, payload.schema);
-                    return true;
-                }
-                throw new DatabendQueryException("Query Failed: " + error);
+            ResponsePayload payload;
+            if (queryResultFormat.get() == QueryResultFormat.ARROW) {
+                payload = executeStreaming(retryPolicy, request);
+            } else {
+                payload = decodeResponse(retryPolicy.sendRequestWithRetry(httpClient, request));
             }
-            return false;
+            return handlePayload(payload);
         } catch (IllegalArgumentException e) {
             throw new DatabendQueryException("Failed to decode query response", e);
         } catch (SQLException e) {
@@ -153,6 +178,43 @@ public class RestQueryResultPages implements QueryResultPages {
         }
     }
 
+    /**
+     * Asynchronous form of {@link #executeInternal(Request)}. Arrow pages are buffered before decoding
+     * because a streamed decode would hold the dispatcher thread while the socket is read.
+     */
+    private CompletableFuture<Boolean> executeAsync(Request request) {
+        requireNonNull(request, "request is null");
+        CompletableFuture<Boolean> result = new CompletableFuture<>();
+        new HttpRetryPolicy(false, true).sendRequestAsync(httpClient, request).whenComplete((response, failure) -> {
+            if (failure != null) {
+                result.completeExceptionally(new DatabendQueryException("Failed to execute query request", failure));
+                return;
+            }
+            try {
+                result.complete(handlePayload(decodeResponse(response)));
+            } catch (IllegalArgumentException e) {
+                result.completeExceptionally(new DatabendQueryException("Failed to decode query response", e));
+            } catch (SQLException e) {
+                result.completeExceptionally(new DatabendQueryException("Failed to execute query request", e));
+            } catch (RuntimeException e) {
+                result.completeExceptionally(e);
+            }
+        });
+        return result;
+    }
+
+    private boolean handlePayload(ResponsePayload payload) {
+        if (payload.statusCode == HTTP_OK && payload.results != null) {
+            QueryError error = payload.results.getError();
+            if (error == null) {
+                processResponse(payload.headers, payload.results, payload.page, payload.schema);
+                return true;
+            }
+            throw new DatabendQueryException("Query Failed: " + error);
+        }
+        return false;
+    }
+
     private ResponsePayload decodeResponse(HttpRetryPolicy.ResponseWithBody responseWithBody) throws SQLException {
         if (isArrow(responseWithBody.contentType)) {
             return decodeArrowResponse(responseWithBody);
@@ -160,42 +222,117 @@ public class RestQueryResultPages implements QueryResultPages {
 
         JsonResponse<QueryResults> response = JsonResponse.decode(QUERY_RESULTS_CODEC, responseWithBody);
         QueryResults results = response.hasValue() ? response.getValue() : null;
+        if (results == null) {
+            return new ResponsePayload(response.getStatusCode(), response.getHeaders(), null, JsonResultPage.empty(), null);
+        }
+        JsonResultPage.Columns columns = jsonColumns;
+        if (!sameSchema(columns.getSchema(), results.getSchema())) {
+            columns = JsonResultPage.Columns.of(results.getSchema());
+            jsonColumns = columns;
+        }
         return new ResponsePayload(
                 response.getStatusCode(),
                 response.getHeaders(),
                 results,
-                new JsonResultPage(results == null ? null : results.getData()),
-                results == null ? null : results.getSchema());
+                jsonPage(results, columns, responseWithBody.body.length),
+                results.getSchema() == null ? null : columns.getSchema());
     }
 
-    private ResponsePayload decodeArrowResponse(HttpRetryPolicy.ResponseWithBody responseWithBody) throws SQLException {
-        BufferAllocator allocator = rootAllocator().newChildAllocator("databend-jdbc-arrow-page", 0, Long.MAX_VALUE);
-        try (ArrowStreamReader reader = new ArrowStreamReader(
-                new ByteArrayInputStream(responseWithBody.body),
-                allocator,
-                CommonsCompressionFactory.INSTANCE)) {
-            VectorSchemaRoot root = reader.getVectorSchemaRoot();
-            org.apache.arrow.vector.types.pojo.Schema schema = root.getSchema();
-            String responseHeader = schema.getCustomMetadata().get("response_header");
-            if (responseHeader == null) {
-                throw new DatabendQueryException("Missing response_header metadata in Arrow payload");
+    /**
+     * Only the response envelope is decoded while fetching, which is all that is needed to follow next_uri.
+     * Cells stay raw strings and are converted when the application reads them.
+     */
+    private static ResultPage jsonPage(QueryResults results, JsonResultPage.Columns columns, long sizeInBytes) {
+        if (results.getError() != null) {
+            return JsonResultPage.empty();
+        }
+        return new JsonResultPage(columns, results.getDataRaw(), sizeInBytes);
+    }
+
+    /**
+     * Column names and types are compared, which is enough to reuse what was derived from the previous schema.
+     * The types come from {@link DatabendRawType#of(String)}, so they are mostly the
+     * same instances.
+     */
+    static boolean sameSchema(List<QueryRowField> previous, List<QueryRowField> next) {
+        if (previous == next) {
+            return true;
+        }
+        if (previous == null || next == null || previous.size() != next.size()) {
+            return false;
+        }
+        for (int i = 0; i < previous.size(); i++) {
+            QueryRowField left = previous.get(i);
+            QueryRowField right = next.get(i);
+            if (!Objects.equals(left.getName(), right.getName()) || !sameType(left.getDataType(), right.getDataType())) {
+                return false;
             }
+        }
+        return true;
+    }
 
-            QueryResults results = QUERY_RESULTS_CODEC.fromJson(responseHeader);
-            List<ArrowRecordBatch> recordBatches = new ArrayList<>();
-            while (reader.loadNextBatch()) {
-                recordBatches.add(new VectorUnloader(root).getRecordBatch());
+    private static boolean sameType(DatabendRawType left, DatabendRawType right) {
+        if (left == right) {
+            return true;
+        }
+        return left != null && right != null
+                && left.isNullable() == right.isNullable()
+                && Objects.equals(left.getType(), right.getType());
+    }
+
+    /**
+     * Arrow pages can be large, so the IPC stream is decoded straight from the socket instead of
+     * being buffered first. Retries stop once the response headers are received.
+     */
+    private ResponsePayload executeStreaming(HttpRetryPolicy retryPolicy, Request request) throws SQLException {
+        try (Response response = retryPolicy.sendRequestWithRetryForStream(httpClient, request)) {
+            ResponseBody body = response.body();
+            if (isArrow(body.contentType())) {
+                return decodeArrowResponse(response.code(), response.headers(), body.source().inputStream());
             }
+            return decodeResponse(new HttpRetryPolicy.ResponseWithBody(response, body.bytes()));
+        } catch (IOException e) {
+            throw new SQLException("Failed to read query response from " + request.url(), e);
+        }
+    }
+
+    private ResponsePayload decodeArrowResponse(HttpRetryPolicy.ResponseWithBody responseWithBody) throws SQLException {
+        return decodeArrowResponse(
+                responseWithBody.statusCode,
+                responseWithBody.headers,
+                new ByteArrayInputStream(responseWithBody.body));
+    }
+
+    private ResponsePayload decodeArrowResponse(int statusCode, Headers headers, InputStream body) throws SQLException {
+        BufferAllocator allocator = ArrowAllocators.newChildAllocator("databend-jdbc-arrow-page");
+        ResultPage page = null;
+        try {
+            QueryResults results;
+            org.apache.arrow.vector.types.pojo.Schema schema;
+            try (ArrowStreamReader reader = new ArrowStreamReader(body, allocator, CommonsCompressionFactory.INSTANCE)) {
+                schema = reader.getVectorSchemaRoot().getSchema();
+                String responseHeader = schema.getCustomMetadata().get("response_header");
+                if (responseHeader == null) {
+                    throw new DatabendQueryException("Missing response_header metadata in Arrow payload");
+                }
 
-            ResultPage page = ArrowResultPage.fromRecordBatches(allocator, schema, recordBatches, effectiveSettings(results));
+                results = QUERY_RESULTS_CODEC.fromJson(responseHeader);
+                page = ArrowResultPage.fromStream(allocator, reader, effectiveSettings(results));
+            }
+            List<QueryRowField> fields = ArrowResultPage.schemaToFields(schema);
+            List<QueryRowField> previous = currentSchema.get();
             return new ResponsePayload(
-                    responseWithBody.statusCode,
-                    responseWithBody.headers,
+                    statusCode,
+                    headers,
                     results,
                     page,
-                    ArrowResultPage.schemaToFields(schema));
+                    sameSchema(previous, fields) ? previous : fields);
         } catch (Exception e) {
-            allocator.close();
+            if (page != null) {
+                page.close();
+            } else {
+                allocator.close();
+            }
             if (e instanceof SQLException) {
                 throw (SQLException) e;
             }
@@ -224,19 +361,40 @@ public class RestQueryResultPages implements QueryResultPages {
         currentPage.set(page);
         currentSchema.set(schema);
         currentResults.set(results);
+        QueryResultObserver resultObserver = requestConfig.getResultObserver();
+        if (resultObserver != null) {
+            resultObserver.onPage(schema, page);
+        }
     }
 
     @Override
     public boolean advance() {
+        Request request = nextRequest();
+        return request != null && executeInternal(request);
+    }
+
+    /**
+     * Fetches the next page like {@link #advance()}, but without blocking the caller. At most one fetch may be
+     * outstanding, the next call has to wait for the returned future.
+     */
+    public CompletableFuture<Boolean> advanceAsync() {
+        Request request = nextRequest();
+        return request == null ? CompletableFuture.completedFuture(false) : executeAsync(request);
+    }
+
+    // the request for the next page, null once the query has no more data
+    private Request nextRequest() {
         requireNonNull(this.host, "host is null");
         requireNonNull(this.currentResults.get(), "currentResults is null");
         if (finished.get()) {
-            return false;
+            return null;
         }
         if (!this.currentResults.get().hasMoreData()) {
             currentPage.set(null);
-            finished.set(true);
-            return false;
+            if (finished.compareAndSet(false, true)) {
+                runFinishListeners();
+            }
+            return null;
         }
 
         String nextUriPath = this.currentResults.get().getNextUri().toString();
@@ -244,8 +402,7 @@ public class RestQueryResultPages implements QueryResultPages {
         url = url.newBuilder().encodedPath(nextUriPath).build();
         Request.Builder builder = prepareRequest(url, this.additionalHeaders, this.queryResultFormat.get());
         builder.addHeader(QueryRequestConfig.X_DATABEND_STICKY_NODE, this.nodeID);
-        Request request = builder.get().build();
-        return executeInternal(request);
+        return builder.get().build();
     }
 
     @Override
@@ -253,6 +410,24 @@ public class RestQueryResultPages implements QueryResultPages {
         return !finished.get();
     }
 
+    @Override
+    public void whenFinished(Runnable listener) {
+        finishListeners.add(listener);
+        // finished before the listener was added, it may or may not have been run by the finishing thread
+        if (finished.get() && finishListeners.remove(listener)) {
+            listener.run();
+        }
+    }
+
+    // each listener is removed before it is run, so it runs once even when finishing races with whenFinished
+    private void runFinishListeners() {
+        for (Runnable listener : finishListeners) {
+            if (finishListeners.remove(listener)) {
+                listener.run();
+            }
+        }
+    }
+
     @Override
     public QueryResults getResults() {
         return currentResults.get();
@@ -268,6 +443,14 @@ public class RestQueryResultPages implements QueryResultPages {
         return currentPage.get();
     }
 
+    /**
+     * Hands the current page over to the caller, who then closes it. Closing the pages no longer touches it, so it
+     * can be read after the query is released.
+     */
+    public ResultPage takePage() {
+        return currentPage.getAndSet(null);
+    }
+
     @Override
     public SessionState getSession() {
         return databendSession.get();
@@ -287,7 +470,14 @@ public class RestQueryResultPages implements QueryResultPages {
         if (!finished.compareAndSet(false, true)) {
             return;
         }
+        try {
+            releaseQuery();
+        } finally {
+            runFinishListeners();
+        }
+    }
 
+    private void releaseQuery() {
         ResultPage page = currentPage.getAndSet(null);
         if (page != null) {
             page.close();
@@ -317,10 +507,6 @@ public class RestQueryResultPages implements QueryResultPages {
                 && "vnd.apache.arrow.stream".equalsIgnoreCase(mediaType.subtype());
     }
 
-    private static RootAllocator rootAllocator() {
-        return RootAllocatorHolder.INSTANCE;
-    }
-
     private static Map<String, String> effectiveSettings(QueryResults results) {
         Map<String, String> merged = new HashMap<>();
         if (results.getSession() != null && results.getSession().getSettings() != null) {
@@ -347,8 +533,4 @@ public class RestQueryResultPages implements QueryResultPages {
             this.schema = schema;
         }
     }
-
-    private static final class RootAllocatorHolder {
-        private static final RootAllocator INSTANCE = new RootAllocator(Long.MAX_VALUE);
-    }
 }
@@ -1,14 +1,18 @@
 package com.databend.jdbc.internal.query;
 
 import com.databend.jdbc.IntervalValue;
+import com.databend.jdbc.internal.data.ColumnTypeHandler;
 import com.databend.jdbc.internal.data.DatabendRawType;
-import org.apache.arrow.compression.CommonsCompressionFactory;
+import com.databend.jdbc.internal.data.DatabendTypes;
+import com.databend.jdbc.internal.data.ParseJsonDataUtils;
 import org.apache.arrow.memory.ArrowBuf;
 import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.BaseIntVector;
 import org.apache.arrow.vector.DateDayVector;
 import org.apache.arrow.vector.DecimalVector;
 import org.apache.arrow.vector.FieldVector;
 import org.apache.arrow.vector.FixedSizeBinaryVector;
+import org.apache.arrow.vector.FloatingPointVector;
 import org.apache.arrow.vector.LargeVarBinaryVector;
 import org.apache.arrow.vector.TimeStampMicroVector;
 import org.apache.arrow.vector.UInt1Vector;
@@ -16,15 +20,16 @@ import org.apache.arrow.vector.UInt2Vector;
 import org.apache.arrow.vector.UInt4Vector;
 import org.apache.arrow.vector.UInt8Vector;
 import org.apache.arrow.vector.VarBinaryVector;
-import org.apache.arrow.vector.VectorLoader;
 import org.apache.arrow.vector.VectorSchemaRoot;
-import org.apache.arrow.vector.ipc.message.ArrowRecordBatch;
+import org.apache.arrow.vector.ipc.ArrowReader;
 import org.apache.arrow.vector.types.FloatingPointPrecision;
 import org.apache.arrow.vector.types.TimeUnit;
 import org.apache.arrow.vector.types.pojo.ArrowType;
 import org.apache.arrow.vector.types.pojo.Field;
 import org.apache.arrow.vector.util.Text;
+import org.apache.arrow.vector.util.TransferPair;
 
+import java.io.IOException;
 import java.math.BigInteger;
 import java.nio.charset.StandardCharsets;
 import java.sql.SQLException;
@@ -35,6 +40,7 @@ import java.time.ZoneOffset;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicBoolean;
 
@@ -43,15 +49,83 @@ public interface ResultPage extends AutoCloseable {
 
     Object getValue(int rowIndex, int columnIndex) throws SQLException;
 
+    /**
+     * Tells which typed accessor can read the column without boxing, {@link PrimitiveKind#NONE} means
+     * callers must go through {@link #getValue(int, int)}.
+     */
+    default PrimitiveKind getPrimitiveKind(int columnIndex) {
+        return PrimitiveKind.NONE;
+    }
+
+    default boolean isNull(int rowIndex, int columnIndex) throws SQLException {
+        return getValue(rowIndex, columnIndex) == null;
+    }
+
+    default long getLong(int rowIndex, int columnIndex) throws SQLException {
+        return ((Number) getValue(rowIndex, columnIndex)).longValue();
+    }
+
+    default double getDouble(int rowIndex, int columnIndex) throws SQLException {
+        return ((Number) getValue(rowIndex, columnIndex)).doubleValue();
+    }
+
+    /**
+     * Approximate memory held by the page, used to bound how many pages are buffered ahead of the reader.
+     */
+    default long getSizeInBytes() {
+        return 0;
+    }
+
+    /**
+     * Converts the cells ahead of the reader. A prefetching source calls it on a worker thread while the next page
+     * is fetched and hands the page out once it returns. Cells that fail to convert are left for the read, which
+     * reports the failure.
+     */
+    default void decode() {
+    }
+
     @Override
     void close();
+
+    enum PrimitiveKind {
+        NONE,
+        LONG,
+        DOUBLE
+    }
 }
 
+/**
+ * JSON page that keeps the raw cell strings and converts a cell through its column's {@link ColumnTypeHandler}
+ * when it is read, unless {@link #decode()} already converted it. Integer and floating point columns are read
+ * through {@link #getLong(int, int)} and {@link #getDouble(int, int)} straight from the string.
+ */
 final class JsonResultPage implements ResultPage {
-    private final List<List<Object>> rows;
+    private static final Object UNDECODED = new Object();
+
+    private final List<QueryRowField> schema;
+    private final List<List<String>> rows;
+    private final CompactStringRows compactRows;
+    private final ColumnTypeHandler[] handlers;
+    private final PrimitiveKind[] primitiveKinds;
+    private final long sizeInBytes;
+    // values converted by decode(), UNDECODED where the cell is left for the read
+    private volatile Object[][] decoded;
+
+    JsonResultPage(List<QueryRowField> schema, List<List<String>> rows, long sizeInBytes) {
+        this(Columns.of(schema), rows, sizeInBytes);
+    }
 
-    JsonResultPage(List<List<Object>> rows) {
-        this.rows = rows == null ? Collections.emptyList() : rows;
+    JsonResultPage(Columns columns, List<List<String>> rows, long sizeInBytes) {
+        this.schema = columns.schema;
+        this.rows = rows == null ? Collections.<List<String>>emptyList() : rows;
+        this.compactRows = rows instanceof CompactStringRows ? (CompactStringRows) rows : null;
+        this.handlers = columns.handlers;
+        this.primitiveKinds = columns.primitiveKinds;
+        this.sizeInBytes = sizeInBytes;
+    }
+
+    static JsonResultPage empty() {
+        return new JsonResultPage((List<QueryRowField>) null, null, 0);
     }
 
     @Override
@@ -60,13 +134,173 @@ final class JsonResultPage implements ResultPage {
     }
 
     @Override
-    public Object getValue(int rowIndex, int columnIndex) {
-        return rows.get(rowIndex).get(columnIndex);
+    public Object getValue(int rowIndex, int columnIndex) throws SQLException {
+        Object[][] values = decoded;
+        if (values != null && columnIndex < handlers.length) {
+            Object value = values[rowIndex][columnIndex];
+            if (value != UNDECODED) {
+                return value;
+            }
+        }
+        String value = cell(rowIndex, columnIndex);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return handlers[columnIndex].parseString(value);
+        } catch (IllegalArgumentException e) {
+            throw parseFailure(columnIndex, e);
+        }
+    }
+
+    @Override
+    public PrimitiveKind getPrimitiveKind(int columnIndex) {
+        return columnIndex < primitiveKinds.length ? primitiveKinds[columnIndex] : PrimitiveKind.NONE;
+    }
+
+    @Override
+    public boolean isNull(int rowIndex, int columnIndex) throws SQLException {
+        if (getPrimitiveKind(columnIndex) == PrimitiveKind.NONE) {
+            return getValue(rowIndex, columnIndex) == null;
+        }
+        String value = cell(rowIndex, columnIndex);
+        return value == null || ("NULL".equals(value) && schema.get(columnIndex).getDataType().isNullable());
+    }
+
+    @Override
+    public long getLong(int rowIndex, int columnIndex) throws SQLException {
+        if (getPrimitiveKind(columnIndex) != PrimitiveKind.LONG) {
+            return ResultPage.super.getLong(rowIndex, columnIndex);
+        }
+        try {
+            return Long.parseLong(cell(rowIndex, columnIndex));
+        } catch (NumberFormatException e) {
+            throw parseFailure(columnIndex, e);
+        }
+    }
+
+    @Override
+    public double getDouble(int rowIndex, int columnIndex) throws SQLException {
+        PrimitiveKind kind = getPrimitiveKind(columnIndex);
+        if (kind == PrimitiveKind.LONG) {
+            return getLong(rowIndex, columnIndex);
+        }
+        if (kind != PrimitiveKind.DOUBLE) {
+            return ResultPage.super.getDouble(rowIndex, columnIndex);
+        }
+        String value = cell(rowIndex, columnIndex);
+        if ("NaN".equals(value) || "nan".equals(value)) {
+            return Double.NaN;
+        }
+        if ("Infinity".equals(value) || "inf".equals(value)) {
+            return Double.POSITIVE_INFINITY;
+        }
+        try {
+            return DatabendTypes.FLOAT32.equals(typeName(schema.get(columnIndex).getDataType()))
+                    ? Float.parseFloat(value)
+                    : Double.parseDouble(value);
+        } catch (NumberFormatException | NullPointerException e) {
+            throw parseFailure(columnIndex, e);
+        }
+    }
+
+    @Override
+    public long getSizeInBytes() {
+        return sizeInBytes;
+    }
+
+    // integer and floating point columns stay strings, their typed accessors parse them without boxing
+    @Override
+    public void decode() {
+        Object[][] values = new Object[rows.size()][];
+        for (int row = 0; row < values.length; row++) {
+            values[row] = new Object[handlers.length];
+            for (int column = 0; column < handlers.length; column++) {
+                Object value = UNDECODED;
+                if (primitiveKinds[column] == PrimitiveKind.NONE) {
+                    try {
+                        value = getValue(row, column);
+                    } catch (SQLException e) {
+                        // reported again when the cell is read
+                    }
+                }
+                values[row][column] = value;
+            }
+        }
+        decoded = values;
     }
 
     @Override
     public void close() {
     }
+
+    private String cell(int rowIndex, int columnIndex) throws SQLException {
+        if (compactRows != null) {
+            if (compactRows.columnCount(rowIndex) != handlers.length) {
+                throw new SQLException("Failed to decode query response", new IllegalArgumentException("row / column does not match schema"));
+            }
+            return compactRows.cell(rowIndex, columnIndex);
+        }
+        List<String> row = rows.get(rowIndex);
+        if (row.size() != handlers.length) {
+            throw new SQLException("Failed to decode query response", new IllegalArgumentException("row / column does not match schema"));
+        }
+        return row.get(columnIndex);
+    }
+
+    private SQLException parseFailure(int columnIndex, RuntimeException e) {
+        return new SQLException("Failed to decode query response", new IllegalArgumentException(
+                "fail to parse column " + columnIndex + "(" + schema.get(columnIndex).getName() + "):" + e.getMessage(), e));
+    }
+
+    /**
+     * What a page derives from its schema. It is read-only, so the pages of one query share it as long as the
+     * server keeps sending the same schema.
+     */
+    static final class Columns {
+        private final List<QueryRowField> schema;
+        private final ColumnTypeHandler[] handlers;
+        private final PrimitiveKind[] primitiveKinds;
+
+        private Columns(List<QueryRowField> schema) {
+            this.schema = schema;
+            this.handlers = ParseJsonDataUtils.createTypeHandlers(schema);
+            this.primitiveKinds = new PrimitiveKind[schema.size()];
+            for (int i = 0; i < primitiveKinds.length; i++) {
+                primitiveKinds[i] = primitiveKind(schema.get(i).getDataType());
+            }
+        }
+
+        static Columns of(List<QueryRowField> schema) {
+            return new Columns(schema == null ? Collections.<QueryRowField>emptyList() : schema);
+        }
+
+        List<QueryRowField> getSchema() {
+            return schema;
+        }
+    }
+
+    private static PrimitiveKind primitiveKind(DatabendRawType type) {
+        switch (typeName(type)) {
+            case DatabendTypes.INT8:
+            case DatabendTypes.INT16:
+            case DatabendTypes.INT32:
+            case DatabendTypes.INT64:
+            case DatabendTypes.UINT8:
+            case DatabendTypes.UINT16:
+            case DatabendTypes.UINT32:
+                return PrimitiveKind.LONG;
+            case DatabendTypes.FLOAT32:
+            case DatabendTypes.FLOAT64:
+                return PrimitiveKind.DOUBLE;
+            default:
+                return PrimitiveKind.NONE;
+        }
+    }
+
+    private static String typeName(DatabendRawType type) {
+        return type.getDataType().getDisplayName().toLowerCase(Locale.US);
+    }
 }
 
 final class ArrowResultPage implements ResultPage {
@@ -82,151 +316,269 @@ final class ArrowResultPage implements ResultPage {
     private final BufferAllocator allocator;
     private final List<VectorSchemaRoot> batches;
     private final int[] rowOffsets;
-    private final Map<String, String> settings;
+    private final int rowCount;
+    private final PrimitiveKind[] primitiveKinds;
+    private final ColumnDecoder[] decoders;
     private final AtomicBoolean closed = new AtomicBoolean();
+    // pages are read by a single cursor, remembering the last batch makes sequential scans O(1) per cell
+    private int currentBatch;
 
     ArrowResultPage(BufferAllocator allocator, List<VectorSchemaRoot> batches, Map<String, String> settings) {
         this.allocator = allocator;
         this.batches = batches;
-        this.settings = settings == null ? Collections.<String, String>emptyMap() : settings;
         this.rowOffsets = new int[batches.size()];
         int offset = 0;
         for (int i = 0; i < batches.size(); i++) {
             this.rowOffsets[i] = offset;
             offset += batches.get(i).getRowCount();
         }
+        this.rowCount = offset;
+        List<Field> fields = batches.isEmpty()
+                ? Collections.<Field>emptyList()
+                : batches.get(0).getSchema().getFields();
+        this.primitiveKinds = primitiveKinds(fields);
+        this.decoders = decoders(fields, settings == null ? Collections.<String, String>emptyMap() : settings);
     }
 
     @Override
     public int getRowCount() {
-        if (batches.isEmpty()) {
-            return 0;
-        }
-        return rowOffsets[batches.size() - 1] + batches.get(batches.size() - 1).getRowCount();
+        return rowCount;
     }
 
     @Override
     public Object getValue(int rowIndex, int columnIndex) throws SQLException {
-        int batchIndex = 0;
-        while (batchIndex + 1 < rowOffsets.length && rowOffsets[batchIndex + 1] <= rowIndex) {
-            batchIndex++;
-        }
+        int batchIndex = batchIndexOf(rowIndex);
         VectorSchemaRoot root = batches.get(batchIndex);
         int rowInBatch = rowIndex - rowOffsets[batchIndex];
         FieldVector vector = root.getVector(columnIndex);
         if (vector == null || vector.isNull(rowInBatch)) {
             return null;
         }
+        return decoders[columnIndex].decode(vector, rowInBatch);
+    }
+
+    @Override
+    public long getSizeInBytes() {
+        return allocator.getAllocatedMemory();
+    }
+
+    @Override
+    public PrimitiveKind getPrimitiveKind(int columnIndex) {
+        return columnIndex < primitiveKinds.length ? primitiveKinds[columnIndex] : PrimitiveKind.NONE;
+    }
+
+    @Override
+    public boolean isNull(int rowIndex, int columnIndex) {
+        int batchIndex = batchIndexOf(rowIndex);
+        return batches.get(batchIndex).getVector(columnIndex).isNull(rowIndex - rowOffsets[batchIndex]);
+    }
+
+    @Override
+    public long getLong(int rowIndex, int columnIndex) throws SQLException {
+        int batchIndex = batchIndexOf(rowIndex);
+        FieldVector vector = batches.get(batchIndex).getVector(columnIndex);
+        if (vector instanceof BaseIntVector) {
+            return ((BaseIntVector) vector).getValueAsLong(rowIndex - rowOffsets[batchIndex]);
+        }
+        return ResultPage.super.getLong(rowIndex, columnIndex);
+    }
+
+    @Override
+    public double getDouble(int rowIndex, int columnIndex) throws SQLException {
+        int batchIndex = batchIndexOf(rowIndex);
+        FieldVector vector = batches.get(batchIndex).getVector(columnIndex);
+        if (vector instanceof FloatingPointVector) {
+            return ((FloatingPointVector) vector).getValueAsDouble(rowIndex - rowOffsets[batchIndex]);
+        }
+        return ResultPage.super.getDouble(rowIndex, columnIndex);
+    }
+
+    int batchIndexOf(int rowIndex) {
+        int batchIndex = currentBatch;
+        if (batchIndex < rowOffsets.length && rowOffsets[batchIndex] <= rowIndex && rowIndex < batchEnd(batchIndex)) {
+            return batchIndex;
+        }
+        batchIndex = searchBatch(rowIndex);
+        currentBatch = batchIndex;
+        return batchIndex;
+    }
+
+    private int batchEnd(int batchIndex) {
+        return batchIndex + 1 < rowOffsets.length ? rowOffsets[batchIndex + 1] : rowCount;
+    }
+
+    /**
+     * Finds the last batch starting at or before the row, empty batches share their offset with the
+     * following batch so they are never selected for a row inside the page.
+     */
+    private int searchBatch(int rowIndex) {
+        int low = 0;
+        int high = rowOffsets.length - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (rowOffsets[mid] <= rowIndex) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+    @Override
+    public void close() {
+        if (!closed.compareAndSet(false, true)) {
+            return;
+        }
+        for (VectorSchemaRoot batch : batches) {
+            for (FieldVector vector : batch.getFieldVectors()) {
+                vector.close();
+            }
+            batch.close();
+        }
+        allocator.close();
+    }
+
+    /**
+     * Drains the reader into a page, moving each record batch out of the reader's root as soon as it is
+     * decoded so only one copy of the data is ever held.
+     */
+    static ArrowResultPage fromStream(BufferAllocator allocator, ArrowReader reader, Map<String, String> settings) throws IOException {
+        List<VectorSchemaRoot> roots = new ArrayList<>();
+        try {
+            VectorSchemaRoot source = reader.getVectorSchemaRoot();
+            while (reader.loadNextBatch()) {
+                roots.add(transferBatch(source, allocator));
+            }
+        } catch (IOException | RuntimeException e) {
+            for (VectorSchemaRoot root : roots) {
+                root.close();
+            }
+            throw e;
+        }
+        return new ArrowResultPage(allocator, roots, settings);
+    }
+
+    private static VectorSchemaRoot transferBatch(VectorSchemaRoot source, BufferAllocator allocator) {
+        List<FieldVector> sourceVectors = source.getFieldVectors();
+        List<FieldVector> vectors = new ArrayList<>(sourceVectors.size());
+        for (FieldVector vector : sourceVectors) {
+            TransferPair transferPair = vector.getTransferPair(allocator);
+            transferPair.transfer();
+            vectors.add((FieldVector) transferPair.getTo());
+        }
+        return new VectorSchemaRoot(source.getSchema().getFields(), vectors, source.getRowCount());
+    }
+
+    private static PrimitiveKind[] primitiveKinds(List<Field> fields) {
+        PrimitiveKind[] kinds = new PrimitiveKind[fields.size()];
+        for (int i = 0; i < kinds.length; i++) {
+            Field field = fields.get(i);
+            ArrowType type = field.getType();
+            boolean extension = field.getMetadata() != null && field.getMetadata().containsKey(EXTENSION_KEY);
+            if (!extension && type instanceof ArrowType.Int) {
+                kinds[i] = PrimitiveKind.LONG;
+            } else if (!extension && type instanceof ArrowType.FloatingPoint
+                    && ((ArrowType.FloatingPoint) type).getPrecision() != FloatingPointPrecision.HALF) {
+                kinds[i] = PrimitiveKind.DOUBLE;
+            } else {
+                kinds[i] = PrimitiveKind.NONE;
+            }
+        }
+        return kinds;
+    }
+
+    /**
+     * The dispatch on extension metadata and Arrow type is the same for every row of a column, so it is
+     * resolved once per page and the per-cell path is a single call.
+     */
+    private static ColumnDecoder[] decoders(List<Field> fields, Map<String, String> settings) {
+        ColumnDecoder[] decoders = new ColumnDecoder[fields.size()];
+        for (int i = 0; i < decoders.length; i++) {
+            decoders[i] = decoderFor(fields.get(i), settings);
+        }
+        return decoders;
+    }
 
-        Field field = vector.getField();
+    private static ColumnDecoder decoderFor(Field field, Map<String, String> settings) {
         String extensionType = field.getMetadata() == null ? null : field.getMetadata().get(EXTENSION_KEY);
         if (extensionType != null) {
             if (EXTENSION_TYPE_VARIANT.equals(extensionType) || EXTENSION_TYPE_BITMAP.equals(extensionType)) {
-                return new String(decodeBinary(vector, rowInBatch), StandardCharsets.UTF_8);
+                return (vector, row) -> new String(decodeBinary(vector, row), StandardCharsets.UTF_8);
             }
             if (EXTENSION_TYPE_GEOMETRY.equals(extensionType) || EXTENSION_TYPE_GEOGRAPHY.equals(extensionType)) {
-                byte[] bytes = decodeBinary(vector, rowInBatch);
-                return "wkb".equalsIgnoreCase(settings.get("geometry_output_format"))
-                        ? bytes
-                        : new String(bytes, StandardCharsets.UTF_8);
+                if ("wkb".equalsIgnoreCase(settings.get("geometry_output_format"))) {
+                    return ArrowResultPage::decodeBinary;
+                }
+                return (vector, row) -> new String(decodeBinary(vector, row), StandardCharsets.UTF_8);
             }
             if (EXTENSION_TYPE_INTERVAL.equals(extensionType)) {
-                DecimalParts parts = readDecimal128((DecimalVector) vector, rowInBatch);
-                if (parts.months != 0) {
-                    throw new SQLException("Arrow interval with year/month component is not supported by JDBC Duration");
-                }
-                return new IntervalValue(parts.days, parts.micros);
+                return (vector, row) -> {
+                    DecimalParts parts = readDecimal128((DecimalVector) vector, row);
+                    if (parts.months != 0) {
+                        throw new SQLException("Arrow interval with year/month component is not supported by JDBC Duration");
+                    }
+                    return new IntervalValue(parts.days, parts.micros);
+                };
             }
             if (EXTENSION_TYPE_TIMESTAMP_TZ.equals(extensionType)) {
-                DecimalParts parts = readDecimal128((DecimalVector) vector, rowInBatch);
-                return offsetDateTimeFromMicros(parts.micros, parts.offsetSeconds);
+                return (vector, row) -> {
+                    DecimalParts parts = readDecimal128((DecimalVector) vector, row);
+                    return offsetDateTimeFromMicros(parts.micros, parts.offsetSeconds);
+                };
             }
             if (EXTENSION_TYPE_VECTOR.equals(extensionType)) {
-                return vector.getObject(rowInBatch);
+                return FieldVector::getObject;
             }
         }
 
         ArrowType type = field.getType();
-        if (type instanceof ArrowType.Bool) {
-            return vector.getObject(rowInBatch);
-        }
         if (type instanceof ArrowType.Int) {
             ArrowType.Int intType = (ArrowType.Int) type;
             if (!intType.getIsSigned()) {
-                if (intType.getBitWidth() == 8) {
-                    short value = ((UInt1Vector) vector).getObjectNoOverflow(rowInBatch);
-                    return Short.valueOf(value);
-                }
-                if (intType.getBitWidth() == 16) {
-                    return Integer.valueOf(((UInt2Vector) vector).getObject(rowInBatch));
-                }
-                if (intType.getBitWidth() == 32) {
-                    return Long.valueOf(((UInt4Vector) vector).getObjectNoOverflow(rowInBatch));
-                }
-                if (intType.getBitWidth() == 64) {
-                    return ((UInt8Vector) vector).getObject(rowInBatch);
+                switch (intType.getBitWidth()) {
+                    case 8:
+                        return (vector, row) -> Short.valueOf(((UInt1Vector) vector).getObjectNoOverflow(row));
+                    case 16:
+                        return (vector, row) -> Integer.valueOf(((UInt2Vector) vector).getObject(row));
+                    case 32:
+                        return (vector, row) -> Long.valueOf(((UInt4Vector) vector).getObjectNoOverflow(row));
+                    case 64:
+                        return (vector, row) -> ((UInt8Vector) vector).getObject(row);
+                    default:
+                        break;
                 }
             }
-            return vector.getObject(rowInBatch);
-        }
-        if (type instanceof ArrowType.FloatingPoint) {
-            ArrowType.FloatingPoint floatingPoint = (ArrowType.FloatingPoint) type;
-            if (floatingPoint.getPrecision() == FloatingPointPrecision.SINGLE || floatingPoint.getPrecision() == FloatingPointPrecision.DOUBLE) {
-                return vector.getObject(rowInBatch);
-            }
+            return FieldVector::getObject;
         }
         if (type instanceof ArrowType.Decimal) {
-            return ((DecimalVector) vector).getObject(rowInBatch);
+            return (vector, row) -> ((DecimalVector) vector).getObject(row);
         }
         if (type instanceof ArrowType.Utf8 || type instanceof ArrowType.LargeUtf8 || type instanceof ArrowType.Utf8View) {
-            Object value = vector.getObject(rowInBatch);
-            return value instanceof Text ? value.toString() : String.valueOf(value);
+            return (vector, row) -> {
+                Object value = vector.getObject(row);
+                return value instanceof Text ? value.toString() : String.valueOf(value);
+            };
         }
         if (type instanceof ArrowType.Binary || type instanceof ArrowType.LargeBinary || type instanceof ArrowType.FixedSizeBinary || type instanceof ArrowType.BinaryView) {
-            return decodeBinary(vector, rowInBatch);
+            return ArrowResultPage::decodeBinary;
         }
         if (type instanceof ArrowType.Date) {
-            return java.sql.Date.valueOf(LocalDate.ofEpochDay(((DateDayVector) vector).get(rowInBatch)));
+            return (vector, row) -> java.sql.Date.valueOf(LocalDate.ofEpochDay(((DateDayVector) vector).get(row)));
         }
         if (type instanceof ArrowType.Timestamp) {
             ArrowType.Timestamp timestampType = (ArrowType.Timestamp) type;
             if (timestampType.getUnit() != TimeUnit.MICROSECOND) {
-                throw new SQLException("Unsupported Arrow timestamp unit: " + timestampType.getUnit());
+                return (vector, row) -> {
+                    throw new SQLException("Unsupported Arrow timestamp unit: " + timestampType.getUnit());
+                };
             }
             if (timestampType.getTimezone() == null || timestampType.getTimezone().isEmpty()) {
-                return ((TimeStampMicroVector) vector).getObject(rowInBatch);
+                return (vector, row) -> ((TimeStampMicroVector) vector).getObject(row);
             }
-            return offsetDateTimeFromMicros(((Number) vector.getObject(rowInBatch)).longValue(), 0);
+            return (vector, row) -> offsetDateTimeFromMicros(((Number) vector.getObject(row)).longValue(), 0);
         }
-        return vector.getObject(rowInBatch);
-    }
-
-    @Override
-    public void close() {
-        if (!closed.compareAndSet(false, true)) {
-            return;
-        }
-        for (VectorSchemaRoot batch : batches) {
-            for (FieldVector vector : batch.getFieldVectors()) {
-                vector.close();
-            }
-            batch.close();
-        }
-        allocator.close();
-    }
-
-    static ArrowResultPage fromRecordBatches(BufferAllocator allocator, org.apache.arrow.vector.types.pojo.Schema schema, List<ArrowRecordBatch> recordBatches, Map<String, String> settings) {
-        List<VectorSchemaRoot> roots = new ArrayList<>(recordBatches.size());
-        for (ArrowRecordBatch batch : recordBatches) {
-            VectorSchemaRoot root = VectorSchemaRoot.create(schema, allocator);
-            try {
-                new VectorLoader(root, CommonsCompressionFactory.INSTANCE).load(batch);
-                roots.add(root);
-            } finally {
-                batch.close();
-            }
-        }
-        return new ArrowResultPage(allocator, roots, settings);
+        return FieldVector::getObject;
     }
 
     static List<QueryRowField> schemaToFields(org.apache.arrow.vector.types.pojo.Schema schema) throws SQLException {
@@ -243,7 +595,7 @@ final class ArrowResultPage implements ResultPage {
         if (field.isNullable() && !"NULL".equalsIgnoreCase(typeName)) {
             typeName = "Nullable(" + typeName + ")";
         }
-        return new DatabendRawType(typeName);
+        return DatabendRawType.of(typeName);
     }
 
     private static String toExtensionRawTypeName(Field field, String extensionType) throws SQLException {
@@ -388,6 +740,11 @@ final class ArrowResultPage implements ResultPage {
         return new BigInteger(bigEndian);
     }
 
+    @FunctionalInterface
+    private interface ColumnDecoder {
+        Object decode(FieldVector vector, int rowIndex) throws SQLException;
+    }
+
     private static final class DecimalParts {
         private final long micros;
         private final int offsetSeconds;
@@ -1,6 +1,7 @@
 package com.databend.jdbc.internal.session;
 
 import com.databend.jdbc.internal.QueryResultFormat;
+import com.databend.jdbc.internal.UploadCompression;
 import com.databend.jdbc.internal.exception.DatabendPresignException;
 import com.databend.jdbc.internal.exception.DatabendQueryException;
 import com.databend.jdbc.internal.exception.DatabendSessionException;
@@ -8,9 +9,12 @@ import com.databend.jdbc.internal.exception.DatabendStageUploadException;
 import com.databend.jdbc.internal.exception.DatabendStreamingLoadException;
 import com.databend.jdbc.internal.http.NonRetryableHttpStatusException;
 import com.databend.jdbc.internal.http.PresignClient;
+import com.databend.jdbc.internal.http.RangedDownload;
+import com.databend.jdbc.internal.http.SpoolingRequestBody;
 import com.databend.jdbc.internal.http.HttpRetryPolicy;
 import com.databend.jdbc.internal.http.JsonCodec;
 import com.databend.jdbc.internal.http.RetryableHttpStatusException;
+import com.databend.jdbc.internal.http.StreamingRequestBody;
 import com.databend.jdbc.internal.query.QueryResultPages;
 import com.databend.jdbc.internal.query.QueryResults;
 import com.databend.jdbc.internal.query.RestQueryResultPages;
@@ -32,11 +36,12 @@ import okio.BufferedSink;
 import okio.Okio;
 import okio.Source;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.URI;
+import java.nio.channels.FileChannel;
 import java.sql.SQLException;
 import java.time.Duration;
 import java.util.ArrayList;
@@ -47,7 +52,9 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
@@ -55,7 +62,6 @@ import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
 import java.util.logging.Logger;
-import java.util.zip.GZIPOutputStream;
 
 import static com.databend.jdbc.internal.http.JsonCodec.jsonCodec;
 import static java.util.Objects.requireNonNull;
@@ -71,6 +77,7 @@ public class DatabendSessionHandle implements Consumer<SessionState> {
     private static final String LOGOUT_PATH = "/v1/session/logout";
     private static final String HEARTBEAT_PATH = "/v1/session/heartbeat";
     private static final MediaType MEDIA_TYPE_JSON = MediaType.parse("application/json; charset=utf-8");
+    private static final MediaType OCTET_STREAM = MediaType.parse("application/octet-stream");
     private static final Semver STREAMING_LOAD_MIN_VERSION = new Semver("1.2.781");
     private static final Semver HEARTBEAT_MIN_VERSION = new Semver("1.2.709");
     private static final int MIN_ARROW_RESULT_VERSION = 3;
@@ -80,14 +87,17 @@ public class DatabendSessionHandle implements Consumer<SessionState> {
 
     private final OkHttpClient httpClient;
     private final SessionHandleConfig config;
+    private final PresignClient presignClient;
     private final AtomicReference<SessionState> session;
     private final AtomicReference<String> lastNodeID = new AtomicReference<>();
     private final Supplier<List<QueryLiveness>> queryLivenessSupplier;
     private final HeartbeatManager heartbeatManager = new HeartbeatManager();
+    private final ResultFormatSelector resultFormatSelector;
     private volatile String routeHint;
     private volatile Semver serverVersion;
     private volatile Integer serverMaxArrowResultVersion;
     private volatile boolean presignDisabled;
+    private volatile ExecutorService workerExecutor;
 
     public DatabendSessionHandle(
             OkHttpClient httpClient,
@@ -95,8 +105,10 @@ public class DatabendSessionHandle implements Consumer<SessionState> {
             Supplier<List<QueryLiveness>> queryLivenessSupplier) {
         this.httpClient = requireNonNull(httpClient, "httpClient is null");
         this.config = requireNonNull(config, "config is null");
+        this.presignClient = PresignClient.shared(config.getPresignClientConfig());
         this.session = new AtomicReference<>(requireNonNull(config.getInitialSession(), "config.initialSession is null"));
         this.queryLivenessSupplier = queryLivenessSupplier != null ? queryLivenessSupplier : java.util.Collections::emptyList;
+        this.resultFormatSelector = new ResultFormatSelector(config.getQueryResultFormat(), config.getAutoArrowMinRows());
         this.routeHint = "";
     }
 
@@ -179,6 +191,13 @@ public class DatabendSessionHandle implements Consumer<SessionState> {
         }
     }
 
+    /**
+     * @param executor runs heartbeats and ranged downloads, {@code null} for the driver's own threads
+     */
+    public void setWorkerExecutor(ExecutorService executor) {
+        this.workerExecutor = executor;
+    }
+
     public void close() throws SQLException {
         heartbeatManager.stop();
         logout();
@@ -202,7 +221,7 @@ public class DatabendSessionHandle implements Consumer<SessionState> {
         if (currentSession == null || !currentSession.inActiveTransaction()) {
             this.routeHint = uriRouteHint(this.config.getBaseUri().toString());
         }
-        QueryRequestConfig.Builder builder = makeRequestConfig(queryId, this.config.getBaseUri().toString(), queryResultFormatOverride);
+        QueryRequestConfig.Builder builder = makeRequestConfig(queryId, this.config.getBaseUri().toString(), sql, queryResultFormatOverride);
         if (attach != null) {
             builder.setStageAttachment(attach);
         }
@@ -220,6 +239,26 @@ public class DatabendSessionHandle implements Consumer<SessionState> {
         }
     }
 
+    /**
+     * Starts a query like {@link #startQuery(String, String, StageAttachment, QueryResultFormat)} without blocking
+     * the caller. The future completes exceptionally with a {@link DatabendQueryException} when the query fails to
+     * start.
+     */
+    public CompletableFuture<RestQueryResultPages> startQueryAsync(String queryId, String sql) {
+        SessionState currentSession = this.session.get();
+        if (currentSession == null || !currentSession.inActiveTransaction()) {
+            this.routeHint = uriRouteHint(this.config.getBaseUri().toString());
+        }
+        QueryRequestConfig requestConfig = makeRequestConfig(queryId, this.config.getBaseUri().toString(), sql, null).build();
+        return RestQueryResultPages.startAsync(httpClient, sql, requestConfig, this, lastNodeID).thenApply(pages -> {
+            Long timeout = pages.getResults().getResultTimeoutSecs();
+            if (timeout != null && timeout != 0) {
+                heartbeatManager.onStartQuery(timeout);
+            }
+            return pages;
+        });
+    }
+
     public int streamingLoad(String sql, InputStream inputStream, long fileSize) throws SQLException {
         HttpRetryPolicy retryPolicy = new HttpRetryPolicy(true, true);
 
@@ -276,6 +315,11 @@ public class DatabendSessionHandle implements Consumer<SessionState> {
         }
     }
 
+    /**
+     * Uploads {@code inputStream} as one stage file. With {@code compressData} the data is compressed while it is
+     * sent, using the connection's {@code upload_compression} codec. Presigned uploads need the compressed length
+     * up front, so for those the compressed data is spilled to a temporary file instead of being held in memory.
+     */
     public void uploadStream(
             String stageName,
             String destPrefix,
@@ -287,23 +331,35 @@ public class DatabendSessionHandle implements Consumer<SessionState> {
         String normalizedPrefix = destPrefix.replaceAll("^/", "").replaceAll("/$", "");
         String destination = normalizedPrefix + "/" + destFileName;
 
+        File spilled = null;
+        SpoolingRequestBody spool = null;
+        boolean spooling = this.config.getUploadSpoolSize() > 0;
         try {
-            InputStream dataStream = inputStream;
+            // replayable body of the upload, null when the caller's stream is sent as is and cannot be retried
+            RequestBody body = null;
             if (compressData) {
-                ByteArrayOutputStream buffer = new ByteArrayOutputStream();
-                try (GZIPOutputStream gzipOutputStream = new GZIPOutputStream(buffer)) {
-                    byte[] bytes = new byte[1024];
-                    int len;
-                    while ((len = inputStream.read(bytes)) != -1) {
-                        gzipOutputStream.write(bytes, 0, len);
-                    }
+                StreamingRequestBody compressed = StreamingRequestBody.oneShot(out -> copy(inputStream, out), uploadCompressor());
+                if (this.presignDisabled && !spooling) {
+                    uploadToStage(normalizedStage, normalizedPrefix + "/", destFileName, compressed);
+                    return;
                 }
-                dataStream = new ByteArrayInputStream(buffer.toByteArray());
-                fileSize = buffer.size();
+                spilled = File.createTempFile("databend_upload_", this.config.getUploadCompression().fileExtension());
+                try (BufferedSink sink = Okio.buffer(Okio.sink(spilled))) {
+                    compressed.writeTo(sink);
+                }
+                fileSize = spilled.length();
+                body = RequestBody.create(spilled, OCTET_STREAM);
+            } else if (spooling) {
+                spool = new SpoolingRequestBody(inputStream, fileSize, this.config.getUploadSpoolSize());
+                body = spool;
             }
 
             if (this.presignDisabled) {
-                uploadToStage(normalizedStage, normalizedPrefix + "/", destFileName, dataStream, fileSize);
+                if (body == null) {
+                    uploadToStage(normalizedStage, normalizedPrefix + "/", destFileName, inputStream, fileSize);
+                } else {
+                    uploadToStage(normalizedStage, normalizedPrefix + "/", destFileName, body, this.config.getUploadRetryAttempts() + 1);
+                }
                 return;
             }
 
@@ -313,9 +369,12 @@ public class DatabendSessionHandle implements Consumer<SessionState> {
             } catch (RuntimeException e) {
                 throw new SQLException("Failed to prepare presigned upload request", e);
             }
-            PresignClient client = new PresignClient();
             try {
-                client.presignUpload(null, dataStream, presigned.headers, presigned.url, fileSize, true);
+                if (body == null) {
+                    presignClient.presignUpload(null, inputStream, presigned.headers, presigned.url, fileSize, true);
+                } else {
+                    presignClient.presignUpload(presigned.headers, presigned.url, body, this.config.getUploadRetryAttempts());
+                }
             } catch (RuntimeException | IOException e) {
                 throw new SQLException(
                         "Failed to upload stream",
@@ -330,6 +389,105 @@ public class DatabendSessionHandle implements Consumer<SessionState> {
         } catch (IOException e) {
             logger.warning("failed to upload input stream, file size is:" + fileSize / 1024.0 + e.getMessage());
             throw new SQLException("Failed to upload stream", e);
+        } finally {
+            if (spool != null) {
+                spool.close();
+            }
+            if (spilled != null) {
+                spilled.delete();
+            }
+        }
+    }
+
+    /**
+     * Uploads a local file as one stage file. The file is sent again when an attempt fails, up to
+     * {@code upload_retry_attempts} times.
+     */
+    public void uploadFile(String stageName, String destPrefix, File file, String destFileName) throws SQLException {
+        String normalizedStage = stageName == null ? "~" : stageName.replaceAll("/$", "");
+        String normalizedPrefix = destPrefix.replaceAll("^/", "").replaceAll("/$", "");
+        String destination = normalizedPrefix + "/" + destFileName;
+        RequestBody body = RequestBody.create(file, OCTET_STREAM);
+
+        try {
+            if (this.presignDisabled) {
+                uploadToStage(normalizedStage, normalizedPrefix + "/", destFileName, body, this.config.getUploadRetryAttempts() + 1);
+                return;
+            }
+
+            PresignedRequestContext presigned;
+            try {
+                presigned = getPresignedRequest(PresignMethod.UPLOAD, normalizedStage, destination);
+            } catch (RuntimeException e) {
+                throw new SQLException("Failed to prepare presigned upload request", e);
+            }
+            try {
+                presignClient.presignUpload(presigned.headers, presigned.url, body, this.config.getUploadRetryAttempts());
+            } catch (RuntimeException | IOException e) {
+                throw new SQLException(
+                        "Failed to upload file",
+                        new DatabendPresignException("Failed to upload via presigned request", e));
+            }
+        } catch (DatabendStageUploadException | IOException e) {
+            logger.warning("failed to upload file to " + destination + ": " + e.getMessage());
+            throw new SQLException("Failed to upload file", e);
+        }
+    }
+
+    /**
+     * Uploads content produced by {@code writer} as one stage file without staging it on local disk. The content
+     * is streamed with chunked encoding to {@code /v1/upload_to_stage}; presigned uploads need a content length,
+     * so the encoded content is spooled once, in memory up to {@code upload_spool_size} bytes and in a temporary
+     * file beyond that, and the spool is sent and resent on retries.
+     */
+    public void uploadStream(
+            String stageName,
+            String destPrefix,
+            String destFileName,
+            StreamingRequestBody.ContentWriter writer,
+            boolean compressData) throws SQLException {
+        String normalizedStage = stageName == null ? "~" : stageName.replaceAll("/$", "");
+        String normalizedPrefix = destPrefix.replaceAll("^/", "").replaceAll("/$", "");
+        String destination = normalizedPrefix + "/" + destFileName;
+
+        try {
+            if (this.presignDisabled) {
+                uploadToStage(normalizedStage, normalizedPrefix + "/", destFileName,
+                        StreamingRequestBody.chunked(writer, compressData ? uploadCompressor() : null));
+                return;
+            }
+
+            PresignedRequestContext presigned;
+            try {
+                presigned = getPresignedRequest(PresignMethod.UPLOAD, normalizedStage, destination);
+            } catch (RuntimeException e) {
+                throw new SQLException("Failed to prepare presigned upload request", e);
+            }
+            try (SpoolingRequestBody body = SpoolingRequestBody.spool(writer,
+                    compressData ? uploadCompressor() : null, this.config.getUploadSpoolSize())) {
+                presignClient.presignUpload(presigned.headers, presigned.url, body, this.config.getUploadRetryAttempts());
+            } catch (RuntimeException | IOException e) {
+                throw new SQLException(
+                        "Failed to upload stream",
+                        new DatabendPresignException("Failed to upload via presigned request", e));
+            }
+        } catch (DatabendStageUploadException | IOException e) {
+            logger.warning("failed to upload stream to " + destination + ": " + e.getMessage());
+            throw new SQLException("Failed to upload stream", e);
+        }
+    }
+
+    private StreamingRequestBody.Compressor uploadCompressor() {
+        UploadCompression compression = this.config.getUploadCompression();
+        int workers = this.config.getUploadCompressionWorkers();
+        return out -> compression.compress(out, workers);
+    }
+
+    private static void copy(InputStream in, OutputStream out) throws IOException {
+        byte[] buffer = new byte[64 * 1024];
+        int n;
+        while ((n = in.read(buffer)) != -1) {
+            out.write(buffer, 0, n);
         }
     }
 
@@ -339,9 +497,26 @@ public class DatabendSessionHandle implements Consumer<SessionState> {
             String fileName,
             InputStream inputStream,
             long fileSize) throws IOException {
+        uploadToStage(stageName, relativePath, fileName, new StageUploadRequestBody(inputStream, fileSize));
+    }
+
+    private void uploadToStage(
+            String stageName,
+            String relativePath,
+            String fileName,
+            RequestBody fileBody) throws IOException {
+        uploadToStage(stageName, relativePath, fileName, fileBody, MAX_STAGE_UPLOAD_RETRY_ATTEMPTS);
+    }
+
+    private void uploadToStage(
+            String stageName,
+            String relativePath,
+            String fileName,
+            RequestBody fileBody,
+            int maxAttempts) throws IOException {
         RequestBody requestBody = new MultipartBody.Builder()
                 .setType(MultipartBody.FORM)
-                .addFormDataPart("upload", fileName, new StageUploadRequestBody(inputStream, fileSize))
+                .addFormDataPart("upload", fileName, fileBody)
                 .build();
 
         Request.Builder builder = new Request.Builder()
@@ -353,25 +528,62 @@ public class DatabendSessionHandle implements Consumer<SessionState> {
             builder.addHeader(QueryRequestConfig.DATABEND_WAREHOUSE_HEADER, this.config.getWarehouse());
         }
 
-        executeStageUpload(builder.build());
+        executeStageUpload(builder.build(), maxAttempts);
     }
 
+    /**
+     * Opens a stage file for reading. With {@code download_parallelism} above 1 the file is fetched as range
+     * requests running ahead of the reader.
+     */
     public InputStream downloadStream(String stageName, String path) throws SQLException {
+        RangedDownload download = prepareDownload(stageName, path);
+        try {
+            return download.openStream();
+        } catch (IOException e) {
+            throw new SQLException(
+                    "Failed to open presigned download stream",
+                    new DatabendPresignException("Failed to open presigned download stream", e));
+        }
+    }
+
+    /**
+     * Writes a stage file into {@code destination}, chunks fetched in parallel are written at their own offsets.
+     *
+     * @return the number of bytes written
+     */
+    public long downloadStream(String stageName, String path, FileChannel destination) throws SQLException {
+        RangedDownload download = prepareDownload(stageName, path);
+        try {
+            return download.transferTo(destination);
+        } catch (IOException e) {
+            throw new SQLException(
+                    "Failed to download stage file",
+                    new DatabendPresignException("Failed to download via presigned request", e));
+        }
+    }
+
+    private RangedDownload prepareDownload(String stageName, String path) throws SQLException {
         String normalizedStage = stageName.replaceAll("/$", "");
-        PresignClient client = new PresignClient();
         PresignedRequestContext presigned;
         try {
             presigned = getPresignedRequest(PresignMethod.DOWNLOAD, normalizedStage, path);
         } catch (RuntimeException e) {
             throw new SQLException("Failed to prepare presigned download request", e);
         }
-        try {
-            return client.presignDownloadStream(presigned.headers, presigned.url);
-        } catch (IOException e) {
-            throw new SQLException(
-                    "Failed to open presigned download stream",
-                    new DatabendPresignException("Failed to open presigned download stream", e));
+        ExecutorService executor = this.workerExecutor;
+        if (executor == null) {
+            return new RangedDownload(presignClient, presigned.headers, presigned.url,
+                    this.config.getDownloadChunkSize(), this.config.getDownloadParallelism(), this.config.getDownloadBufferSize());
         }
+        return new RangedDownload(presignClient, presigned.headers, presigned.url,
+                this.config.getDownloadChunkSize(), this.config.getDownloadParallelism(), this.config.getDownloadBufferSize(), executor);
+    }
+
+    /**
+     * @return the pooled client used for presigned transfers, shared with other sessions of the same settings
+     */
+    public PresignClient getPresignClient() {
+        return presignClient;
     }
 
     public PaginationOptions getPaginationOptions() {
@@ -408,6 +620,10 @@ public class DatabendSessionHandle implements Consumer<SessionState> {
         return this.session.get();
     }
 
+    public ResultFormatSelector getResultFormatSelector() {
+        return resultFormatSelector;
+    }
+
     public Semver getServerVersion() {
         return this.serverVersion;
     }
@@ -439,19 +655,16 @@ public class DatabendSessionHandle implements Consumer<SessionState> {
         }
     }
 
-    private QueryRequestConfig.Builder makeRequestConfig(String queryId, String host) {
-        return makeRequestConfig(queryId, host, null);
-    }
-
-    private QueryRequestConfig.Builder makeRequestConfig(String queryId, String host, QueryResultFormat queryResultFormatOverride) {
+    private QueryRequestConfig.Builder makeRequestConfig(String queryId, String host, String sql, QueryResultFormat queryResultFormatOverride) {
         Map<String, String> additionalHeaders = newAdditionalHeaders();
         additionalHeaders.put(QueryRequestConfig.X_DATABEND_QUERY_ID, queryId);
         QueryResultFormat queryResultFormat = queryResultFormatOverride == null
-                ? this.config.getQueryResultFormat()
+                ? resultFormatSelector.choose(sql)
                 : queryResultFormatOverride;
         if (queryResultFormat == QueryResultFormat.ARROW && !supportsArrowTransport()) {
             queryResultFormat = QueryResultFormat.JSON;
         }
+        resultFormatSelector.started(queryResultFormat);
         return QueryRequestConfig.builder()
                 .setSession(this.session.get())
                 .setHost(host)
@@ -459,6 +672,7 @@ public class DatabendSessionHandle implements Consumer<SessionState> {
                 .setConnectionTimeout(this.config.getConnectionTimeoutSecs())
                 .setSocketTimeout(this.config.getSocketTimeoutSecs())
                 .setQueryResultFormat(queryResultFormat)
+                .setResultObserver(queryResultFormatOverride == null ? resultFormatSelector.observe(sql) : null)
                 .setPaginationOptions(getPaginationOptions())
                 .setAdditionalHeaders(additionalHeaders);
     }
@@ -520,6 +734,10 @@ public class DatabendSessionHandle implements Consumer<SessionState> {
     }
 
     private void executeStageUpload(Request request) throws IOException {
+        executeStageUpload(request, MAX_STAGE_UPLOAD_RETRY_ATTEMPTS);
+    }
+
+    private void executeStageUpload(Request request, int maxAttempts) throws IOException {
         requireNonNull(request, "request is null");
 
         OkHttpClient uploadClient = httpClient.newBuilder()
@@ -567,7 +785,7 @@ public class DatabendSessionHandle implements Consumer<SessionState> {
                     throw retryAbortedStageUploadException(e);
                 }
                 logger.info("try to upload to stage again: " + attempts + ", cause: " + e);
-                if (attempts >= MAX_STAGE_UPLOAD_RETRY_ATTEMPTS) {
+                if (attempts >= maxAttempts) {
                     Duration sinceStart = Duration.ofNanos(System.nanoTime() - start);
                     logger.warning("Upload to stage failed, error is: " + e);
                     throw new DatabendStageUploadException(
@@ -877,7 +1095,16 @@ public class DatabendSessionHandle implements Consumer<SessionState> {
 
         private synchronized void scheduleHeartbeat() {
             long delay = Math.max(heartbeatIntervalMillis - (System.currentTimeMillis() - lastHeartbeatStartTimeMillis), 0);
-            heartbeatFuture = getScheduler().schedule(this, delay, MILLISECONDS);
+            ExecutorService executor = workerExecutor;
+            // the scheduler thread only keeps time when a worker executor sends the heartbeat
+            Runnable task = executor == null ? this : () -> {
+                try {
+                    executor.execute(this);
+                } catch (RejectedExecutionException e) {
+                    run();
+                }
+            };
+            heartbeatFuture = getScheduler().schedule(task, delay, MILLISECONDS);
         }
 
         @Override
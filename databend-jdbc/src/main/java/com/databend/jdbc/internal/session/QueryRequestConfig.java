@@ -1,6 +1,7 @@
 package com.databend.jdbc.internal.session;
 
 import com.databend.jdbc.internal.QueryResultFormat;
+import com.databend.jdbc.internal.query.QueryResultObserver;
 import com.databend.jdbc.internal.query.StageAttachment;
 
 import java.util.HashMap;
@@ -32,6 +33,7 @@ public class QueryRequestConfig {
     private final StageAttachment stageAttachment;
     private final Map<String, String> additionalHeaders;
     private final int retryAttempts;
+    private final QueryResultObserver resultObserver;
 
     public QueryRequestConfig(String host) {
         this(host, SessionState.createDefault(), DEFAULT_QUERY_TIMEOUT, DEFAULT_CONNECTION_TIMEOUT, DEFAULT_SOCKET_TIMEOUT, QueryResultFormat.JSON, PaginationOptions.defaultPaginationOptions(), new HashMap<>(), null, DEFAULT_RETRY_ATTEMPTS);
@@ -49,9 +51,14 @@ public class QueryRequestConfig {
         this.additionalHeaders = new HashMap<>();
         this.stageAttachment = null;
         this.retryAttempts = DEFAULT_RETRY_ATTEMPTS;
+        this.resultObserver = null;
     }
 
     public QueryRequestConfig(String host, SessionState session, Integer queryTimeoutSecs, Integer connectionTimeout, Integer socketTimeout, QueryResultFormat queryResultFormat, PaginationOptions paginationOptions, Map<String, String> additionalHeaders, StageAttachment stageAttachment, int retryAttempts) {
+        this(host, session, queryTimeoutSecs, connectionTimeout, socketTimeout, queryResultFormat, paginationOptions, additionalHeaders, stageAttachment, retryAttempts, null);
+    }
+
+    public QueryRequestConfig(String host, SessionState session, Integer queryTimeoutSecs, Integer connectionTimeout, Integer socketTimeout, QueryResultFormat queryResultFormat, PaginationOptions paginationOptions, Map<String, String> additionalHeaders, StageAttachment stageAttachment, int retryAttempts, QueryResultObserver resultObserver) {
         this.host = host;
         this.session = session;
         this.queryTimeoutSecs = queryTimeoutSecs;
@@ -62,6 +69,7 @@ public class QueryRequestConfig {
         this.additionalHeaders = additionalHeaders;
         this.stageAttachment = stageAttachment;
         this.retryAttempts = retryAttempts;
+        this.resultObserver = resultObserver;
     }
 
     public static Builder builder() {
@@ -108,6 +116,13 @@ public class QueryRequestConfig {
         return retryAttempts <= 0 ? DEFAULT_RETRY_ATTEMPTS : retryAttempts;
     }
 
+    /**
+     * @return told about every result page of the query, null when nobody is watching
+     */
+    public QueryResultObserver getResultObserver() {
+        return resultObserver;
+    }
+
     public static class Builder {
         private SessionState session;
         private String host;
@@ -119,6 +134,7 @@ public class QueryRequestConfig {
         private StageAttachment stageAttachment;
         private Map<String, String> additionalHeaders;
         private int retryAttempts;
+        private QueryResultObserver resultObserver;
 
         public Builder setSession(SessionState session) {
             this.session = session;
@@ -173,8 +189,13 @@ public class QueryRequestConfig {
             return this;
         }
 
+        public Builder setResultObserver(QueryResultObserver resultObserver) {
+            this.resultObserver = resultObserver;
+            return this;
+        }
+
         public QueryRequestConfig build() {
-            return new QueryRequestConfig(host, session, queryTimeoutSecs, connectionTimeout, socketTimeout, queryResultFormat, paginationOptions, additionalHeaders, stageAttachment, retryAttempts);
+            return new QueryRequestConfig(host, session, queryTimeoutSecs, connectionTimeout, socketTimeout, queryResultFormat, paginationOptions, additionalHeaders, stageAttachment, retryAttempts, resultObserver);
         }
     }
 }
@@ -0,0 +1,143 @@
+package com.databend.jdbc.internal.session;
+
+import com.databend.jdbc.internal.QueryResultFormat;
+import com.databend.jdbc.internal.data.DatabendDataType;
+import com.databend.jdbc.internal.data.DatabendRawType;
+import com.databend.jdbc.internal.query.QueryResultObserver;
+import com.databend.jdbc.internal.query.QueryRowField;
+import com.databend.jdbc.internal.query.ResultPage;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Picks the result format of every query a {@link DatabendSessionHandle} starts. With
+ * {@code query_result_format=auto} a statement is fetched as JSON until one of its executions returned at least
+ * {@code auto_arrow_min_rows} rows, or half as many when most of its columns are numbers, booleans, dates or
+ * timestamps that Arrow ships without formatting them as text, and as Arrow from then on. The format of a running
+ * query cannot change because it is negotiated by the request starting it. Other modes always pick the configured
+ * format. The formats queries were started with are counted in every mode.
+ */
+public final class ResultFormatSelector {
+    private static final int MAX_STATEMENTS = 1024;
+
+    private final QueryResultFormat configured;
+    private final int arrowMinRows;
+    // what the latest execution of a statement returned, statements that returned no rows are not kept
+    private final Cache<String, Observation> observations = CacheBuilder.newBuilder()
+            .maximumSize(MAX_STATEMENTS)
+            .build();
+    private final AtomicLong jsonQueries = new AtomicLong();
+    private final AtomicLong arrowQueries = new AtomicLong();
+    private volatile QueryResultFormat lastFormat;
+
+    public ResultFormatSelector(QueryResultFormat configured, int arrowMinRows) {
+        this.configured = requireNonNull(configured, "configured is null");
+        if (arrowMinRows <= 0) {
+            throw new IllegalArgumentException("arrowMinRows must be positive: " + arrowMinRows);
+        }
+        this.arrowMinRows = arrowMinRows;
+    }
+
+    /**
+     * @return the format to start {@code sql} with, the caller still falls back to JSON for servers without Arrow
+     */
+    public QueryResultFormat choose(String sql) {
+        if (configured != QueryResultFormat.AUTO) {
+            return configured;
+        }
+        Observation observation = sql == null ? null : observations.getIfPresent(sql);
+        if (observation != null && observation.rows >= (observation.fixedWidth ? arrowMinRows / 2 : arrowMinRows)) {
+            return QueryResultFormat.ARROW;
+        }
+        return QueryResultFormat.JSON;
+    }
+
+    /**
+     * Counts a query that was started with {@code format}.
+     */
+    public void started(QueryResultFormat format) {
+        if (format == QueryResultFormat.ARROW) {
+            arrowQueries.incrementAndGet();
+        } else {
+            jsonQueries.incrementAndGet();
+        }
+        lastFormat = format;
+    }
+
+    /**
+     * @return records what the query started for {@code sql} returns, null unless the format is chosen per query
+     */
+    public QueryResultObserver observe(String sql) {
+        if (configured != QueryResultFormat.AUTO || sql == null) {
+            return null;
+        }
+        return new StatementObserver(sql);
+    }
+
+    public long getJsonQueryCount() {
+        return jsonQueries.get();
+    }
+
+    public long getArrowQueryCount() {
+        return arrowQueries.get();
+    }
+
+    /**
+     * @return format the latest query was started with, null before the first query
+     */
+    public QueryResultFormat getLastFormat() {
+        return lastFormat;
+    }
+
+    static boolean isMostlyFixedWidth(List<QueryRowField> schema) {
+        if (schema.isEmpty()) {
+            return false;
+        }
+        int fixedWidth = 0;
+        for (QueryRowField field : schema) {
+            DatabendRawType rawType = field.getDataType();
+            DatabendDataType type = rawType == null ? null : rawType.getDataType();
+            if (type != null && type != DatabendDataType.STRING && type.getLength() > 0) {
+                fixedWidth++;
+            }
+        }
+        return fixedWidth * 2 >= schema.size();
+    }
+
+    private static final class Observation {
+        private final long rows;
+        private final boolean fixedWidth;
+
+        private Observation(long rows, boolean fixedWidth) {
+            this.rows = rows;
+            this.fixedWidth = fixedWidth;
+        }
+    }
+
+    // pages of one query are decoded one after the other, though not always on the same thread
+    private final class StatementObserver implements QueryResultObserver {
+        private final String sql;
+        private final AtomicLong rows = new AtomicLong();
+        private volatile boolean fixedWidth;
+
+        private StatementObserver(String sql) {
+            this.sql = sql;
+        }
+
+        @Override
+        public void onPage(List<QueryRowField> schema, ResultPage page) {
+            if (schema != null) {
+                fixedWidth = isMostlyFixedWidth(schema);
+            }
+            long total = rows.addAndGet(page.getRowCount());
+            if (total > 0) {
+                observations.put(sql, new Observation(total, fixedWidth));
+            }
+        }
+    }
+}
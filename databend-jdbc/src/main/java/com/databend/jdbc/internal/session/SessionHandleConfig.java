@@ -1,6 +1,8 @@
 package com.databend.jdbc.internal.session;
 
 import com.databend.jdbc.internal.QueryResultFormat;
+import com.databend.jdbc.internal.UploadCompression;
+import com.databend.jdbc.internal.http.PresignClientConfig;
 
 import java.net.URI;
 import java.util.Objects;
@@ -11,12 +13,21 @@ public final class SessionHandleConfig {
     private final Integer connectionTimeoutSecs;
     private final Integer socketTimeoutSecs;
     private final QueryResultFormat queryResultFormat;
+    private final int autoArrowMinRows;
     private final Integer waitTimeSecs;
     private final Integer maxRowsInBuffer;
     private final Integer maxRowsPerPage;
     private final String warehouse;
     private final String tenant;
     private final boolean debug;
+    private final UploadCompression uploadCompression;
+    private final int uploadCompressionWorkers;
+    private final PresignClientConfig presignClientConfig;
+    private final int downloadParallelism;
+    private final int downloadChunkSize;
+    private final int downloadBufferSize;
+    private final int uploadSpoolSize;
+    private final int uploadRetryAttempts;
     private final SessionState initialSession;
 
     private SessionHandleConfig(Builder builder) {
@@ -25,12 +36,21 @@ public final class SessionHandleConfig {
         this.connectionTimeoutSecs = builder.connectionTimeoutSecs;
         this.socketTimeoutSecs = builder.socketTimeoutSecs;
         this.queryResultFormat = Objects.requireNonNull(builder.queryResultFormat, "queryResultFormat is null");
+        this.autoArrowMinRows = builder.autoArrowMinRows;
         this.waitTimeSecs = builder.waitTimeSecs;
         this.maxRowsInBuffer = builder.maxRowsInBuffer;
         this.maxRowsPerPage = builder.maxRowsPerPage;
         this.warehouse = builder.warehouse;
         this.tenant = builder.tenant;
         this.debug = builder.debug;
+        this.uploadCompression = Objects.requireNonNull(builder.uploadCompression, "uploadCompression is null");
+        this.uploadCompressionWorkers = builder.uploadCompressionWorkers;
+        this.presignClientConfig = Objects.requireNonNull(builder.presignClientConfig, "presignClientConfig is null");
+        this.downloadParallelism = builder.downloadParallelism;
+        this.downloadChunkSize = builder.downloadChunkSize;
+        this.downloadBufferSize = builder.downloadBufferSize;
+        this.uploadSpoolSize = builder.uploadSpoolSize;
+        this.uploadRetryAttempts = builder.uploadRetryAttempts;
         this.initialSession = Objects.requireNonNull(builder.initialSession, "initialSession is null");
     }
 
@@ -58,6 +78,13 @@ public final class SessionHandleConfig {
         return queryResultFormat;
     }
 
+    /**
+     * @return rows a statement must have returned before {@link QueryResultFormat#AUTO} fetches it as Arrow
+     */
+    public int getAutoArrowMinRows() {
+        return autoArrowMinRows;
+    }
+
     public Integer getWaitTimeSecs() {
         return waitTimeSecs;
     }
@@ -82,6 +109,42 @@ public final class SessionHandleConfig {
         return debug;
     }
 
+    public UploadCompression getUploadCompression() {
+        return uploadCompression;
+    }
+
+    public int getUploadCompressionWorkers() {
+        return uploadCompressionWorkers;
+    }
+
+    public PresignClientConfig getPresignClientConfig() {
+        return presignClientConfig;
+    }
+
+    public int getDownloadParallelism() {
+        return downloadParallelism;
+    }
+
+    public int getDownloadChunkSize() {
+        return downloadChunkSize;
+    }
+
+    public int getDownloadBufferSize() {
+        return downloadBufferSize;
+    }
+
+    /**
+     * @return bytes of an uploaded stream kept in memory so the upload can be retried, beyond that the stream is
+     * spooled to a temporary file; 0 sends streams as is and does not retry them
+     */
+    public int getUploadSpoolSize() {
+        return uploadSpoolSize;
+    }
+
+    public int getUploadRetryAttempts() {
+        return uploadRetryAttempts;
+    }
+
     public SessionState getInitialSession() {
         return initialSession;
     }
@@ -92,12 +155,21 @@ public final class SessionHandleConfig {
         private Integer connectionTimeoutSecs;
         private Integer socketTimeoutSecs;
         private QueryResultFormat queryResultFormat = QueryResultFormat.JSON;
+        private int autoArrowMinRows = 10000;
         private Integer waitTimeSecs;
         private Integer maxRowsInBuffer;
         private Integer maxRowsPerPage;
         private String warehouse;
         private String tenant;
         private boolean debug;
+        private UploadCompression uploadCompression = UploadCompression.GZIP;
+        private int uploadCompressionWorkers = 1;
+        private PresignClientConfig presignClientConfig = PresignClientConfig.defaultConfig();
+        private int downloadParallelism = 1;
+        private int downloadChunkSize = 8 * 1024 * 1024;
+        private int downloadBufferSize = 64 * 1024 * 1024;
+        private int uploadSpoolSize;
+        private int uploadRetryAttempts = 5;
         private SessionState initialSession;
 
         public Builder setBaseUri(URI baseUri) {
@@ -125,6 +197,11 @@ public final class SessionHandleConfig {
             return this;
         }
 
+        public Builder setAutoArrowMinRows(int autoArrowMinRows) {
+            this.autoArrowMinRows = autoArrowMinRows;
+            return this;
+        }
+
         public Builder setWaitTimeSecs(Integer waitTimeSecs) {
             this.waitTimeSecs = waitTimeSecs;
             return this;
@@ -155,6 +232,46 @@ public final class SessionHandleConfig {
             return this;
         }
 
+        public Builder setUploadCompression(UploadCompression uploadCompression) {
+            this.uploadCompression = uploadCompression;
+            return this;
+        }
+
+        public Builder setUploadCompressionWorkers(int uploadCompressionWorkers) {
+            this.uploadCompressionWorkers = uploadCompressionWorkers;
+            return this;
+        }
+
+        public Builder setPresignClientConfig(PresignClientConfig presignClientConfig) {
+            this.presignClientConfig = presignClientConfig;
+            return this;
+        }
+
+        public Builder setDownloadParallelism(int downloadParallelism) {
+            this.downloadParallelism = downloadParallelism;
+            return this;
+        }
+
+        public Builder setDownloadChunkSize(int downloadChunkSize) {
+            this.downloadChunkSize = downloadChunkSize;
+            return this;
+        }
+
+        public Builder setDownloadBufferSize(int downloadBufferSize) {
+            this.downloadBufferSize = downloadBufferSize;
+            return this;
+        }
+
+        public Builder setUploadSpoolSize(int uploadSpoolSize) {
+            this.uploadSpoolSize = uploadSpoolSize;
+            return this;
+        }
+
+        public Builder setUploadRetryAttempts(int uploadRetryAttempts) {
+            this.uploadRetryAttempts = uploadRetryAttempts;
+            return this;
+        }
+
         public Builder setInitialSession(SessionState initialSession) {
             this.initialSession = initialSession;
             return this;
@@ -0,0 +1,253 @@
+package com.databend.jdbc;
+
+import com.databend.jdbc.internal.binding.ArrowBatchWriter;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class TestArrowBatchWriter {
+    @Test(groups = {"UNIT_ARROW"})
+    public void testRowsAreWrittenAsTypedParquetColumns() throws IOException {
+        byte[] file;
+        try (ArrowBatchWriter writer = new ArrowBatchWriter()) {
+            writer.addRow(new Object[]{1, true, 1.5f, 2.5d, "a"});
+            writer.addRow(new Object[]{null, null, null, null, null, null});
+            writer.addRow(new Object[]{3L, false, 0.25f, -1d, "c"});
+            Assert.assertEquals(writer.getRowCount(), 3);
+            Assert.assertEquals(writer.getColumnCount(), 6);
+            file = write(writer, Arrays.asList("id", "flag", "f", "d", "name", "note"));
+        }
+
+        ParquetFile parquet = new ParquetFile(file);
+        Assert.assertEquals(parquet.rowCount, 3);
+        Assert.assertEquals(parquet.names, Arrays.asList("id", "flag", "f", "d", "name", "note"));
+        // BOOLEAN, INT64, FLOAT, DOUBLE and BYTE_ARRAY
+        Assert.assertEquals(parquet.types, Arrays.asList(2L, 0L, 4L, 5L, 6L, 6L));
+        Assert.assertEquals(parquet.column(0), Arrays.asList(1L, null, 3L));
+        Assert.assertEquals(parquet.column(1), Arrays.asList(true, null, false));
+        Assert.assertEquals(parquet.column(2), Arrays.asList(1.5f, null, 0.25f));
+        Assert.assertEquals(parquet.column(3), Arrays.asList(2.5d, null, -1d));
+        Assert.assertEquals(parquet.column(4), Arrays.asList("a", null, "c"));
+        Assert.assertEquals(parquet.column(5), Arrays.asList(null, null, null));
+    }
+
+    @Test(groups = {"UNIT_ARROW"})
+    public void testMixedValuesFallBackToText() throws IOException {
+        byte[] file;
+        try (ArrowBatchWriter writer = new ArrowBatchWriter()) {
+            writer.addRow(new Object[]{1});
+            writer.addRow(new Object[]{"2020-01-01"});
+            writer.addRow(null);
+            file = write(writer, Collections.singletonList("c1"));
+            writer.clear();
+            Assert.assertEquals(writer.getRowCount(), 0);
+        }
+
+        ParquetFile parquet = new ParquetFile(file);
+        Assert.assertEquals(parquet.types, Collections.singletonList(6L));
+        Assert.assertEquals(parquet.column(0), Arrays.asList("1", "2020-01-01", null));
+    }
+
+    @Test(groups = {"UNIT_ARROW"})
+    public void testLargeBatchIsSplitIntoPages() throws IOException {
+        int rows = 150_000;
+        byte[] file;
+        try (ArrowBatchWriter writer = new ArrowBatchWriter()) {
+            for (int i = 0; i < rows; i++) {
+                writer.addRow(new Object[]{i % 7 == 0 ? null : (long) i, i % 3 == 0});
+            }
+            file = write(writer, Arrays.asList("n", "b"));
+        }
+
+        ParquetFile parquet = new ParquetFile(file);
+        Assert.assertEquals(parquet.rowCount, rows);
+        List<Object> numbers = parquet.column(0);
+        List<Object> flags = parquet.column(1);
+        Assert.assertEquals(numbers.size(), rows);
+        for (int i = 0; i < rows; i++) {
+            Assert.assertEquals(numbers.get(i), i % 7 == 0 ? null : (long) i);
+            Assert.assertEquals(flags.get(i), i % 3 == 0);
+        }
+    }
+
+    @Test(groups = {"UNIT_ARROW"})
+    public void testMissingColumnNamesAreRejected() {
+        try (ArrowBatchWriter writer = new ArrowBatchWriter()) {
+            writer.addRow(new Object[]{1, 2});
+            Assert.expectThrows(IOException.class, () -> write(writer, Collections.singletonList("a")));
+        }
+    }
+
+    private static byte[] write(ArrowBatchWriter writer, List<String> columnNames) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writer.writeTo(columnNames, out);
+        return out.toByteArray();
+    }
+
+    /**
+     * Reads back the subset of Parquet the writer produces: optional flat columns, v1 data pages, plain values.
+     */
+    private static final class ParquetFile {
+        private final ByteBuffer file;
+        private final long rowCount;
+        private final List<String> names = new ArrayList<>();
+        private final List<Long> types = new ArrayList<>();
+        private final List<Map<Integer, Object>> chunks = new ArrayList<>();
+
+        @SuppressWarnings("unchecked")
+        ParquetFile(byte[] bytes) {
+            file = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+            Assert.assertEquals(new String(bytes, 0, 4, StandardCharsets.US_ASCII), "PAR1");
+            Assert.assertEquals(new String(bytes, bytes.length - 4, 4, StandardCharsets.US_ASCII), "PAR1");
+            int footerLength = file.getInt(bytes.length - 8);
+            file.position(bytes.length - 8 - footerLength);
+            Map<Integer, Object> metaData = new CompactReader(file).struct();
+
+            rowCount = (Long) metaData.get(3);
+            List<Object> schema = (List<Object>) metaData.get(2);
+            for (Object element : schema.subList(1, schema.size())) {
+                Map<Integer, Object> field = (Map<Integer, Object>) element;
+                names.add(new String((byte[]) field.get(4), StandardCharsets.UTF_8));
+                types.add((Long) field.get(1));
+                Assert.assertEquals(field.get(3), 1L);
+            }
+            List<Object> rowGroups = (List<Object>) metaData.get(4);
+            Assert.assertEquals(rowGroups.size(), 1);
+            for (Object chunk : (List<Object>) ((Map<Integer, Object>) rowGroups.get(0)).get(1)) {
+                chunks.add((Map<Integer, Object>) ((Map<Integer, Object>) chunk).get(3));
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        List<Object> column(int index) {
+            Map<Integer, Object> chunk = chunks.get(index);
+            long type = (Long) chunk.get(1);
+            long valueCount = (Long) chunk.get(5);
+            file.position((int) (long) (Long) chunk.get(9));
+            List<Object> values = new ArrayList<>();
+            while (values.size() < valueCount) {
+                Map<Integer, Object> header = new CompactReader(file).struct();
+                Assert.assertEquals(header.get(1), 0L);
+                int pageValues = (int) (long) (Long) ((Map<Integer, Object>) header.get(5)).get(1);
+                int pageEnd = file.position() + (int) (long) (Long) header.get(3);
+
+                int levelsEnd = file.getInt() + file.position();
+                long runHeader = readVarint(file);
+                Assert.assertEquals(runHeader & 1, 1L);
+                boolean[] defined = new boolean[pageValues];
+                int definedCount = 0;
+                for (int i = 0; i < pageValues; i++) {
+                    defined[i] = (file.get(file.position() + i / 8) & (1 << (i % 8))) != 0;
+                    definedCount += defined[i] ? 1 : 0;
+                }
+                file.position(levelsEnd);
+
+                int valuesStart = file.position();
+                int read = 0;
+                for (int i = 0; i < pageValues; i++) {
+                    if (!defined[i]) {
+                        values.add(null);
+                    } else if (type == 0) {
+                        values.add((file.get(valuesStart + read / 8) & (1 << (read % 8))) != 0);
+                    } else if (type == 2) {
+                        values.add(file.getLong());
+                    } else if (type == 4) {
+                        values.add(file.getFloat());
+                    } else if (type == 5) {
+                        values.add(file.getDouble());
+                    } else {
+                        byte[] value = new byte[file.getInt()];
+                        file.get(value);
+                        values.add(new String(value, StandardCharsets.UTF_8));
+                    }
+                    read += defined[i] ? 1 : 0;
+                }
+                if (type == 0) {
+                    file.position(valuesStart + (definedCount + 7) / 8);
+                }
+                Assert.assertEquals(file.position(), pageEnd);
+            }
+            Assert.assertEquals(values.size(), valueCount);
+            return values;
+        }
+    }
+
+    private static long readVarint(ByteBuffer in) {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+
+    // decodes Thrift compact structs into field id to value maps
+    private static final class CompactReader {
+        private final ByteBuffer in;
+
+        CompactReader(ByteBuffer in) {
+            this.in = in;
+        }
+
+        Map<Integer, Object> struct() {
+            Map<Integer, Object> fields = new HashMap<>();
+            int lastField = 0;
+            while (true) {
+                int header = in.get() & 0xFF;
+                if (header == 0) {
+                    return fields;
+                }
+                int delta = header >>> 4;
+                int id = delta == 0 ? (int) zigzag(readVarint(in)) : lastField + delta;
+                fields.put(id, value(header & 0x0F));
+                lastField = id;
+            }
+        }
+
+        private Object value(int type) {
+            switch (type) {
+                case 1:
+                    return true;
+                case 2:
+                    return false;
+                case 5:
+                case 6:
+                    return zigzag(readVarint(in));
+                case 8:
+                    byte[] bytes = new byte[(int) readVarint(in)];
+                    in.get(bytes);
+                    return bytes;
+                case 9:
+                    int header = in.get() & 0xFF;
+                    int size = header >>> 4 == 15 ? (int) readVarint(in) : header >>> 4;
+                    List<Object> list = new ArrayList<>(size);
+                    for (int i = 0; i < size; i++) {
+                        list.add(value(header & 0x0F));
+                    }
+                    return list;
+                case 12:
+                    return struct();
+                default:
+                    throw new AssertionError("Unexpected compact type " + type);
+            }
+        }
+
+        private static long zigzag(long value) {
+            return (value >>> 1) ^ -(value & 1);
+        }
+    }
+}
@@ -4,10 +4,13 @@ import com.databend.jdbc.internal.binding.BatchInsertUtils;
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 public class TestBatchInsertUtils {
@@ -27,6 +30,17 @@ public class TestBatchInsertUtils {
         }
     }
 
+    @Test(groups = "UNIT")
+    public void testWriteBatchToCSVMatchesFileLayout() throws IOException {
+        List<String[]> data = new ArrayList<>();
+        data.add(new String[]{"1", "\\N", "hello, world", "é"});
+        data.add(new String[]{"2", "x", "say \"hi\"", ""});
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new BatchInsertUtils("sq").writeBatchToCSV(data, out);
+        Assert.assertEquals(new String(out.toByteArray(), StandardCharsets.UTF_8),
+                "1,\\N,\"hello, world\",é\n2,x,\"say \"\"hi\"\"\",\n");
+    }
+
     @Test(groups = "UNIT")
     public void testGetDatabaseTableName() {
         BatchInsertUtils b = new BatchInsertUtils("INSERT INTO tb01(id,d,x,x,x,x,xt,col1) VALUES");
@@ -40,4 +54,24 @@ public class TestBatchInsertUtils {
         BatchInsertUtils b4 = new BatchInsertUtils("INSERT INTO `test`(`x`, `y`) VALUES (?, ?)");
         Assert.assertEquals("test", b4.getDatabaseTableName());
     }
+
+    @Test(groups = "UNIT")
+    public void testGetInsertColumnNames() {
+        Assert.assertEquals(new BatchInsertUtils("INSERT INTO `test`(`x`, `y`) VALUES (?, ?)").getInsertColumnNames(),
+                Arrays.asList("x", "y"));
+        Assert.assertEquals(new BatchInsertUtils("replace into db.t (a,b) on(a) values (?, ?)").getInsertColumnNames(),
+                Arrays.asList("a", "b"));
+        Assert.assertTrue(new BatchInsertUtils("insert into tb01 values (?, ?)").getInsertColumnNames().isEmpty());
+    }
+
+    @Test(groups = "UNIT")
+    public void testTypedValues() {
+        BatchInsertUtils b = new BatchInsertUtils("insert into t values (?, ?, ?)");
+        b.setPlaceHolderValue(1, "1", "1", 1L);
+        b.setPlaceHolderValue(2, "null", "\\N", null);
+        b.setPlaceHolderValue(3, "'a'", "a");
+        Assert.assertEquals(b.getTypedValues(), new Object[]{1L, null, "a"});
+        b.clean();
+        Assert.assertNull(b.getTypedValues());
+    }
 }
@@ -0,0 +1,165 @@
+package com.databend.jdbc;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import okhttp3.OkHttpClient;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+@Test(timeOut = 10000)
+public class TestBatchParallelism {
+    private static final Pattern SQL = Pattern.compile("\"sql\":\"([^\"]*)\"");
+
+    @Test(groups = {"UNIT"})
+    public void testAutocommitBatchRunsConcurrently() throws Exception {
+        BatchServer server = new BatchServer();
+        try (DatabendConnection connection = server.connect()) {
+            Assert.assertEquals(executeBatch(connection), new int[] {1, 1, 1, 1});
+            Assert.assertTrue(server.maxInFlight.get() > 1, "rows ran one at a time");
+        }
+        finally {
+            server.stop();
+        }
+    }
+
+    @Test(groups = {"UNIT"})
+    public void testBatchInExplicitTransactionRunsInOrder() throws Exception {
+        BatchServer server = new BatchServer();
+        try (DatabendConnection connection = server.connect()) {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("BEGIN");
+            }
+            // autocommit is still on at the driver, only the server's txn_state tells that a transaction is open
+            Assert.assertTrue(connection.getAutoCommit());
+
+            Assert.assertEquals(executeBatch(connection), new int[] {1, 1, 1, 1});
+            Assert.assertEquals(server.maxInFlight.get(), 1);
+            Assert.assertEquals(server.deletes, Arrays.asList(
+                    "DELETE FROM t1 WHERE a = 0",
+                    "DELETE FROM t1 WHERE a = 1",
+                    "DELETE FROM t1 WHERE a = 2",
+                    "DELETE FROM t1 WHERE a = 3"));
+        }
+        finally {
+            server.stop();
+        }
+    }
+
+    private static int[] executeBatch(DatabendConnection connection) throws Exception {
+        try (PreparedStatement statement = connection.prepareStatement("DELETE FROM t1 WHERE a = ?")) {
+            for (int i = 0; i < 4; i++) {
+                statement.setInt(1, i);
+                statement.addBatch();
+            }
+            return statement.executeBatch();
+        }
+    }
+
+    private static final class BatchServer {
+        private final HttpServer server;
+        private final ExecutorService executor = Executors.newCachedThreadPool();
+        private final AtomicBoolean inTransaction = new AtomicBoolean();
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final AtomicInteger maxInFlight = new AtomicInteger();
+        private final List<String> deletes = Collections.synchronizedList(new ArrayList<>());
+
+        BatchServer() throws IOException {
+            server = HttpServer.create(new InetSocketAddress(0), 0);
+            server.createContext("/v1/session/login", exchange -> respond(exchange, "{\"version\":\"1.2.700\"}"));
+            server.createContext("/v1/query", exchange -> {
+                Matcher matcher = SQL.matcher(readBody(exchange.getRequestBody()));
+                String sql = matcher.find() ? matcher.group(1) : "";
+                if (sql.equals("BEGIN")) {
+                    inTransaction.set(true);
+                } else if (sql.startsWith("DELETE")) {
+                    int running = inFlight.incrementAndGet();
+                    maxInFlight.accumulateAndGet(running, Math::max);
+                    deletes.add(sql);
+                    try {
+                        // long enough for concurrent rows to overlap
+                        Thread.sleep(100);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } finally {
+                        inFlight.decrementAndGet();
+                    }
+                }
+                respond(exchange, queryResponse(inTransaction.get() ? "Active" : "AutoCommit"));
+            });
+            server.setExecutor(executor);
+            server.start();
+        }
+
+        DatabendConnection connect() throws Exception {
+            String url = "jdbc:databend://127.0.0.1:" + server.getAddress().getPort() + "/default?batch_parallelism=4";
+            return new DatabendConnection(DatabendDriverUri.create(url, null), new OkHttpClient());
+        }
+
+        void stop() {
+            server.stop(0);
+            executor.shutdownNow();
+        }
+    }
+
+    private static String readBody(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[4096];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+        }
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private static void respond(HttpExchange exchange, String body) throws IOException {
+        try {
+            byte[] payload = body.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, payload.length);
+            exchange.getResponseBody().write(payload);
+        }
+        finally {
+            exchange.close();
+        }
+    }
+
+    private static String queryResponse(String txnState) {
+        String progress = "{\"rows\":0,\"bytes\":0}";
+        String written = "{\"rows\":1,\"bytes\":1}";
+        return "{"
+                + "\"id\":\"qid-batch\","
+                + "\"node_id\":\"node\","
+                + "\"session\":{\"database\":\"default\",\"txn_state\":\"" + txnState + "\"},"
+                + "\"schema\":[],"
+                + "\"data\":[],"
+                + "\"state\":\"Succeeded\","
+                + "\"error\":null,"
+                + "\"stats\":{\"running_time_ms\":1,\"scan_progress\":" + progress + ",\"write_progress\":" + written
+                + ",\"result_progress\":" + progress + "},"
+                + "\"affect\":null,"
+                + "\"result_timeout_secs\":30,"
+                + "\"stats_uri\":null,"
+                + "\"final_uri\":null,"
+                + "\"next_uri\":null,"
+                + "\"kill_uri\":null"
+                + "}";
+    }
+}
@@ -0,0 +1,156 @@
+package com.databend.jdbc;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import okhttp3.OkHttpClient;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Test(timeOut = 10000)
+public class TestCatalogSnapshot {
+    private static final String STRING_FIELD = "{\"name\":\"%s\",\"type\":\"Nullable(String)\"}";
+
+    @Test(groups = {"UNIT"})
+    public void testSnapshotAnswersTablesAndColumns() throws Exception {
+        AtomicInteger catalogQueries = new AtomicInteger();
+        HttpServer server = startServer(catalogQueries);
+        try (DatabendConnection connection = connect(server)) {
+            DatabendDatabaseMetaData metaData = (DatabendDatabaseMetaData) connection.getMetaData();
+            DatabendCatalogSnapshot snapshot = metaData.loadCatalogSnapshot("db1");
+            Assert.assertEquals(snapshot.getTableCount(), 2);
+            Assert.assertEquals(snapshot.getColumnCount(), 2);
+            Assert.assertEquals(catalogQueries.get(), 1);
+
+            try (ResultSet rs = metaData.getTables(null, "db1", "t%", new String[] {"TABLE"})) {
+                Assert.assertTrue(rs.next());
+                Assert.assertEquals(rs.getString("TABLE_NAME"), "t1");
+                Assert.assertEquals(rs.getString("TABLE_TYPE"), "BASE TABLE");
+                Assert.assertEquals(rs.getString("REMARKS"), "first");
+                Assert.assertFalse(rs.next());
+            }
+            try (ResultSet rs = metaData.getColumns(null, "db1", "t1", "b%")) {
+                Assert.assertTrue(rs.next());
+                Assert.assertEquals(rs.getString("COLUMN_NAME"), "b");
+                Assert.assertEquals(rs.getString("TYPE_NAME"), "String");
+                Assert.assertEquals(rs.getString("ORDINAL_POSITION"), "2");
+                Assert.assertFalse(rs.next());
+            }
+            try (ResultSet rs = metaData.getColumns(null, "db1", "v1", (String) null)) {
+                Assert.assertFalse(rs.next());
+            }
+            Assert.assertEquals(catalogQueries.get(), 1);
+
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("DROP TABLE db1.t1");
+            }
+            try (ResultSet ignored = metaData.getColumns(null, "db1", "t1", (String) null)) {
+                Assert.assertEquals(catalogQueries.get(), 2);
+            }
+        }
+        finally {
+            server.stop(0);
+        }
+    }
+
+    @Test(groups = {"UNIT"})
+    public void testMatchesLike() {
+        Assert.assertTrue(DatabendDatabaseMetaData.matchesLike(null, "t1"));
+        Assert.assertTrue(DatabendDatabaseMetaData.matchesLike("t_1", "t_1"));
+        Assert.assertFalse(DatabendDatabaseMetaData.matchesLike("t_1", "tx1"));
+        Assert.assertTrue(DatabendDatabaseMetaData.matchesLike("t_1%", "tx12"));
+        Assert.assertFalse(DatabendDatabaseMetaData.matchesLike("t\\_1%", "tx12"));
+        Assert.assertTrue(DatabendDatabaseMetaData.matchesLike("%.%", "a.b"));
+        Assert.assertFalse(DatabendDatabaseMetaData.matchesLike("%.%", "ab"));
+    }
+
+    private static DatabendConnection connect(HttpServer server) throws Exception {
+        String url = "jdbc:databend://127.0.0.1:" + server.getAddress().getPort() + "/default";
+        return new DatabendConnection(DatabendDriverUri.create(url, null), new OkHttpClient());
+    }
+
+    private static HttpServer startServer(AtomicInteger catalogQueries) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress(0), 0);
+        server.createContext("/v1/session/login", exchange -> respond(exchange, "{\"version\":\"1.2.700\"}"));
+        server.createContext("/v1/query", exchange -> {
+            String request = readBody(exchange.getRequestBody());
+            if (request.contains("information_schema.")) {
+                catalogQueries.incrementAndGet();
+                respond(exchange, queryResponse(
+                        fields("table_catalog", "table_schema", "table_name", "table_type", "table_comment", "engine",
+                                "column_name", "data_type", "nullable", "column_comment", "default", "ordinal_position", "is_nullable"),
+                        "[[\"default\",\"db1\",\"t1\",\"BASE TABLE\",\"first\",\"FUSE\",\"a\",\"Int32\",\"0\",\"\",null,\"1\",\"NO\"],"
+                                + "[\"default\",\"db1\",\"t1\",\"BASE TABLE\",\"first\",\"FUSE\",\"b\",\"String\",\"1\",\"\",null,\"2\",\"YES\"],"
+                                + "[\"default\",\"db1\",\"v1\",\"VIEW\",\"\",\"VIEW\",null,null,null,null,null,null,null]]"));
+            } else if (request.contains("version()")) {
+                respond(exchange, queryResponse(fields("version()"), "[[\"v1.2.700-nightly\"]]"));
+            } else {
+                respond(exchange, queryResponse("[]", "[]"));
+            }
+        });
+        server.start();
+        return server;
+    }
+
+    private static String fields(String... names) {
+        StringBuilder out = new StringBuilder("[");
+        for (int i = 0; i < names.length; i++) {
+            if (i > 0) {
+                out.append(',');
+            }
+            out.append(String.format(STRING_FIELD, names[i]));
+        }
+        return out.append(']').toString();
+    }
+
+    private static String readBody(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[4096];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+        }
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private static void respond(HttpExchange exchange, String body) throws IOException {
+        try {
+            byte[] payload = body.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, payload.length);
+            exchange.getResponseBody().write(payload);
+        }
+        finally {
+            exchange.close();
+        }
+    }
+
+    private static String queryResponse(String schema, String data) {
+        String progress = "{\"rows\":0,\"bytes\":0}";
+        return "{"
+                + "\"id\":\"qid-snapshot\","
+                + "\"node_id\":\"node\","
+                + "\"session\":{\"database\":\"default\"},"
+                + "\"schema\":" + schema + ","
+                + "\"data\":" + data + ","
+                + "\"state\":\"Succeeded\","
+                + "\"error\":null,"
+                + "\"stats\":{\"running_time_ms\":1,\"scan_progress\":" + progress + ",\"write_progress\":" + progress
+                + ",\"result_progress\":" + progress + "},"
+                + "\"affect\":null,"
+                + "\"result_timeout_secs\":30,"
+                + "\"stats_uri\":null,"
+                + "\"final_uri\":null,"
+                + "\"next_uri\":null,"
+                + "\"kill_uri\":null"
+                + "}";
+    }
+}
@@ -0,0 +1,123 @@
+package com.databend.jdbc;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import okhttp3.OkHttpClient;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.ipc.ArrowStreamWriter;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.FieldType;
+import org.apache.arrow.vector.types.pojo.Schema;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Test(timeOut = 10000)
+public class TestDatabendAsyncResult {
+    @Test(groups = {"UNIT_ARROW"})
+    public void testDeliveredPageOutlivesAsyncResult() throws Exception {
+        AtomicInteger finalRequests = new AtomicInteger();
+        HttpServer server = startArrowServer(finalRequests);
+        try (DatabendConnection connection = connectArrow(server)) {
+            DatabendAsyncResult result = connection.executeAsync("select n from numbers(4)").get(5, TimeUnit.SECONDS);
+            ResultSet rows = result.nextPage().get(5, TimeUnit.SECONDS);
+            result.close();
+            Assert.assertEquals(finalRequests.get(), 1);
+
+            try (ResultSet rs = rows) {
+                for (int row = 0; row < 4; row++) {
+                    Assert.assertTrue(rs.next());
+                    Assert.assertEquals(rs.getInt(1), row);
+                }
+                Assert.assertFalse(rs.next());
+            }
+        }
+        finally {
+            server.stop(0);
+        }
+    }
+
+    static DatabendConnection connectArrow(HttpServer server) throws Exception {
+        String url = "jdbc:databend://127.0.0.1:" + server.getAddress().getPort() + "/default?query_result_format=arrow";
+        return new DatabendConnection(DatabendDriverUri.create(url, null), new OkHttpClient());
+    }
+
+    // every page is the rows 0 to 3 with a next_uri, so a query stays open until it is released
+    static HttpServer startArrowServer(AtomicInteger finalRequests) throws IOException {
+        byte[] page = arrowResponse(queryResponse("\"/v1/query/qid-async/page/1\""), 4);
+        HttpServer server = HttpServer.create(new InetSocketAddress(0), 0);
+        server.createContext("/v1/session/login", exchange -> respond(exchange, "application/json",
+                "{\"version\":\"1.2.700\"}".getBytes(StandardCharsets.UTF_8)));
+        server.createContext("/v1/query", exchange -> {
+            if (exchange.getRequestURI().getPath().endsWith("/final")) {
+                finalRequests.incrementAndGet();
+                respond(exchange, "application/json", queryResponse("null").getBytes(StandardCharsets.UTF_8));
+            } else {
+                respond(exchange, "application/vnd.apache.arrow.stream", page);
+            }
+        });
+        server.start();
+        return server;
+    }
+
+    private static void respond(HttpExchange exchange, String contentType, byte[] payload) throws IOException {
+        try {
+            exchange.getResponseHeaders().add("Content-Type", contentType);
+            exchange.sendResponseHeaders(200, payload.length);
+            exchange.getResponseBody().write(payload);
+        }
+        finally {
+            exchange.close();
+        }
+    }
+
+    private static byte[] arrowResponse(String responseHeader, int rows) throws IOException {
+        Field field = new Field("n", FieldType.notNullable(new ArrowType.Int(32, true)), null);
+        Schema schema = new Schema(Collections.singletonList(field), Collections.singletonMap("response_header", responseHeader));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (RootAllocator allocator = new RootAllocator(Long.MAX_VALUE);
+                VectorSchemaRoot root = VectorSchemaRoot.create(schema, allocator);
+                ArrowStreamWriter writer = new ArrowStreamWriter(root, null, out)) {
+            writer.start();
+            IntVector vector = (IntVector) root.getVector(0);
+            vector.allocateNew(rows);
+            for (int row = 0; row < rows; row++) {
+                vector.set(row, row);
+            }
+            root.setRowCount(rows);
+            writer.writeBatch();
+            writer.end();
+        }
+        return out.toByteArray();
+    }
+
+    private static String queryResponse(String nextUri) {
+        return "{"
+                + "\"id\":\"qid-async\","
+                + "\"node_id\":\"node\","
+                + "\"session\":{\"database\":\"default\"},"
+                + "\"schema\":[],"
+                + "\"data\":[],"
+                + "\"state\":\"Running\","
+                + "\"error\":null,"
+                + "\"stats\":null,"
+                + "\"affect\":null,"
+                + "\"result_timeout_secs\":30,"
+                + "\"stats_uri\":null,"
+                + "\"final_uri\":\"/v1/query/qid-async/final\","
+                + "\"next_uri\":" + nextUri + ","
+                + "\"kill_uri\":null"
+                + "}";
+    }
+}
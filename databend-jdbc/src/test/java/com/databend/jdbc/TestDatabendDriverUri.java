@@ -1,5 +1,9 @@
 package com.databend.jdbc;
 
+import com.databend.jdbc.internal.BatchUploadFormat;
+import com.databend.jdbc.internal.UploadCompression;
+import com.databend.jdbc.internal.WorkerExecutors;
+import com.databend.jdbc.internal.http.PresignClientConfig;
 import com.databend.jdbc.internal.session.PaginationOptions;
 import com.databend.jdbc.internal.session.SessionHandleConfig;
 import org.testng.Assert;
@@ -237,11 +241,166 @@ public class TestDatabendDriverUri {
         Assert.assertEquals(uri.getQueryResultFormat(), "arrow");
     }
 
+    @Test(groups = {"UNIT"})
+    public void testAutoQueryResultFormat() throws SQLException {
+        DatabendDriverUri defaults = DatabendDriverUri.create("jdbc:databend://localhost:8000/default", null);
+        Assert.assertEquals(defaults.getAutoArrowMinRows().intValue(), 10000);
+
+        DatabendDriverUri uri = DatabendDriverUri.create("jdbc:databend://localhost:8000/default?query_result_format=Auto&auto_arrow_min_rows=500", null);
+        Assert.assertEquals(uri.getQueryResultFormat(), "auto");
+        Assert.assertEquals(uri.getAutoArrowMinRows().intValue(), 500);
+        Assert.assertEquals(uri.toSessionHandleConfig().getAutoArrowMinRows(), 500);
+        assertInvalid("jdbc:databend://localhost:8000/default?auto_arrow_min_rows=0",
+                "Connection property 'auto_arrow_min_rows' value is invalid: 0");
+    }
+
     @Test(groups = {"UNIT"})
     public void testInvalidQueryResultFormat() {
         assertInvalid("jdbc:databend://localhost:8000/default?query_result_format=csv", "Connection property 'query_result_format' value is invalid: csv");
     }
 
+    @Test(groups = {"UNIT"})
+    public void testBatchUploadFormat() throws SQLException {
+        DatabendDriverUri defaults = DatabendDriverUri.create("jdbc:databend://localhost:8000/default", null);
+        Assert.assertEquals(defaults.getBatchUploadFormat(), BatchUploadFormat.CSV);
+
+        DatabendDriverUri uri = DatabendDriverUri.create("jdbc:databend://localhost:8000/default?batch_upload_format=Parquet", null);
+        Assert.assertEquals(uri.getBatchUploadFormat(), BatchUploadFormat.PARQUET);
+        assertInvalid("jdbc:databend://localhost:8000/default?batch_upload_format=arrow", "Connection property 'batch_upload_format' value is invalid: arrow");
+    }
+
+    @Test(groups = {"UNIT"})
+    public void testPrefetchProperties() throws SQLException {
+        DatabendDriverUri defaults = DatabendDriverUri.create("jdbc:databend://localhost:8000/default", null);
+        Assert.assertEquals(defaults.getPrefetchPages().intValue(), 1);
+        Assert.assertEquals(defaults.getPrefetchMaxBytes().intValue(), 64 * 1024 * 1024);
+
+        DatabendDriverUri uri = DatabendDriverUri.create("jdbc:databend://localhost:8000/default?prefetch_pages=4&prefetch_max_bytes=1048576", null);
+        Assert.assertEquals(uri.getPrefetchPages().intValue(), 4);
+        Assert.assertEquals(uri.getPrefetchMaxBytes().intValue(), 1048576);
+    }
+
+    @Test(groups = {"UNIT"})
+    public void testPreparedStatementCacheSize() throws SQLException {
+        DatabendDriverUri defaults = DatabendDriverUri.create("jdbc:databend://localhost:8000/default", null);
+        Assert.assertEquals(defaults.getPreparedStatementCacheSize().intValue(), 256);
+
+        DatabendDriverUri uri = DatabendDriverUri.create("jdbc:databend://localhost:8000/default?prepared_statement_cache_size=0", null);
+        Assert.assertEquals(uri.getPreparedStatementCacheSize().intValue(), 0);
+        assertInvalid("jdbc:databend://localhost:8000/default?prepared_statement_cache_size=-1",
+                "Connection property 'prepared_statement_cache_size' value is invalid: -1");
+    }
+
+    @Test(groups = {"UNIT"})
+    public void testMetadataCache() throws SQLException {
+        DatabendDriverUri defaults = DatabendDriverUri.create("jdbc:databend://localhost:8000/default", null);
+        Assert.assertEquals(defaults.getMetadataCacheTtl().intValue(), 0);
+        Assert.assertEquals(defaults.getMetadataCacheSize().intValue(), 1000);
+
+        DatabendDriverUri uri = DatabendDriverUri.create("jdbc:databend://localhost:8000/default?metadata_cache_ttl=60&metadata_cache_size=10", null);
+        Assert.assertEquals(uri.getMetadataCacheTtl().intValue(), 60);
+        Assert.assertEquals(uri.getMetadataCacheSize().intValue(), 10);
+        assertInvalid("jdbc:databend://localhost:8000/default?metadata_cache_ttl=-1",
+                "Connection property 'metadata_cache_ttl' value is invalid: -1");
+        assertInvalid("jdbc:databend://localhost:8000/default?metadata_cache_size=-1",
+                "Connection property 'metadata_cache_size' value is invalid: -1");
+    }
+
+    @Test(groups = {"UNIT"})
+    public void testBatchParallelism() throws SQLException {
+        Assert.assertEquals(DatabendDriverUri.create("jdbc:databend://localhost:8000/default", null).getBatchParallelism().intValue(), 1);
+        Assert.assertEquals(DatabendDriverUri.create("jdbc:databend://localhost:8000/default?batch_parallelism=8", null).getBatchParallelism().intValue(), 8);
+        assertInvalid("jdbc:databend://localhost:8000/default?batch_parallelism=0", "Connection property 'batch_parallelism' value is invalid: 0");
+    }
+
+    @Test(groups = {"UNIT"})
+    public void testBatchUploadChunking() throws SQLException {
+        DatabendDriverUri defaults = DatabendDriverUri.create("jdbc:databend://localhost:8000/default", null);
+        Assert.assertEquals(defaults.getBatchUploadChunkRows().intValue(), 0);
+        Assert.assertEquals(defaults.getBatchUploadParallelism().intValue(), 4);
+        DatabendDriverUri uri = DatabendDriverUri.create("jdbc:databend://localhost:8000/default?batch_upload_chunk_rows=50000&batch_upload_parallelism=2", null);
+        Assert.assertEquals(uri.getBatchUploadChunkRows().intValue(), 50000);
+        Assert.assertEquals(uri.getBatchUploadParallelism().intValue(), 2);
+        assertInvalid("jdbc:databend://localhost:8000/default?batch_upload_chunk_rows=-1", "Connection property 'batch_upload_chunk_rows' value is invalid: -1");
+        assertInvalid("jdbc:databend://localhost:8000/default?batch_upload_parallelism=0", "Connection property 'batch_upload_parallelism' value is invalid: 0");
+    }
+
+    @Test(groups = {"UNIT"})
+    public void testUploadCompression() throws SQLException {
+        DatabendDriverUri defaults = DatabendDriverUri.create("jdbc:databend://localhost:8000/default", null);
+        Assert.assertEquals(defaults.getUploadCompression(), UploadCompression.GZIP);
+        Assert.assertEquals(defaults.getUploadCompressionWorkers().intValue(), 1);
+        DatabendDriverUri uri = DatabendDriverUri.create("jdbc:databend://localhost:8000/default?upload_compression=ZSTD&upload_compression_workers=4", null);
+        Assert.assertEquals(uri.getUploadCompression(), UploadCompression.ZSTD);
+        Assert.assertEquals(uri.toSessionHandleConfig().getUploadCompressionWorkers(), 4);
+        assertInvalid("jdbc:databend://localhost:8000/default?upload_compression=lz4", "Connection property 'upload_compression' value is invalid: lz4");
+        assertInvalid("jdbc:databend://localhost:8000/default?upload_compression_workers=0", "Connection property 'upload_compression_workers' value is invalid: 0");
+    }
+
+    @Test(groups = {"UNIT"})
+    public void testPresignClientConfig() throws SQLException {
+        Assert.assertEquals(DatabendDriverUri.create("jdbc:databend://localhost:8000/default", null).getPresignClientConfig(),
+                PresignClientConfig.defaultConfig());
+        PresignClientConfig config = DatabendDriverUri.create("jdbc:databend://localhost:8000/default?presign_max_idle_connections=32"
+                + "&presign_keep_alive_secs=60&presign_connection_timeout=5&presign_socket_timeout=120&presign_http2=true", null)
+                .toSessionHandleConfig().getPresignClientConfig();
+        Assert.assertEquals(config.getMaxIdleConnections(), 32);
+        Assert.assertEquals(config.getKeepAliveSecs(), 60);
+        Assert.assertEquals(config.getConnectTimeoutSecs(), 5);
+        Assert.assertEquals(config.getSocketTimeoutSecs(), 120);
+        Assert.assertTrue(config.isHttp2());
+        assertInvalid("jdbc:databend://localhost:8000/default?presign_max_idle_connections=-1", "Connection property 'presign_max_idle_connections' value is invalid: -1");
+        assertInvalid("jdbc:databend://localhost:8000/default?presign_keep_alive_secs=0", "Connection property 'presign_keep_alive_secs' value is invalid: 0");
+    }
+
+    @Test(groups = {"UNIT"})
+    public void testDownloadParallelism() throws SQLException {
+        DatabendDriverUri defaults = DatabendDriverUri.create("jdbc:databend://localhost:8000/default", null);
+        Assert.assertEquals(defaults.getDownloadParallelism().intValue(), 1);
+        Assert.assertEquals(defaults.getDownloadChunkSize().intValue(), 8 * 1024 * 1024);
+        SessionHandleConfig config = DatabendDriverUri.create("jdbc:databend://localhost:8000/default?download_parallelism=8"
+                + "&download_chunk_size=1048576&download_buffer_size=16777216", null).toSessionHandleConfig();
+        Assert.assertEquals(config.getDownloadParallelism(), 8);
+        Assert.assertEquals(config.getDownloadChunkSize(), 1048576);
+        Assert.assertEquals(config.getDownloadBufferSize(), 16777216);
+        assertInvalid("jdbc:databend://localhost:8000/default?download_parallelism=0", "Connection property 'download_parallelism' value is invalid: 0");
+        assertInvalid("jdbc:databend://localhost:8000/default?download_chunk_size=0", "Connection property 'download_chunk_size' value is invalid: 0");
+    }
+
+    @Test(groups = {"UNIT"})
+    public void testUploadSpooling() throws SQLException {
+        SessionHandleConfig defaults = DatabendDriverUri.create("jdbc:databend://localhost:8000/default", null).toSessionHandleConfig();
+        Assert.assertEquals(defaults.getUploadSpoolSize(), 0);
+        Assert.assertEquals(defaults.getUploadRetryAttempts(), 5);
+        SessionHandleConfig config = DatabendDriverUri.create("jdbc:databend://localhost:8000/default?upload_spool_size=1048576&upload_retry_attempts=3", null)
+                .toSessionHandleConfig();
+        Assert.assertEquals(config.getUploadSpoolSize(), 1048576);
+        Assert.assertEquals(config.getUploadRetryAttempts(), 3);
+        assertInvalid("jdbc:databend://localhost:8000/default?upload_spool_size=-1", "Connection property 'upload_spool_size' value is invalid: -1");
+        assertInvalid("jdbc:databend://localhost:8000/default?upload_retry_attempts=-1", "Connection property 'upload_retry_attempts' value is invalid: -1");
+    }
+
+    @Test(groups = {"UNIT"})
+    public void testAsyncMaxRequests() throws SQLException {
+        Assert.assertEquals(DatabendDriverUri.create("jdbc:databend://localhost:8000/default", null).getAsyncMaxRequests().intValue(), 64);
+        Assert.assertEquals(DatabendDriverUri.create("jdbc:databend://localhost:8000/default?async_max_requests=512", null).getAsyncMaxRequests().intValue(), 512);
+        assertInvalid("jdbc:databend://localhost:8000/default?async_max_requests=0", "Connection property 'async_max_requests' value is invalid: 0");
+    }
+
+    @Test(groups = {"UNIT"})
+    public void testVirtualThreads() throws SQLException {
+        Assert.assertFalse(DatabendDriverUri.create("jdbc:databend://localhost:8000/default", null).useVirtualThreads());
+        Assert.assertTrue(DatabendDriverUri.create("jdbc:databend://localhost:8000/default?virtual_threads=true", null).useVirtualThreads());
+        String version = System.getProperty("java.specification.version");
+        boolean java21 = !version.startsWith("1.") && Integer.parseInt(version) >= 21;
+        Assert.assertEquals(WorkerExecutors.virtualThreads().isPresent(), java21);
+    }
+
+    @Test(groups = {"UNIT"})
+    public void testInvalidPrefetchPages() {
+        assertInvalid("jdbc:databend://localhost:8000/default?prefetch_pages=0", "Connection property 'prefetch_pages' value is invalid: 0");
+    }
+
     @Test(groups = {"UNIT"})
     public void testSessionSettingsParsingIgnoresMalformedEntries() throws SQLException {
         DatabendDriverUri uri = DatabendDriverUri.create(
@@ -0,0 +1,166 @@
+package com.databend.jdbc;
+
+import com.databend.jdbc.internal.query.QueryResultPages;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import okhttp3.OkHttpClient;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Test(timeOut = 10000)
+public class TestMetadataCache {
+    @Test(groups = {"UNIT"})
+    public void testMetadataIsCachedUntilDdl() throws Exception {
+        AtomicInteger catalogQueries = new AtomicInteger();
+        HttpServer server = startServer(catalogQueries);
+        try (DatabendConnection connection = connect(server, "metadata_cache_ttl=60")) {
+            DatabaseMetaData metaData = connection.getMetaData();
+            assertSchemas(metaData);
+            assertSchemas(metaData);
+            Assert.assertEquals(catalogQueries.get(), 1);
+            Assert.assertEquals(connection.getMetadataCacheMissCount(), 1);
+            Assert.assertEquals(connection.getMetadataCacheHitCount(), 1);
+
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("CREATE TABLE t2 (a Int32)");
+            }
+            assertSchemas(metaData);
+            Assert.assertEquals(catalogQueries.get(), 2);
+            Assert.assertEquals(connection.getMetadataCacheMissCount(), 2);
+        }
+        finally {
+            server.stop(0);
+        }
+    }
+
+    @Test(groups = {"UNIT"})
+    public void testCacheIsInvalidatedWhenLongDdlFinishes() throws Exception {
+        AtomicInteger catalogQueries = new AtomicInteger();
+        HttpServer server = startServer(catalogQueries);
+        try (DatabendConnection connection = connect(server, "metadata_cache_ttl=60")) {
+            DatabaseMetaData metaData = connection.getMetaData();
+            QueryResultPages pages = connection.startQuery("CREATE TABLE t3 AS SELECT * FROM numbers(10)");
+            // read while the DDL is still running, this caches the catalog from before the DDL
+            assertSchemas(metaData);
+            assertSchemas(metaData);
+            Assert.assertEquals(catalogQueries.get(), 1);
+
+            while (pages.advance()) {
+                // drain the DDL's pages until it is done
+            }
+            assertSchemas(metaData);
+            Assert.assertEquals(catalogQueries.get(), 2);
+        }
+        finally {
+            server.stop(0);
+        }
+    }
+
+    @Test(groups = {"UNIT"})
+    public void testCacheIsDisabledByDefault() throws Exception {
+        AtomicInteger catalogQueries = new AtomicInteger();
+        HttpServer server = startServer(catalogQueries);
+        try (DatabendConnection connection = connect(server, "")) {
+            DatabaseMetaData metaData = connection.getMetaData();
+            assertSchemas(metaData);
+            assertSchemas(metaData);
+            Assert.assertEquals(catalogQueries.get(), 2);
+            Assert.assertEquals(connection.getMetadataCacheHitCount(), 0);
+        }
+        finally {
+            server.stop(0);
+        }
+    }
+
+    private static void assertSchemas(DatabaseMetaData metaData) throws Exception {
+        try (ResultSet rs = metaData.getSchemas()) {
+            Assert.assertTrue(rs.next());
+            Assert.assertEquals(rs.getString("table_schema"), "default");
+            Assert.assertEquals(rs.getString(2), "def");
+            Assert.assertFalse(rs.next());
+        }
+    }
+
+    private static DatabendConnection connect(HttpServer server, String properties) throws Exception {
+        String url = "jdbc:databend://127.0.0.1:" + server.getAddress().getPort() + "/default?" + properties;
+        return new DatabendConnection(DatabendDriverUri.create(url, null), new OkHttpClient());
+    }
+
+    private static HttpServer startServer(AtomicInteger catalogQueries) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress(0), 0);
+        server.createContext("/v1/session/login", exchange -> respond(exchange, "{\"version\":\"1.2.700\"}"));
+        server.createContext("/v1/query", exchange -> {
+            String request = readBody(exchange.getRequestBody());
+            if (request.contains("information_schema.schemata")) {
+                catalogQueries.incrementAndGet();
+                respond(exchange, queryResponse(
+                        "[{\"name\":\"table_schema\",\"type\":\"String\"},{\"name\":\"table_catalog\",\"type\":\"String\"}]",
+                        "[[\"default\",\"def\"]]"));
+            } else if (request.contains("AS SELECT")) {
+                respond(exchange, queryResponse("[]", "[]", "Running", "\"/v1/query/ddl/page\""));
+            } else {
+                respond(exchange, queryResponse("[]", "[]"));
+            }
+        });
+        server.createContext("/v1/query/ddl", exchange -> respond(exchange, queryResponse("[]", "[]")));
+        server.start();
+        return server;
+    }
+
+    private static String readBody(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[4096];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+        }
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private static void respond(HttpExchange exchange, String body) throws IOException {
+        try {
+            byte[] payload = body.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, payload.length);
+            exchange.getResponseBody().write(payload);
+        }
+        finally {
+            exchange.close();
+        }
+    }
+
+    private static String queryResponse(String schema, String data) {
+        return queryResponse(schema, data, "Succeeded", "null");
+    }
+
+    private static String queryResponse(String schema, String data, String state, String nextUri) {
+        String progress = "{\"rows\":0,\"bytes\":0}";
+        return "{"
+                + "\"id\":\"qid-metadata\","
+                + "\"node_id\":\"node\","
+                + "\"session\":{\"database\":\"default\"},"
+                + "\"schema\":" + schema + ","
+                + "\"data\":" + data + ","
+                + "\"state\":\"" + state + "\","
+                + "\"error\":null,"
+                + "\"stats\":{\"running_time_ms\":1,\"scan_progress\":" + progress + ",\"write_progress\":" + progress
+                + ",\"result_progress\":" + progress + "},"
+                + "\"affect\":null,"
+                + "\"result_timeout_secs\":30,"
+                + "\"stats_uri\":null,"
+                + "\"final_uri\":null,"
+                + "\"next_uri\":" + nextUri + ","
+                + "\"kill_uri\":null"
+                + "}";
+    }
+}
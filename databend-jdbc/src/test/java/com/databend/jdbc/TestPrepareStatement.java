@@ -84,6 +84,60 @@ public class TestPrepareStatement {
     }
 
 
+    @Test(groups = "IT")
+    public void TestBatchInsertAsParquet() throws SQLException {
+        Properties props = new Properties();
+        props.setProperty("user", Utils.getUsername());
+        props.setProperty("password", Utils.getPassword());
+        props.setProperty("batch_upload_format", "parquet");
+        try (Connection c = Utils.createConnection("default", props);
+             Statement s = c.createStatement()) {
+            s.execute(String.format("create or replace database %s", DB_NAME.get()));
+            s.execute(String.format("use %s", DB_NAME.get()));
+            s.execute("create or replace table t1 (a int, b string, c double, d boolean)");
+
+            // without a column list the values bind the columns of the table in order
+            try (PreparedStatement ps = c.prepareStatement("insert into t1 values (?, ?, ?, ?)")) {
+                ps.setInt(1, 1);
+                ps.setString(2, "a");
+                ps.setDouble(3, 1.5);
+                ps.setBoolean(4, true);
+                ps.addBatch();
+                ps.setInt(1, 2);
+                ps.setNull(2, Types.VARCHAR);
+                ps.setDouble(3, -2);
+                ps.setBoolean(4, false);
+                ps.addBatch();
+                Assert.assertEquals(ps.executeBatch(), new int[] {1, 1});
+            }
+            // a column list in another order, the columns it leaves out are NULL
+            try (PreparedStatement ps = c.prepareStatement("insert into t1 (b, a) values (?, ?)")) {
+                ps.setString(1, "c");
+                ps.setInt(2, 3);
+                ps.addBatch();
+                Assert.assertEquals(ps.executeBatch(), new int[] {1});
+            }
+
+            ResultSet r = s.executeQuery("select a, b, c, d from t1 order by a");
+            Assert.assertTrue(r.next());
+            Assert.assertEquals(r.getInt(1), 1);
+            Assert.assertEquals(r.getString(2), "a");
+            Assert.assertEquals(r.getDouble(3), 1.5);
+            Assert.assertTrue(r.getBoolean(4));
+            Assert.assertTrue(r.next());
+            Assert.assertEquals(r.getInt(1), 2);
+            Assert.assertNull(r.getString(2));
+            Assert.assertEquals(r.getDouble(3), -2.0);
+            Assert.assertFalse(r.getBoolean(4));
+            Assert.assertTrue(r.next());
+            Assert.assertEquals(r.getInt(1), 3);
+            Assert.assertEquals(r.getString(2), "c");
+            Assert.assertNull(r.getObject(3));
+            Assert.assertNull(r.getObject(4));
+            Assert.assertFalse(r.next());
+        }
+    }
+
     @Test(groups = "IT")
     public void TestBatchDelete() throws SQLException {
         if (Compatibility.skipDriverBugLowerThen("0.4.1")) {
@@ -0,0 +1,51 @@
+package com.databend.jdbc;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.sql.SQLException;
+
+public class TestPreparedStatementCache {
+    @Test(groups = {"UNIT"})
+    public void testRepeatedSqlIsParsedOnce() throws SQLException {
+        PreparedStatementCache cache = new PreparedStatementCache(16);
+        String sql = "insert into t (a, b) values (?, ?)";
+
+        PreparedStatementCache.ParsedStatement first = cache.get(sql);
+        PreparedStatementCache.ParsedStatement second = cache.get(sql);
+
+        Assert.assertSame(second, first);
+        Assert.assertEquals(cache.missCount(), 1);
+        Assert.assertEquals(cache.hitCount(), 1);
+        Assert.assertTrue(first.isBatchInsert());
+        Assert.assertEquals(first.getRawStatement().getTotalParams(), 2);
+        Assert.assertEquals(first.getParamMetaData().getParameterCount(), 2);
+        Assert.assertFalse(cache.get("select ?").isBatchInsert());
+    }
+
+    @Test(groups = {"UNIT"})
+    public void testLeastRecentlyUsedStatementIsEvicted() {
+        PreparedStatementCache cache = new PreparedStatementCache(2);
+        cache.get("select 1");
+        cache.get("select 2");
+        cache.get("select 1");
+        cache.get("select 3");
+
+        Assert.assertEquals(cache.size(), 2);
+        cache.get("select 1");
+        Assert.assertEquals(cache.hitCount(), 2);
+        cache.get("select 2");
+        Assert.assertEquals(cache.missCount(), 4);
+    }
+
+    @Test(groups = {"UNIT"})
+    public void testZeroSizeDisablesCaching() {
+        PreparedStatementCache cache = new PreparedStatementCache(0);
+        cache.get("select 1");
+        cache.get("select 1");
+
+        Assert.assertEquals(cache.size(), 0);
+        Assert.assertEquals(cache.hitCount(), 0);
+        Assert.assertEquals(cache.missCount(), 2);
+    }
+}
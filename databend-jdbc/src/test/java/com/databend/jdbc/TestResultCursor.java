@@ -19,12 +19,15 @@ import java.lang.reflect.Proxy;
 import java.net.URI;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 
@@ -50,6 +53,28 @@ public class TestResultCursor {
         Assert.assertEquals(closedSources.get(), 1);
     }
 
+    @Test(groups = {"UNIT"})
+    public void testPagedResultCursorDelegatesTypedAccessorsToPage() throws SQLException {
+        ResultPage page = new FakePage(Arrays.asList(Collections.singletonList(7L), Collections.singletonList(null)), new AtomicInteger()) {
+            @Override
+            public PrimitiveKind getPrimitiveKind(int columnIndex) {
+                return PrimitiveKind.LONG;
+            }
+        };
+        PagedResultCursor cursor = new PagedResultCursor(new FakePageSource(Collections.singletonList(page), new AtomicInteger()), 0);
+
+        Assert.assertEquals(cursor.getPrimitiveKind(0), ResultPage.PrimitiveKind.NONE);
+        Assert.assertThrows(SQLException.class, () -> cursor.getLong(0));
+        Assert.assertTrue(cursor.next());
+        Assert.assertEquals(cursor.getPrimitiveKind(0), ResultPage.PrimitiveKind.LONG);
+        Assert.assertFalse(cursor.isNull(0));
+        Assert.assertEquals(cursor.getLong(0), 7L);
+        Assert.assertEquals(cursor.getDouble(0), 7d);
+        Assert.assertTrue(cursor.next());
+        Assert.assertTrue(cursor.isNull(0));
+        Assert.assertFalse(cursor.next());
+    }
+
     @Test(groups = {"UNIT"})
     public void testPrefetchingPageSourceReturnsPagesInOrderAndSkipsEmptyPages() throws SQLException {
         AtomicInteger closedPages = new AtomicInteger();
@@ -97,6 +122,135 @@ public class TestResultCursor {
         }
     }
 
+    @Test(groups = {"UNIT"})
+    public void testPrefetchingPageSourceKeepsConfiguredPagesInFlight() throws SQLException {
+        AtomicInteger closedPages = new AtomicInteger();
+        List<ResultPage> pages = Arrays.asList(
+                new FakePage(Collections.singletonList(Collections.singletonList(1)), closedPages),
+                new FakePage(Collections.singletonList(Collections.singletonList(2)), closedPages),
+                new FakePage(Collections.singletonList(Collections.singletonList(3)), closedPages),
+                new FakePage(Collections.singletonList(Collections.singletonList(4)), closedPages));
+
+        ExecutorService executor = MoreExecutors.newDirectExecutorService();
+        try {
+            DatabendResultSet.PrefetchingPageSource pageSource = new DatabendResultSet.PrefetchingPageSource(
+                    new FakeQueryResultPages(pages, successResults(), successResults()),
+                    newLiveness(),
+                    executor,
+                    3,
+                    Long.MAX_VALUE);
+
+            Assert.assertEquals(pageSource.readyPageCount(), 3);
+            Assert.assertSame(pageSource.nextPage(), pages.get(0));
+            Assert.assertEquals(pageSource.readyPageCount(), 3);
+            Assert.assertSame(pageSource.nextPage(), pages.get(1));
+            Assert.assertSame(pageSource.nextPage(), pages.get(2));
+            Assert.assertSame(pageSource.nextPage(), pages.get(3));
+            Assert.assertNull(pageSource.nextPage());
+            Assert.assertEquals(closedPages.get(), 0);
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test(groups = {"UNIT"})
+    public void testPrefetchingPageSourcePreservesOrderOnWorkerThreads() throws SQLException {
+        AtomicInteger closedPages = new AtomicInteger();
+        List<ResultPage> pages = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            pages.add(new FakePage(Collections.singletonList(Collections.singletonList(i)), closedPages));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            DatabendResultSet.PrefetchingPageSource pageSource = new DatabendResultSet.PrefetchingPageSource(
+                    new FakeQueryResultPages(pages, successResults(), successResults()),
+                    newLiveness(),
+                    executor,
+                    4,
+                    Long.MAX_VALUE);
+
+            for (ResultPage expected : pages) {
+                Assert.assertSame(pageSource.nextPage(), expected);
+            }
+            Assert.assertNull(pageSource.nextPage());
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test(groups = {"UNIT"}, timeOut = 10000)
+    public void testPrefetchingPageSourceFetchesWhilePagesDecode() throws Exception {
+        AtomicInteger closedPages = new AtomicInteger();
+        CountDownLatch decodeAllowed = new CountDownLatch(1);
+        List<ResultPage> pages = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            pages.add(new DecodingPage(Collections.singletonList(Collections.singletonList(i)), closedPages, decodeAllowed));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            DatabendResultSet.PrefetchingPageSource pageSource = new DatabendResultSet.PrefetchingPageSource(
+                    new FakeQueryResultPages(pages, successResults(), successResults()),
+                    newLiveness(),
+                    executor,
+                    3,
+                    Long.MAX_VALUE);
+
+            // every page is fetched while the first one is still being decoded
+            while (pageSource.readyPageCount() < 3) {
+                Thread.sleep(10);
+            }
+            for (ResultPage page : pages) {
+                Assert.assertFalse(((DecodingPage) page).decoded);
+            }
+
+            decodeAllowed.countDown();
+            for (ResultPage expected : pages) {
+                ResultPage page = pageSource.nextPage();
+                Assert.assertSame(page, expected);
+                Assert.assertTrue(((DecodingPage) page).decoded);
+            }
+            Assert.assertNull(pageSource.nextPage());
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test(groups = {"UNIT"})
+    public void testPrefetchingPageSourceStopsAtByteBudgetAndClosesQueuedPages() throws SQLException {
+        AtomicInteger closedPages = new AtomicInteger();
+        List<ResultPage> pages = Arrays.asList(
+                new FakePage(Collections.singletonList(Collections.singletonList(1)), closedPages, 100),
+                new FakePage(Collections.singletonList(Collections.singletonList(2)), closedPages, 100),
+                new FakePage(Collections.singletonList(Collections.singletonList(3)), closedPages, 100),
+                new FakePage(Collections.singletonList(Collections.singletonList(4)), closedPages, 100));
+
+        ExecutorService executor = MoreExecutors.newDirectExecutorService();
+        try {
+            DatabendResultSet.PrefetchingPageSource pageSource = new DatabendResultSet.PrefetchingPageSource(
+                    new FakeQueryResultPages(pages, successResults(), successResults()),
+                    newLiveness(),
+                    executor,
+                    10,
+                    150);
+
+            Assert.assertEquals(pageSource.readyPageCount(), 2);
+            Assert.assertSame(pageSource.nextPage(), pages.get(0));
+            Assert.assertEquals(pageSource.readyPageCount(), 2);
+            pageSource.close();
+            Assert.assertEquals(pageSource.readyPageCount(), 0);
+            Assert.assertEquals(closedPages.get(), 2);
+            Assert.assertNull(pageSource.nextPage());
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+
     @Test(groups = {"UNIT"})
     public void testPrefetchingPageSourcePropagatesTerminalError() throws SQLException {
         AtomicInteger closedPages = new AtomicInteger();
@@ -272,13 +426,24 @@ public class TestResultCursor {
                 });
     }
 
-    private static final class FakePage implements ResultPage {
+    private static class FakePage implements ResultPage {
         private final List<List<Object>> rows;
         private final AtomicInteger closedPages;
+        private final long sizeInBytes;
 
         private FakePage(List<List<Object>> rows, AtomicInteger closedPages) {
+            this(rows, closedPages, 0);
+        }
+
+        private FakePage(List<List<Object>> rows, AtomicInteger closedPages, long sizeInBytes) {
             this.rows = rows;
             this.closedPages = closedPages;
+            this.sizeInBytes = sizeInBytes;
+        }
+
+        @Override
+        public long getSizeInBytes() {
+            return sizeInBytes;
         }
 
         @Override
@@ -297,6 +462,27 @@ public class TestResultCursor {
         }
     }
 
+    private static final class DecodingPage extends FakePage {
+        private final CountDownLatch decodeAllowed;
+        private volatile boolean decoded;
+
+        private DecodingPage(List<List<Object>> rows, AtomicInteger closedPages, CountDownLatch decodeAllowed) {
+            super(rows, closedPages);
+            this.decodeAllowed = decodeAllowed;
+        }
+
+        @Override
+        public void decode() {
+            try {
+                decodeAllowed.await();
+                decoded = true;
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
     private static final class FakePageSource implements ResultPageSource {
         private final List<ResultPage> pages;
         private final AtomicInteger closedSources;
@@ -0,0 +1,217 @@
+package com.databend.jdbc;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import okhttp3.OkHttpClient;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Test(timeOut = 10000)
+public class TestResultPublisher {
+    @Test(groups = {"UNIT"})
+    public void testRowsAreFetchedOnDemand() throws Exception {
+        AtomicInteger pageRequests = new AtomicInteger();
+        HttpServer server = startServer(pageRequests, new AtomicInteger());
+        try (DatabendConnection connection = connect(server)) {
+            CollectingSubscriber<List<Object>> subscriber = new CollectingSubscriber<>();
+            connection.publishRows("select c1").subscribe(subscriber);
+
+            subscriber.subscription.request(1);
+            subscriber.awaitItems(1);
+            Assert.assertEquals(pageRequests.get(), 0);
+
+            subscriber.subscription.request(5);
+            subscriber.completed.get(5, TimeUnit.SECONDS);
+            Assert.assertEquals(subscriber.items, Arrays.asList(
+                    Collections.singletonList("a"),
+                    Collections.singletonList("b"),
+                    Collections.singletonList("c")));
+            Assert.assertEquals(pageRequests.get(), 1);
+        }
+        finally {
+            server.stop(0);
+        }
+    }
+
+    @Test(groups = {"UNIT"})
+    public void testCancelReleasesQuery() throws Exception {
+        AtomicInteger finalRequests = new AtomicInteger();
+        HttpServer server = startServer(new AtomicInteger(), finalRequests);
+        try (DatabendConnection connection = connect(server)) {
+            CollectingSubscriber<ResultSet> subscriber = new CollectingSubscriber<>();
+            connection.publishPages("select c1").subscribe(subscriber);
+
+            subscriber.subscription.request(1);
+            subscriber.awaitItems(1);
+            try (ResultSet page = subscriber.items.get(0)) {
+                Assert.assertTrue(page.next());
+                Assert.assertEquals(page.getString(1), "a");
+                Assert.assertTrue(page.next());
+                Assert.assertFalse(page.next());
+            }
+            subscriber.subscription.cancel();
+
+            // a cancel arriving while the fetching thread still delivers is handled by that thread
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (finalRequests.get() == 0) {
+                if (System.nanoTime() > deadline) {
+                    Assert.fail("cancelled query was not released");
+                }
+                Thread.sleep(10);
+            }
+            Assert.assertEquals(finalRequests.get(), 1);
+            Assert.assertFalse(subscriber.completed.isDone());
+        }
+        finally {
+            server.stop(0);
+        }
+    }
+
+    @Test(groups = {"UNIT_ARROW"})
+    public void testDeliveredPageOutlivesCancel() throws Exception {
+        AtomicInteger finalRequests = new AtomicInteger();
+        HttpServer server = TestDatabendAsyncResult.startArrowServer(finalRequests);
+        try (DatabendConnection connection = TestDatabendAsyncResult.connectArrow(server)) {
+            CollectingSubscriber<ResultSet> subscriber = new CollectingSubscriber<>();
+            connection.publishPages("select n from numbers(4)").subscribe(subscriber);
+
+            subscriber.subscription.request(1);
+            subscriber.awaitItems(1);
+            subscriber.subscription.cancel();
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (finalRequests.get() == 0) {
+                if (System.nanoTime() > deadline) {
+                    Assert.fail("cancelled query was not released");
+                }
+                Thread.sleep(10);
+            }
+
+            try (ResultSet page = subscriber.items.get(0)) {
+                for (int row = 0; row < 4; row++) {
+                    Assert.assertTrue(page.next());
+                    Assert.assertEquals(page.getInt(1), row);
+                }
+                Assert.assertFalse(page.next());
+            }
+        }
+        finally {
+            server.stop(0);
+        }
+    }
+
+    @Test(groups = {"UNIT"})
+    public void testNonPositiveRequestFailsSubscription() throws Exception {
+        HttpServer server = startServer(new AtomicInteger(), new AtomicInteger());
+        try (DatabendConnection connection = connect(server)) {
+            CollectingSubscriber<List<Object>> subscriber = new CollectingSubscriber<>();
+            connection.publishRows("select c1").subscribe(subscriber);
+
+            subscriber.subscription.request(0);
+
+            Throwable failure = Assert.expectThrows(Exception.class, () -> subscriber.completed.get(5, TimeUnit.SECONDS)).getCause();
+            Assert.assertTrue(failure instanceof IllegalArgumentException, String.valueOf(failure));
+        }
+        finally {
+            server.stop(0);
+        }
+    }
+
+    private static DatabendConnection connect(HttpServer server) throws Exception {
+        String url = "jdbc:databend://127.0.0.1:" + server.getAddress().getPort() + "/default";
+        return new DatabendConnection(DatabendDriverUri.create(url, null), new OkHttpClient());
+    }
+
+    private static HttpServer startServer(AtomicInteger pageRequests, AtomicInteger finalRequests) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress(0), 0);
+        server.createContext("/v1/session/login", exchange -> respond(exchange, 200, "{}"));
+        server.createContext("/v1/query", exchange -> {
+            String path = exchange.getRequestURI().getPath();
+            if (path.endsWith("/final")) {
+                finalRequests.incrementAndGet();
+                respond(exchange, 200, queryResponse("[]", null));
+            } else if (path.endsWith("/page/1")) {
+                pageRequests.incrementAndGet();
+                respond(exchange, 200, queryResponse("[[\"c\"]]", null));
+            } else {
+                respond(exchange, 200, queryResponse("[[\"a\"],[\"b\"]]", "/v1/query/qid-publish/page/1"));
+            }
+        });
+        server.start();
+        return server;
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        try {
+            byte[] payload = body.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(status, payload.length);
+            exchange.getResponseBody().write(payload);
+        }
+        finally {
+            exchange.close();
+        }
+    }
+
+    private static String queryResponse(String data, String nextUri) {
+        return "{"
+                + "\"id\":\"qid-publish\","
+                + "\"node_id\":\"node\","
+                + "\"session\":{\"database\":\"default\"},"
+                + "\"schema\":[{\"name\":\"c1\",\"type\":\"String\"}],"
+                + "\"data\":" + data + ","
+                + "\"state\":\"Running\","
+                + "\"error\":null,"
+                + "\"stats\":null,"
+                + "\"affect\":null,"
+                + "\"result_timeout_secs\":30,"
+                + "\"stats_uri\":null,"
+                + "\"final_uri\":\"/v1/query/qid-publish/final\","
+                + "\"next_uri\":" + (nextUri == null ? "null" : "\"" + nextUri + "\"") + ","
+                + "\"kill_uri\":null"
+                + "}";
+    }
+
+    private static final class CollectingSubscriber<T> implements DatabendFlow.Subscriber<T> {
+        private final List<T> items = Collections.synchronizedList(new ArrayList<>());
+        private final CompletableFuture<Void> completed = new CompletableFuture<>();
+        private volatile DatabendFlow.Subscription subscription;
+
+        @Override
+        public void onSubscribe(DatabendFlow.Subscription subscription) {
+            this.subscription = subscription;
+        }
+
+        @Override
+        public void onNext(T item) {
+            items.add(item);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            completed.completeExceptionally(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            completed.complete(null);
+        }
+
+        void awaitItems(int count) throws InterruptedException {
+            while (items.size() < count) {
+                Thread.sleep(10);
+            }
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.databend.jdbc;
+
+import com.databend.jdbc.internal.binding.SqlTemplate;
+import com.databend.jdbc.internal.binding.StatementUtil;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public class TestSqlTemplate {
+    @Test(groups = {"UNIT"})
+    public void testRenderMatchesParameterReplacement() {
+        String[] statements = {
+                "update t set a = ?, b = ? where id = ?",
+                "delete from t where name = '?' and id = ? -- is ? ignored",
+                "update t set s = ? /* ? */ where x = ?",
+                "select 1",
+        };
+        for (String sql : statements) {
+            SqlTemplate template = SqlTemplate.compile(StatementUtil.parseToRawStatementWrapper(sql));
+            int count = (int) StatementUtil.parseToRawStatementWrapper(sql).getTotalParams();
+            String[] values = new String[count];
+            Map<Integer, String> params = new HashMap<>();
+            for (int i = 0; i < count; i++) {
+                values[i] = "'v" + i + "'";
+                params.put(i + 1, values[i]);
+            }
+            String expected = StatementUtil.replaceParameterMarksWithValues(params, sql).get(0).getSql();
+            Assert.assertEquals(template.render(count == 0 ? null : values), expected, sql);
+        }
+    }
+
+    @Test(groups = {"UNIT"})
+    public void testRowsAppendToOneBuilder() {
+        SqlTemplate template = SqlTemplate.compile(StatementUtil.parseToRawStatementWrapper("delete from t where id = ?"));
+        StringBuilder sql = new StringBuilder();
+        template.appendTo(sql, new String[]{"1"});
+        sql.append(';');
+        template.appendTo(sql, new String[]{"2"});
+        Assert.assertEquals(sql.toString(), "delete from t where id = 1;delete from t where id = 2");
+    }
+
+    @Test(groups = {"UNIT"})
+    public void testMissingValuesAreRejected() {
+        SqlTemplate template = SqlTemplate.compile(StatementUtil.parseToRawStatementWrapper("update t set a = ? where id = ?"));
+        IllegalArgumentException count = Assert.expectThrows(IllegalArgumentException.class, () -> template.render(new String[]{"1"}));
+        Assert.assertTrue(count.getMessage().contains("Provided: 1, Parameter markers in the SQL query: 2"), count.getMessage());
+        IllegalArgumentException missing = Assert.expectThrows(IllegalArgumentException.class, () -> template.render(new String[]{null, "1"}));
+        Assert.assertEquals(missing.getMessage(), "No value for parameter marker at position: 1");
+        Assert.expectThrows(IllegalArgumentException.class,
+                () -> SqlTemplate.compile(StatementUtil.parseToRawStatementWrapper("delete from a; delete from b")));
+    }
+}
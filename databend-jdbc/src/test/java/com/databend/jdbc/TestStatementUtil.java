@@ -7,9 +7,22 @@ import org.testng.annotations.Test;
 import java.util.Map;
 
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
 
 
 public class TestStatementUtil {
+    @Test(groups = {"UNIT"})
+    public void testIsDdl() {
+        assertTrue(StatementUtil.isDdl("CREATE TABLE t (a Int)"));
+        assertTrue(StatementUtil.isDdl("  -- comment\n/* block */ drop table t"));
+        assertTrue(StatementUtil.isDdl("alter\ntable t add column b Int"));
+        assertFalse(StatementUtil.isDdl("select * from created_tables"));
+        assertFalse(StatementUtil.isDdl("insert into t values (1)"));
+        assertFalse(StatementUtil.isDdl("createx"));
+        assertFalse(StatementUtil.isDdl(null));
+    }
+
     @Test(groups = {"UNIT"})
     public void testExtractColumnTypes() {
         String sql = "insert into non_existing_table ('col2 String, col3 Int8, col1 VARIANT') values (?, ?, ?)";
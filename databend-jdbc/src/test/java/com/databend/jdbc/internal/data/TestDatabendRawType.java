@@ -0,0 +1,28 @@
+package com.databend.jdbc.internal.data;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class TestDatabendRawType {
+    @Test(groups = {"UNIT"})
+    public void testOfSharesParsedTypes() {
+        DatabendRawType type = DatabendRawType.of("Nullable(Tuple(Array(Nullable(Decimal(38, 10))), Int32))");
+
+        Assert.assertSame(DatabendRawType.of("Nullable(Tuple(Array(Nullable(Decimal(38, 10))), Int32))"), type);
+        Assert.assertTrue(type.isNullable());
+        Assert.assertEquals(type.getDataType(), DatabendDataType.TUPLE);
+        Assert.assertEquals(type.getColumnSize().intValue(), 2);
+        Assert.assertSame(type.getSubType().get(0), DatabendRawType.of("Array(Nullable(Decimal(38, 10)))"));
+        DatabendRawType decimal = type.getSubType().get(0).getSubType().get(0);
+        Assert.assertSame(decimal, DatabendRawType.of("Nullable(Decimal(38, 10))"));
+        Assert.assertEquals(decimal.getColumnSize().intValue(), 38);
+        Assert.assertEquals(decimal.getDecimalDigits().intValue(), 10);
+    }
+
+    @Test(groups = {"UNIT"})
+    public void testSharedTypesCannotBeModified() {
+        DatabendRawType type = DatabendRawType.of("Map(String, Int64)");
+
+        Assert.expectThrows(UnsupportedOperationException.class, () -> type.getSubType().clear());
+    }
+}
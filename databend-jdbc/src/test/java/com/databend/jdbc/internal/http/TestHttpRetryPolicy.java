@@ -9,6 +9,7 @@ import org.testng.annotations.Test;
 import java.net.SocketTimeoutException;
 import java.net.InetSocketAddress;
 import java.sql.SQLException;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.atomic.AtomicInteger;
 
 @Test(timeOut = 10000)
@@ -117,6 +118,69 @@ public class TestHttpRetryPolicy {
         }
     }
 
+    @Test(groups = {"UNIT"})
+    public void testAsyncRetryable503IsRescheduled() throws Exception {
+        AtomicInteger attempts = new AtomicInteger();
+        HttpServer server = HttpServer.create(new InetSocketAddress(0), 0);
+        server.createContext("/temporary", exchange -> {
+            try {
+                int status = attempts.incrementAndGet() < 2 ? 503 : 200;
+                byte[] payload = (status == 200 ? "{\"ok\":true}" : "{\"error\":\"temporary\"}").getBytes(java.nio.charset.StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().add("Content-Type", "application/json");
+                exchange.sendResponseHeaders(status, payload.length);
+                exchange.getResponseBody().write(payload);
+            }
+            finally {
+                exchange.close();
+            }
+        });
+        server.start();
+
+        try {
+            HttpRetryPolicy retryPolicy = new HttpRetryPolicy(false, true);
+            HttpRetryPolicy.ResponseWithBody response = retryPolicy.sendRequestAsync(
+                    new OkHttpClient(),
+                    new Request.Builder().url(serverUrl(server, "/temporary")).get().build()).get();
+
+            Assert.assertEquals(response.statusCode, 200);
+            Assert.assertEquals(response.bodyString(), "{\"ok\":true}");
+            Assert.assertEquals(attempts.get(), 2);
+        }
+        finally {
+            server.stop(0);
+        }
+    }
+
+    @Test(groups = {"UNIT"})
+    public void testAsyncNonRetryableStatusFailsWithSQLException() throws Exception {
+        HttpServer server = HttpServer.create(new InetSocketAddress(0), 0);
+        server.createContext("/bad", exchange -> {
+            try {
+                byte[] payload = "bad request".getBytes(java.nio.charset.StandardCharsets.UTF_8);
+                exchange.sendResponseHeaders(400, payload.length);
+                exchange.getResponseBody().write(payload);
+            }
+            finally {
+                exchange.close();
+            }
+        });
+        server.start();
+
+        try {
+            HttpRetryPolicy retryPolicy = new HttpRetryPolicy(false, true);
+            ExecutionException exception = Assert.expectThrows(ExecutionException.class, () -> retryPolicy.sendRequestAsync(
+                    new OkHttpClient(),
+                    new Request.Builder().url(serverUrl(server, "/bad")).get().build()).get());
+
+            Assert.assertTrue(exception.getCause() instanceof SQLException, exception.getCause().toString());
+            Assert.assertTrue(exception.getCause().getMessage().contains("status_code = 400, body = bad request"),
+                    exception.getCause().getMessage());
+        }
+        finally {
+            server.stop(0);
+        }
+    }
+
     @Test(groups = {"UNIT"})
     public void testRetryable503ExhaustionThrowsSQLException() throws Exception {
         AtomicInteger attempts = new AtomicInteger();
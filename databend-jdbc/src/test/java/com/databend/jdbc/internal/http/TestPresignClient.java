@@ -307,6 +307,45 @@ public class TestPresignClient {
         }
     }
 
+    @Test(groups = {"UNIT"})
+    public void testSharedClientIsReusedPerConfig() {
+        PresignClientConfig config = PresignClientConfig.builder().setMaxIdleConnections(2).build();
+
+        Assert.assertSame(PresignClient.shared(config), PresignClient.shared(PresignClientConfig.builder().setMaxIdleConnections(2).build()));
+        Assert.assertNotSame(PresignClient.shared(config), PresignClient.shared(PresignClientConfig.defaultConfig()));
+    }
+
+    @Test(groups = {"UNIT"})
+    public void testTransfersReusePooledConnection() throws Exception {
+        HttpServer server = HttpServer.create(new InetSocketAddress(0), 0);
+        server.createContext("/download", exchange -> {
+            try {
+                byte[] payload = "hello".getBytes(StandardCharsets.UTF_8);
+                exchange.sendResponseHeaders(200, payload.length);
+                exchange.getResponseBody().write(payload);
+            }
+            finally {
+                exchange.close();
+            }
+        });
+        server.start();
+
+        Path file = Files.createTempFile("databend-presign-", ".txt");
+        try {
+            PresignClient client = new PresignClient(PresignClientConfig.builder().setKeepAliveSecs(60).build());
+            client.presignDownload(file.toString(), emptyHeaders(), serverUrl(server, "/download"));
+            client.presignDownload(file.toString(), emptyHeaders(), serverUrl(server, "/download"));
+
+            Assert.assertEquals(client.requestCount(), 2);
+            Assert.assertEquals(client.connectionCount(), 1);
+            Assert.assertEquals(client.idleConnectionCount(), 1);
+        }
+        finally {
+            Files.deleteIfExists(file);
+            server.stop(0);
+        }
+    }
+
     @Test(groups = {"UNIT"})
     public void testRetryablePresignStatusCodes() {
         Assert.assertTrue(PresignClient.isRetryablePresignStatus(502));
@@ -0,0 +1,158 @@
+package com.databend.jdbc.internal.http;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import okhttp3.Headers;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+@Test(timeOut = 10000)
+public class TestRangedDownload {
+    private static final Pattern RANGE = Pattern.compile("bytes=(\\d+)-(\\d+)");
+    private static final byte[] CONTENT = new byte[95];
+
+    static {
+        for (int i = 0; i < CONTENT.length; i++) {
+            CONTENT[i] = (byte) i;
+        }
+    }
+
+    @Test(groups = {"UNIT"})
+    public void testStreamReassemblesChunksInOrder() throws Exception {
+        AtomicInteger requests = new AtomicInteger();
+        HttpServer server = startServer(true, requests);
+        try {
+            RangedDownload download = new RangedDownload(new PresignClient(), emptyHeaders(), serverUrl(server), 10, 3, 20);
+            try (InputStream in = download.openStream()) {
+                Assert.assertEquals(readAll(in), CONTENT);
+            }
+            Assert.assertEquals(requests.get(), 10);
+        }
+        finally {
+            server.stop(0);
+        }
+    }
+
+    @Test(groups = {"UNIT"})
+    public void testTransferWritesChunksAtOffsets() throws Exception {
+        AtomicInteger requests = new AtomicInteger();
+        HttpServer server = startServer(true, requests);
+        Path file = Files.createTempFile("databend-ranged-", ".bin");
+        try {
+            RangedDownload download = new RangedDownload(new PresignClient(), emptyHeaders(), serverUrl(server), 16, 4, 64);
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                Assert.assertEquals(download.transferTo(channel), CONTENT.length);
+            }
+            Assert.assertEquals(Files.readAllBytes(file), CONTENT);
+            Assert.assertEquals(requests.get(), 6);
+        }
+        finally {
+            Files.deleteIfExists(file);
+            server.stop(0);
+        }
+    }
+
+    @Test(groups = {"UNIT"})
+    public void testStoreIgnoringRangeIsReadInOneResponse() throws Exception {
+        AtomicInteger requests = new AtomicInteger();
+        HttpServer server = startServer(false, requests);
+        try {
+            RangedDownload download = new RangedDownload(new PresignClient(), emptyHeaders(), serverUrl(server), 10, 3, 20);
+            try (InputStream in = download.openStream()) {
+                Assert.assertEquals(readAll(in), CONTENT);
+            }
+            Assert.assertEquals(requests.get(), 1);
+        }
+        finally {
+            server.stop(0);
+        }
+    }
+
+    @Test(groups = {"UNIT"})
+    public void testEmptyObjectIsReadAsEmpty() throws Exception {
+        HttpServer server = HttpServer.create(new InetSocketAddress(0), 0);
+        server.createContext("/object", exchange -> {
+            try {
+                exchange.getResponseHeaders().add("Content-Range", "bytes */0");
+                exchange.sendResponseHeaders(416, -1);
+            }
+            finally {
+                exchange.close();
+            }
+        });
+        server.start();
+        Path file = Files.createTempFile("databend-ranged-", ".bin");
+        try {
+            RangedDownload download = new RangedDownload(new PresignClient(), emptyHeaders(), serverUrl(server), 10, 3, 20);
+            try (InputStream in = download.openStream()) {
+                Assert.assertEquals(readAll(in), new byte[0]);
+            }
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                Assert.assertEquals(download.transferTo(channel), 0);
+            }
+        }
+        finally {
+            Files.deleteIfExists(file);
+            server.stop(0);
+        }
+    }
+
+    private static HttpServer startServer(boolean supportsRange, AtomicInteger requests) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress(0), 0);
+        server.createContext("/object", exchange -> {
+            try {
+                requests.incrementAndGet();
+                respond(exchange, supportsRange ? exchange.getRequestHeaders().getFirst("Range") : null);
+            }
+            finally {
+                exchange.close();
+            }
+        });
+        server.start();
+        return server;
+    }
+
+    private static void respond(HttpExchange exchange, String range) throws IOException {
+        Matcher matcher = range == null ? null : RANGE.matcher(range);
+        if (matcher == null || !matcher.matches()) {
+            exchange.sendResponseHeaders(200, CONTENT.length);
+            exchange.getResponseBody().write(CONTENT);
+            return;
+        }
+        int start = Integer.parseInt(matcher.group(1));
+        int end = Math.min(Integer.parseInt(matcher.group(2)), CONTENT.length - 1);
+        exchange.getResponseHeaders().add("Content-Range", "bytes " + start + "-" + end + "/" + CONTENT.length);
+        exchange.sendResponseHeaders(206, end - start + 1);
+        exchange.getResponseBody().write(CONTENT, start, end - start + 1);
+    }
+
+    private static byte[] readAll(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[7];
+        int n;
+        while ((n = in.read(buffer)) != -1) {
+            out.write(buffer, 0, n);
+        }
+        return out.toByteArray();
+    }
+
+    private static Headers emptyHeaders() {
+        return new Headers.Builder().build();
+    }
+
+    private static String serverUrl(HttpServer server) {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/object";
+    }
+}
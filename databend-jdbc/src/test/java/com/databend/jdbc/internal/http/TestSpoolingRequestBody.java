@@ -0,0 +1,119 @@
+package com.databend.jdbc.internal.http;
+
+import okio.Buffer;
+import okio.BufferedSink;
+import okio.Okio;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+public class TestSpoolingRequestBody {
+    @Test(groups = {"UNIT"})
+    public void testRetryReplaysSpoolAndContinuesFromSource() throws IOException {
+        byte[] content = new byte[200_000];
+        for (int i = 0; i < content.length; i++) {
+            content[i] = (byte) (i % 253);
+        }
+        AtomicInteger eofReads = new AtomicInteger();
+        ByteArrayInputStream source = new ByteArrayInputStream(content) {
+            @Override
+            public synchronized int read(byte[] b, int off, int len) {
+                int n = super.read(b, off, len);
+                if (n == -1) {
+                    eofReads.incrementAndGet();
+                }
+                return n;
+            }
+        };
+
+        try (SpoolingRequestBody body = new SpoolingRequestBody(source, content.length, 1000)) {
+            Assert.assertFalse(body.isOneShot());
+            // the first attempt breaks off in the middle of the transfer
+            BufferedSink failing = Okio.buffer(Okio.sink(new FailingOutputStream(150_000)));
+            Assert.expectThrows(IOException.class, () -> body.writeTo(failing));
+            Assert.assertTrue(body.spooledBytes() > 150_000);
+
+            Buffer retry = new Buffer();
+            body.writeTo(retry);
+            Assert.assertEquals(retry.readByteArray(), content);
+
+            Buffer again = new Buffer();
+            body.writeTo(again);
+            Assert.assertEquals(again.readByteArray(), content);
+            Assert.assertEquals(eofReads.get(), 1);
+        }
+    }
+
+    @Test(groups = {"UNIT"})
+    public void testSpooledContentIsEncodedOnce() throws IOException {
+        // random bytes barely compress, so the spool outgrows its memory
+        byte[] content = new byte[50_000];
+        new Random(42).nextBytes(content);
+        AtomicInteger writerRuns = new AtomicInteger();
+        AtomicInteger compressorRuns = new AtomicInteger();
+
+        try (SpoolingRequestBody body = SpoolingRequestBody.spool(out -> {
+            writerRuns.incrementAndGet();
+            out.write(content);
+        }, out -> {
+            compressorRuns.incrementAndGet();
+            return new GZIPOutputStream(out);
+        }, 1000)) {
+            Buffer first = new Buffer();
+            body.writeTo(first);
+            Assert.assertEquals(body.contentLength(), first.size());
+            Assert.assertTrue(body.spooledBytes() > 1000, "content did not continue in the temporary file");
+
+            Buffer retry = new Buffer();
+            body.writeTo(retry);
+            byte[] compressed = first.readByteArray();
+            Assert.assertEquals(retry.readByteArray(), compressed);
+            try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+                Assert.assertEquals(readAll(in), content);
+            }
+        }
+        Assert.assertEquals(writerRuns.get(), 1);
+        Assert.assertEquals(compressorRuns.get(), 1);
+    }
+
+    private static byte[] readAll(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[1024];
+        int n;
+        while ((n = in.read(buffer)) != -1) {
+            out.write(buffer, 0, n);
+        }
+        return out.toByteArray();
+    }
+
+    private static final class FailingOutputStream extends OutputStream {
+        private final long limit;
+        private long written;
+
+        private FailingOutputStream(long limit) {
+            this.limit = limit;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            written += len;
+            if (written > limit) {
+                throw new IOException("connection reset");
+            }
+        }
+    }
+}
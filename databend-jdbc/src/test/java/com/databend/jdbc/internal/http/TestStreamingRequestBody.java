@@ -0,0 +1,109 @@
+package com.databend.jdbc.internal.http;
+
+import com.databend.jdbc.internal.UploadCompression;
+import com.github.luben.zstd.ZstdInputStream;
+import okio.Buffer;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+public class TestStreamingRequestBody {
+    private static final byte[] CONTENT = "id,name\n1,a\n2,b\n".getBytes(StandardCharsets.UTF_8);
+
+    @Test(groups = {"UNIT"})
+    public void testChunkedBodyIsReplayable() throws IOException {
+        StreamingRequestBody body = StreamingRequestBody.chunked(out -> {
+            out.write(CONTENT);
+            // closing what the writer was given must not close the request sink
+            out.close();
+        }, null);
+
+        Assert.assertEquals(body.contentLength(), -1);
+        Assert.assertFalse(body.isOneShot());
+        for (int attempt = 0; attempt < 2; attempt++) {
+            Buffer sink = new Buffer();
+            body.writeTo(sink);
+            sink.writeUtf8("--");
+            Assert.assertEquals(sink.readUtf8(), new String(CONTENT, StandardCharsets.UTF_8) + "--");
+        }
+    }
+
+    @Test(groups = {"UNIT"})
+    public void testGzipBodyRoundTrips() throws IOException {
+        Buffer sink = new Buffer();
+        StreamingRequestBody.chunked(out -> out.write(CONTENT), GZIPOutputStream::new).writeTo(sink);
+
+        Assert.assertEquals(gunzip(sink.inputStream()), CONTENT);
+    }
+
+    @Test(groups = {"UNIT"})
+    public void testZstdBodyRoundTrips() throws IOException {
+        Buffer sink = new Buffer();
+        StreamingRequestBody.chunked(out -> out.write(CONTENT), out -> UploadCompression.ZSTD.compress(out, 2)).writeTo(sink);
+
+        try (InputStream in = new ZstdInputStream(sink.inputStream())) {
+            Assert.assertEquals(readAll(in), CONTENT);
+        }
+    }
+
+    @Test(groups = {"UNIT"})
+    public void testOneShotBodyCompressesInputStream() throws IOException {
+        InputStream in = new ByteArrayInputStream(CONTENT);
+        StreamingRequestBody body = StreamingRequestBody.oneShot(out -> {
+            byte[] buffer = new byte[4];
+            int n;
+            while ((n = in.read(buffer)) != -1) {
+                out.write(buffer, 0, n);
+            }
+        }, out -> new ParallelGzipOutputStream(out, 2, 5));
+        Buffer sink = new Buffer();
+        body.writeTo(sink);
+
+        Assert.assertTrue(body.isOneShot());
+        Assert.assertEquals(body.contentLength(), -1);
+        Assert.assertEquals(gunzip(sink.inputStream()), CONTENT);
+    }
+
+    @Test(groups = {"UNIT"})
+    public void testParallelGzipWritesBlocksInOrder() throws IOException {
+        byte[] content = new byte[100_000];
+        for (int i = 0; i < content.length; i++) {
+            content[i] = (byte) (i % 251);
+        }
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (OutputStream out = new ParallelGzipOutputStream(compressed, 4, 4096)) {
+            out.write(content, 0, 10);
+            out.flush();
+            out.write(content, 10, content.length - 10);
+        }
+        Assert.assertEquals(gunzip(new ByteArrayInputStream(compressed.toByteArray())), content);
+
+        ByteArrayOutputStream empty = new ByteArrayOutputStream();
+        new ParallelGzipOutputStream(empty, 2).close();
+        Assert.assertEquals(gunzip(new ByteArrayInputStream(empty.toByteArray())), new byte[0]);
+    }
+
+    private static byte[] gunzip(InputStream compressed) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(compressed)) {
+            return readAll(in);
+        }
+    }
+
+    private static byte[] readAll(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[1024];
+        int n;
+        while ((n = in.read(buffer)) != -1) {
+            out.write(buffer, 0, n);
+        }
+        return out.toByteArray();
+    }
+}
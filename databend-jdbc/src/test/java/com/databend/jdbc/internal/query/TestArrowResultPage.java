@@ -3,10 +3,16 @@ package com.databend.jdbc.internal.query;
 import org.apache.arrow.memory.BufferAllocator;
 import org.apache.arrow.memory.RootAllocator;
 import org.apache.arrow.vector.DateDayVector;
+import org.apache.arrow.vector.Float4Vector;
 import org.apache.arrow.vector.IntVector;
 import org.apache.arrow.vector.TimeStampMicroVector;
+import org.apache.arrow.vector.UInt1Vector;
+import org.apache.arrow.vector.UInt4Vector;
+import org.apache.arrow.vector.VarBinaryVector;
+import org.apache.arrow.vector.VarCharVector;
 import org.apache.arrow.vector.VectorSchemaRoot;
 import org.apache.arrow.vector.types.DateUnit;
+import org.apache.arrow.vector.types.FloatingPointPrecision;
 import org.apache.arrow.vector.types.TimeUnit;
 import org.apache.arrow.vector.types.pojo.ArrowType;
 import org.apache.arrow.vector.types.pojo.Field;
@@ -14,12 +20,15 @@ import org.apache.arrow.vector.types.pojo.FieldType;
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Random;
 
 public class TestArrowResultPage {
     @Test(groups = {"UNIT_ARROW"})
@@ -60,6 +69,147 @@ public class TestArrowResultPage {
         closeAllocator(rootAllocator);
     }
 
+    @Test(groups = {"UNIT_ARROW"})
+    public void testMultiBatchPageResolvesRowsInAnyOrder() throws Exception {
+        RootAllocator rootAllocator = new RootAllocator(Long.MAX_VALUE);
+        BufferAllocator allocator = rootAllocator.newChildAllocator("test-arrow-batches", 0, Long.MAX_VALUE);
+        Field intField = new Field("n", FieldType.notNullable(new ArrowType.Int(32, true)), null);
+        int[] batchSizes = {0, 3, 1, 0, 0, 5, 2, 0};
+        List<VectorSchemaRoot> roots = new ArrayList<>();
+        int value = 0;
+        for (int size : batchSizes) {
+            IntVector vector = new IntVector(intField, allocator);
+            vector.allocateNew(Math.max(size, 1));
+            for (int i = 0; i < size; i++) {
+                vector.set(i, value++);
+            }
+            vector.setValueCount(size);
+            roots.add(new VectorSchemaRoot(Collections.singletonList(intField), Collections.singletonList(vector), size));
+        }
+        ArrowResultPage page = new ArrowResultPage(allocator, roots, Collections.emptyMap());
+
+        Assert.assertEquals(page.getRowCount(), value);
+        for (int row = 0; row < value; row++) {
+            Assert.assertEquals(page.getValue(row, 0), row);
+        }
+        for (int row = value - 1; row >= 0; row--) {
+            Assert.assertEquals(page.getValue(row, 0), row);
+        }
+        Random random = new Random(42);
+        for (int i = 0; i < 100; i++) {
+            int row = random.nextInt(value);
+            Assert.assertEquals(page.getValue(row, 0), row);
+        }
+        Assert.assertEquals(page.batchIndexOf(3), 2);
+        Assert.assertEquals(page.batchIndexOf(4), 5);
+        Assert.assertEquals(page.batchIndexOf(value - 1), 6);
+        closeAllocator(page);
+        closeAllocator(rootAllocator);
+    }
+
+    @Test(groups = {"UNIT_ARROW"})
+    public void testTypedAccessorsReadVectorsWithoutBoxing() throws Exception {
+        RootAllocator rootAllocator = new RootAllocator(Long.MAX_VALUE);
+        BufferAllocator allocator = rootAllocator.newChildAllocator("test-arrow-typed", 0, Long.MAX_VALUE);
+        Field intField = new Field("n", FieldType.nullable(new ArrowType.Int(32, true)), null);
+        Field uintField = new Field("u", FieldType.notNullable(new ArrowType.Int(32, false)), null);
+        Field floatField = new Field("f", FieldType.notNullable(new ArrowType.FloatingPoint(FloatingPointPrecision.SINGLE)), null);
+        Field dateField = new Field("d", FieldType.nullable(new ArrowType.Date(DateUnit.DAY)), null);
+
+        IntVector intVector = new IntVector(intField, allocator);
+        intVector.allocateNew(2);
+        intVector.set(0, -5);
+        intVector.setNull(1);
+        intVector.setValueCount(2);
+
+        UInt4Vector uintVector = new UInt4Vector(uintField, allocator);
+        uintVector.allocateNew(2);
+        uintVector.set(0, -1);
+        uintVector.set(1, 3);
+        uintVector.setValueCount(2);
+
+        Float4Vector floatVector = new Float4Vector(floatField, allocator);
+        floatVector.allocateNew(2);
+        floatVector.set(0, 1.5f);
+        floatVector.set(1, -2.25f);
+        floatVector.setValueCount(2);
+
+        DateDayVector dateVector = new DateDayVector(dateField, allocator);
+        dateVector.allocateNew(2);
+        dateVector.set(0, 1);
+        dateVector.set(1, 2);
+        dateVector.setValueCount(2);
+
+        VectorSchemaRoot root = new VectorSchemaRoot(
+                Arrays.asList(intField, uintField, floatField, dateField),
+                Arrays.asList(intVector, uintVector, floatVector, dateVector),
+                2);
+        ArrowResultPage page = new ArrowResultPage(allocator, Collections.singletonList(root), Collections.emptyMap());
+
+        Assert.assertEquals(page.getPrimitiveKind(0), ResultPage.PrimitiveKind.LONG);
+        Assert.assertEquals(page.getPrimitiveKind(1), ResultPage.PrimitiveKind.LONG);
+        Assert.assertEquals(page.getPrimitiveKind(2), ResultPage.PrimitiveKind.DOUBLE);
+        Assert.assertEquals(page.getPrimitiveKind(3), ResultPage.PrimitiveKind.NONE);
+
+        Assert.assertFalse(page.isNull(0, 0));
+        Assert.assertEquals(page.getLong(0, 0), -5L);
+        Assert.assertTrue(page.isNull(1, 0));
+        Assert.assertEquals(page.getLong(0, 1), 4294967295L);
+        Assert.assertEquals(page.getLong(0, 1), ((Number) page.getValue(0, 1)).longValue());
+        Assert.assertEquals(page.getDouble(1, 2), -2.25d);
+        Assert.assertEquals(page.getDouble(0, 2), ((Number) page.getValue(0, 2)).doubleValue());
+        closeAllocator(page);
+        closeAllocator(rootAllocator);
+    }
+
+    @Test(groups = {"UNIT_ARROW"})
+    public void testColumnDecodersFollowExtensionAndUnsignedTypes() throws Exception {
+        RootAllocator rootAllocator = new RootAllocator(Long.MAX_VALUE);
+        BufferAllocator allocator = rootAllocator.newChildAllocator("test-arrow-decoders", 0, Long.MAX_VALUE);
+        Field variantField = new Field("v", new FieldType(true, new ArrowType.Binary(), null,
+                Collections.singletonMap("Extension", "Variant")), null);
+        Field geometryField = new Field("g", new FieldType(true, new ArrowType.Binary(), null,
+                Collections.singletonMap("Extension", "Geometry")), null);
+        Field uint8Field = new Field("u", FieldType.notNullable(new ArrowType.Int(8, false)), null);
+        Field stringField = new Field("s", FieldType.nullable(new ArrowType.Utf8()), null);
+
+        VarBinaryVector variantVector = new VarBinaryVector(variantField, allocator);
+        variantVector.allocateNew(1);
+        variantVector.set(0, "{\"a\":1}".getBytes(StandardCharsets.UTF_8));
+        variantVector.setValueCount(1);
+
+        VarBinaryVector geometryVector = new VarBinaryVector(geometryField, allocator);
+        geometryVector.allocateNew(1);
+        geometryVector.set(0, new byte[]{1, 2, 3});
+        geometryVector.setValueCount(1);
+
+        UInt1Vector uint8Vector = new UInt1Vector(uint8Field, allocator);
+        uint8Vector.allocateNew(1);
+        uint8Vector.set(0, 200);
+        uint8Vector.setValueCount(1);
+
+        VarCharVector stringVector = new VarCharVector(stringField, allocator);
+        stringVector.allocateNew(1);
+        stringVector.setNull(0);
+        stringVector.setValueCount(1);
+
+        VectorSchemaRoot root = new VectorSchemaRoot(
+                Arrays.asList(variantField, geometryField, uint8Field, stringField),
+                Arrays.asList(variantVector, geometryVector, uint8Vector, stringVector),
+                1);
+        ArrowResultPage page = new ArrowResultPage(allocator, Collections.singletonList(root),
+                Collections.singletonMap("geometry_output_format", "WKB"));
+
+        Assert.assertEquals(page.getValue(0, 0), "{\"a\":1}");
+        Assert.assertEquals((byte[]) page.getValue(0, 1), new byte[]{1, 2, 3});
+        Assert.assertEquals(page.getValue(0, 2), (short) 200);
+        Assert.assertNull(page.getValue(0, 3));
+        Assert.assertEquals(page.getPrimitiveKind(2), ResultPage.PrimitiveKind.LONG);
+        Assert.assertEquals(page.getPrimitiveKind(0), ResultPage.PrimitiveKind.NONE);
+        closeAllocator(page);
+        closeAllocator(rootAllocator);
+    }
+
     public void testArrowSchemaMapsToJdbcTypes() throws Exception {
         Field intField = new Field("n", FieldType.notNullable(new ArrowType.Int(32, true)), null);
         Field dateField = new Field("d", FieldType.nullable(new ArrowType.Date(DateUnit.DAY)), null);
@@ -0,0 +1,73 @@
+package com.databend.jdbc.internal.query;
+
+import com.databend.jdbc.internal.data.DatabendRawType;
+import com.databend.jdbc.internal.http.JsonCodec;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static com.databend.jdbc.internal.http.JsonCodec.jsonCodec;
+
+public class TestCompactStringRows {
+    private static final JsonCodec<QueryResults> QUERY_RESULTS_CODEC = jsonCodec(QueryResults.class);
+
+    @Test(groups = {"UNIT"})
+    public void testDataIsDecodedIntoCompactRows() throws JsonProcessingException {
+        QueryResults results = decode("[[\"1\",null,\"a\\\"b\"],[\"\",\"\\u00e9\\n\",\"NULL\"]]");
+
+        Assert.assertTrue(results.getDataRaw() instanceof CompactStringRows);
+        CompactStringRows rows = (CompactStringRows) results.getDataRaw();
+        Assert.assertEquals(rows.size(), 2);
+        Assert.assertEquals(rows.columnCount(1), 3);
+        Assert.assertEquals(rows.cell(0, 0), "1");
+        Assert.assertNull(rows.cell(0, 1));
+        Assert.assertEquals(rows.cell(0, 2), "a\"b");
+        Assert.assertEquals(rows.cell(1, 0), "");
+        Assert.assertEquals(rows.cell(1, 1), "é\n");
+        Assert.assertEquals(rows, Arrays.asList(Arrays.asList("1", null, "a\"b"), Arrays.asList("", "é\n", "NULL")));
+        Assert.expectThrows(IndexOutOfBoundsException.class, () -> rows.cell(0, 3));
+        Assert.expectThrows(IndexOutOfBoundsException.class, () -> rows.get(2));
+    }
+
+    @Test(groups = {"UNIT"})
+    public void testScalarCellsAndEmptyData() throws JsonProcessingException {
+        QueryResults results = decode("[[1,2.5,true],[]]");
+        Assert.assertEquals(results.getDataRaw(), Arrays.asList(Arrays.asList("1", "2.5", "true"), Collections.emptyList()));
+
+        Assert.assertTrue(decode("[]").getDataRaw().isEmpty());
+        Assert.assertNull(decode("null").getDataRaw());
+    }
+
+    @Test(groups = {"UNIT"})
+    public void testNestedCellIsRejected() {
+        Assert.expectThrows(JsonProcessingException.class, () -> decode("[[[\"x\"]]]"));
+        Assert.expectThrows(JsonProcessingException.class, () -> decode("[\"x\"]"));
+    }
+
+    @Test(groups = {"UNIT"})
+    public void testJsonResultPageReadsCompactRows() throws JsonProcessingException, SQLException {
+        QueryResults results = decode("[[\"7\",\"x\"],[\"NULL\",\"y\"],[\"8\"]]");
+        JsonResultPage page = new JsonResultPage(Arrays.asList(
+                new QueryRowField("i", new DatabendRawType("Nullable(Int32)")),
+                new QueryRowField("s", new DatabendRawType("String"))),
+                results.getDataRaw(), 0);
+
+        Assert.assertEquals(page.getRowCount(), 3);
+        Assert.assertEquals(page.getLong(0, 0), 7L);
+        Assert.assertEquals(page.getValue(0, 1), "x");
+        Assert.assertTrue(page.isNull(1, 0));
+        Assert.assertEquals(page.getValue(1, 1), "y");
+        SQLException exception = Assert.expectThrows(SQLException.class, () -> page.getValue(2, 0));
+        Assert.assertEquals(exception.getCause().getMessage(), "row / column does not match schema");
+    }
+
+    private static QueryResults decode(String data) throws JsonProcessingException {
+        String json = "{\"id\":\"q\",\"schema\":[],\"data\":" + data + ",\"state\":\"Succeeded\"}";
+        return QUERY_RESULTS_CODEC.fromJson(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
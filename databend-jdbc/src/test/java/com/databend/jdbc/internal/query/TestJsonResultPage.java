@@ -0,0 +1,92 @@
+package com.databend.jdbc.internal.query;
+
+import com.databend.jdbc.internal.data.DatabendRawType;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.math.BigInteger;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.List;
+
+public class TestJsonResultPage {
+    private static final List<QueryRowField> SCHEMA = Arrays.asList(
+            new QueryRowField("i", new DatabendRawType("Nullable(Int32)")),
+            new QueryRowField("f", new DatabendRawType("Float32")),
+            new QueryRowField("u", new DatabendRawType("UInt64")),
+            new QueryRowField("s", new DatabendRawType("String")));
+
+    @Test(groups = {"UNIT"})
+    public void testCellsAreParsedWithColumnHandlers() throws SQLException {
+        JsonResultPage page = new JsonResultPage(SCHEMA, Arrays.asList(
+                Arrays.asList("7", "1.5", "18446744073709551615", "a"),
+                Arrays.asList("NULL", "nan", "1", "NULL")), 0);
+
+        Assert.assertEquals(page.getRowCount(), 2);
+        Assert.assertEquals(page.getValue(0, 0), 7);
+        Assert.assertEquals(page.getValue(0, 1), 1.5f);
+        Assert.assertEquals(page.getValue(0, 2), new BigInteger("18446744073709551615"));
+        Assert.assertEquals(page.getValue(0, 3), "a");
+        Assert.assertNull(page.getValue(1, 0));
+        Assert.assertEquals(page.getValue(1, 1), Double.NaN);
+        Assert.assertEquals(page.getValue(1, 3), "NULL");
+    }
+
+    @Test(groups = {"UNIT"})
+    public void testNullCellsOfNonNullableColumns() throws SQLException {
+        List<QueryRowField> schema = Arrays.asList(
+                new QueryRowField("NULL", new DatabendRawType("NULL")),
+                new QueryRowField("s", new DatabendRawType("String")));
+        JsonResultPage page = new JsonResultPage(schema, Arrays.asList(Arrays.asList(null, null)), 0);
+
+        Assert.assertNull(page.getValue(0, 0));
+        Assert.assertNull(page.getValue(0, 1));
+        Assert.assertTrue(page.isNull(0, 0));
+        Assert.assertTrue(page.isNull(0, 1));
+    }
+
+    @Test(groups = {"UNIT"})
+    public void testTypedAccessorsParseDirectlyFromStrings() throws SQLException {
+        JsonResultPage page = new JsonResultPage(SCHEMA, Arrays.asList(
+                Arrays.asList("-42", "2.25", "1", "x"),
+                Arrays.asList("NULL", "inf", "1", "y")), 0);
+
+        Assert.assertEquals(page.getPrimitiveKind(0), ResultPage.PrimitiveKind.LONG);
+        Assert.assertEquals(page.getPrimitiveKind(1), ResultPage.PrimitiveKind.DOUBLE);
+        Assert.assertEquals(page.getPrimitiveKind(2), ResultPage.PrimitiveKind.NONE);
+        Assert.assertEquals(page.getPrimitiveKind(3), ResultPage.PrimitiveKind.NONE);
+
+        Assert.assertFalse(page.isNull(0, 0));
+        Assert.assertEquals(page.getLong(0, 0), -42L);
+        Assert.assertEquals(page.getDouble(0, 1), 2.25d);
+        Assert.assertTrue(page.isNull(1, 0));
+        Assert.assertEquals(page.getDouble(1, 1), Double.POSITIVE_INFINITY);
+    }
+
+    @Test(groups = {"UNIT"})
+    public void testMalformedCellOnlyFailsWhenRead() throws SQLException {
+        JsonResultPage page = new JsonResultPage(SCHEMA, Arrays.asList(
+                Arrays.asList("oops", "1.0", "1", "ok")), 0);
+
+        Assert.assertEquals(page.getValue(0, 3), "ok");
+        SQLException exception = Assert.expectThrows(SQLException.class, () -> page.getValue(0, 0));
+        Assert.assertTrue(exception.getCause().getMessage().contains("fail to parse column 0(i)"), exception.getCause().getMessage());
+        Assert.expectThrows(SQLException.class, () -> page.getLong(0, 0));
+    }
+
+    @Test(groups = {"UNIT"})
+    public void testDecodeConvertsCellsAheadOfRead() throws SQLException {
+        JsonResultPage page = new JsonResultPage(SCHEMA, Arrays.asList(
+                Arrays.asList("7", "1.5", "18446744073709551615", "a"),
+                Arrays.asList("8", "2.5", "oops", "b")), 0);
+        page.decode();
+
+        Object value = page.getValue(0, 2);
+        Assert.assertEquals(value, new BigInteger("18446744073709551615"));
+        Assert.assertSame(page.getValue(0, 2), value);
+        Assert.assertEquals(page.getValue(1, 3), "b");
+        Assert.assertEquals(page.getLong(1, 0), 8L);
+        Assert.assertEquals(page.getValue(1, 0), 8);
+        Assert.expectThrows(SQLException.class, () -> page.getValue(1, 2));
+    }
+}
@@ -0,0 +1,36 @@
+package com.databend.jdbc.internal.query;
+
+import com.databend.jdbc.internal.session.PaginationOptions;
+import com.databend.jdbc.internal.session.SessionState;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+public class TestQueryRequest {
+    @Test(groups = {"UNIT"})
+    public void testWriteToMatchesObjectMapperEncoding() throws Exception {
+        QueryRequest request = QueryRequest.builder()
+                .setSql("select 'é', \"x\"")
+                .setSession(SessionState.createDefault())
+                .setPaginationOptions(PaginationOptions.defaultPaginationOptions())
+                .setArrowResultVersionMax(3)
+                .setArrowFeatures(new QueryRequest.ArrowFeatures(false))
+                .build();
+        ByteArrayOutputStream out = new ByteArrayOutputStream() {
+            @Override
+            public void close() {
+                Assert.fail("stream must be left open");
+            }
+        };
+
+        request.writeTo(out);
+
+        String expected = new ObjectMapper().writeValueAsString(request);
+        Assert.assertEquals(new String(out.toByteArray(), StandardCharsets.UTF_8), expected);
+        Assert.assertEquals(request.toString(), expected);
+        Assert.assertFalse(expected.contains("stage_attachment"), expected);
+    }
+}
@@ -8,14 +8,27 @@ import com.databend.jdbc.internal.session.SessionState;
 import com.sun.net.httpserver.HttpServer;
 import okhttp3.Interceptor;
 import okhttp3.OkHttpClient;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.ipc.ArrowStreamWriter;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.FieldType;
+import org.apache.arrow.vector.types.pojo.Schema;
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.net.ConnectException;
 import java.net.InetSocketAddress;
 import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 
@@ -140,6 +153,105 @@ public class TestRestQueryResultPages {
         }
     }
 
+    @Test(groups = {"UNIT_ARROW"})
+    public void testArrowResponseIsDecodedFromStreamingBody() throws Exception {
+        byte[] payload = arrowResponse(queryResponse("qid-arrow", null, null), 3, 2);
+        HttpServer server = HttpServer.create(new InetSocketAddress(0), 0);
+        server.createContext("/v1/query", exchange -> {
+            try {
+                exchange.getResponseHeaders().add("Content-Type", "application/vnd.apache.arrow.stream");
+                exchange.sendResponseHeaders(200, 0);
+                int half = payload.length / 2;
+                exchange.getResponseBody().write(payload, 0, half);
+                exchange.getResponseBody().flush();
+                exchange.getResponseBody().write(payload, half, payload.length - half);
+            }
+            finally {
+                exchange.close();
+            }
+        });
+        server.start();
+
+        try {
+            RestQueryResultPages pages = new RestQueryResultPages(
+                    new OkHttpClient(),
+                    "select n from numbers(6)",
+                    requestConfig(serverBaseUrl(server), QueryResultFormat.ARROW),
+                    null,
+                    new AtomicReference<>());
+
+            ResultPage page = pages.getPage();
+            Assert.assertEquals(pages.getResults().getQueryId(), "qid-arrow");
+            Assert.assertEquals(pages.getSchema().get(0).getName(), "n");
+            Assert.assertEquals(page.getRowCount(), 6);
+            for (int row = 0; row < 6; row++) {
+                Assert.assertEquals(page.getValue(row, 0), row);
+            }
+            page.close();
+        }
+        finally {
+            server.stop(0);
+        }
+    }
+
+    @Test(groups = {"UNIT"})
+    public void testJsonPageCellFailsWhenReadNotWhenFetched() throws Exception {
+        HttpServer server = HttpServer.create(new InetSocketAddress(0), 0);
+        server.createContext("/v1/query", exchange -> {
+            try {
+                String value = "POST".equals(exchange.getRequestMethod()) ? "42" : "not-a-number";
+                String nextUri = "POST".equals(exchange.getRequestMethod()) ? "\"/v1/query/next\"" : "null";
+                byte[] payload = ("{"
+                        + "\"id\":\"qid-decode\","
+                        + "\"node_id\":\"node\","
+                        + "\"session\":{\"database\":\"default\"},"
+                        + "\"schema\":[{\"name\":\"c1\",\"type\":\"Int32\"}],"
+                        + "\"data\":[[\"" + value + "\"]],"
+                        + "\"state\":\"Running\","
+                        + "\"error\":null,"
+                        + "\"stats\":null,"
+                        + "\"affect\":null,"
+                        + "\"result_timeout_secs\":30,"
+                        + "\"stats_uri\":null,"
+                        + "\"final_uri\":\"/v1/query/final\","
+                        + "\"next_uri\":" + nextUri + ","
+                        + "\"kill_uri\":null"
+                        + "}").getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().add("Content-Type", "application/json");
+                exchange.sendResponseHeaders(200, payload.length);
+                exchange.getResponseBody().write(payload);
+            }
+            finally {
+                exchange.close();
+            }
+        });
+        server.start();
+
+        try {
+            RestQueryResultPages pages = new RestQueryResultPages(
+                    new OkHttpClient(),
+                    "select 42",
+                    requestConfig(serverBaseUrl(server)),
+                    null,
+                    new AtomicReference<>());
+
+            ResultPage first = pages.getPage();
+            Assert.assertEquals(first.getRowCount(), 1);
+            Assert.assertEquals(first.getValue(0, 0), 42);
+            List<QueryRowField> schema = pages.getSchema();
+
+            pages.advance();
+            ResultPage second = pages.getPage();
+            Assert.assertSame(pages.getSchema(), schema);
+            Assert.assertEquals(second.getRowCount(), 1);
+            SQLException exception = Assert.expectThrows(SQLException.class, () -> second.getValue(0, 0));
+            Assert.assertTrue(exception.getMessage().contains("Failed to decode query response"), exception.getMessage());
+        }
+        finally {
+            server.stop(0);
+        }
+    }
+
     @Test(groups = {"UNIT"})
     public void testInitialQueryConnectFailureThenRetrySucceeds() throws Exception {
         AtomicInteger attempts = new AtomicInteger();
@@ -390,20 +502,122 @@ public class TestRestQueryResultPages {
                 exception.getCause().getMessage());
     }
 
+    @Test(groups = {"UNIT"})
+    public void testAsyncQueryFollowsNextUri() throws Exception {
+        HttpServer server = HttpServer.create(new InetSocketAddress(0), 0);
+        server.createContext("/v1/query", exchange -> {
+            try {
+                boolean start = "POST".equals(exchange.getRequestMethod());
+                byte[] payload = queryResponse("qid-async", start ? "/v1/query/next" : null, start ? "first" : "second")
+                        .getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().add("Content-Type", "application/json");
+                exchange.sendResponseHeaders(200, payload.length);
+                exchange.getResponseBody().write(payload);
+            }
+            finally {
+                exchange.close();
+            }
+        });
+        server.start();
+
+        try {
+            AtomicReference<String> lastNodeID = new AtomicReference<>();
+            RestQueryResultPages pages = RestQueryResultPages.startAsync(
+                    new OkHttpClient(),
+                    "select c1",
+                    requestConfig(serverBaseUrl(server)),
+                    null,
+                    lastNodeID).get();
+
+            Assert.assertEquals(pages.getResults().getQueryId(), "qid-async");
+            Assert.assertEquals(lastNodeID.get(), "node");
+            Assert.assertEquals(pages.getPage().getValue(0, 0), "first");
+            Assert.assertTrue(pages.advanceAsync().get());
+            Assert.assertEquals(pages.getPage().getValue(0, 0), "second");
+            Assert.assertFalse(pages.advanceAsync().get());
+            Assert.assertFalse(pages.hasNext());
+        }
+        finally {
+            server.stop(0);
+        }
+    }
+
+    @Test(groups = {"UNIT"})
+    public void testAsyncQueryErrorCompletesExceptionally() throws Exception {
+        HttpServer server = HttpServer.create(new InetSocketAddress(0), 0);
+        server.createContext("/v1/query", exchange -> {
+            try {
+                byte[] payload = queryResponse("qid-async-error", null, null)
+                        .replace("\"error\":null", "\"error\":{\"code\":1065,\"message\":\"syntax error\"}")
+                        .getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().add("Content-Type", "application/json");
+                exchange.sendResponseHeaders(200, payload.length);
+                exchange.getResponseBody().write(payload);
+            }
+            finally {
+                exchange.close();
+            }
+        });
+        server.start();
+
+        try {
+            ExecutionException exception = Assert.expectThrows(ExecutionException.class, () ->
+                    RestQueryResultPages.startAsync(
+                            new OkHttpClient(),
+                            "select broken",
+                            requestConfig(serverBaseUrl(server)),
+                            null,
+                            new AtomicReference<>()).get());
+
+            Assert.assertTrue(exception.getCause() instanceof DatabendQueryException, exception.getCause().toString());
+            Assert.assertTrue(exception.getCause().getMessage().contains("syntax error"), exception.getCause().getMessage());
+        }
+        finally {
+            server.stop(0);
+        }
+    }
+
     private static QueryRequestConfig requestConfig(String host) {
+        return requestConfig(host, QueryResultFormat.JSON);
+    }
+
+    private static QueryRequestConfig requestConfig(String host, QueryResultFormat format) {
         return new QueryRequestConfig(
                 host,
                 SessionState.createDefault(),
                 QueryRequestConfig.DEFAULT_QUERY_TIMEOUT,
                 QueryRequestConfig.DEFAULT_CONNECTION_TIMEOUT,
                 QueryRequestConfig.DEFAULT_SOCKET_TIMEOUT,
-                QueryResultFormat.JSON,
+                format,
                 PaginationOptions.defaultPaginationOptions(),
                 new HashMap<String, String>(),
                 null,
                 QueryRequestConfig.DEFAULT_RETRY_ATTEMPTS);
     }
 
+    private static byte[] arrowResponse(String responseHeader, int batches, int rowsPerBatch) throws IOException {
+        Field field = new Field("n", FieldType.notNullable(new ArrowType.Int(32, true)), null);
+        Schema schema = new Schema(Collections.singletonList(field), Collections.singletonMap("response_header", responseHeader));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (RootAllocator allocator = new RootAllocator(Long.MAX_VALUE);
+                VectorSchemaRoot root = VectorSchemaRoot.create(schema, allocator);
+                ArrowStreamWriter writer = new ArrowStreamWriter(root, null, out)) {
+            writer.start();
+            IntVector vector = (IntVector) root.getVector(0);
+            int value = 0;
+            for (int batch = 0; batch < batches; batch++) {
+                vector.allocateNew(rowsPerBatch);
+                for (int row = 0; row < rowsPerBatch; row++) {
+                    vector.set(row, value++);
+                }
+                root.setRowCount(rowsPerBatch);
+                writer.writeBatch();
+            }
+            writer.end();
+        }
+        return out.toByteArray();
+    }
+
     private static String serverBaseUrl(HttpServer server) {
         return "http://127.0.0.1:" + server.getAddress().getPort();
     }
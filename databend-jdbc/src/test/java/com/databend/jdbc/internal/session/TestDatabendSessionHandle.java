@@ -26,22 +26,211 @@ import com.sun.net.httpserver.HttpServer;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.IOException;
 import java.lang.reflect.Method;
 import java.net.InetSocketAddress;
 import java.net.URI;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.sql.SQLException;
 import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.GZIPInputStream;
 
 import static com.databend.jdbc.internal.http.OkHttpUtils.userAgentInterceptor;
 
 @Test(timeOut = 10000)
 public class TestDatabendSessionHandle {
+    @Test(groups = {"UNIT"})
+    public void testUploadStreamFromWriterUsesStageUploadEndpointWhenPresignDisabled() throws Exception {
+        AtomicReference<String> method = new AtomicReference<>();
+        AtomicReference<String> path = new AtomicReference<>();
+        AtomicReference<String> stageName = new AtomicReference<>();
+        AtomicReference<String> relativePath = new AtomicReference<>();
+        AtomicReference<String> userAgent = new AtomicReference<>();
+        AtomicReference<String> warehouse = new AtomicReference<>();
+        AtomicReference<String> body = new AtomicReference<>();
+        AtomicReference<String> transferEncoding = new AtomicReference<>();
+
+        HttpServer server = HttpServer.create(new InetSocketAddress(0), 0);
+        server.createContext("/v1/upload_to_stage", exchange -> {
+            try {
+                transferEncoding.set(exchange.getRequestHeaders().getFirst("Transfer-Encoding"));
+                captureRequest(exchange, method, path, stageName, relativePath, userAgent, warehouse, body);
+            }
+            finally {
+                exchange.close();
+            }
+        });
+        server.start();
+
+        try {
+            DatabendSessionHandle handle = createSessionHandle(URI.create("http://127.0.0.1:" + server.getAddress().getPort()));
+            handle.initializePresign("off", false);
+
+            handle.uploadStream("test_stage", "dir1", "batch.csv",
+                    out -> out.write("1,\"a,b\"\n".getBytes(StandardCharsets.UTF_8)), false);
+
+            Assert.assertEquals(path.get(), "/v1/upload_to_stage");
+            Assert.assertEquals(relativePath.get(), "dir1/");
+            Assert.assertEquals(transferEncoding.get(), "chunked");
+            Assert.assertTrue(body.get().contains("filename=\"batch.csv\""));
+            Assert.assertTrue(body.get().contains("1,\"a,b\"\n"));
+        }
+        finally {
+            server.stop(0);
+        }
+    }
+
+    @Test(groups = {"UNIT"})
+    public void testUploadStreamCompressesInputStreamWhileSending() throws Exception {
+        AtomicReference<byte[]> body = new AtomicReference<>();
+        AtomicReference<String> transferEncoding = new AtomicReference<>();
+
+        HttpServer server = HttpServer.create(new InetSocketAddress(0), 0);
+        server.createContext("/v1/upload_to_stage", exchange -> {
+            try {
+                transferEncoding.set(exchange.getRequestHeaders().getFirst("Transfer-Encoding"));
+                body.set(readAllBytes(exchange));
+                exchange.sendResponseHeaders(200, -1);
+            }
+            finally {
+                exchange.close();
+            }
+        });
+        server.start();
+
+        try {
+            DatabendSessionHandle handle = new DatabendSessionHandle(
+                    new OkHttpClient.Builder().build(),
+                    SessionHandleConfig.builder()
+                            .setBaseUri(URI.create("http://127.0.0.1:" + server.getAddress().getPort()))
+                            .setUploadCompressionWorkers(2)
+                            .setInitialSession(SessionState.createDefault())
+                            .build(),
+                    null);
+            handle.initializePresign("off", false);
+
+            byte[] payload = "1,a\n2,b\n".getBytes(StandardCharsets.UTF_8);
+            handle.uploadStream("test_stage", "dir1", new ByteArrayInputStream(payload), "f1.csv.gz", payload.length, true);
+
+            Assert.assertEquals(transferEncoding.get(), "chunked");
+            byte[] received = body.get();
+            int start = 0;
+            while (!(received[start] == (byte) 0x1f && received[start + 1] == (byte) 0x8b)) {
+                start++;
+            }
+            // the gzip reader stops at the multipart trailer that follows the compressed part
+            try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(received, start, received.length - start))) {
+                ByteArrayOutputStream content = new ByteArrayOutputStream();
+                byte[] buffer = new byte[1024];
+                int n;
+                while ((n = in.read(buffer)) != -1) {
+                    content.write(buffer, 0, n);
+                }
+                Assert.assertEquals(content.toByteArray(), payload);
+            }
+        }
+        finally {
+            server.stop(0);
+        }
+    }
+
+    @Test(groups = {"UNIT"})
+    public void testSpooledUploadStreamIsRetried() throws Exception {
+        AtomicInteger attempts = new AtomicInteger();
+        AtomicReference<String> body = new AtomicReference<>();
+
+        HttpServer server = HttpServer.create(new InetSocketAddress(0), 0);
+        server.createContext("/v1/upload_to_stage", exchange -> {
+            try {
+                String received = new String(readAllBytes(exchange), StandardCharsets.UTF_8);
+                if (attempts.incrementAndGet() == 1) {
+                    exchange.sendResponseHeaders(503, -1);
+                    return;
+                }
+                body.set(received);
+                exchange.sendResponseHeaders(200, -1);
+            }
+            finally {
+                exchange.close();
+            }
+        });
+        server.start();
+
+        try {
+            DatabendSessionHandle handle = new DatabendSessionHandle(
+                    new OkHttpClient.Builder().build(),
+                    SessionHandleConfig.builder()
+                            .setBaseUri(URI.create("http://127.0.0.1:" + server.getAddress().getPort()))
+                            .setUploadSpoolSize(2)
+                            .setUploadRetryAttempts(1)
+                            .setInitialSession(SessionState.createDefault())
+                            .build(),
+                    null);
+            handle.initializePresign("off", false);
+
+            byte[] payload = "1,a\n2,b\n".getBytes(StandardCharsets.UTF_8);
+            handle.uploadStream("test_stage", "dir1", new ByteArrayInputStream(payload), "f1.csv", payload.length, false);
+
+            Assert.assertEquals(attempts.get(), 2);
+            Assert.assertTrue(body.get().contains("1,a\n2,b\n"), body.get());
+        }
+        finally {
+            server.stop(0);
+        }
+    }
+
+    @Test(groups = {"UNIT"})
+    public void testUploadFileIsRetried() throws Exception {
+        AtomicInteger attempts = new AtomicInteger();
+        AtomicReference<String> body = new AtomicReference<>();
+
+        HttpServer server = HttpServer.create(new InetSocketAddress(0), 0);
+        server.createContext("/v1/upload_to_stage", exchange -> {
+            try {
+                String received = new String(readAllBytes(exchange), StandardCharsets.UTF_8);
+                if (attempts.incrementAndGet() == 1) {
+                    exchange.sendResponseHeaders(503, -1);
+                    return;
+                }
+                body.set(received);
+                exchange.sendResponseHeaders(200, -1);
+            }
+            finally {
+                exchange.close();
+            }
+        });
+        server.start();
+
+        File file = File.createTempFile("databend_upload_test", ".csv");
+        try {
+            Files.write(file.toPath(), "1,a\n2,b\n".getBytes(StandardCharsets.UTF_8));
+            DatabendSessionHandle handle = new DatabendSessionHandle(
+                    new OkHttpClient.Builder().build(),
+                    SessionHandleConfig.builder()
+                            .setBaseUri(URI.create("http://127.0.0.1:" + server.getAddress().getPort()))
+                            .setUploadRetryAttempts(1)
+                            .setInitialSession(SessionState.createDefault())
+                            .build(),
+                    null);
+            handle.initializePresign("off", false);
+
+            handle.uploadFile("test_stage", "dir1", file, "part_00000.csv");
+
+            Assert.assertEquals(attempts.get(), 2);
+            Assert.assertTrue(body.get().contains("1,a\n2,b\n"), body.get());
+        }
+        finally {
+            file.delete();
+            server.stop(0);
+        }
+    }
+
     @Test(groups = {"UNIT"})
     public void testUploadStreamUsesStageUploadEndpointWhenPresignDisabled() throws Exception {
         AtomicReference<String> method = new AtomicReference<>();
@@ -883,6 +1072,63 @@ public class TestDatabendSessionHandle {
         }
     }
 
+    @Test(groups = {"UNIT"})
+    public void testUploadStreamFromWriterSendsMeasuredGzipBodyToPresignedUrl() throws Exception {
+        HttpServer queryServer = HttpServer.create(new InetSocketAddress(0), 0);
+        HttpServer uploadServer = HttpServer.create(new InetSocketAddress(0), 0);
+        AtomicReference<String> contentLength = new AtomicReference<>();
+        AtomicReference<byte[]> uploaded = new AtomicReference<>();
+        uploadServer.createContext("/upload", exchange -> {
+            try {
+                contentLength.set(exchange.getRequestHeaders().getFirst("Content-Length"));
+                uploaded.set(readAllBytes(exchange));
+                exchange.sendResponseHeaders(200, -1);
+            }
+            finally {
+                exchange.close();
+            }
+        });
+        queryServer.createContext("/v1/query", exchange -> {
+            try {
+                byte[] response = presignQueryResponse("{}",
+                        "http://127.0.0.1:" + uploadServer.getAddress().getPort() + "/upload")
+                        .getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().add("Content-Type", "application/json");
+                exchange.sendResponseHeaders(200, response.length);
+                exchange.getResponseBody().write(response);
+            }
+            finally {
+                exchange.close();
+            }
+        });
+        uploadServer.start();
+        queryServer.start();
+
+        try {
+            DatabendSessionHandle handle = createSessionHandle(
+                    URI.create("http://127.0.0.1:" + queryServer.getAddress().getPort()));
+            handle.initializePresign("on", false);
+
+            handle.uploadStream("~", "dir", "f.csv.gz",
+                    out -> out.write("1,a\n2,b\n".getBytes(StandardCharsets.UTF_8)), true);
+
+            Assert.assertEquals(contentLength.get(), String.valueOf(uploaded.get().length));
+            try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(uploaded.get()))) {
+                ByteArrayOutputStream plain = new ByteArrayOutputStream();
+                byte[] buffer = new byte[1024];
+                int n;
+                while ((n = in.read(buffer)) != -1) {
+                    plain.write(buffer, 0, n);
+                }
+                Assert.assertEquals(new String(plain.toByteArray(), StandardCharsets.UTF_8), "1,a\n2,b\n");
+            }
+        }
+        finally {
+            queryServer.stop(0);
+            uploadServer.stop(0);
+        }
+    }
+
     @Test(groups = {"UNIT"})
     public void testUploadStreamPresignedServiceUnavailableRaisesSQLExceptionWithPresignCause() throws Exception {
         HttpServer queryServer = HttpServer.create(new InetSocketAddress(0), 0);
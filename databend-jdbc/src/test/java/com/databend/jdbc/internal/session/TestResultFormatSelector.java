@@ -0,0 +1,81 @@
+package com.databend.jdbc.internal.session;
+
+import com.databend.jdbc.internal.QueryResultFormat;
+import com.databend.jdbc.internal.data.DatabendRawType;
+import com.databend.jdbc.internal.query.QueryResultObserver;
+import com.databend.jdbc.internal.query.QueryRowField;
+import com.databend.jdbc.internal.query.ResultPage;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+public class TestResultFormatSelector {
+    private static final List<QueryRowField> STRINGS = Arrays.asList(
+            new QueryRowField("a", DatabendRawType.of("String")),
+            new QueryRowField("b", DatabendRawType.of("Nullable(String)")));
+    private static final List<QueryRowField> NUMBERS = Arrays.asList(
+            new QueryRowField("a", DatabendRawType.of("Int64")),
+            new QueryRowField("b", DatabendRawType.of("String")));
+
+    @Test(groups = {"UNIT"})
+    public void testAutoSwitchesToArrowAfterLargeResult() {
+        ResultFormatSelector selector = new ResultFormatSelector(QueryResultFormat.AUTO, 100);
+        String sql = "SELECT a, b FROM t";
+        Assert.assertEquals(selector.choose(sql), QueryResultFormat.JSON);
+
+        QueryResultObserver observer = selector.observe(sql);
+        observer.onPage(STRINGS, page(60));
+        Assert.assertEquals(selector.choose(sql), QueryResultFormat.JSON);
+        observer.onPage(null, page(40));
+        Assert.assertEquals(selector.choose(sql), QueryResultFormat.ARROW);
+        Assert.assertEquals(selector.choose("SELECT 1"), QueryResultFormat.JSON);
+
+        // the latest execution decides, a smaller result goes back to JSON
+        selector.observe(sql).onPage(STRINGS, page(10));
+        Assert.assertEquals(selector.choose(sql), QueryResultFormat.JSON);
+    }
+
+    @Test(groups = {"UNIT"})
+    public void testFixedWidthColumnsHalveThreshold() {
+        ResultFormatSelector selector = new ResultFormatSelector(QueryResultFormat.AUTO, 100);
+        selector.observe("SELECT a, b FROM t").onPage(NUMBERS, page(50));
+        Assert.assertEquals(selector.choose("SELECT a, b FROM t"), QueryResultFormat.ARROW);
+        Assert.assertTrue(ResultFormatSelector.isMostlyFixedWidth(NUMBERS));
+        Assert.assertFalse(ResultFormatSelector.isMostlyFixedWidth(STRINGS));
+    }
+
+    @Test(groups = {"UNIT"})
+    public void testConfiguredFormatIsKeptAndCounted() {
+        ResultFormatSelector selector = new ResultFormatSelector(QueryResultFormat.JSON, 100);
+        Assert.assertNull(selector.observe("SELECT 1"));
+        Assert.assertEquals(selector.choose("SELECT 1"), QueryResultFormat.JSON);
+        Assert.assertNull(selector.getLastFormat());
+
+        selector.started(QueryResultFormat.JSON);
+        selector.started(QueryResultFormat.ARROW);
+        selector.started(QueryResultFormat.JSON);
+        Assert.assertEquals(selector.getJsonQueryCount(), 2);
+        Assert.assertEquals(selector.getArrowQueryCount(), 1);
+        Assert.assertEquals(selector.getLastFormat(), QueryResultFormat.JSON);
+    }
+
+    private static ResultPage page(int rows) {
+        return new ResultPage() {
+            @Override
+            public int getRowCount() {
+                return rows;
+            }
+
+            @Override
+            public Object getValue(int rowIndex, int columnIndex) {
+                return null;
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+}